@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.common.database;
+
+import android.database.Cursor;
+import android.database.CursorWrapper;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A cursor that resolves each column index once, and reuses it for the following rows. Mappers
+ * look columns up by name for every row, and {@link SimpleCursor} resolves a name by comparing it
+ * against every column name.
+ */
+public class ColumnIndexCursor extends CursorWrapper {
+
+  private final Map<String, Integer> columnIndices;
+
+  public ColumnIndexCursor(Cursor cursor) {
+    super(cursor);
+    columnIndices = new HashMap<>(cursor.getColumnCount() * 2);
+  }
+
+  @Override public int getColumnIndex(String columnName) {
+    Integer index = columnIndices.get(columnName);
+    if (index == null) {
+      index = super.getColumnIndex(columnName);
+      columnIndices.put(columnName, index);
+    }
+    return index;
+  }
+
+  @Override public int getColumnIndexOrThrow(String columnName) {
+    final int index = getColumnIndex(columnName);
+    if (index < 0) {
+      throw new IllegalArgumentException("column '" + columnName + "' does not exist");
+    }
+    return index;
+  }
+
+  /**
+   * Returns a cursor that caches column indices, wrapping {@code cursor} if it doesn't already.
+   */
+  public static Cursor wrap(Cursor cursor) {
+    if (cursor instanceof ColumnIndexCursor) {
+      return cursor;
+    }
+    return new ColumnIndexCursor(cursor);
+  }
+}
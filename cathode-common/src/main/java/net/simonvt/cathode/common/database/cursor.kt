@@ -13,7 +13,7 @@ fun Cursor.getLongOrNull(column: String): Long? {
     return null
   }
 
-  return getLong(column)
+  return getLong(index)
 }
 
 fun Cursor.getString(column: String): String = getString(this.getColumnIndexOrThrow(column))
@@ -23,7 +23,7 @@ fun Cursor.getStringOrNull(column: String): String? {
     return null
   }
 
-  return getString(column)
+  return getString(index)
 }
 
 fun Cursor.getBoolean(column: String): Boolean = getInt(column) == 1
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.common.util
+
+import net.simonvt.cathode.common.util.OpenHashing.DEFAULT_EXPECTED_SIZE
+import net.simonvt.cathode.common.util.OpenHashing.capacityFor
+import net.simonvt.cathode.common.util.OpenHashing.mix
+import net.simonvt.cathode.common.util.OpenHashing.thresholdFor
+
+/**
+ * A map from int to objects that stores its keys unboxed, in an open addressing table.
+ */
+class IntObjectMap<V : Any>(expectedSize: Int = DEFAULT_EXPECTED_SIZE) {
+
+  // 0 marks a free slot, so the key 0 is tracked separately.
+  private var keys = IntArray(capacityFor(expectedSize))
+  private var values = arrayOfNulls<Any>(keys.size)
+  private var mask = keys.size - 1
+  private var threshold = thresholdFor(keys.size)
+  private var assigned = 0
+  private var zeroValue: V? = null
+
+  val size: Int
+    get() = if (zeroValue != null) assigned + 1 else assigned
+
+  fun isEmpty() = size == 0
+
+  fun containsKey(key: Int): Boolean = get(key) != null
+
+  @Suppress("UNCHECKED_CAST")
+  operator fun get(key: Int): V? {
+    if (key == 0) {
+      return zeroValue
+    }
+    val slot = slotOf(key)
+    return if (slot >= 0) values[slot] as V else null
+  }
+
+  operator fun set(key: Int, value: V) {
+    put(key, value)
+  }
+
+  fun put(key: Int, value: V) {
+    if (key == 0) {
+      zeroValue = value
+      return
+    }
+
+    var slot = mix(key) and mask
+    while (true) {
+      val existing = keys[slot]
+      if (existing == 0) {
+        if (assigned == threshold) {
+          rehash(keys.size shl 1)
+          put(key, value)
+          return
+        }
+        keys[slot] = key
+        values[slot] = value
+        assigned++
+        return
+      } else if (existing == key) {
+        values[slot] = value
+        return
+      }
+      slot = (slot + 1) and mask
+    }
+  }
+
+  inline fun getOrPut(key: Int, defaultValue: () -> V): V {
+    val value = get(key)
+    if (value != null) {
+      return value
+    }
+    val newValue = defaultValue()
+    put(key, newValue)
+    return newValue
+  }
+
+  /** Returns the value that was mapped to [key], if any. */
+  @Suppress("UNCHECKED_CAST")
+  fun remove(key: Int): V? {
+    if (key == 0) {
+      val removed = zeroValue
+      zeroValue = null
+      return removed
+    }
+
+    val slot = slotOf(key)
+    if (slot < 0) {
+      return null
+    }
+    val removed = values[slot] as V
+    shiftKeys(slot)
+    assigned--
+    return removed
+  }
+
+  fun clear() {
+    keys.fill(0)
+    values.fill(null)
+    assigned = 0
+    zeroValue = null
+  }
+
+  @Suppress("UNCHECKED_CAST")
+  fun forEach(action: (key: Int, value: V) -> Unit) {
+    zeroValue?.let { action(0, it) }
+    for (slot in keys.indices) {
+      val key = keys[slot]
+      if (key != 0) {
+        action(key, values[slot] as V)
+      }
+    }
+  }
+
+  fun values(): List<V> {
+    val list = ArrayList<V>(size)
+    forEach { _, value -> list.add(value) }
+    return list
+  }
+
+  private fun slotOf(key: Int): Int {
+    var slot = mix(key) and mask
+    while (true) {
+      val existing = keys[slot]
+      if (existing == 0) {
+        return -1
+      } else if (existing == key) {
+        return slot
+      }
+      slot = (slot + 1) and mask
+    }
+  }
+
+  /** Closes the gap left at [gap] by moving back entries that probed past it. */
+  private fun shiftKeys(gap: Int) {
+    var free = gap
+    var slot = gap
+    while (true) {
+      slot = (slot + 1) and mask
+      val key = keys[slot]
+      if (key == 0) {
+        break
+      }
+
+      val ideal = mix(key) and mask
+      if (((slot - ideal) and mask) >= ((slot - free) and mask)) {
+        keys[free] = key
+        values[free] = values[slot]
+        free = slot
+      }
+    }
+    keys[free] = 0
+    values[free] = null
+  }
+
+  private fun rehash(capacity: Int) {
+    val oldKeys = keys
+    val oldValues = values
+    keys = IntArray(capacity)
+    values = arrayOfNulls(capacity)
+    mask = capacity - 1
+    threshold = thresholdFor(capacity)
+    for (i in oldKeys.indices) {
+      val key = oldKeys[i]
+      if (key != 0) {
+        var slot = mix(key) and mask
+        while (keys[slot] != 0) {
+          slot = (slot + 1) and mask
+        }
+        keys[slot] = key
+        values[slot] = oldValues[i]
+      }
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.common.util
+
+import java.util.Arrays
+
+/**
+ * A growable list of longs, backed by a [LongArray].
+ */
+class LongArrayList(initialCapacity: Int = DEFAULT_CAPACITY) {
+
+  private var elements = LongArray(initialCapacity)
+
+  var size = 0
+    private set
+
+  fun isEmpty() = size == 0
+
+  fun isNotEmpty() = size != 0
+
+  operator fun get(index: Int): Long {
+    checkIndex(index)
+    return elements[index]
+  }
+
+  operator fun set(index: Int, element: Long) {
+    checkIndex(index)
+    elements[index] = element
+  }
+
+  fun add(element: Long) {
+    if (size == elements.size) {
+      elements = elements.copyOf(maxOf(DEFAULT_CAPACITY, size + (size shr 1)))
+    }
+    elements[size++] = element
+  }
+
+  fun addAll(other: LongArrayList) {
+    if (size + other.size > elements.size) {
+      elements = elements.copyOf(maxOf(size + other.size, size + (size shr 1)))
+    }
+    System.arraycopy(other.elements, 0, elements, size, other.size)
+    size += other.size
+  }
+
+  fun removeAt(index: Int): Long {
+    checkIndex(index)
+    val removed = elements[index]
+    System.arraycopy(elements, index + 1, elements, index, size - index - 1)
+    size--
+    return removed
+  }
+
+  fun indexOf(element: Long): Int {
+    for (i in 0 until size) {
+      if (elements[i] == element) {
+        return i
+      }
+    }
+    return -1
+  }
+
+  operator fun contains(element: Long) = indexOf(element) >= 0
+
+  fun clear() {
+    size = 0
+  }
+
+  fun sort() {
+    Arrays.sort(elements, 0, size)
+  }
+
+  fun forEach(action: (Long) -> Unit) {
+    for (i in 0 until size) {
+      action(elements[i])
+    }
+  }
+
+  fun toArray(): LongArray = elements.copyOf(size)
+
+  /** Returns the elements as a boxed list, for APIs that need one. */
+  fun toList(): List<Long> = toArray().asList()
+
+  private fun checkIndex(index: Int) {
+    if (index < 0 || index >= size) {
+      throw IndexOutOfBoundsException("Index: $index, size: $size")
+    }
+  }
+
+  companion object {
+    private const val DEFAULT_CAPACITY = 10
+  }
+}
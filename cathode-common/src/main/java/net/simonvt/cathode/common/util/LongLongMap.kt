@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.common.util
+
+import net.simonvt.cathode.common.util.OpenHashing.DEFAULT_EXPECTED_SIZE
+import net.simonvt.cathode.common.util.OpenHashing.capacityFor
+import net.simonvt.cathode.common.util.OpenHashing.mix
+import net.simonvt.cathode.common.util.OpenHashing.thresholdFor
+
+/**
+ * A map from long to long that stores its entries unboxed, in an open addressing table.
+ */
+class LongLongMap(expectedSize: Int = DEFAULT_EXPECTED_SIZE) {
+
+  // 0 marks a free slot, so the key 0 is tracked separately.
+  private var keys = LongArray(capacityFor(expectedSize))
+  private var values = LongArray(keys.size)
+  private var mask = keys.size - 1
+  private var threshold = thresholdFor(keys.size)
+  private var assigned = 0
+  private var hasZeroKey = false
+  private var zeroValue = 0L
+
+  val size: Int
+    get() = if (hasZeroKey) assigned + 1 else assigned
+
+  fun isEmpty() = size == 0
+
+  fun containsKey(key: Long): Boolean {
+    if (key == 0L) {
+      return hasZeroKey
+    }
+    return slotOf(key) >= 0
+  }
+
+  /** Returns the value mapped to [key], or [defaultValue] if there is none. */
+  fun get(key: Long, defaultValue: Long): Long {
+    if (key == 0L) {
+      return if (hasZeroKey) zeroValue else defaultValue
+    }
+    val slot = slotOf(key)
+    return if (slot >= 0) values[slot] else defaultValue
+  }
+
+  fun put(key: Long, value: Long) {
+    if (key == 0L) {
+      hasZeroKey = true
+      zeroValue = value
+      return
+    }
+
+    var slot = mix(key) and mask
+    while (true) {
+      val existing = keys[slot]
+      if (existing == 0L) {
+        if (assigned == threshold) {
+          rehash(keys.size shl 1)
+          put(key, value)
+          return
+        }
+        keys[slot] = key
+        values[slot] = value
+        assigned++
+        return
+      } else if (existing == key) {
+        values[slot] = value
+        return
+      }
+      slot = (slot + 1) and mask
+    }
+  }
+
+  /** Returns true if [key] was in the map. */
+  fun remove(key: Long): Boolean {
+    if (key == 0L) {
+      val removed = hasZeroKey
+      hasZeroKey = false
+      zeroValue = 0L
+      return removed
+    }
+
+    val slot = slotOf(key)
+    if (slot < 0) {
+      return false
+    }
+    shiftKeys(slot)
+    assigned--
+    return true
+  }
+
+  fun clear() {
+    keys.fill(0L)
+    assigned = 0
+    hasZeroKey = false
+    zeroValue = 0L
+  }
+
+  fun forEach(action: (key: Long, value: Long) -> Unit) {
+    if (hasZeroKey) {
+      action(0L, zeroValue)
+    }
+    for (slot in keys.indices) {
+      val key = keys[slot]
+      if (key != 0L) {
+        action(key, values[slot])
+      }
+    }
+  }
+
+  private fun slotOf(key: Long): Int {
+    var slot = mix(key) and mask
+    while (true) {
+      val existing = keys[slot]
+      if (existing == 0L) {
+        return -1
+      } else if (existing == key) {
+        return slot
+      }
+      slot = (slot + 1) and mask
+    }
+  }
+
+  /** Closes the gap left at [gap] by moving back entries that probed past it. */
+  private fun shiftKeys(gap: Int) {
+    var free = gap
+    var slot = gap
+    while (true) {
+      slot = (slot + 1) and mask
+      val key = keys[slot]
+      if (key == 0L) {
+        break
+      }
+
+      val ideal = mix(key) and mask
+      if (((slot - ideal) and mask) >= ((slot - free) and mask)) {
+        keys[free] = key
+        values[free] = values[slot]
+        free = slot
+      }
+    }
+    keys[free] = 0L
+  }
+
+  private fun rehash(capacity: Int) {
+    val oldKeys = keys
+    val oldValues = values
+    keys = LongArray(capacity)
+    values = LongArray(capacity)
+    mask = capacity - 1
+    threshold = thresholdFor(capacity)
+    for (i in oldKeys.indices) {
+      val key = oldKeys[i]
+      if (key != 0L) {
+        var slot = mix(key) and mask
+        while (keys[slot] != 0L) {
+          slot = (slot + 1) and mask
+        }
+        keys[slot] = key
+        values[slot] = oldValues[i]
+      }
+    }
+  }
+}
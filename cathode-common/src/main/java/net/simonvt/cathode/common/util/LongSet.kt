@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.common.util
+
+import net.simonvt.cathode.common.util.OpenHashing.DEFAULT_EXPECTED_SIZE
+import net.simonvt.cathode.common.util.OpenHashing.capacityFor
+import net.simonvt.cathode.common.util.OpenHashing.mix
+import net.simonvt.cathode.common.util.OpenHashing.thresholdFor
+
+/**
+ * A set of longs that stores its elements unboxed, in an open addressing table.
+ */
+class LongSet(expectedSize: Int = DEFAULT_EXPECTED_SIZE) {
+
+  // 0 marks a free slot, so the element 0 is tracked separately.
+  private var keys = LongArray(capacityFor(expectedSize))
+  private var mask = keys.size - 1
+  private var threshold = thresholdFor(keys.size)
+  private var assigned = 0
+  private var hasZero = false
+
+  val size: Int
+    get() = if (hasZero) assigned + 1 else assigned
+
+  fun isEmpty() = size == 0
+
+  operator fun contains(element: Long): Boolean {
+    if (element == 0L) {
+      return hasZero
+    }
+
+    var slot = mix(element) and mask
+    while (true) {
+      val key = keys[slot]
+      if (key == 0L) {
+        return false
+      } else if (key == element) {
+        return true
+      }
+      slot = (slot + 1) and mask
+    }
+  }
+
+  /** Returns true if [element] was not already in the set. */
+  fun add(element: Long): Boolean {
+    if (element == 0L) {
+      val added = !hasZero
+      hasZero = true
+      return added
+    }
+
+    var slot = mix(element) and mask
+    while (true) {
+      val key = keys[slot]
+      if (key == 0L) {
+        if (assigned == threshold) {
+          rehash(keys.size shl 1)
+          return add(element)
+        }
+        keys[slot] = element
+        assigned++
+        return true
+      } else if (key == element) {
+        return false
+      }
+      slot = (slot + 1) and mask
+    }
+  }
+
+  /** Returns true if [element] was in the set. */
+  fun remove(element: Long): Boolean {
+    if (element == 0L) {
+      val removed = hasZero
+      hasZero = false
+      return removed
+    }
+
+    var slot = mix(element) and mask
+    while (true) {
+      val key = keys[slot]
+      if (key == 0L) {
+        return false
+      } else if (key == element) {
+        shiftKeys(slot)
+        assigned--
+        return true
+      }
+      slot = (slot + 1) and mask
+    }
+  }
+
+  fun clear() {
+    keys.fill(0L)
+    assigned = 0
+    hasZero = false
+  }
+
+  fun forEach(action: (Long) -> Unit) {
+    if (hasZero) {
+      action(0L)
+    }
+    for (key in keys) {
+      if (key != 0L) {
+        action(key)
+      }
+    }
+  }
+
+  fun toArray(): LongArray {
+    val array = LongArray(size)
+    var i = 0
+    forEach { array[i++] = it }
+    return array
+  }
+
+  /** Closes the gap left at [gap] by moving back entries that probed past it. */
+  private fun shiftKeys(gap: Int) {
+    var free = gap
+    var slot = gap
+    while (true) {
+      slot = (slot + 1) and mask
+      val key = keys[slot]
+      if (key == 0L) {
+        break
+      }
+
+      val ideal = mix(key) and mask
+      if (((slot - ideal) and mask) >= ((slot - free) and mask)) {
+        keys[free] = key
+        free = slot
+      }
+    }
+    keys[free] = 0L
+  }
+
+  private fun rehash(capacity: Int) {
+    val oldKeys = keys
+    keys = LongArray(capacity)
+    mask = capacity - 1
+    threshold = thresholdFor(capacity)
+    for (key in oldKeys) {
+      if (key != 0L) {
+        var slot = mix(key) and mask
+        while (keys[slot] != 0L) {
+          slot = (slot + 1) and mask
+        }
+        keys[slot] = key
+      }
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.common.util
+
+/**
+ * Hashing shared by the open addressing collections. Tables are sized to a power of two and
+ * probed linearly. Keys are scrambled first, as ids are often sequential.
+ */
+internal object OpenHashing {
+
+  const val DEFAULT_EXPECTED_SIZE = 16
+  const val LOAD_FACTOR = 0.75f
+
+  private const val MIN_CAPACITY = 4
+  private const val MAX_CAPACITY = 1 shl 30
+  private const val PHI_64 = -0x61c8864680b583ebL
+  private const val PHI_32 = -0x61c88647
+
+  fun mix(key: Long): Int {
+    val h = key * PHI_64
+    return (h xor (h ushr 32)).toInt()
+  }
+
+  fun mix(key: Int): Int {
+    val h = key * PHI_32
+    return h xor (h ushr 16)
+  }
+
+  /** Returns the table size needed to hold [expectedSize] entries without a rehash. */
+  fun capacityFor(expectedSize: Int): Int {
+    require(expectedSize >= 0) { "Expected size must be >= 0: $expectedSize" }
+    var capacity = MIN_CAPACITY
+    while (capacity < MAX_CAPACITY && thresholdFor(capacity) < expectedSize) {
+      capacity = capacity shl 1
+    }
+    return capacity
+  }
+
+  fun thresholdFor(capacity: Int): Int = (capacity * LOAD_FACTOR).toInt()
+}
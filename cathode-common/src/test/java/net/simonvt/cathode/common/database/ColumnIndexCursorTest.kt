@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.common.database
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class ColumnIndexCursorTest {
+
+  private fun cursor(): SimpleCursor {
+    val cursor = SimpleCursor(arrayOf("_id", "title", "year"))
+    cursor.add(arrayOf(1L, "First", 2001L))
+    cursor.add(arrayOf(2L, null, 2002L))
+    return cursor
+  }
+
+  @Test
+  fun readsColumnsByName() {
+    val cursor = ColumnIndexCursor(cursor())
+
+    assertThat(cursor.moveToNext()).isTrue()
+    assertThat(cursor.getLong("_id")).isEqualTo(1L)
+    assertThat(cursor.getStringOrNull("title")).isEqualTo("First")
+    assertThat(cursor.getInt("year")).isEqualTo(2001)
+
+    assertThat(cursor.moveToNext()).isTrue()
+    assertThat(cursor.getLong("_id")).isEqualTo(2L)
+    assertThat(cursor.getStringOrNull("title")).isNull()
+    assertThat(cursor.getInt("year")).isEqualTo(2002)
+  }
+
+  @Test
+  fun tablePrefixIsIgnored() {
+    val cursor = ColumnIndexCursor(cursor())
+    assertThat(cursor.getColumnIndex("shows._id")).isEqualTo(0)
+    assertThat(cursor.getColumnIndex("_id")).isEqualTo(0)
+  }
+
+  @Test
+  fun missingColumn() {
+    val cursor = ColumnIndexCursor(cursor())
+    assertThat(cursor.getColumnIndex("overview")).isEqualTo(-1)
+    assertThat(cursor.getColumnIndex("overview")).isEqualTo(-1)
+    assertThat(cursor.getStringOrNull("overview")).isNull()
+  }
+
+  @Test(expected = IllegalArgumentException::class)
+  fun missingColumnThrows() {
+    val cursor = ColumnIndexCursor(cursor())
+    cursor.getColumnIndex("overview")
+    cursor.getColumnIndexOrThrow("overview")
+  }
+
+  @Test
+  fun wrapIsIdempotent() {
+    val cursor = ColumnIndexCursor.wrap(cursor())
+    assertThat(cursor).isInstanceOf(ColumnIndexCursor::class.java)
+    assertThat(ColumnIndexCursor.wrap(cursor)).isSameInstanceAs(cursor)
+  }
+}
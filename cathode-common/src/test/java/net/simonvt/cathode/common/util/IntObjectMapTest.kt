@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.common.util
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+import java.util.Random
+
+class IntObjectMapTest {
+
+  @Test
+  fun putGetRemove() {
+    val map = IntObjectMap<String>()
+    map[1] = "one"
+    map[0] = "zero"
+    map[-1] = "minus one"
+
+    assertThat(map.size).isEqualTo(3)
+    assertThat(map[1]).isEqualTo("one")
+    assertThat(map[0]).isEqualTo("zero")
+    assertThat(map[-1]).isEqualTo("minus one")
+    assertThat(map[2]).isNull()
+
+    assertThat(map.getOrPut(2) { "two" }).isEqualTo("two")
+    assertThat(map.getOrPut(2) { "deux" }).isEqualTo("two")
+
+    assertThat(map.remove(0)).isEqualTo("zero")
+    assertThat(map.remove(0)).isNull()
+    assertThat(map.values()).containsExactly("one", "minus one", "two")
+  }
+
+  @Test
+  fun matchesHashMap() {
+    val random = Random(3)
+    val map = IntObjectMap<Int>(0)
+    val expected = HashMap<Int, Int>()
+    repeat(100_000) {
+      val key = random.nextInt(2_000) - 100
+      if (random.nextInt(3) == 0) {
+        assertThat(map.remove(key)).isEqualTo(expected.remove(key))
+      } else {
+        map[key] = it
+        expected[key] = it
+      }
+    }
+
+    assertThat(map.size).isEqualTo(expected.size)
+    val entries = HashMap<Int, Int>()
+    map.forEach { key, value -> entries[key] = value }
+    assertThat(entries).isEqualTo(expected)
+  }
+}
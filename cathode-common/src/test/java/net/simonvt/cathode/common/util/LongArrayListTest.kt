@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.common.util
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+
+class LongArrayListTest {
+
+  @Test
+  fun addGetRemove() {
+    val list = LongArrayList(1)
+    (1L..25L).forEach { list.add(it) }
+
+    assertThat(list.size).isEqualTo(25)
+    assertThat(list[0]).isEqualTo(1L)
+    assertThat(list[24]).isEqualTo(25L)
+    assertThat(10L in list).isTrue()
+    assertThat(26L in list).isFalse()
+
+    assertThat(list.removeAt(0)).isEqualTo(1L)
+    list[0] = 100L
+    assertThat(list.size).isEqualTo(24)
+    assertThat(list.indexOf(100L)).isEqualTo(0)
+    assertThat(list.toArray().last()).isEqualTo(25L)
+  }
+
+  @Test
+  fun addAllAndSort() {
+    val first = LongArrayList()
+    first.add(3L)
+    first.add(1L)
+    val second = LongArrayList()
+    second.add(2L)
+
+    first.addAll(second)
+    first.sort()
+    assertThat(first.toList()).containsExactly(1L, 2L, 3L).inOrder()
+  }
+
+  @Test(expected = IndexOutOfBoundsException::class)
+  fun getOutOfBounds() {
+    val list = LongArrayList()
+    list.add(1L)
+    list.clear()
+    list[0]
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.common.util
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+import java.util.Random
+
+class LongLongMapTest {
+
+  @Test
+  fun putGetRemove() {
+    val map = LongLongMap()
+    map.put(1L, 10L)
+    map.put(0L, 20L)
+    map.put(1L, 11L)
+
+    assertThat(map.size).isEqualTo(2)
+    assertThat(map.get(1L, -1L)).isEqualTo(11L)
+    assertThat(map.get(0L, -1L)).isEqualTo(20L)
+    assertThat(map.get(2L, -1L)).isEqualTo(-1L)
+    assertThat(map.containsKey(0L)).isTrue()
+
+    assertThat(map.remove(0L)).isTrue()
+    assertThat(map.remove(2L)).isFalse()
+    assertThat(map.containsKey(0L)).isFalse()
+    assertThat(map.size).isEqualTo(1)
+  }
+
+  @Test
+  fun matchesHashMap() {
+    val random = Random(2)
+    val map = LongLongMap(0)
+    val expected = HashMap<Long, Long>()
+    repeat(100_000) {
+      val key = random.nextInt(2_000).toLong() shl 20
+      when (random.nextInt(4)) {
+        0 -> assertThat(map.remove(key)).isEqualTo(expected.remove(key) != null)
+        1 -> assertThat(map.get(key, -1L)).isEqualTo(expected[key] ?: -1L)
+        else -> {
+          val value = random.nextLong()
+          map.put(key, value)
+          expected[key] = value
+        }
+      }
+    }
+
+    assertThat(map.size).isEqualTo(expected.size)
+    val entries = HashMap<Long, Long>()
+    map.forEach { key, value -> entries[key] = value }
+    assertThat(entries).isEqualTo(expected)
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.common.util
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+import java.util.Random
+
+class LongSetTest {
+
+  @Test
+  fun addContainsRemove() {
+    val set = LongSet()
+    assertThat(set.add(1L)).isTrue()
+    assertThat(set.add(1L)).isFalse()
+    assertThat(set.add(0L)).isTrue()
+    assertThat(set.add(-5L)).isTrue()
+
+    assertThat(set.size).isEqualTo(3)
+    assertThat(1L in set).isTrue()
+    assertThat(0L in set).isTrue()
+    assertThat(-5L in set).isTrue()
+    assertThat(2L in set).isFalse()
+
+    assertThat(set.remove(0L)).isTrue()
+    assertThat(set.remove(0L)).isFalse()
+    assertThat(set.remove(1L)).isTrue()
+    assertThat(set.size).isEqualTo(1)
+    assertThat(set.toArray()).asList().containsExactly(-5L)
+  }
+
+  @Test
+  fun matchesHashSet() {
+    val random = Random(1)
+    val set = LongSet(0)
+    val expected = HashSet<Long>()
+    repeat(100_000) {
+      val value = random.nextInt(2_000).toLong() * 1024L - 1_000L
+      if (random.nextInt(3) == 0) {
+        assertThat(set.remove(value)).isEqualTo(expected.remove(value))
+      } else {
+        assertThat(set.add(value)).isEqualTo(expected.add(value))
+      }
+    }
+
+    assertThat(set.size).isEqualTo(expected.size)
+    assertThat(set.toArray().toSet()).isEqualTo(expected)
+  }
+
+  @Test
+  fun clear() {
+    val set = LongSet()
+    (0L..100L).forEach { set.add(it) }
+    set.clear()
+    assertThat(set.isEmpty()).isTrue()
+    assertThat(50L in set).isFalse()
+  }
+}
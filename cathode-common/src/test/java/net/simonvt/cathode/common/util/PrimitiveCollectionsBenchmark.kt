@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.common.util
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+import java.lang.management.ManagementFactory
+
+/**
+ * Compares the primitive collections with the boxed Kotlin collections the sync code used before,
+ * using the sizes seen when syncing a large library. Run with -Pbenchmarks, results are printed to
+ * the test output. Correctness is covered by the tests of each collection.
+ */
+class PrimitiveCollectionsBenchmark {
+
+  @Test
+  fun longSet() {
+    compare(
+      "LongSet",
+      {
+        val set = LongSet(SIZE)
+        for (i in 0 until SIZE) set.add(id(i))
+        var hits = 0
+        for (i in 0 until SIZE * 2) if (id(i) in set) hits++
+        hits
+      },
+      {
+        val set = HashSet<Long>(SIZE)
+        for (i in 0 until SIZE) set.add(id(i))
+        var hits = 0
+        for (i in 0 until SIZE * 2) if (id(i) in set) hits++
+        hits
+      }
+    )
+  }
+
+  @Test
+  fun longLongMap() {
+    compare(
+      "LongLongMap",
+      {
+        val map = LongLongMap(SIZE)
+        for (i in 0 until SIZE) map.put(id(i), i.toLong())
+        var sum = 0L
+        for (i in 0 until SIZE * 2) sum += map.get(id(i), 0L)
+        sum.toInt()
+      },
+      {
+        val map = HashMap<Long, Long>(SIZE)
+        for (i in 0 until SIZE) map[id(i)] = i.toLong()
+        var sum = 0L
+        for (i in 0 until SIZE * 2) sum += map[id(i)] ?: 0L
+        sum.toInt()
+      }
+    )
+  }
+
+  @Test
+  fun intObjectMap() {
+    compare(
+      "IntObjectMap",
+      {
+        val map = IntObjectMap<String>(SIZE)
+        for (i in 0 until SIZE) map[i] = VALUE
+        var hits = 0
+        for (i in 0 until SIZE * 2) if (map[i] != null) hits++
+        hits
+      },
+      {
+        val map = HashMap<Int, String>(SIZE)
+        for (i in 0 until SIZE) map[i] = VALUE
+        var hits = 0
+        for (i in 0 until SIZE * 2) if (map[i] != null) hits++
+        hits
+      }
+    )
+  }
+
+  @Test
+  fun longArrayList() {
+    compare(
+      "LongArrayList",
+      {
+        val list = LongArrayList()
+        for (i in 0 until SIZE) list.add(id(i))
+        var sum = 0L
+        for (i in 0 until list.size) sum += list[i]
+        sum.toInt()
+      },
+      {
+        val list = ArrayList<Long>()
+        for (i in 0 until SIZE) list.add(id(i))
+        var sum = 0L
+        for (i in 0 until list.size) sum += list[i]
+        sum.toInt()
+      }
+    )
+  }
+
+  private fun compare(name: String, primitive: () -> Int, boxed: () -> Int) {
+    assertThat(primitive()).isEqualTo(boxed())
+
+    val primitiveResult = measure(primitive)
+    val boxedResult = measure(boxed)
+    println(
+      String.format(
+        "%s: %d us, %d bytes; boxed: %d us, %d bytes",
+        name, primitiveResult.micros, primitiveResult.bytes, boxedResult.micros, boxedResult.bytes
+      )
+    )
+  }
+
+  private fun measure(block: () -> Int): Result {
+    var blackhole = 0
+    repeat(WARMUP_ITERATIONS) { blackhole += block() }
+
+    val allocatedBefore = allocatedBytes()
+    val start = System.nanoTime()
+    repeat(ITERATIONS) { blackhole += block() }
+    val elapsed = System.nanoTime() - start
+    val allocated = allocatedBytes() - allocatedBefore
+
+    if (blackhole == 42) {
+      println()
+    }
+    return Result(elapsed / ITERATIONS / 1000L, allocated / ITERATIONS)
+  }
+
+  private fun allocatedBytes(): Long {
+    val bean = ManagementFactory.getThreadMXBean()
+    if (bean is com.sun.management.ThreadMXBean && bean.isThreadAllocatedMemorySupported) {
+      return bean.getThreadAllocatedBytes(Thread.currentThread().id)
+    }
+    return 0L
+  }
+
+  /** Spreads ids out the way row ids and Trakt ids are, outside the boxed Long cache. */
+  private fun id(i: Int): Long = 10_000L + i * 7L
+
+  private class Result(val micros: Long, val bytes: Long)
+
+  companion object {
+    private const val SIZE = 50_000
+    private const val VALUE = "value"
+    private const val WARMUP_ITERATIONS = 20
+    private const val ITERATIONS = 50
+  }
+}
@@ -70,8 +70,12 @@ public abstract class BaseUrlRequestHandler extends RequestHandler {
   }
 
   protected String transform(Request request, Uri uri) throws IOException {
-    final String image = uri.getPath();
     String size = request.uri.getQueryParameter(QUERY_SIZE);
+    return createUrl(size, uri);
+  }
+
+  String createUrl(String size, Uri uri) throws IOException {
+    final String image = uri.getPath();
 
     String url = getBaseUrl() + size + image;
     Timber.d("Url: %s", url);
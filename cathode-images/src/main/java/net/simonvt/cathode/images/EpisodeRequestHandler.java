@@ -19,6 +19,7 @@ package net.simonvt.cathode.images;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.net.Uri;
 import com.squareup.picasso.Request;
 import com.uwetrottmann.tmdb2.entities.Image;
 import com.uwetrottmann.tmdb2.entities.Images;
@@ -30,7 +31,6 @@ import net.simonvt.cathode.common.tmdb.TmdbRateLimiter;
 import net.simonvt.cathode.common.util.Closeables;
 import net.simonvt.cathode.provider.DatabaseContract.EpisodeColumns;
 import net.simonvt.cathode.provider.ProviderSchematic.Episodes;
-import net.simonvt.cathode.provider.helper.EpisodeDatabaseHelper;
 import net.simonvt.cathode.provider.helper.ShowDatabaseHelper;
 import retrofit2.Response;
 
@@ -38,48 +38,40 @@ public class EpisodeRequestHandler extends ItemRequestHandler {
 
   private TvEpisodesService tvEpisodesService;
   private ShowDatabaseHelper showHelper;
-  private EpisodeDatabaseHelper episodeHelper;
 
   public EpisodeRequestHandler(Context context, ConfigurationService configurationService,
       ImageDownloader downloader, TvEpisodesService tvEpisodesService,
-      ShowDatabaseHelper showHelper, EpisodeDatabaseHelper episodeHelper) {
+      ShowDatabaseHelper showHelper) {
     super(context, configurationService, downloader);
     this.tvEpisodesService = tvEpisodesService;
     this.showHelper = showHelper;
-    this.episodeHelper = episodeHelper;
   }
 
   @Override public boolean canHandleRequest(Request data) {
     return ImageUri.ITEM_EPISODE.equals(data.uri.getScheme());
   }
 
-  @Override protected int getTmdbId(long id) {
-    return episodeHelper.getTmdbId(id);
+  @Override protected Uri getContentUri() {
+    return Episodes.EPISODES;
   }
 
-  @Override public long getLastCacheUpdate(long id) {
-    Cursor c = context.getContentResolver().query(Episodes.withId(id), new String[] {
-        EpisodeColumns.IMAGES_LAST_UPDATE,
-    }, null, null, null);
-    c.moveToFirst();
-    final long lastUpdate = Cursors.getLong(c, EpisodeColumns.IMAGES_LAST_UPDATE);
-    c.close();
-    return lastUpdate;
-  }
-
-  @Override protected String getCachedPath(ImageType imageType, long id) {
+  @Override protected ItemImages queryImages(long id) {
     Cursor c = null;
     try {
       c = context.getContentResolver().query(Episodes.withId(id), new String[] {
-          EpisodeColumns.IMAGES_LAST_UPDATE, EpisodeColumns.SCREENSHOT,
+          EpisodeColumns.TMDB_ID, EpisodeColumns.IMAGES_LAST_UPDATE, EpisodeColumns.SCREENSHOT,
+          EpisodeColumns.WATCHED, EpisodeColumns.IN_COLLECTION, EpisodeColumns.IN_WATCHLIST,
       }, null, null, null);
-      c.moveToFirst();
-
-      if (imageType == ImageType.STILL) {
-        return Cursors.getString(c, EpisodeColumns.SCREENSHOT);
-      } else {
-        throw new IllegalArgumentException("Unsupported image type: " + imageType.toString());
+      if (!c.moveToFirst()) {
+        return new ItemImages(-1, 0L);
       }
+
+      return new ItemImages(Cursors.getInt(c, EpisodeColumns.TMDB_ID),
+          Cursors.getLong(c, EpisodeColumns.IMAGES_LAST_UPDATE))
+          .inLibrary(Cursors.getBoolean(c, EpisodeColumns.WATCHED)
+              || Cursors.getBoolean(c, EpisodeColumns.IN_COLLECTION)
+              || Cursors.getBoolean(c, EpisodeColumns.IN_WATCHLIST))
+          .path(ImageType.STILL, Cursors.getString(c, EpisodeColumns.SCREENSHOT));
     } finally {
       Closeables.closeQuietly(c);
     }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.images;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Counts the requests made through an image cache, how many of them were served from the cache,
+ * and the number of bytes that did not have to be downloaded.
+ */
+public final class ImageCacheStats implements Interceptor {
+
+  private final AtomicLong requestCount = new AtomicLong();
+
+  private final AtomicLong hitCount = new AtomicLong();
+
+  private final AtomicLong bytesSaved = new AtomicLong();
+
+  @Override public Response intercept(Chain chain) throws IOException {
+    Response response = chain.proceed(chain.request());
+    requestCount.incrementAndGet();
+
+    // Responses that were revalidated with the server are also read from the cache.
+    if (response.cacheResponse() != null) {
+      hitCount.incrementAndGet();
+
+      final long contentLength = response.body().contentLength();
+      if (contentLength > 0L) {
+        bytesSaved.addAndGet(contentLength);
+      }
+    }
+
+    return response;
+  }
+
+  public long getRequestCount() {
+    return requestCount.get();
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getBytesSaved() {
+    return bytesSaved.get();
+  }
+
+  public float getHitRatio() {
+    final long requests = requestCount.get();
+    return requests > 0L ? (float) hitCount.get() / requests : 0.0f;
+  }
+
+  @Override public String toString() {
+    return "ImageCacheStats{"
+        + "requestCount="
+        + requestCount
+        + ", hitCount="
+        + hitCount
+        + ", bytesSaved="
+        + bytesSaved
+        + '}';
+  }
+}
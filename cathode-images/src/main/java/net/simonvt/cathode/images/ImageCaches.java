@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.images;
+
+import java.io.File;
+import java.util.EnumMap;
+import java.util.Map;
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+
+/**
+ * The disk caches used for images. The total size is split into separate budgets for posters,
+ * backdrops and headshots of items in the user's library, and one for all other images. Images of
+ * items that are not in the library only compete with each other for space, so browsing doesn't
+ * evict the user's own posters.
+ */
+public final class ImageCaches {
+
+  public enum Bucket {
+    POSTERS("posters", 50),
+    BACKDROPS("backdrops", 25),
+    HEADSHOTS("headshots", 10),
+    OTHER("other", 15);
+
+    final String directory;
+
+    final int percentage;
+
+    Bucket(String directory, int percentage) {
+      this.directory = directory;
+      this.percentage = percentage;
+    }
+  }
+
+  static final long MIN_SIZE = 5L * 1024 * 1024;
+
+  /**
+   * Used until the size of the user's library is known, and for libraries that fit in it.
+   */
+  static final long DEFAULT_SIZE = 50L * 1024 * 1024;
+
+  /**
+   * Images of items outside the library get at least this much, however small the library is.
+   */
+  static final long MIN_OTHER_SIZE = 10L * 1024 * 1024;
+
+  static final long DEFAULT_MAX_SIZE = 250L * 1024 * 1024;
+
+  /**
+   * Roughly a poster and a backdrop in the sizes that are usually displayed.
+   */
+  static final long BYTES_PER_LIBRARY_ITEM = 256L * 1024;
+
+  private final Map<Bucket, OkHttpClient> clients = new EnumMap<>(Bucket.class);
+
+  private final Map<Bucket, ImageCacheStats> stats = new EnumMap<>(Bucket.class);
+
+  public ImageCaches(OkHttpClient client, File directory, long size) {
+    for (Bucket bucket : Bucket.values()) {
+      final File bucketDirectory = new File(directory, bucket.directory);
+      final Cache cache = new Cache(bucketDirectory, getBucketSize(bucket, size));
+      final ImageCacheStats bucketStats = new ImageCacheStats();
+
+      // Clients created with newBuilder share the connection pool and dispatcher.
+      clients.put(bucket, client.newBuilder().cache(cache).addInterceptor(bucketStats).build());
+      stats.put(bucket, bucketStats);
+    }
+  }
+
+  public static Bucket getBucket(ImageType imageType, boolean inLibrary) {
+    if (!inLibrary) {
+      return Bucket.OTHER;
+    }
+
+    switch (imageType) {
+      case POSTER:
+        return Bucket.POSTERS;
+
+      case PROFILE:
+        return Bucket.HEADSHOTS;
+
+      default:
+        return Bucket.BACKDROPS;
+    }
+  }
+
+  /**
+   * Returns the total size of the image caches. The size starts at {@link #DEFAULT_SIZE} and grows
+   * with the user's library, bounded by 2% of the disk and by {@code maxSize}.
+   *
+   * @param librarySize The number of items in the user's library, or 0 if it's not known.
+   */
+  public static long calculateSize(long diskSize, int librarySize, long maxSize) {
+    final long target = Math.max(librarySize * BYTES_PER_LIBRARY_ITEM, DEFAULT_SIZE);
+    final long limit = Math.min(diskSize / 50, maxSize);
+    return Math.max(Math.min(target, limit), MIN_SIZE);
+  }
+
+  static long getBucketSize(Bucket bucket, long size) {
+    final long bucketSize = size * bucket.percentage / 100;
+    if (bucket == Bucket.OTHER) {
+      return Math.max(bucketSize, MIN_OTHER_SIZE);
+    }
+
+    return bucketSize;
+  }
+
+  public OkHttpClient getClient(Bucket bucket) {
+    return clients.get(bucket);
+  }
+
+  public ImageCacheStats getStats(Bucket bucket) {
+    return stats.get(bucket);
+  }
+}
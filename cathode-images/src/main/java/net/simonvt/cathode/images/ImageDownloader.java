@@ -27,13 +27,13 @@ import okhttp3.Response;
 
 public class ImageDownloader {
 
-  private final OkHttpClient client;
+  private final ImageCaches imageCaches;
 
-  public ImageDownloader(OkHttpClient client) {
-    this.client = client;
+  public ImageDownloader(ImageCaches imageCaches) {
+    this.imageCaches = imageCaches;
   }
 
-  public Response load(Uri uri, int networkPolicy) throws IOException {
+  public Response load(Uri uri, int networkPolicy, ImageCaches.Bucket bucket) throws IOException {
     CacheControl cacheControl = null;
     if (networkPolicy != 0) {
       if (NetworkPolicy.isOfflineOnly(networkPolicy)) {
@@ -55,6 +55,7 @@ public class ImageDownloader {
       builder.cacheControl(cacheControl);
     }
 
+    OkHttpClient client = imageCaches.getClient(bucket);
     return client.newCall(builder.build()).execute();
   }
 }
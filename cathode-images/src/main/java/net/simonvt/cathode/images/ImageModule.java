@@ -33,9 +33,6 @@ import dagger.Provides;
 import java.io.File;
 import javax.inject.Named;
 import javax.inject.Singleton;
-import net.simonvt.cathode.provider.helper.EpisodeDatabaseHelper;
-import net.simonvt.cathode.provider.helper.MovieDatabaseHelper;
-import net.simonvt.cathode.provider.helper.PersonDatabaseHelper;
 import net.simonvt.cathode.provider.helper.SeasonDatabaseHelper;
 import net.simonvt.cathode.provider.helper.ShowDatabaseHelper;
 import okhttp3.OkHttpClient;
@@ -43,12 +40,11 @@ import timber.log.Timber;
 
 @Module public class ImageModule {
 
-  private static final String PICASSO_CACHE = "picasso-cache";
-  private static final int MIN_DISK_CACHE_SIZE = 5 * 1024 * 1024; // 5MB
-  private static final int MAX_DISK_CACHE_SIZE = 50 * 1024 * 1024; // 50MB
+  private static final String IMAGE_CACHE = "image-cache";
+  private static final String LEGACY_PICASSO_CACHE = "picasso-cache";
 
   private static File createCacheDir(Context context) {
-    File cache = new File(context.getApplicationContext().getCacheDir(), PICASSO_CACHE);
+    File cache = new File(context.getApplicationContext().getCacheDir(), IMAGE_CACHE);
     if (!cache.exists()) {
       //noinspection ResultOfMethodCallIgnored
       cache.mkdirs();
@@ -56,23 +52,38 @@ import timber.log.Timber;
     return cache;
   }
 
-  private static long calculateDiskCacheSize(File dir) {
-    long size = MIN_DISK_CACHE_SIZE;
+  private static void deleteLegacyCacheDir(Context context) {
+    final File legacyCache =
+        new File(context.getApplicationContext().getCacheDir(), LEGACY_PICASSO_CACHE);
+    if (!legacyCache.exists()) {
+      return;
+    }
+
+    new Thread(new Runnable() {
+      @Override public void run() {
+        deleteRecursively(legacyCache);
+      }
+    }, "DeleteLegacyImageCache").start();
+  }
 
+  private static void deleteRecursively(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        deleteRecursively(child);
+      }
+    }
+    //noinspection ResultOfMethodCallIgnored
+    file.delete();
+  }
+
+  private static long getDiskSize(File dir) {
     try {
       StatFs statFs = new StatFs(dir.getAbsolutePath());
-      long available = ((long) statFs.getBlockCount()) * statFs.getBlockSize();
-      // Target 2% of the total space.
-      size = available / 50;
+      return ((long) statFs.getBlockCount()) * statFs.getBlockSize();
     } catch (IllegalArgumentException ignored) {
+      return 0L;
     }
-
-    // Bound inside min/max size for disk cache.
-    return Math.max(Math.min(size, MAX_DISK_CACHE_SIZE), MIN_DISK_CACHE_SIZE);
-  }
-
-  private static OkHttpClient defaultOkHttpClient(File cacheDir, long maxSize) {
-    return new OkHttpClient.Builder().cache(new okhttp3.Cache(cacheDir, maxSize)).build();
   }
 
   @Provides @Singleton Picasso providePicasso(Context context, Downloader downloader,
@@ -100,18 +111,26 @@ import timber.log.Timber;
     return builder.build();
   }
 
-  @Provides @Singleton @Named("Images") OkHttpClient provideOkHttpClient(Context context) {
+  @Provides @Singleton ImageCaches provideImageCaches(Context context) {
+    deleteLegacyCacheDir(context);
+
     final File cacheDir = createCacheDir(context);
-    final long cacheSize = calculateDiskCacheSize(cacheDir);
-    return defaultOkHttpClient(cacheDir, cacheSize);
+    final long cacheSize = ImageCaches.calculateSize(getDiskSize(cacheDir),
+        ImageSettings.getLibrarySize(context), ImageSettings.getMaxCacheSize(context));
+    return new ImageCaches(new OkHttpClient(), cacheDir, cacheSize);
+  }
+
+  @Provides @Singleton @Named("Images") OkHttpClient provideOkHttpClient(
+      ImageCaches imageCaches) {
+    return imageCaches.getClient(ImageCaches.Bucket.OTHER);
   }
 
   @Provides @Singleton Downloader provideDownloader(@Named("Images") OkHttpClient okClient) {
     return new OkHttp3Downloader(okClient);
   }
 
-  @Provides @Singleton ImageDownloader provideImageDownloader(@Named("Images") OkHttpClient okClient) {
-    return new ImageDownloader(okClient);
+  @Provides @Singleton ImageDownloader provideImageDownloader(ImageCaches imageCaches) {
+    return new ImageDownloader(imageCaches);
   }
 
   @Provides @Singleton ImageRequestHandler provideImageRequestHandler(Context context,
@@ -121,9 +140,8 @@ import timber.log.Timber;
 
   @Provides @Singleton ShowRequestHandler provideShowRequestHandler(Context context,
       ConfigurationService configurationService, ImageDownloader downloader,
-      TvService tvShowService, ShowDatabaseHelper showHelper) {
-    return new ShowRequestHandler(context, configurationService, downloader, tvShowService,
-        showHelper);
+      TvService tvShowService) {
+    return new ShowRequestHandler(context, configurationService, downloader, tvShowService);
   }
 
   @Provides @Singleton SeasonRequestHandler provideSeasonRequestHandler(Context context,
@@ -136,23 +154,20 @@ import timber.log.Timber;
 
   @Provides @Singleton EpisodeRequestHandler provideEpisodeRequestHandler(Context context,
       ConfigurationService configurationService, ImageDownloader downloader,
-      TvEpisodesService tvEpisodeService, ShowDatabaseHelper showHelper,
-      EpisodeDatabaseHelper episodeHelper) {
+      TvEpisodesService tvEpisodeService, ShowDatabaseHelper showHelper) {
     return new EpisodeRequestHandler(context, configurationService, downloader, tvEpisodeService,
-        showHelper, episodeHelper);
+        showHelper);
   }
 
   @Provides @Singleton MovieRequestHandler provideMovieRequestHandler(Context context,
       ConfigurationService configurationService, ImageDownloader downloader,
-      MoviesService moviesService, MovieDatabaseHelper movieHelper) {
-    return new MovieRequestHandler(context, configurationService, downloader, moviesService,
-        movieHelper);
+      MoviesService moviesService) {
+    return new MovieRequestHandler(context, configurationService, downloader, moviesService);
   }
 
   @Provides @Singleton PersonRequestHandler providePersonRequestHandler(Context context,
       ConfigurationService configurationService, ImageDownloader downloader,
-      PeopleService peopleService, PersonDatabaseHelper personHelper) {
-    return new PersonRequestHandler(context, configurationService, downloader, peopleService,
-        personHelper);
+      PeopleService peopleService) {
+    return new PersonRequestHandler(context, configurationService, downloader, peopleService);
   }
 }
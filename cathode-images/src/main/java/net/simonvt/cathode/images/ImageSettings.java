@@ -35,6 +35,13 @@ public final class ImageSettings {
   private static final String TMDB_IMAGES_POSTER_SIZES = "tmdbImagesPosterSizes";
   private static final String TMDB_IMAGES_PROFILE_SIZES = "tmdbImagesProfileSizes";
 
+  // Last size selected for each image type
+  private static final String SELECTED_SIZE = "selectedSize_";
+
+  // Disk cache
+  private static final String MAX_CACHE_SIZE = "maxCacheSize";
+  private static final String LIBRARY_SIZE = "librarySize";
+
   private ImageSettings() {
   }
 
@@ -66,6 +73,36 @@ public final class ImageSettings {
     return get(context).getStringSet(TMDB_IMAGES_PROFILE_SIZES, null);
   }
 
+  public static String getSelectedSize(Context context, ImageType imageType) {
+    return get(context).getString(SELECTED_SIZE + imageType.toString(), null);
+  }
+
+  public static void setSelectedSize(Context context, ImageType imageType, String size) {
+    get(context).edit().putString(SELECTED_SIZE + imageType.toString(), size).apply();
+  }
+
+  /**
+   * The maximum size of the image disk caches, in bytes. Changes are applied on the next start.
+   */
+  public static long getMaxCacheSize(Context context) {
+    return get(context).getLong(MAX_CACHE_SIZE, ImageCaches.DEFAULT_MAX_SIZE);
+  }
+
+  public static void setMaxCacheSize(Context context, long maxSize) {
+    get(context).edit().putLong(MAX_CACHE_SIZE, maxSize).apply();
+  }
+
+  /**
+   * The number of shows and movies in the user's library, used to size the image disk caches.
+   */
+  public static int getLibrarySize(Context context) {
+    return get(context).getInt(LIBRARY_SIZE, 0);
+  }
+
+  public static void setLibrarySize(Context context, int librarySize) {
+    get(context).edit().putInt(LIBRARY_SIZE, librarySize).apply();
+  }
+
   public static void updateTmdbConfiguration(Context context, Configuration configuration) {
     SharedPreferences.Editor editor = get(context).edit();
 
@@ -17,10 +17,13 @@
 package net.simonvt.cathode.images;
 
 import android.content.Context;
+import android.util.DisplayMetrics;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class ImageSizeSelector {
@@ -73,6 +76,8 @@ public class ImageSizeSelector {
   private List<ImageSize> profileImageSizes = new ArrayList<>();
   private List<ImageSize> stillImageSizes = new ArrayList<>();
 
+  private Map<ImageType, String> selectedSizes = new EnumMap<>(ImageType.class);
+
   private ImageSizeSelector(Context context) {
     this.context = context;
     updateSizes();
@@ -149,6 +154,42 @@ public class ImageSizeSelector {
   }
 
   public synchronized String getSize(ImageType imageType, int width, int height) {
+    final String size = selectSize(imageType, width, height);
+    if (width > 0 && height > 0 && !size.equals(getSelectedSize(imageType))) {
+      selectedSizes.put(imageType, size);
+      ImageSettings.setSelectedSize(context, imageType, size);
+    }
+
+    return size;
+  }
+
+  private String getSelectedSize(ImageType imageType) {
+    String size = selectedSizes.get(imageType);
+    if (size == null) {
+      size = ImageSettings.getSelectedSize(context, imageType);
+      selectedSizes.put(imageType, size);
+    }
+
+    return size;
+  }
+
+  /**
+   * Returns the size that was last selected for images of the given type, for prefetching images
+   * outside of the UI. If no size has been selected, one that fits a third of the screen's width
+   * is returned.
+   */
+  public synchronized String getPrefetchSize(ImageType imageType) {
+    final String size = getSelectedSize(imageType);
+    if (size != null) {
+      return size;
+    }
+
+    DisplayMetrics displayMetrics = context.getResources().getDisplayMetrics();
+    final int width = displayMetrics.widthPixels / 3;
+    return selectSize(imageType, width, (int) (width * 1.5));
+  }
+
+  private String selectSize(ImageType imageType, int width, int height) {
     switch (imageType) {
       case POSTER:
         return getSize(posterImageSizes, width, height);
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.images;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The TMDB id of an item, when its image paths were last updated, the paths themselves, and
+ * whether the item is in the user's library.
+ */
+public final class ItemImages {
+
+  final int tmdbId;
+
+  final long lastUpdate;
+
+  boolean inLibrary;
+
+  private final Map<ImageType, String> paths = new EnumMap<>(ImageType.class);
+
+  public ItemImages(int tmdbId, long lastUpdate) {
+    this.tmdbId = tmdbId;
+    this.lastUpdate = lastUpdate;
+  }
+
+  public ItemImages inLibrary(boolean inLibrary) {
+    this.inLibrary = inLibrary;
+    return this;
+  }
+
+  public ItemImages path(ImageType imageType, String path) {
+    paths.put(imageType, path);
+    return this;
+  }
+
+  String getPath(ImageType imageType) {
+    return paths.get(imageType);
+  }
+}
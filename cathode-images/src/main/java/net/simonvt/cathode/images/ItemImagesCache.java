@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.images;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least recently used cache of {@link ItemImages}, keyed by the local id of the item.
+ */
+final class ItemImagesCache {
+
+  private final Map<Long, ItemImages> images;
+
+  private int invalidations;
+
+  private int hitCount;
+
+  private int missCount;
+
+  ItemImagesCache(final int maxSize) {
+    images = new LinkedHashMap<Long, ItemImages>(16, 0.75f, true) {
+      @Override protected boolean removeEldestEntry(Map.Entry<Long, ItemImages> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  synchronized ItemImages get(long id) {
+    ItemImages itemImages = images.get(id);
+    if (itemImages != null) {
+      hitCount++;
+    } else {
+      missCount++;
+    }
+    return itemImages;
+  }
+
+  /**
+   * Returns a token that must be passed to {@link #put(long, ItemImages, int)}, taken before the
+   * images are queried.
+   */
+  synchronized int token() {
+    return invalidations;
+  }
+
+  /**
+   * Caches the images, unless the cache has been invalidated since {@code token} was taken. The
+   * images might have been queried before the change that caused the invalidation.
+   */
+  synchronized void put(long id, ItemImages itemImages, int token) {
+    if (token == invalidations) {
+      images.put(id, itemImages);
+    }
+  }
+
+  synchronized void remove(long id) {
+    invalidations++;
+    images.remove(id);
+  }
+
+  synchronized void clear() {
+    invalidations++;
+    images.clear();
+  }
+
+  synchronized int size() {
+    return images.size();
+  }
+
+  synchronized int hitCount() {
+    return hitCount;
+  }
+
+  synchronized int missCount() {
+    return missCount;
+  }
+}
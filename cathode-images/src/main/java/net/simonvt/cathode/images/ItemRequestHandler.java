@@ -17,6 +17,7 @@
 package net.simonvt.cathode.images;
 
 import android.content.Context;
+import android.database.ContentObserver;
 import android.net.Uri;
 import android.text.TextUtils;
 import android.text.format.DateUtils;
@@ -29,6 +30,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import okio.Okio;
 
 import static com.squareup.picasso.Picasso.LoadedFrom.DISK;
 import static com.squareup.picasso.Picasso.LoadedFrom.NETWORK;
@@ -37,27 +40,152 @@ public abstract class ItemRequestHandler extends BaseUrlRequestHandler {
 
   private ImageDownloader downloader;
 
+  private final SingleFlight<Long, Boolean> cacheUpdates = new SingleFlight<>();
+
+  private final ItemImagesCache imagesCache = new ItemImagesCache(IMAGES_CACHE_SIZE);
+
+  private volatile boolean observingChanges;
+
   public ItemRequestHandler(Context context, ConfigurationService configurationService,
       ImageDownloader downloader) {
     super(context, configurationService);
     this.downloader = downloader;
   }
 
-  protected abstract int getTmdbId(long id);
+  private static final int IMAGES_CACHE_SIZE = 250;
 
-  public abstract long getLastCacheUpdate(long id);
+  /**
+   * The uri that is notified when items handled by this request handler are updated.
+   */
+  protected abstract Uri getContentUri();
 
-  protected abstract String getCachedPath(ImageType imageType, long id);
+  /**
+   * Queries the TMDB id, last update and cached image paths of the item in one query.
+   */
+  protected abstract ItemImages queryImages(long id);
 
   protected abstract void clearCachedPaths(long id);
 
   protected abstract boolean updateCache(ImageType imageType, long id, int tmdbId)
       throws IOException;
 
+  /**
+   * Returns the cached images of an item, querying the provider if they're not in memory.
+   */
+  ItemImages getImages(long id) {
+    observeChanges();
+
+    ItemImages images = imagesCache.get(id);
+    if (images == null) {
+      final int token = imagesCache.token();
+      images = queryImages(id);
+      imagesCache.put(id, images, token);
+    }
+
+    return images;
+  }
+
+  public int getCacheHitCount() {
+    return imagesCache.hitCount();
+  }
+
+  public int getCacheMissCount() {
+    return imagesCache.missCount();
+  }
+
+  private void observeChanges() {
+    if (!observingChanges) {
+      synchronized (imagesCache) {
+        if (!observingChanges) {
+          ContentObserver observer = new ContentObserver(null) {
+            @Override public void onChange(boolean selfChange, Uri uri) {
+              invalidate(uri);
+            }
+          };
+          context.getContentResolver().registerContentObserver(getContentUri(), true, observer);
+          observingChanges = true;
+        }
+      }
+    }
+  }
+
+  private void invalidate(Uri uri) {
+    List<String> segments = uri != null ? uri.getPathSegments() : null;
+    if (segments != null && segments.size() == 2 && TextUtils.isDigitsOnly(segments.get(1))) {
+      imagesCache.remove(Long.parseLong(segments.get(1)));
+    } else {
+      imagesCache.clear();
+    }
+  }
+
   private boolean needsUpdate(long lastUpdated) {
     return lastUpdated + DateUtils.WEEK_IN_MILLIS < System.currentTimeMillis();
   }
 
+  /**
+   * Updates the cached paths of an item. Concurrent loads of the same item, e.g. its poster and
+   * backdrop, share a single update. The update is skipped if another load updated the cache after
+   * {@code lastUpdated} was read.
+   */
+  boolean refreshCache(final ImageType imageType, final long id, final int tmdbId,
+      final long lastUpdated) throws IOException {
+    return cacheUpdates.execute(id, new Callable<Boolean>() {
+      @Override public Boolean call() throws IOException {
+        try {
+          if (queryImages(id).lastUpdate != lastUpdated) {
+            return true;
+          }
+
+          return updateCache(imageType, id, tmdbId);
+        } finally {
+          imagesCache.remove(id);
+        }
+      }
+    });
+  }
+
+  /**
+   * Updates the cached paths of an item if they're stale, and downloads the image in the given
+   * size into the disk cache.
+   *
+   * @return true if the image was downloaded.
+   */
+  public boolean prefetch(long id, ImageType imageType, String size) throws IOException {
+    final String baseUrl = getBaseUrl();
+    if (TextUtils.isEmpty(baseUrl)) {
+      return false;
+    }
+
+    ItemImages images = getImages(id);
+    if (needsUpdate(images.lastUpdate)) {
+      final boolean success = refreshCache(imageType, id, images.tmdbId, images.lastUpdate);
+      if (!success) {
+        return false;
+      }
+      images = getImages(id);
+    }
+
+    final String path = images.getPath(imageType);
+    if (TextUtils.isEmpty(path)) {
+      return false;
+    }
+
+    final String url = createUrl(size, Uri.parse(path));
+    final ImageCaches.Bucket bucket = ImageCaches.getBucket(imageType, images.inLibrary);
+    okhttp3.Response response = downloader.load(Uri.parse(url), 0, bucket);
+    try {
+      if (!response.isSuccessful()) {
+        return false;
+      }
+
+      // The response is only written to the disk cache once the body has been read.
+      response.body().source().readAll(Okio.blackhole());
+      return true;
+    } finally {
+      response.close();
+    }
+  }
+
   @Override public Result load(Request request, int networkPolicy) throws IOException {
     final String baseUrl = getBaseUrl();
     if (TextUtils.isEmpty(baseUrl)) {
@@ -68,39 +196,44 @@ public abstract class ItemRequestHandler extends BaseUrlRequestHandler {
 
     final ImageType imageType = ImageType.fromValue(uri.getHost());
     final long id = Long.valueOf(uri.getPathSegments().get(0));
-    final int tmdbId = getTmdbId(id);
 
-    final long lastUpdated = getLastCacheUpdate(id);
+    ItemImages images = getImages(id);
+    final long lastUpdated = images.lastUpdate;
     final boolean needsUpdate = needsUpdate(lastUpdated);
 
-    String path;
     if (needsUpdate) {
-      final boolean success = updateCache(imageType, id, tmdbId);
+      final boolean success = refreshCache(imageType, id, images.tmdbId, lastUpdated);
       if (!success) {
         return null;
       }
+      images = getImages(id);
     }
 
-    path = getCachedPath(imageType, id);
+    String path = images.getPath(imageType);
     if (TextUtils.isEmpty(path)) {
       return null;
     }
 
+    final ImageCaches.Bucket bucket = ImageCaches.getBucket(imageType, images.inLibrary);
     path = transform(request, Uri.parse(path));
-    okhttp3.Response response = downloader.load(Uri.parse(path), networkPolicy);
+    okhttp3.Response response = downloader.load(Uri.parse(path), networkPolicy, bucket);
     if (response == null) {
       return null;
     }
 
     if (!needsUpdate && response.code() == 404) {
-      final boolean success = updateCache(imageType, id, tmdbId);
+      final boolean success = refreshCache(imageType, id, images.tmdbId, lastUpdated);
       if (!success) {
         clearCachedPaths(id);
+        imagesCache.remove(id);
+        return null;
+      }
+      path = getImages(id).getPath(imageType);
+      if (TextUtils.isEmpty(path)) {
         return null;
       }
-      path = getCachedPath(imageType, id);
       path = transform(request, Uri.parse(path));
-      response = downloader.load(Uri.parse(path), networkPolicy);
+      response = downloader.load(Uri.parse(path), networkPolicy, bucket);
     }
 
     if (response.isSuccessful()) {
@@ -19,6 +19,7 @@ package net.simonvt.cathode.images;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.net.Uri;
 import com.squareup.picasso.Request;
 import com.uwetrottmann.tmdb2.entities.Movie;
 import com.uwetrottmann.tmdb2.services.ConfigurationService;
@@ -29,55 +30,45 @@ import net.simonvt.cathode.common.tmdb.TmdbRateLimiter;
 import net.simonvt.cathode.common.util.Closeables;
 import net.simonvt.cathode.provider.DatabaseContract.MovieColumns;
 import net.simonvt.cathode.provider.ProviderSchematic.Movies;
-import net.simonvt.cathode.provider.helper.MovieDatabaseHelper;
 import retrofit2.Response;
 
 public class MovieRequestHandler extends ItemRequestHandler {
 
   private MoviesService moviesService;
-  private MovieDatabaseHelper movieHelper;
 
   public MovieRequestHandler(Context context, ConfigurationService configurationService,
-      ImageDownloader downloader, MoviesService moviesService, MovieDatabaseHelper movieHelper) {
+      ImageDownloader downloader, MoviesService moviesService) {
     super(context, configurationService, downloader);
     this.moviesService = moviesService;
-    this.movieHelper = movieHelper;
   }
 
   @Override public boolean canHandleRequest(Request data) {
     return ImageUri.ITEM_MOVIE.equals(data.uri.getScheme());
   }
 
-  @Override protected int getTmdbId(long id) {
-    return movieHelper.getTmdbId(id);
+  @Override protected Uri getContentUri() {
+    return Movies.MOVIES;
   }
 
-  @Override public long getLastCacheUpdate(long id) {
-    Cursor c = context.getContentResolver().query(Movies.withId(id), new String[] {
-        MovieColumns.IMAGES_LAST_UPDATE,
-    }, null, null, null);
-    c.moveToFirst();
-    final long lastUpdate = Cursors.getLong(c, MovieColumns.IMAGES_LAST_UPDATE);
-    c.close();
-    return lastUpdate;
-  }
-
-  @Override protected String getCachedPath(ImageType imageType, long id) {
+  @Override protected ItemImages queryImages(long id) {
     Cursor c = null;
-
     try {
       c = context.getContentResolver().query(Movies.withId(id), new String[] {
-          MovieColumns.IMAGES_LAST_UPDATE, MovieColumns.POSTER, MovieColumns.BACKDROP,
+          MovieColumns.TMDB_ID, MovieColumns.IMAGES_LAST_UPDATE,
+          MovieColumns.POSTER, MovieColumns.BACKDROP,
+          MovieColumns.WATCHED, MovieColumns.IN_COLLECTION, MovieColumns.IN_WATCHLIST,
       }, null, null, null);
-      c.moveToFirst();
-
-      if (imageType == ImageType.POSTER) {
-        return Cursors.getString(c, MovieColumns.POSTER);
-      } else if (imageType == ImageType.BACKDROP) {
-        return Cursors.getString(c, MovieColumns.BACKDROP);
-      } else {
-        throw new IllegalArgumentException("Unsupported image type: " + imageType.toString());
+      if (!c.moveToFirst()) {
+        return new ItemImages(-1, 0L);
       }
+
+      return new ItemImages(Cursors.getInt(c, MovieColumns.TMDB_ID),
+          Cursors.getLong(c, MovieColumns.IMAGES_LAST_UPDATE))
+          .inLibrary(Cursors.getBoolean(c, MovieColumns.WATCHED)
+              || Cursors.getBoolean(c, MovieColumns.IN_COLLECTION)
+              || Cursors.getBoolean(c, MovieColumns.IN_WATCHLIST))
+          .path(ImageType.POSTER, Cursors.getString(c, MovieColumns.POSTER))
+          .path(ImageType.BACKDROP, Cursors.getString(c, MovieColumns.BACKDROP));
     } finally {
       Closeables.closeQuietly(c);
     }
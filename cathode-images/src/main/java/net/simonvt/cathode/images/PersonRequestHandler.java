@@ -19,6 +19,7 @@ package net.simonvt.cathode.images;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.net.Uri;
 import com.squareup.picasso.Request;
 import com.uwetrottmann.tmdb2.entities.Image;
 import com.uwetrottmann.tmdb2.entities.Person;
@@ -34,54 +35,43 @@ import net.simonvt.cathode.common.tmdb.TmdbRateLimiter;
 import net.simonvt.cathode.common.util.Closeables;
 import net.simonvt.cathode.provider.DatabaseContract.PersonColumns;
 import net.simonvt.cathode.provider.ProviderSchematic.People;
-import net.simonvt.cathode.provider.helper.PersonDatabaseHelper;
 import retrofit2.Response;
 
 public class PersonRequestHandler extends ItemRequestHandler {
 
   private PeopleService peopleService;
-  private PersonDatabaseHelper personHelper;
 
   public PersonRequestHandler(Context context, ConfigurationService configurationService,
-      ImageDownloader downloader, PeopleService peopleService, PersonDatabaseHelper personHelper) {
+      ImageDownloader downloader, PeopleService peopleService) {
     super(context, configurationService, downloader);
     this.peopleService = peopleService;
-    this.personHelper = personHelper;
   }
 
   @Override public boolean canHandleRequest(Request data) {
     return ImageUri.ITEM_PERSON.equals(data.uri.getScheme());
   }
 
-  @Override protected int getTmdbId(long id) {
-    return personHelper.getTmdbId(id);
+  @Override protected Uri getContentUri() {
+    return People.PEOPLE;
   }
 
-  @Override public long getLastCacheUpdate(long id) {
-    Cursor c = context.getContentResolver().query(People.withId(id), new String[] {
-        PersonColumns.IMAGES_LAST_UPDATE,
-    }, null, null, null);
-    c.moveToFirst();
-    final long lastUpdate = Cursors.getLong(c, PersonColumns.IMAGES_LAST_UPDATE);
-    c.close();
-    return lastUpdate;
-  }
-
-  @Override protected String getCachedPath(ImageType imageType, long id) {
+  @Override protected ItemImages queryImages(long id) {
     Cursor c = null;
     try {
       c = context.getContentResolver().query(People.withId(id), new String[] {
+          PersonColumns.TMDB_ID, PersonColumns.IMAGES_LAST_UPDATE,
           PersonColumns.HEADSHOT, PersonColumns.SCREENSHOT,
       }, null, null, null);
-      c.moveToFirst();
-
-      if (imageType == ImageType.PROFILE) {
-        return Cursors.getString(c, PersonColumns.HEADSHOT);
-      } else if (imageType == ImageType.STILL) {
-        return Cursors.getString(c, PersonColumns.SCREENSHOT);
-      } else {
-        throw new IllegalArgumentException("Unsupported image type: " + imageType.toString());
+      if (!c.moveToFirst()) {
+        return new ItemImages(-1, 0L);
       }
+
+      return new ItemImages(Cursors.getInt(c, PersonColumns.TMDB_ID),
+          Cursors.getLong(c, PersonColumns.IMAGES_LAST_UPDATE))
+          // People are not part of the library, headshots are kept in their own budget.
+          .inLibrary(true)
+          .path(ImageType.PROFILE, Cursors.getString(c, PersonColumns.HEADSHOT))
+          .path(ImageType.STILL, Cursors.getString(c, PersonColumns.SCREENSHOT));
     } finally {
       Closeables.closeQuietly(c);
     }
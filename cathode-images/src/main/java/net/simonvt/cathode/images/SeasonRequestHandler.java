@@ -19,6 +19,7 @@ package net.simonvt.cathode.images;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.net.Uri;
 import com.squareup.picasso.Request;
 import com.uwetrottmann.tmdb2.entities.TvSeason;
 import com.uwetrottmann.tmdb2.services.ConfigurationService;
@@ -52,33 +53,26 @@ public class SeasonRequestHandler extends ItemRequestHandler {
     return ImageUri.ITEM_SEASON.equals(data.uri.getScheme());
   }
 
-  @Override protected int getTmdbId(long id) {
-    return seasonHelper.getTmdbId(id);
+  @Override protected Uri getContentUri() {
+    return Seasons.SEASONS;
   }
 
-  @Override public long getLastCacheUpdate(long id) {
-    Cursor c = context.getContentResolver().query(Seasons.withId(id), new String[] {
-        SeasonColumns.IMAGES_LAST_UPDATE,
-    }, null, null, null);
-    c.moveToFirst();
-    final long lastUpdate = Cursors.getLong(c, SeasonColumns.IMAGES_LAST_UPDATE);
-    c.close();
-    return lastUpdate;
-  }
-
-  @Override protected String getCachedPath(ImageType imageType, long id) {
+  @Override protected ItemImages queryImages(long id) {
     Cursor c = null;
     try {
       c = context.getContentResolver().query(Seasons.withId(id), new String[] {
-          SeasonColumns.POSTER,
+          SeasonColumns.TMDB_ID, SeasonColumns.IMAGES_LAST_UPDATE, SeasonColumns.POSTER,
+          SeasonColumns.WATCHED_COUNT, SeasonColumns.IN_COLLECTION_COUNT,
       }, null, null, null);
-      c.moveToFirst();
-
-      if (imageType == ImageType.POSTER) {
-        return Cursors.getString(c, SeasonColumns.POSTER);
-      } else {
-        throw new IllegalArgumentException("Unsupported image type: " + imageType.toString());
+      if (!c.moveToFirst()) {
+        return new ItemImages(-1, 0L);
       }
+
+      return new ItemImages(Cursors.getInt(c, SeasonColumns.TMDB_ID),
+          Cursors.getLong(c, SeasonColumns.IMAGES_LAST_UPDATE))
+          .inLibrary(Cursors.getInt(c, SeasonColumns.WATCHED_COUNT) > 0
+              || Cursors.getInt(c, SeasonColumns.IN_COLLECTION_COUNT) > 0)
+          .path(ImageType.POSTER, Cursors.getString(c, SeasonColumns.POSTER));
     } finally {
       Closeables.closeQuietly(c);
     }
@@ -19,6 +19,7 @@ package net.simonvt.cathode.images;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.net.Uri;
 import com.squareup.picasso.Request;
 import com.uwetrottmann.tmdb2.entities.TvShow;
 import com.uwetrottmann.tmdb2.services.ConfigurationService;
@@ -29,55 +30,45 @@ import net.simonvt.cathode.common.tmdb.TmdbRateLimiter;
 import net.simonvt.cathode.common.util.Closeables;
 import net.simonvt.cathode.provider.DatabaseContract.ShowColumns;
 import net.simonvt.cathode.provider.ProviderSchematic.Shows;
-import net.simonvt.cathode.provider.helper.ShowDatabaseHelper;
 import retrofit2.Response;
 
 public class ShowRequestHandler extends ItemRequestHandler {
 
   private TvService tvService;
-  private ShowDatabaseHelper showHelper;
 
   public ShowRequestHandler(Context context, ConfigurationService configurationService,
-      ImageDownloader downloader, TvService tvService, ShowDatabaseHelper showHelper) {
+      ImageDownloader downloader, TvService tvService) {
     super(context, configurationService, downloader);
     this.tvService = tvService;
-    this.showHelper = showHelper;
   }
 
   @Override public boolean canHandleRequest(Request data) {
     return ImageUri.ITEM_SHOW.equals(data.uri.getScheme());
   }
 
-  @Override protected int getTmdbId(long id) {
-    return showHelper.getTmdbId(id);
+  @Override protected Uri getContentUri() {
+    return Shows.SHOWS;
   }
 
-  @Override public long getLastCacheUpdate(long id) {
-    Cursor c = context.getContentResolver().query(Shows.withId(id), new String[] {
-        ShowColumns.IMAGES_LAST_UPDATE,
-    }, null, null, null);
-    c.moveToFirst();
-    final long lastUpdate = Cursors.getLong(c, ShowColumns.IMAGES_LAST_UPDATE);
-    c.close();
-    return lastUpdate;
-  }
-
-  @Override protected String getCachedPath(ImageType imageType, long id) {
+  @Override protected ItemImages queryImages(long id) {
     Cursor c = null;
-
     try {
       c = context.getContentResolver().query(Shows.withId(id), new String[] {
+          ShowColumns.TMDB_ID, ShowColumns.IMAGES_LAST_UPDATE,
           ShowColumns.POSTER, ShowColumns.BACKDROP,
+          ShowColumns.WATCHED_COUNT, ShowColumns.IN_COLLECTION_COUNT, ShowColumns.IN_WATCHLIST,
       }, null, null, null);
-      c.moveToFirst();
-
-      if (imageType == ImageType.POSTER) {
-        return Cursors.getString(c, ShowColumns.POSTER);
-      } else if (imageType == ImageType.BACKDROP) {
-        return Cursors.getString(c, ShowColumns.BACKDROP);
-      } else {
-        throw new IllegalArgumentException("Unsupported image type: " + imageType.toString());
+      if (!c.moveToFirst()) {
+        return new ItemImages(-1, 0L);
       }
+
+      return new ItemImages(Cursors.getInt(c, ShowColumns.TMDB_ID),
+          Cursors.getLong(c, ShowColumns.IMAGES_LAST_UPDATE))
+          .inLibrary(Cursors.getInt(c, ShowColumns.WATCHED_COUNT) > 0
+              || Cursors.getInt(c, ShowColumns.IN_COLLECTION_COUNT) > 0
+              || Cursors.getBoolean(c, ShowColumns.IN_WATCHLIST))
+          .path(ImageType.POSTER, Cursors.getString(c, ShowColumns.POSTER))
+          .path(ImageType.BACKDROP, Cursors.getString(c, ShowColumns.BACKDROP));
     } finally {
       Closeables.closeQuietly(c);
     }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.images;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Executes at most one call per key at a time. Callers that arrive while a call for the same key is
+ * in flight wait for it, and receive its result instead of executing their own call.
+ */
+final class SingleFlight<K, V> {
+
+  private final Map<K, FutureTask<V>> calls = new HashMap<>();
+
+  public V execute(K key, Callable<V> callable) throws IOException {
+    FutureTask<V> task;
+    boolean execute = false;
+
+    synchronized (calls) {
+      task = calls.get(key);
+      if (task == null) {
+        task = new FutureTask<>(callable);
+        calls.put(key, task);
+        execute = true;
+      }
+    }
+
+    if (execute) {
+      try {
+        task.run();
+      } finally {
+        synchronized (calls) {
+          calls.remove(key);
+        }
+      }
+    }
+
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+}
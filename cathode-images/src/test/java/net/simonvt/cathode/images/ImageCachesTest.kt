@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.images
+
+import com.google.common.truth.Truth.assertThat
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import java.io.File
+import java.nio.file.Files
+
+class ImageCachesTest {
+
+  private val server = MockWebServer()
+
+  private lateinit var directory: File
+  private lateinit var caches: ImageCaches
+
+  @Before
+  fun setup() {
+    server.start()
+    directory = Files.createTempDirectory("image-cache").toFile()
+    caches = ImageCaches(OkHttpClient(), directory, 10L * 1024 * 1024)
+  }
+
+  @After
+  fun tearDown() {
+    server.shutdown()
+    directory.deleteRecursively()
+  }
+
+  private fun enqueueImage(body: String) {
+    server.enqueue(MockResponse().setHeader("Cache-Control", "max-age=3600").setBody(body))
+  }
+
+  private fun load(bucket: ImageCaches.Bucket, path: String): String {
+    val request = Request.Builder().url(server.url(path)).build()
+    caches.getClient(bucket).newCall(request).execute().use { response ->
+      return response.body!!.string()
+    }
+  }
+
+  @Test
+  fun secondLoadIsServedFromCache() {
+    enqueueImage("poster")
+
+    assertThat(load(ImageCaches.Bucket.POSTERS, "/poster.jpg")).isEqualTo("poster")
+    assertThat(load(ImageCaches.Bucket.POSTERS, "/poster.jpg")).isEqualTo("poster")
+
+    val stats = caches.getStats(ImageCaches.Bucket.POSTERS)
+    assertThat(server.requestCount).isEqualTo(1)
+    assertThat(stats.requestCount).isEqualTo(2)
+    assertThat(stats.hitCount).isEqualTo(1)
+    assertThat(stats.bytesSaved).isEqualTo("poster".length.toLong())
+    assertThat(stats.hitRatio).isEqualTo(0.5f)
+  }
+
+  @Test
+  fun bucketsAreCachedSeparately() {
+    enqueueImage("other")
+    enqueueImage("poster")
+
+    load(ImageCaches.Bucket.OTHER, "/poster.jpg")
+    load(ImageCaches.Bucket.POSTERS, "/poster.jpg")
+
+    assertThat(server.requestCount).isEqualTo(2)
+    assertThat(caches.getStats(ImageCaches.Bucket.OTHER).hitCount).isEqualTo(0)
+    assertThat(caches.getStats(ImageCaches.Bucket.POSTERS).hitCount).isEqualTo(0)
+  }
+
+  @Test
+  fun itemsNotInLibraryUseOtherBucket() {
+    for (imageType in ImageType.values()) {
+      assertThat(ImageCaches.getBucket(imageType, false)).isEqualTo(ImageCaches.Bucket.OTHER)
+    }
+    assertThat(ImageCaches.getBucket(ImageType.POSTER, true))
+      .isEqualTo(ImageCaches.Bucket.POSTERS)
+    assertThat(ImageCaches.getBucket(ImageType.BACKDROP, true))
+      .isEqualTo(ImageCaches.Bucket.BACKDROPS)
+    assertThat(ImageCaches.getBucket(ImageType.PROFILE, true))
+      .isEqualTo(ImageCaches.Bucket.HEADSHOTS)
+  }
+
+  @Test
+  fun sizeGrowsWithLibrary() {
+    val disk = 64L * 1024 * 1024 * 1024
+    val max = ImageCaches.DEFAULT_MAX_SIZE
+
+    assertThat(ImageCaches.calculateSize(disk, 0, max)).isEqualTo(ImageCaches.DEFAULT_SIZE)
+    assertThat(ImageCaches.calculateSize(disk, 1, max)).isEqualTo(ImageCaches.DEFAULT_SIZE)
+    assertThat(ImageCaches.calculateSize(disk, 400, max))
+      .isEqualTo(400 * ImageCaches.BYTES_PER_LIBRARY_ITEM)
+    assertThat(ImageCaches.calculateSize(disk, 100_000, max)).isEqualTo(max)
+  }
+
+  @Test
+  fun sizeIsBoundedByDisk() {
+    val disk = 1024L * 1024 * 1024
+    val max = ImageCaches.DEFAULT_MAX_SIZE
+
+    assertThat(ImageCaches.calculateSize(disk, 100_000, max)).isEqualTo(disk / 50)
+    assertThat(ImageCaches.calculateSize(0L, 100_000, max)).isEqualTo(ImageCaches.MIN_SIZE)
+    assertThat(ImageCaches.calculateSize(disk, 1, max)).isEqualTo(disk / 50)
+  }
+
+  @Test
+  fun otherBucketHasMinimumSize() {
+    val size = ImageCaches.DEFAULT_SIZE
+
+    assertThat(ImageCaches.getBucketSize(ImageCaches.Bucket.OTHER, size))
+      .isEqualTo(ImageCaches.MIN_OTHER_SIZE)
+    assertThat(ImageCaches.getBucketSize(ImageCaches.Bucket.OTHER, 10 * size))
+      .isEqualTo(10 * size * 15 / 100)
+    assertThat(ImageCaches.getBucketSize(ImageCaches.Bucket.POSTERS, size)).isEqualTo(size / 2)
+  }
+}
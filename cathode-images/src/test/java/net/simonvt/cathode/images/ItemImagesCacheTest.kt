@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.images
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+
+class ItemImagesCacheTest {
+
+  @Test
+  fun leastRecentlyUsedIsEvicted() {
+    val cache = ItemImagesCache(2)
+    cache.put(1L, ItemImages(1, 0L), cache.token())
+    cache.put(2L, ItemImages(2, 0L), cache.token())
+    assertThat(cache.get(1L)).isNotNull()
+
+    cache.put(3L, ItemImages(3, 0L), cache.token())
+    assertThat(cache.size()).isEqualTo(2)
+    assertThat(cache.get(2L)).isNull()
+    assertThat(cache.get(1L)).isNotNull()
+    assertThat(cache.get(3L)).isNotNull()
+  }
+
+  @Test
+  fun hitsAndMissesAreCounted() {
+    val cache = ItemImagesCache(10)
+    assertThat(cache.get(1L)).isNull()
+    cache.put(1L, ItemImages(1, 0L).path(ImageType.POSTER, "poster"), cache.token())
+    assertThat(cache.get(1L)!!.getPath(ImageType.POSTER)).isEqualTo("poster")
+    assertThat(cache.get(1L)!!.getPath(ImageType.BACKDROP)).isNull()
+
+    assertThat(cache.hitCount()).isEqualTo(2)
+    assertThat(cache.missCount()).isEqualTo(1)
+  }
+
+  @Test
+  fun invalidatedQueryIsNotCached() {
+    val cache = ItemImagesCache(10)
+    val token = cache.token()
+    cache.remove(1L)
+    cache.put(1L, ItemImages(1, 0L), token)
+    assertThat(cache.get(1L)).isNull()
+
+    cache.put(1L, ItemImages(1, 0L), cache.token())
+    cache.clear()
+    assertThat(cache.get(1L)).isNull()
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.images
+
+import android.net.Uri
+import com.google.common.truth.Truth.assertThat
+import com.squareup.picasso.Request
+import org.junit.Test
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class ItemRequestHandlerTest {
+
+  private val tmdbService = CountingTmdbService()
+
+  private val handler = TestRequestHandler(tmdbService)
+
+  @Test
+  fun concurrentLoadsShareUpdate() {
+    val results = refreshConcurrently(THREAD_COUNT) { 1L }
+
+    assertThat(results).containsExactly(true)
+    assertThat(tmdbService.calls.get()).isEqualTo(1)
+  }
+
+  @Test
+  fun itemsAreUpdatedSeparately() {
+    refreshConcurrently(THREAD_COUNT) { it % 2L }
+
+    assertThat(tmdbService.calls.get()).isEqualTo(2)
+  }
+
+  @Test
+  fun staleReadIsNotUpdatedAgain() {
+    assertThat(handler.refreshCache(ImageType.POSTER, 1L, 1, 0L)).isTrue()
+    assertThat(handler.refreshCache(ImageType.BACKDROP, 1L, 1, 0L)).isTrue()
+    assertThat(tmdbService.calls.get()).isEqualTo(1)
+
+    val lastUpdate = handler.queryImages(1L).lastUpdate
+    assertThat(handler.refreshCache(ImageType.POSTER, 1L, 1, lastUpdate)).isTrue()
+    assertThat(tmdbService.calls.get()).isEqualTo(2)
+  }
+
+  @Test
+  fun failedUpdateIsRetried() {
+    tmdbService.successful = false
+    assertThat(handler.refreshCache(ImageType.POSTER, 1L, 1, 0L)).isFalse()
+
+    tmdbService.successful = true
+    assertThat(handler.refreshCache(ImageType.POSTER, 1L, 1, 0L)).isTrue()
+    assertThat(tmdbService.calls.get()).isEqualTo(2)
+  }
+
+  private fun refreshConcurrently(threadCount: Int, id: (Long) -> Long): Set<Boolean> {
+    val executor = Executors.newFixedThreadPool(threadCount)
+    val start = CountDownLatch(1)
+    val results = ConcurrentHashMap.newKeySet<Boolean>()
+
+    for (i in 0 until threadCount) {
+      val imageType = if (i % 2 == 0) ImageType.POSTER else ImageType.BACKDROP
+      executor.execute {
+        start.await()
+        results.add(handler.refreshCache(imageType, id(i.toLong()), 1, 0L))
+      }
+    }
+
+    start.countDown()
+    executor.shutdown()
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue()
+    return results
+  }
+
+  /**
+   * Stands in for the TMDB service used by the request handlers, and counts the calls made to it.
+   */
+  class CountingTmdbService {
+
+    val calls = AtomicInteger()
+
+    @Volatile
+    var successful = true
+
+    fun summary(): Boolean {
+      calls.incrementAndGet()
+      Thread.sleep(RESPONSE_DELAY)
+      return successful
+    }
+  }
+
+  class TestRequestHandler(
+    private val tmdbService: CountingTmdbService
+  ) : ItemRequestHandler(null, null, null) {
+
+    private val lastUpdates = ConcurrentHashMap<Long, Long>()
+
+    override fun canHandleRequest(data: Request): Boolean = true
+
+    override fun getContentUri(): Uri? = null
+
+    public override fun queryImages(id: Long): ItemImages {
+      return ItemImages(id.toInt(), lastUpdates[id] ?: 0L)
+    }
+
+    override fun clearCachedPaths(id: Long) {
+      lastUpdates.remove(id)
+    }
+
+    override fun updateCache(imageType: ImageType, id: Long, tmdbId: Int): Boolean {
+      if (!tmdbService.summary()) {
+        return false
+      }
+
+      lastUpdates[id] = System.nanoTime()
+      return true
+    }
+  }
+
+  companion object {
+    private const val THREAD_COUNT = 8
+    private const val RESPONSE_DELAY = 100L
+  }
+}
@@ -0,0 +1,427 @@
+package net.simonvt.jobqueue.compiler;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates a JobCodec for each job whose persisted fields can be written without reflection.
+ */
+class JobCodecGenerator {
+
+  static final ClassName JOB = ClassName.get("net.simonvt.cathode.jobqueue", "Job");
+  static final ClassName JOB_CODEC = ClassName.get("net.simonvt.cathode.jobqueue", "JobCodec");
+  static final ClassName JOB_CODEC_REGISTRY =
+      ClassName.get("net.simonvt.cathode.jobqueue", "JobCodecRegistry");
+  private static final ClassName CONVERTER =
+      ClassName.get("net.simonvt.cathode.jobqueue", "Converter");
+  private static final ClassName JOB_CODEC_UTILS =
+      ClassName.get("net.simonvt.cathode.jobqueue", "JobCodecUtils");
+  private static final ClassName DATA_INPUT = ClassName.get("java.io", "DataInput");
+  private static final ClassName DATA_OUTPUT = ClassName.get("java.io", "DataOutput");
+
+  /**
+   * Names used by the generated methods, fields can not use them.
+   */
+  private static final Set<String> RESERVED_NAMES =
+      new HashSet<>(Arrays.asList("in", "out", "job", "converter", "instance"));
+
+  enum FieldKind {
+    BOOLEAN,
+    INT,
+    LONG,
+    FLOAT,
+    DOUBLE,
+    STRING,
+    BOXED_BOOLEAN,
+    BOXED_INTEGER,
+    BOXED_LONG,
+    ENUM,
+    JOB_LIST,
+  }
+
+  static class Codec {
+
+    ClassName jobClass;
+    ClassName codecClass;
+    int id;
+
+    Codec(ClassName jobClass, ClassName codecClass, int id) {
+      this.jobClass = jobClass;
+      this.codecClass = codecClass;
+      this.id = id;
+    }
+  }
+
+  private final Elements elements;
+  private final Types types;
+  private final Messager messager;
+
+  JobCodecGenerator(Elements elements, Types types, Messager messager) {
+    this.elements = elements;
+    this.types = types;
+    this.messager = messager;
+  }
+
+  /**
+   * Returns null if a codec could not be generated, in which case the job is persisted as JSON.
+   */
+  Codec generate(TypeElement job, Filer filer) throws IOException {
+    List<VariableElement> fields = getPersistedFields(job);
+    if (fields == null) {
+      return null;
+    }
+
+    ExecutableElement constructor = findConstructor(job, fields);
+    if (constructor == null) {
+      note(job, "no constructor matching its fields, and no no-arg constructor");
+      return null;
+    }
+
+    String packageName = elements.getPackageOf(job).getQualifiedName().toString();
+    ClassName jobClass = ClassName.get(job);
+    ClassName codecClass = ClassName.get(packageName, job.getSimpleName() + "Codec");
+    int id = getId(job, fields);
+
+    MethodSpec idMethod = MethodSpec.methodBuilder("id")
+        .addAnnotation(Override.class)
+        .addModifiers(Modifier.PUBLIC)
+        .returns(int.class)
+        .addStatement("return ID")
+        .build();
+
+    MethodSpec typeMethod = MethodSpec.methodBuilder("type")
+        .addAnnotation(Override.class)
+        .addModifiers(Modifier.PUBLIC)
+        .returns(ParameterizedTypeName.get(ClassName.get(Class.class), jobClass))
+        .addStatement("return $T.class", jobClass)
+        .build();
+
+    MethodSpec.Builder write = MethodSpec.methodBuilder("write")
+        .addAnnotation(Override.class)
+        .addModifiers(Modifier.PUBLIC)
+        .addParameter(jobClass, "job")
+        .addParameter(DATA_OUTPUT, "out")
+        .addParameter(CONVERTER, "converter")
+        .addException(IOException.class);
+
+    MethodSpec.Builder read = MethodSpec.methodBuilder("read")
+        .addAnnotation(Override.class)
+        .addModifiers(Modifier.PUBLIC)
+        .returns(jobClass)
+        .addParameter(DATA_INPUT, "in")
+        .addParameter(CONVERTER, "converter")
+        .addException(IOException.class);
+
+    for (VariableElement field : fields) {
+      write.addStatement(writeStatement(field));
+      read.addStatement(readStatement(field));
+    }
+
+    if (constructor.getParameters().isEmpty()) {
+      read.addStatement("$T instance = new $T()", jobClass, jobClass);
+      for (VariableElement field : fields) {
+        String name = field.getSimpleName().toString();
+        read.addStatement("instance.$N = $N", name, name);
+      }
+      read.addStatement("return instance");
+    } else {
+      CodeBlock.Builder arguments = CodeBlock.builder();
+      for (VariableElement parameter : constructor.getParameters()) {
+        if (!arguments.isEmpty()) {
+          arguments.add(", ");
+        }
+        arguments.add("$N", parameter.getSimpleName().toString());
+      }
+      read.addStatement("return new $T($L)", jobClass, arguments.build());
+    }
+
+    TypeSpec codec = TypeSpec.classBuilder(codecClass)
+        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+        .addSuperinterface(ParameterizedTypeName.get(JOB_CODEC, jobClass))
+        .addField(FieldSpec.builder(int.class, "ID", Modifier.PUBLIC,
+            Modifier.STATIC, Modifier.FINAL).initializer("$L", id).build())
+        .addMethod(idMethod)
+        .addMethod(typeMethod)
+        .addMethod(write.build())
+        .addMethod(read.build())
+        .build();
+
+    JavaFile javaFile = JavaFile.builder(packageName, codec).build();
+    JavaFileObject jfo = filer.createSourceFile(codecClass.reflectionName(), job);
+    Writer out = jfo.openWriter();
+    javaFile.writeTo(out);
+    out.flush();
+    out.close();
+
+    return new Codec(jobClass, codecClass, id);
+  }
+
+  /**
+   * Returns the non-transient instance fields of the job and its superclasses, sorted by name, or
+   * null if one of them can not be written by a generated codec.
+   */
+  private List<VariableElement> getPersistedFields(TypeElement job) {
+    List<VariableElement> fields = new ArrayList<>();
+    String packageName = elements.getPackageOf(job).getQualifiedName().toString();
+
+    TypeElement type = job;
+    while (type != null && !JOB.equals(ClassName.get(type))) {
+      String typePackage = elements.getPackageOf(type).getQualifiedName().toString();
+
+      for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+        Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+          continue;
+        }
+
+        String name = field.getSimpleName().toString();
+        boolean accessible = modifiers.contains(Modifier.PUBLIC)
+            || (!modifiers.contains(Modifier.PRIVATE) && typePackage.equals(packageName));
+        if (!accessible) {
+          note(job, "field " + name + " is not accessible");
+          return null;
+        }
+
+        if (getKind(field.asType()) == null) {
+          note(job, "field " + name + " has unsupported type " + field.asType());
+          return null;
+        }
+
+        if (RESERVED_NAMES.contains(name)) {
+          note(job, "field " + name + " uses a reserved name");
+          return null;
+        }
+
+        fields.add(field);
+      }
+
+      TypeMirror superclass = type.getSuperclass();
+      if (superclass.getKind() == TypeKind.DECLARED) {
+        type = (TypeElement) ((DeclaredType) superclass).asElement();
+      } else {
+        type = null;
+      }
+    }
+
+    fields.sort(
+        Comparator.comparing((VariableElement field) -> field.getSimpleName().toString()));
+    return fields;
+  }
+
+  /**
+   * Prefers a constructor whose parameters match the fields by name, otherwise a no-arg
+   * constructor that allows the fields to be assigned directly.
+   */
+  private ExecutableElement findConstructor(TypeElement job, List<VariableElement> fields) {
+    ExecutableElement noArgConstructor = null;
+
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(job.getEnclosedElements())) {
+      if (constructor.getModifiers().contains(Modifier.PRIVATE)) {
+        continue;
+      }
+
+      List<? extends VariableElement> parameters = constructor.getParameters();
+      if (parameters.isEmpty()) {
+        noArgConstructor = constructor;
+      }
+
+      if (parameters.size() != fields.size()) {
+        continue;
+      }
+
+      boolean matches = true;
+      for (VariableElement parameter : parameters) {
+        VariableElement field = findField(fields, parameter.getSimpleName().toString());
+        if (field == null || !types.isAssignable(field.asType(), parameter.asType())) {
+          matches = false;
+          break;
+        }
+      }
+
+      if (matches) {
+        return constructor;
+      }
+    }
+
+    if (noArgConstructor != null) {
+      for (VariableElement field : fields) {
+        if (field.getModifiers().contains(Modifier.FINAL)) {
+          return null;
+        }
+      }
+    }
+
+    return noArgConstructor;
+  }
+
+  private static VariableElement findField(List<VariableElement> fields, String name) {
+    for (VariableElement field : fields) {
+      if (field.getSimpleName().contentEquals(name)) {
+        return field;
+      }
+    }
+    return null;
+  }
+
+  private FieldKind getKind(TypeMirror type) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+        return FieldKind.BOOLEAN;
+      case INT:
+        return FieldKind.INT;
+      case LONG:
+        return FieldKind.LONG;
+      case FLOAT:
+        return FieldKind.FLOAT;
+      case DOUBLE:
+        return FieldKind.DOUBLE;
+      case DECLARED:
+        break;
+      default:
+        return null;
+    }
+
+    DeclaredType declaredType = (DeclaredType) type;
+    TypeElement element = (TypeElement) declaredType.asElement();
+    if (element.getKind() == ElementKind.ENUM) {
+      return FieldKind.ENUM;
+    }
+
+    String name = element.getQualifiedName().toString();
+    switch (name) {
+      case "java.lang.String":
+        return FieldKind.STRING;
+      case "java.lang.Boolean":
+        return FieldKind.BOXED_BOOLEAN;
+      case "java.lang.Integer":
+        return FieldKind.BOXED_INTEGER;
+      case "java.lang.Long":
+        return FieldKind.BOXED_LONG;
+      case "java.util.List":
+        List<? extends TypeMirror> typeArguments = declaredType.getTypeArguments();
+        TypeMirror job = elements.getTypeElement(JOB.reflectionName()).asType();
+        if (typeArguments.size() == 1 && types.isSameType(typeArguments.get(0), job)) {
+          return FieldKind.JOB_LIST;
+        }
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  private CodeBlock writeStatement(VariableElement field) {
+    String name = field.getSimpleName().toString();
+    switch (getKind(field.asType())) {
+      case BOOLEAN:
+        return CodeBlock.of("out.writeBoolean(job.$N)", name);
+      case INT:
+        return CodeBlock.of("out.writeInt(job.$N)", name);
+      case LONG:
+        return CodeBlock.of("out.writeLong(job.$N)", name);
+      case FLOAT:
+        return CodeBlock.of("out.writeFloat(job.$N)", name);
+      case DOUBLE:
+        return CodeBlock.of("out.writeDouble(job.$N)", name);
+      case STRING:
+        return CodeBlock.of("$T.writeString(out, job.$N)", JOB_CODEC_UTILS, name);
+      case BOXED_BOOLEAN:
+        return CodeBlock.of("$T.writeBoolean(out, job.$N)", JOB_CODEC_UTILS, name);
+      case BOXED_INTEGER:
+        return CodeBlock.of("$T.writeInteger(out, job.$N)", JOB_CODEC_UTILS, name);
+      case BOXED_LONG:
+        return CodeBlock.of("$T.writeLong(out, job.$N)", JOB_CODEC_UTILS, name);
+      case ENUM:
+        return CodeBlock.of("$T.writeEnum(out, job.$N)", JOB_CODEC_UTILS, name);
+      case JOB_LIST:
+        return CodeBlock.of("$T.writeJobs(out, job.$N, converter)", JOB_CODEC_UTILS, name);
+      default:
+        throw new IllegalArgumentException("Unsupported field " + name);
+    }
+  }
+
+  private CodeBlock readStatement(VariableElement field) {
+    String name = field.getSimpleName().toString();
+    TypeName type = TypeName.get(field.asType());
+    switch (getKind(field.asType())) {
+      case BOOLEAN:
+        return CodeBlock.of("$T $N = in.readBoolean()", type, name);
+      case INT:
+        return CodeBlock.of("$T $N = in.readInt()", type, name);
+      case LONG:
+        return CodeBlock.of("$T $N = in.readLong()", type, name);
+      case FLOAT:
+        return CodeBlock.of("$T $N = in.readFloat()", type, name);
+      case DOUBLE:
+        return CodeBlock.of("$T $N = in.readDouble()", type, name);
+      case STRING:
+        return CodeBlock.of("$T $N = $T.readString(in)", type, name, JOB_CODEC_UTILS);
+      case BOXED_BOOLEAN:
+        return CodeBlock.of("$T $N = $T.readBoolean(in)", type, name, JOB_CODEC_UTILS);
+      case BOXED_INTEGER:
+        return CodeBlock.of("$T $N = $T.readInteger(in)", type, name, JOB_CODEC_UTILS);
+      case BOXED_LONG:
+        return CodeBlock.of("$T $N = $T.readLong(in)", type, name, JOB_CODEC_UTILS);
+      case ENUM:
+        return CodeBlock.of("$T $N = $T.readEnum(in, $T.class)", type, name, JOB_CODEC_UTILS,
+            TypeName.get(types.erasure(field.asType())));
+      case JOB_LIST:
+        return CodeBlock.of("$T $N = $T.readJobs(in, converter)", type, name, JOB_CODEC_UTILS);
+      default:
+        throw new IllegalArgumentException("Unsupported field " + name);
+    }
+  }
+
+  /**
+   * The id is derived from the class name and its fields, so persisted jobs whose fields have
+   * since changed are not read with the wrong layout.
+   */
+  private static int getId(TypeElement job, List<VariableElement> fields) {
+    StringBuilder signature = new StringBuilder(job.getQualifiedName());
+    for (VariableElement field : fields) {
+      signature.append(';').append(field.asType()).append(' ').append(field.getSimpleName());
+    }
+
+    // FNV-1a
+    int hash = 0x811c9dc5;
+    for (byte b : signature.toString().getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xff;
+      hash *= 0x01000193;
+    }
+    return hash;
+  }
+
+  private void note(TypeElement job, String reason) {
+    messager.printMessage(Diagnostic.Kind.NOTE,
+        "No codec generated for " + job.getQualifiedName() + ", " + reason, job);
+  }
+}
@@ -3,6 +3,7 @@ package net.simonvt.jobqueue.compiler;
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
@@ -17,12 +18,15 @@ import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
@@ -33,12 +37,16 @@ import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.NoType;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
 import javax.tools.JavaFileObject;
 
 public class JobProcessor extends AbstractProcessor {
 
   private static final ClassName JOB = ClassName.get("net.simonvt.cathode.jobqueue", "Job");
 
+  private static final String REMOTE_PACKAGE = "net.simonvt.cathode.remote";
+  private static final String CODEC_REGISTRY_NAME = "GeneratedJobCodecRegistry";
+
   private static final ClassName ANDROID_INJECTOR =
       ClassName.get("dagger.android", "AndroidInjector");
   private static final ClassName ANDROID_INJECTOR_BUILDER =
@@ -46,17 +54,26 @@ public class JobProcessor extends AbstractProcessor {
   private static final ClassName ANDROID_INJECTOR_FACTORY =
       ClassName.get("dagger.android", "AndroidInjector", "Factory");
 
+  private static final ClassName INJECT = ClassName.get("javax.inject", "Inject");
+
   private Elements elements;
   private Filer filer;
+  private Messager messager;
+
+  private JobCodecGenerator codecGenerator;
 
   private List<String> parsedJobs = new ArrayList<>();
 
   private List<JobSubcomponent> subcomponents = new ArrayList<>();
 
+  private List<JobCodecGenerator.Codec> codecs = new ArrayList<>();
+
   @Override public synchronized void init(ProcessingEnvironment env) {
     super.init(env);
     elements = env.getElementUtils();
     filer = env.getFiler();
+    messager = env.getMessager();
+    codecGenerator = new JobCodecGenerator(elements, env.getTypeUtils(), messager);
   }
 
   @Override public SourceVersion getSupportedSourceVersion() {
@@ -130,12 +147,25 @@ public class JobProcessor extends AbstractProcessor {
         javaFile.writeTo(out);
         out.flush();
         out.close();
+
+        JobCodecGenerator.Codec codec = codecGenerator.generate((TypeElement) job, filer);
+        if (codec != null) {
+          for (JobCodecGenerator.Codec other : codecs) {
+            if (other.id == codec.id) {
+              messager.printMessage(Diagnostic.Kind.ERROR,
+                  "Codec id of " + codec.jobClass + " collides with " + other.jobClass, job);
+            }
+          }
+          codecs.add(codec);
+        }
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
     }
 
     if (env.processingOver()) {
+      writeCodecRegistry();
+
       try {
         // Create module
         final String moduleName = "JobModule";
@@ -180,11 +210,18 @@ public class JobProcessor extends AbstractProcessor {
           jobModule.addMethod(bindMethod);
         }
 
+        jobModule.addMethod(MethodSpec.methodBuilder("bindJobCodecRegistry")
+            .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+            .addAnnotation(Binds.class)
+            .addParameter(ClassName.get(REMOTE_PACKAGE, CODEC_REGISTRY_NAME), "registry")
+            .returns(JobCodecGenerator.JOB_CODEC_REGISTRY)
+            .build());
+
         // Write to file
         JavaFile javaFile =
-            JavaFile.builder("net.simonvt.cathode.remote", jobModule.build()).build();
+            JavaFile.builder(REMOTE_PACKAGE, jobModule.build()).build();
         JavaFileObject jfo =
-            filer.createSourceFile("net.simonvt.cathode.remote" + "." + moduleName);
+            filer.createSourceFile(REMOTE_PACKAGE + "." + moduleName);
         Writer out = jfo.openWriter();
         javaFile.writeTo(out);
         out.flush();
@@ -197,6 +234,76 @@ public class JobProcessor extends AbstractProcessor {
     return false;
   }
 
+  /**
+   * Writes a JobCodecRegistry that looks up the generated codecs by job type and id.
+   */
+  private void writeCodecRegistry() {
+    ParameterizedTypeName codecType = ParameterizedTypeName.get(JobCodecGenerator.JOB_CODEC,
+        WildcardTypeName.subtypeOf(JobCodecGenerator.JOB));
+    ParameterizedTypeName jobType = ParameterizedTypeName.get(ClassName.get(Class.class),
+        WildcardTypeName.subtypeOf(JobCodecGenerator.JOB));
+
+    FieldSpec byType = FieldSpec.builder(
+        ParameterizedTypeName.get(ClassName.get(Map.class), jobType, codecType), "byType",
+        Modifier.PRIVATE, Modifier.FINAL).initializer("new $T<>()", HashMap.class).build();
+    FieldSpec byId = FieldSpec.builder(
+        ParameterizedTypeName.get(ClassName.get(Map.class), ClassName.get(Integer.class),
+            codecType), "byId", Modifier.PRIVATE, Modifier.FINAL)
+        .initializer("new $T<>()", HashMap.class)
+        .build();
+
+    MethodSpec.Builder constructor =
+        MethodSpec.constructorBuilder().addModifiers(Modifier.PUBLIC).addAnnotation(INJECT);
+    for (JobCodecGenerator.Codec codec : codecs) {
+      constructor.addStatement("add(new $T())", codec.codecClass);
+    }
+
+    MethodSpec add = MethodSpec.methodBuilder("add")
+        .addModifiers(Modifier.PRIVATE)
+        .addParameter(codecType, "codec")
+        .addStatement("byType.put(codec.type(), codec)")
+        .addStatement("byId.put(codec.id(), codec)")
+        .build();
+
+    MethodSpec getByType = MethodSpec.methodBuilder("get")
+        .addAnnotation(Override.class)
+        .addModifiers(Modifier.PUBLIC)
+        .addParameter(jobType, "type")
+        .returns(codecType)
+        .addStatement("return byType.get(type)")
+        .build();
+
+    MethodSpec getById = MethodSpec.methodBuilder("get")
+        .addAnnotation(Override.class)
+        .addModifiers(Modifier.PUBLIC)
+        .addParameter(int.class, "id")
+        .returns(codecType)
+        .addStatement("return byId.get(id)")
+        .build();
+
+    TypeSpec registry = TypeSpec.classBuilder(CODEC_REGISTRY_NAME)
+        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+        .addSuperinterface(JobCodecGenerator.JOB_CODEC_REGISTRY)
+        .addField(byType)
+        .addField(byId)
+        .addMethod(constructor.build())
+        .addMethod(add)
+        .addMethod(getByType)
+        .addMethod(getById)
+        .build();
+
+    try {
+      JavaFile javaFile = JavaFile.builder(REMOTE_PACKAGE, registry).build();
+      JavaFileObject jfo = filer.createSourceFile(REMOTE_PACKAGE + "." + CODEC_REGISTRY_NAME);
+      Writer out = jfo.openWriter();
+      javaFile.writeTo(out);
+      out.flush();
+      out.close();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   private boolean isJob(Element element) {
     TypeMirror superType = ((TypeElement) element).getSuperclass();
     while (!(superType instanceof NoType)) {
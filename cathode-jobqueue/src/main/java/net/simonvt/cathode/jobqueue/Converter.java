@@ -19,27 +19,81 @@ package net.simonvt.cathode.jobqueue;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import timber.log.Timber;
 
+/**
+ * Converts jobs to and from the bytes stored in the job database.
+ *
+ * Jobs with a generated {@link JobCodec} are written as a format byte, the codec id and the
+ * fields written by the codec. Other jobs, and jobs persisted by older versions, are stored as
+ * JSON.
+ */
 public class Converter {
 
+  static final byte FORMAT_BINARY = 1;
+
+  private static final byte JSON_OBJECT_START = '{';
+
   private final Gson gson;
 
-  public Converter() {
+  private final JobCodecRegistry codecs;
+
+  public Converter(JobCodecRegistry codecs) {
+    this.codecs = codecs;
     GsonBuilder builder = new GsonBuilder();
     builder.registerTypeAdapter(Job.class, new JobSerializer());
     gson = builder.create();
   }
 
+  /**
+   * Returns null if the job was written by a codec that no longer exists, e.g. because the job
+   * has been removed or its fields have changed.
+   */
   public Job from(byte[] bytes) {
-    Reader reader = new InputStreamReader(new ByteArrayInputStream(bytes));
-    return gson.fromJson(reader, Job.class);
+    if (isJson(bytes)) {
+      Reader reader = new InputStreamReader(new ByteArrayInputStream(bytes));
+      return gson.fromJson(reader, Job.class);
+    }
+
+    try {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+      byte format = in.readByte();
+      if (format != FORMAT_BINARY) {
+        Timber.w("Unknown job format: %d", format);
+        return null;
+      }
+
+      int id = in.readInt();
+      JobCodec<? extends Job> codec = codecs.get(id);
+      if (codec == null) {
+        Timber.w("No codec with id: %d", id);
+        return null;
+      }
+
+      return codec.read(in, this);
+    } catch (IOException e) {
+      Timber.e(e, "Unable to read job");
+      return null;
+    }
   }
 
   public byte[] to(Job job) {
+    JobCodec<? extends Job> codec = codecs.get(job.getClass());
+    if (codec != null) {
+      try {
+        return toBinary(codec, job);
+      } catch (IOException e) {
+        Timber.e(e, "Unable to write %s", job.getClass().getName());
+      }
+    }
+
     try {
       return gson.toJson(job, Job.class).getBytes("UTF-8");
     } catch (UnsupportedEncodingException e) {
@@ -48,4 +102,26 @@ public class Converter {
 
     return null;
   }
+
+  @SuppressWarnings("unchecked")
+  private <T extends Job> byte[] toBinary(JobCodec<T> codec, Job job) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeByte(FORMAT_BINARY);
+    out.writeInt(codec.id());
+    codec.write((T) job, out, this);
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Returns true if the job was written as JSON and should be rewritten with its codec.
+   */
+  public boolean needsMigration(byte[] bytes, Job job) {
+    return isJson(bytes) && codecs.get(job.getClass()) != null;
+  }
+
+  private static boolean isJson(byte[] bytes) {
+    return bytes.length > 0 && bytes[0] == JSON_OBJECT_START;
+  }
 }
@@ -34,9 +34,70 @@ abstract class Job {
 
   abstract fun key(): String
 
+  /**
+   * Jobs with conflicting lock keys are executed in the order they were added, while jobs whose
+   * keys don't conflict may be executed concurrently.
+   *
+   * Keys are '/'-separated paths, and two keys conflict if they're equal or one is a parent of the
+   * other, e.g. "shows/1/2" conflicts with "shows/1" but not with "shows/2". The default key
+   * conflicts with every other job.
+   */
+  open fun lockKey(): String = LOCK_ALL
+
+  internal fun conflictsWith(lockKey: String): Boolean {
+    val key = lockKey()
+    if (key == LOCK_ALL || lockKey == LOCK_ALL || key == lockKey) {
+      return true
+    }
+
+    return key.startsWith("$lockKey/") || lockKey.startsWith("$key/")
+  }
+
+  /**
+   * Runnable jobs with a higher priority are started before those with a lower priority, but never
+   * before a conflicting job that was queued ahead of them. Jobs that are passed over are aged, so
+   * background work keeps making progress while user actions are being queued.
+   */
+  open fun priority(): Int = PRIORITY_BACKGROUND
+
   abstract fun perform(): Boolean
 
+  /**
+   * Called with the job queued directly after this one before this job is executed. If the two
+   * jobs can be performed as one, the returned job replaces both of them in the queue.
+   */
+  open fun coalesce(job: Job): Job? = null
+
   protected fun queue(job: Job) {
     jobManager.addJob(job)
   }
+
+  companion object {
+    const val LOCK_ALL = ""
+
+    /**
+     * Work the user is not waiting on, e.g. syncing with Trakt.
+     */
+    const val PRIORITY_BACKGROUND = 0
+
+    /**
+     * Actions initiated by the user, e.g. rating an item or adding it to the watchlist.
+     */
+    const val PRIORITY_USER = 1
+
+    /**
+     * Returns the most specific lock key that conflicts with all of [lockKeys].
+     */
+    @JvmStatic
+    fun commonLockKey(lockKeys: List<String>): String {
+      var segments = lockKeys.firstOrNull()?.split('/') ?: return LOCK_ALL
+      for (lockKey in lockKeys) {
+        val keySegments = lockKey.split('/')
+        val common = segments.zip(keySegments).takeWhile { (a, b) -> a == b }.count()
+        segments = segments.subList(0, common)
+      }
+
+      return segments.joinToString("/")
+    }
+  }
 }
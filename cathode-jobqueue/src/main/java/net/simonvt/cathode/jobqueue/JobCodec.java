@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.jobqueue;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes and reads the persisted fields of a job. Implementations are generated by the job
+ * processor.
+ */
+public interface JobCodec<T extends Job> {
+
+  /**
+   * Identifies the job type and the layout of its fields in the persisted data.
+   */
+  int id();
+
+  Class<T> type();
+
+  void write(T job, DataOutput out, Converter converter) throws IOException;
+
+  T read(DataInput in, Converter converter) throws IOException;
+}
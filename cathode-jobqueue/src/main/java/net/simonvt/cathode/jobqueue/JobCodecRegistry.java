@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.jobqueue;
+
+import androidx.annotation.Nullable;
+
+public interface JobCodecRegistry {
+
+  JobCodecRegistry EMPTY = new JobCodecRegistry() {
+    @Nullable @Override public JobCodec<? extends Job> get(Class<? extends Job> type) {
+      return null;
+    }
+
+    @Nullable @Override public JobCodec<? extends Job> get(int id) {
+      return null;
+    }
+  };
+
+  @Nullable JobCodec<? extends Job> get(Class<? extends Job> type);
+
+  @Nullable JobCodec<? extends Job> get(int id);
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.jobqueue;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers used by the generated {@link JobCodec}s for nullable and composite types.
+ */
+public final class JobCodecUtils {
+
+  private JobCodecUtils() {
+  }
+
+  public static void writeString(DataOutput out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  public static String readString(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  public static void writeBoolean(DataOutput out, Boolean value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeBoolean(value);
+    }
+  }
+
+  public static Boolean readBoolean(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readBoolean() : null;
+  }
+
+  public static void writeInteger(DataOutput out, Integer value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeInt(value);
+    }
+  }
+
+  public static Integer readInteger(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readInt() : null;
+  }
+
+  public static void writeLong(DataOutput out, Long value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeLong(value);
+    }
+  }
+
+  public static Long readLong(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readLong() : null;
+  }
+
+  /**
+   * Enums are written by name, so reordering constants does not affect persisted jobs.
+   */
+  public static void writeEnum(DataOutput out, Enum<?> value) throws IOException {
+    writeString(out, value != null ? value.name() : null);
+  }
+
+  public static <E extends Enum<E>> E readEnum(DataInput in, Class<E> type) throws IOException {
+    String name = readString(in);
+    return name != null ? Enum.valueOf(type, name) : null;
+  }
+
+  public static void writeJobs(DataOutput out, List<? extends Job> jobs, Converter converter)
+      throws IOException {
+    out.writeBoolean(jobs != null);
+    if (jobs != null) {
+      out.writeInt(jobs.size());
+      for (Job job : jobs) {
+        byte[] bytes = converter.to(job);
+        if (bytes == null) {
+          throw new IOException("Unable to write nested job " + job.getClass().getName());
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+    }
+  }
+
+  public static List<Job> readJobs(DataInput in, Converter converter) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+
+    int size = in.readInt();
+    List<Job> jobs = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      byte[] bytes = new byte[in.readInt()];
+      in.readFully(bytes);
+      Job job = converter.from(bytes);
+      if (job == null) {
+        throw new IOException("Unable to read nested job");
+      }
+      jobs.add(job);
+    }
+    return jobs;
+  }
+}
@@ -34,4 +34,8 @@ public interface JobColumns {
   @DataType(TEXT) String KEY = "key";
 
   @DataType(BLOB) String JOB = "job";
+
+  @DataType(INTEGER) String PRIORITY = "priority";
+
+  @DataType(TEXT) String LOCK_KEY = "lockKey";
 }
@@ -26,7 +26,7 @@ import net.simonvt.schematic.annotation.Table;
     className = "JobDatabase",
     packageName = "net.simonvt.cathode.jobqueue.database",
     fileName = "jobDatabase.db",
-    version = 13
+    version = 14
 )
 public class JobDatabaseSchematic {
 
@@ -163,6 +163,11 @@ public class JobDatabaseSchematic {
       deleteJob(db, "net.simonvt.cathode.remote.ForceUpdateJob");
       deleteJob(db, "net.simonvt.cathode.remote.UpdateShowCounts");
     }
+
+    if (oldVersion < 14) {
+      db.execSQL("ALTER TABLE " + Tables.JOBS + " ADD COLUMN " + JobColumns.PRIORITY + " INTEGER");
+      db.execSQL("ALTER TABLE " + Tables.JOBS + " ADD COLUMN " + JobColumns.LOCK_KEY + " TEXT");
+    }
   }
 
   private static void deleteJob(SQLiteDatabase db, String job) {
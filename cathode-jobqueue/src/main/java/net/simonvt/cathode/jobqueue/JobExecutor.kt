@@ -23,10 +23,11 @@ import java.util.concurrent.Executors
 
 class JobExecutor(
   private val jobManager: JobManager,
-  private val executorListener: JobExecutorListener
+  private val executorListener: JobExecutorListener,
+  private val maxConcurrentJobs: Int = DEFAULT_MAX_CONCURRENT_JOBS
 ) {
 
-  private val executor = Executors.newSingleThreadExecutor()
+  private val executor = Executors.newFixedThreadPool(maxConcurrentJobs)
 
   var started = false
     private set
@@ -35,13 +36,17 @@ class JobExecutor(
 
   private val lock: Any = Any()
 
-  private var executing = false
+  private val runningJobs = mutableListOf<Job>()
 
   private val jobListener = object : JobListener {
 
     override fun onJobAdded(job: Job) {
       startJobs()
     }
+
+    override fun onJobsLoaded() {
+      startJobs()
+    }
   }
 
   interface JobExecutorListener {
@@ -100,14 +105,18 @@ class JobExecutor(
 
   private fun startJobs() {
     synchronized(lock) {
-      if (started && !failureBackoff && !executing) {
-        val job = jobManager.nextJob()
-        if (job != null) {
-          executing = true
-          Timber.d("Queueing job: %s", job.key())
-          executor.execute(JobRunnable(job))
-          postOnStartJob(job)
+      while (started && !failureBackoff && runningJobs.size < maxConcurrentJobs) {
+        // The last slot is kept free for user actions, so they don't wait for background jobs.
+        val minPriority = if (maxConcurrentJobs > 1 && runningJobs.size == maxConcurrentJobs - 1) {
+          Job.PRIORITY_USER
+        } else {
+          Int.MIN_VALUE
         }
+        val job = jobManager.nextJob(runningJobs, minPriority) ?: break
+        runningJobs.add(job)
+        Timber.d("Queueing job: %s", job.key())
+        executor.execute(JobRunnable(job))
+        postOnStartJob(job)
       }
     }
   }
@@ -117,11 +126,11 @@ class JobExecutor(
       Timber.d("Job succeded: %s", job.key())
 
       jobManager.removeJob(job)
-      executing = false
+      runningJobs.remove(job)
 
       if (jobManager.hasJobs()) {
         startJobs()
-      } else {
+      } else if (runningJobs.isEmpty()) {
         postQueueEmpty()
       }
     }
@@ -130,21 +139,28 @@ class JobExecutor(
   private fun jobFailed(job: Job, t: Throwable) {
     synchronized(lock) {
       Timber.e(t, "Job failed: %s", job.key())
-      jobFailed()
+      jobFailed(job)
     }
   }
 
-  private fun jobFailed() {
+  private fun jobFailed(job: Job) {
     synchronized(lock) {
-      failureBackoff = true
-      executing = false
+      runningJobs.remove(job)
 
-      MainHandler.postDelayed({
-        failureBackoff = false
-        startJobs()
-      }, FAILURE_DELAY)
+      // Jobs that are already running are allowed to finish, but no new jobs are started until
+      // the delay has passed.
+      if (!failureBackoff) {
+        failureBackoff = true
 
-      postQueueFailed()
+        MainHandler.postDelayed({
+          synchronized(lock) {
+            failureBackoff = false
+          }
+          startJobs()
+        }, FAILURE_DELAY)
+
+        postQueueFailed()
+      }
     }
   }
 
@@ -156,7 +172,7 @@ class JobExecutor(
         if (job.perform()) {
           jobSucceeded(job)
         } else {
-          jobFailed()
+          jobFailed(job)
         }
       } catch (t: Throwable) {
         jobFailed(job, t)
@@ -170,5 +186,10 @@ class JobExecutor(
      * Execution is restarted after this delay on failure.
      */
     private const val FAILURE_DELAY = 30 * DateUtils.SECOND_IN_MILLIS
+
+    /**
+     * Default number of jobs that are allowed to execute at the same time.
+     */
+    const val DEFAULT_MAX_CONCURRENT_JOBS = 4
   }
 }
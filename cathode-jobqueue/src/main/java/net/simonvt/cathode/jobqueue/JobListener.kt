@@ -19,4 +19,9 @@ package net.simonvt.cathode.jobqueue
 interface JobListener {
 
   fun onJobAdded(job: Job)
+
+  /**
+   * Called when more of the persisted queue has been loaded, and jobs might be ready to start.
+   */
+  fun onJobsLoaded() {}
 }
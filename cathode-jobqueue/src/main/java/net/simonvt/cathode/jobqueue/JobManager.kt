@@ -18,14 +18,20 @@ package net.simonvt.cathode.jobqueue
 
 import android.content.ContentValues
 import android.content.Context
+import android.database.Cursor
+import android.database.DatabaseUtils
 import dagger.android.DispatchingAndroidInjector
 import net.simonvt.cathode.common.database.getBlob
+import net.simonvt.cathode.common.database.getLong
+import net.simonvt.cathode.common.database.getString
+import net.simonvt.cathode.common.database.getStringOrNull
 import net.simonvt.cathode.common.util.MainHandler
 import net.simonvt.cathode.jobqueue.JobDatabaseSchematic.Tables
 import net.simonvt.cathode.jobqueue.database.JobDatabase
 import timber.log.Timber
 import java.lang.ref.WeakReference
 import java.util.ArrayList
+import java.util.IdentityHashMap
 import java.util.concurrent.Executors
 import javax.inject.Inject
 import javax.inject.Singleton
@@ -33,21 +39,68 @@ import javax.inject.Singleton
 @Singleton
 class JobManager @Inject constructor(
   private val context: Context,
-  private val jobInjector: DispatchingAndroidInjector<Job>
+  private val jobInjector: DispatchingAndroidInjector<Job>,
+  codecRegistry: JobCodecRegistry
 ) {
 
   private val database = JobDatabase.getInstance(this.context)
 
-  private val converter = Converter()
+  private val converter = Converter(codecRegistry)
 
+  /**
+   * The hydrated window of the queue, in the order the jobs were added. Rows with an id greater
+   * than [lastLoadedId] are only loaded once the queue reaches them.
+   */
   private val jobs = mutableListOf<Job>()
 
+  /**
+   * User jobs queued after [lastLoadedId], hydrated ahead of the window so they don't wait for the
+   * backlog in front of them to be paged in. A job moves to [jobs] once the window reaches it.
+   */
+  private val earlyJobs = mutableListOf<Job>()
+
+  private val jobIds = IdentityHashMap<Job, Long>()
+
+  /**
+   * The lock key of every row after [lastLoadedId], in the order they were added, so jobs can be
+   * checked for conflicts with rows that have not been hydrated. Rows without a lock key were
+   * queued before it was stored, and are held as null.
+   */
+  private val unloadedLockKeys = LinkedHashMap<Long, String?>()
+
+  /**
+   * Ids of removed jobs whose rows are still to be deleted, so a page doesn't hydrate them again.
+   */
+  private val removedIds = mutableSetOf<Long>()
+
+  /**
+   * The number of times each job was runnable, but passed over for a job with a higher priority.
+   */
+  private val skipCounts = IdentityHashMap<Job, Int>()
+
+  private var lastLoadedId = 0L
+
+  private var loaded = false
+
+  private var allLoaded = false
+
+  private var pageRequested = false
+
+  /**
+   * Number of jobs in the database, including those that have not been loaded.
+   */
+  private var jobCount = 0
+
   private val serialExecutor = Executors.newSingleThreadExecutor()
 
   private val jobListeners = ArrayList<WeakReference<JobListener>>()
 
   init {
-    serialExecutor.execute { loadJobs() }
+    serialExecutor.execute {
+      synchronized(jobs) {
+        ensureLoaded()
+      }
+    }
   }
 
   fun addJobListener(listener: JobListener) {
@@ -76,90 +129,478 @@ class JobManager @Inject constructor(
     }
   }
 
-  private fun loadJobs() {
-    synchronized(jobs) {
+  private fun postOnJobsLoaded() {
+    MainHandler.post {
+      for (i in jobListeners.indices.reversed()) {
+        val listenerRef = jobListeners[i]
+        val jobListener = listenerRef.get()
+
+        jobListener?.onJobsLoaded() ?: jobListeners.remove(listenerRef)
+      }
+    }
+  }
+
+  /**
+   * Counts the persisted jobs and hydrates the first page, along with any user jobs queued after
+   * it. Must be called while holding the lock on [jobs].
+   */
+  private fun ensureLoaded() {
+    if (!loaded) {
+      loaded = true
       val db = database.readableDatabase
-      val c = db.query(Tables.JOBS, null, null, null, null, null, null)
+      jobCount = DatabaseUtils.queryNumEntries(db, Tables.JOBS).toInt()
+      loadLockKeys()
+      addPage(readPage(lastLoadedId))
+      if (!allLoaded) {
+        loadEarlyJobs()
+      }
+
+      Timber.d("Loaded %d of %d jobs", jobs.size + earlyJobs.size, jobCount)
+    }
+  }
+
+  private fun loadLockKeys() {
+    val db = database.readableDatabase
+    val c = db.query(
+      Tables.JOBS,
+      arrayOf(JobColumns.ID, JobColumns.LOCK_KEY),
+      JobColumns.ID + ">?",
+      arrayOf(lastLoadedId.toString()),
+      null,
+      null,
+      JobColumns.ID + " ASC"
+    )
+
+    while (c.moveToNext()) {
+      unloadedLockKeys[c.getLong(JobColumns.ID)] = c.getStringOrNull(JobColumns.LOCK_KEY)
+    }
 
-      while (c.moveToNext()) {
-        val bytes = c.getBlob(JobColumns.JOB)
-        val job = converter.from(bytes)
-        addJobInternal(job)
+    c.close()
+  }
+
+  /**
+   * Hydrates the next page of jobs on [serialExecutor], unless a page is already being loaded.
+   * Listeners are notified once the page is loaded, so the queue is not read on the thread
+   * picking jobs. Must be called while holding the lock on [jobs].
+   */
+  private fun requestNextPage() {
+    if (pageRequested) {
+      return
+    }
+
+    pageRequested = true
+    serialExecutor.execute {
+      val afterId = synchronized(jobs) { lastLoadedId }
+      val page = readPage(afterId)
+      val loaded = synchronized(jobs) {
+        pageRequested = false
+        // The queue was cleared while the page was read
+        afterId == lastLoadedId && addPage(page)
+      }
+
+      if (loaded) {
+        postOnJobsLoaded()
+      }
+    }
+  }
+
+  /**
+   * Reads and hydrates the page of jobs following [afterId], in the order they were added.
+   */
+  private fun readPage(afterId: Long): List<PageRow> {
+    val db = database.readableDatabase
+    val c = db.query(
+      Tables.JOBS,
+      null,
+      JobColumns.ID + ">?",
+      arrayOf(afterId.toString()),
+      null,
+      null,
+      JobColumns.ID + " ASC",
+      PAGE_SIZE.toString()
+    )
+
+    val page = mutableListOf<PageRow>()
+    while (c.moveToNext()) {
+      val id = c.getLong(JobColumns.ID)
+      page.add(PageRow(id, hydrate(c, id)))
+    }
+    c.close()
+
+    return page
+  }
+
+  /**
+   * Adds a page read with [readPage] to the window. Must be called while holding the lock on
+   * [jobs].
+   *
+   * @return true if any jobs were loaded.
+   */
+  private fun addPage(page: List<PageRow>): Boolean {
+    var loaded = 0
+    for ((id, hydratedJob) in page) {
+      lastLoadedId = id
+      unloadedLockKeys.remove(id)
+      if (removedIds.contains(id)) {
+        continue
       }
 
-      c.close()
+      val earlyJob = earlyJobs.firstOrNull { jobIds[it] == id }
+      if (earlyJob != null) {
+        earlyJobs.remove(earlyJob)
+        jobs.add(earlyJob)
+        loaded++
+        continue
+      }
+
+      if (hydratedJob == null) {
+        jobCount--
+        continue
+      }
+
+      jobs.add(hydratedJob)
+      jobIds[hydratedJob] = id
+      loaded++
+    }
+
+    // Rows added while the page was read are not part of it.
+    allLoaded = page.size < PAGE_SIZE && unloadedLockKeys.isEmpty()
+
+    return loaded > 0
+  }
+
+  private data class PageRow(val id: Long, val job: Job?)
+
+  /**
+   * Hydrates the user jobs queued after the loaded window.
+   */
+  private fun loadEarlyJobs() {
+    val db = database.readableDatabase
+    val c = db.query(
+      Tables.JOBS,
+      null,
+      JobColumns.ID + ">? AND " + JobColumns.PRIORITY + ">=?",
+      arrayOf(lastLoadedId.toString(), Job.PRIORITY_USER.toString()),
+      null,
+      null,
+      JobColumns.ID + " ASC"
+    )
+
+    while (c.moveToNext()) {
+      val id = c.getLong(JobColumns.ID)
+      val job = hydrate(c, id)
+      if (job == null) {
+        unloadedLockKeys.remove(id)
+        jobCount--
+        continue
+      }
+
+      earlyJobs.add(job)
+      jobIds[job] = id
+    }
+
+    c.close()
+  }
+
+  /**
+   * Creates the job stored in the current row of [c], migrating its stored format if needed.
+   * Unreadable jobs are deleted, and null is returned. The caller updates [jobCount].
+   */
+  private fun hydrate(c: Cursor, id: Long): Job? {
+    val bytes = c.getBlob(JobColumns.JOB)
+    val job = converter.from(bytes)
+    if (job == null) {
+      Timber.w("Deleting unreadable job: %s", c.getString(JobColumns.JOB_NAME))
+      deleteJobRow(id)
+      return null
+    }
 
-      Timber.d("Loaded %d jobs", jobs.size)
+    if (converter.needsMigration(bytes, job)) {
+      val values = ContentValues()
+      values.put(JobColumns.JOB, converter.to(job))
+      database.writableDatabase.update(Tables.JOBS, values, JobColumns.ID + "=" + id, null)
     }
+
+    return job
+  }
+
+  private fun deleteJobRow(id: Long) {
+    database.writableDatabase.delete(Tables.JOBS, JobColumns.ID + "=" + id, null)
   }
 
   fun addJob(job: Job) {
     serialExecutor.execute { addJobNow(job) }
   }
 
+  /**
+   * Persists [job] at the end of the queue. The job is added to the window if every queued job is
+   * loaded and the window has room for it. Otherwise background jobs are hydrated from the
+   * database once [nextJob] pages in the rows queued ahead of them, while user jobs are held in
+   * memory right away so they can start ahead of the backlog.
+   */
   fun addJobNow(job: Job) {
     Timber.d("Adding job: %s", job.key())
     postOnJobAdded(job)
 
     synchronized(jobs) {
-      addJobInternal(job)
-    }
-
-    persistJob(job)
-  }
-
-  private fun addJobInternal(job: Job) {
-    synchronized(jobs) {
-      jobs.add(job)
+      ensureLoaded()
+      val id = persistJob(job)
+      jobCount++
+
+      if (allLoaded && jobs.size < MAX_LOADED_JOBS) {
+        jobs.add(job)
+        jobIds[job] = id
+        lastLoadedId = id
+      } else {
+        allLoaded = false
+        unloadedLockKeys[id] = job.lockKey()
+        if (job.priority() >= Job.PRIORITY_USER) {
+          earlyJobs.add(job)
+          jobIds[job] = id
+        }
+      }
     }
   }
 
-  private fun persistJob(job: Job) {
+  private fun persistJob(job: Job): Long {
     val values = ContentValues()
     values.put(JobColumns.KEY, job.key())
     val bytes = converter.to(job)
     values.put(JobColumns.JOB, bytes)
     values.put(JobColumns.JOB_NAME, job.javaClass.name)
+    values.put(JobColumns.PRIORITY, job.priority())
+    values.put(JobColumns.LOCK_KEY, job.lockKey())
 
     val db = database.writableDatabase
-    db.insert(Tables.JOBS, null, values)
+    return db.insert(Tables.JOBS, null, values)
   }
 
-  fun nextJob(): Job? {
+  /**
+   * Returns the runnable job with the highest priority, where a job is runnable if it is not
+   * running and does not conflict with a job queued before it that has yet to finish. Jobs with
+   * the same priority are returned in the order they were added.
+   *
+   * Only jobs whose declared priority is at least [minPriority] are returned.
+   */
+  fun nextJob(runningJobs: Collection<Job>, minPriority: Int = Int.MIN_VALUE): Job? {
     synchronized(jobs) {
-      if (jobs.size > 0) {
-        val job = jobs[0]
-        jobInjector.inject(job)
-        return job
+      ensureLoaded()
+      val pendingLockKeys = mutableListOf<String>()
+      val candidates = mutableListOf<Int>()
+
+      var nextIndex = -1
+      var nextPriority = Int.MIN_VALUE
+      var nextPendingCount = 0
+      var blocked = false
+
+      var index = 0
+      while (true) {
+        if (index >= jobs.size) {
+          // More jobs are only hydrated while no runnable job has been found, so that picking a
+          // job does not page in the whole queue.
+          if (nextIndex == -1 && !allLoaded && jobs.size < MAX_LOADED_JOBS) {
+            requestNextPage()
+          }
+          break
+        }
+
+        val job = jobs[index]
+        val lockKey = job.lockKey()
+
+        if (!runningJobs.contains(job) && pendingLockKeys.none { job.conflictsWith(it) }) {
+          candidates.add(index)
+
+          val priority = effectivePriority(job)
+          if (job.priority() >= minPriority && priority > nextPriority) {
+            nextIndex = index
+            nextPriority = priority
+            nextPendingCount = pendingLockKeys.size
+          }
+        }
+
+        if (lockKey == Job.LOCK_ALL) {
+          // No job after this one can be started before it finishes.
+          blocked = true
+          break
+        }
+
+        pendingLockKeys.add(lockKey)
+        index++
       }
 
-      return null
+      // User jobs past the window are queued after every job in it.
+      var nextEarlyJob: Job? = null
+      if (!blocked) {
+        for (job in earlyJobs) {
+          if (runningJobs.contains(job) || job.priority() < minPriority) {
+            continue
+          }
+
+          val priority = effectivePriority(job)
+          if (priority <= nextPriority || pendingLockKeys.any { job.conflictsWith(it) }) {
+            continue
+          }
+
+          if (!conflictsWithUnloadedJobs(job)) {
+            nextEarlyJob = job
+            nextPriority = priority
+          }
+        }
+      }
+
+      if (nextIndex == -1 && nextEarlyJob == null) {
+        return null
+      }
+
+      // Age the jobs that were queued ahead of the picked job, but passed over.
+      val pickedIndex = if (nextEarlyJob != null) jobs.size else nextIndex
+      for (candidate in candidates) {
+        if (candidate >= pickedIndex) {
+          break
+        }
+
+        val job = jobs[candidate]
+        skipCounts[job] = (skipCounts[job] ?: 0) + 1
+      }
+
+      val nextJob = nextEarlyJob
+        ?: coalesceJobs(nextIndex, runningJobs, pendingLockKeys.subList(0, nextPendingCount))
+      jobInjector.inject(nextJob)
+      return nextJob
+    }
+  }
+
+  /**
+   * Whether [job] conflicts with a job that is queued ahead of it, but has not been loaded yet.
+   * Rows without a lock key were queued before it was stored, and conflict with every job.
+   */
+  private fun conflictsWithUnloadedJobs(job: Job): Boolean {
+    val id = jobIds[job]!!
+    for ((unloadedId, lockKey) in unloadedLockKeys) {
+      if (unloadedId >= id) {
+        return false
+      }
+
+      if (job.conflictsWith(lockKey ?: Job.LOCK_ALL)) {
+        return true
+      }
+    }
+
+    return false
+  }
+
+  /**
+   * The priority of [job], raised by one for every [SKIPS_PER_PRIORITY] times it was passed over.
+   */
+  private fun effectivePriority(job: Job): Int {
+    val skipCount = skipCounts[job] ?: 0
+    return job.priority() + skipCount / SKIPS_PER_PRIORITY
+  }
+
+  /**
+   * Merges the job at [index] with the jobs directly following it in the window, for as long as
+   * they can be coalesced. The merged job replaces the coalesced jobs in the queue.
+   */
+  private fun coalesceJobs(
+    index: Int,
+    runningJobs: Collection<Job>,
+    pendingLockKeys: List<String>
+  ): Job {
+    val job = jobs[index]
+    var coalescedJob = job
+    var end = index + 1
+
+    while (end < jobs.size) {
+      val nextJob = jobs[end]
+      if (runningJobs.contains(nextJob) || pendingLockKeys.any { nextJob.conflictsWith(it) }) {
+        break
+      }
+
+      coalescedJob = coalescedJob.coalesce(nextJob) ?: break
+      end++
+    }
+
+    if (end > index + 1) {
+      val coalescedJobs = jobs.subList(index, end).toList()
+      Timber.d("Coalesced %d jobs into %s", coalescedJobs.size, coalescedJob.key())
+
+      val ids = coalescedJobs.map { jobIds.remove(it)!! }
+      val skipCount = skipCounts[job]
+      coalescedJobs.forEach { skipCounts.remove(it) }
+      if (skipCount != null) {
+        skipCounts[coalescedJob] = skipCount
+      }
+      jobs.subList(index + 1, end).clear()
+      jobs[index] = coalescedJob
+      jobIds[coalescedJob] = ids.first()
+      jobCount -= coalescedJobs.size - 1
+
+      replaceJobsInDatabase(ids, coalescedJob)
+    }
+
+    return coalescedJob
+  }
+
+  private fun replaceJobsInDatabase(ids: List<Long>, newJob: Job) {
+    serialExecutor.execute {
+      val db = database.writableDatabase
+      db.beginTransaction()
+      try {
+        // Replace the first row, so the new job keeps its position in the queue.
+        val values = ContentValues()
+        values.put(JobColumns.KEY, newJob.key())
+        values.put(JobColumns.JOB, converter.to(newJob))
+        values.put(JobColumns.JOB_NAME, newJob.javaClass.name)
+        values.put(JobColumns.PRIORITY, newJob.priority())
+        values.put(JobColumns.LOCK_KEY, newJob.lockKey())
+        db.update(Tables.JOBS, values, JobColumns.ID + "=" + ids.first(), null)
+
+        db.delete(
+          Tables.JOBS,
+          JobColumns.ID + " IN (" + ids.subList(1, ids.size).joinToString(",") + ")",
+          null
+        )
+
+        db.setTransactionSuccessful()
+      } finally {
+        db.endTransaction()
+      }
     }
   }
 
   fun removeJob(job: Job) {
     synchronized(jobs) {
       Timber.d("Removing job: %s", job.key())
-      jobs.remove(job)
+      if (!jobs.remove(job)) {
+        earlyJobs.remove(job)
+      }
+      skipCounts.remove(job)
+      val id = jobIds.remove(job)
+      if (id != null) {
+        jobCount--
+        if (id > lastLoadedId) {
+          // The row would be hydrated again if the window reached it before it's deleted.
+          unloadedLockKeys.remove(id)
+          removedIds.add(id)
+        }
+        removeJobFromDatabase(id)
+      }
     }
-
-    removeJobFromDatabase(job)
   }
 
-  private fun removeJobFromDatabase(job: Job) {
+  private fun removeJobFromDatabase(id: Long) {
     serialExecutor.execute {
-      val db = database.writableDatabase
-      db.delete(
-        Tables.JOBS,
-        JobColumns.JOB_NAME + "=? AND " + JobColumns.KEY + "=?",
-        arrayOf(job.javaClass.name, job.key())
-      )
+      deleteJobRow(id)
+      synchronized(jobs) {
+        removedIds.remove(id)
+      }
     }
   }
 
   fun hasJobs(): Boolean {
     synchronized(jobs) {
-      return jobs.size > 0
+      ensureLoaded()
+      return jobCount > 0
     }
   }
 
@@ -167,10 +608,50 @@ class JobManager @Inject constructor(
     serialExecutor.execute {
       synchronized(jobs) {
         jobs.clear()
+        earlyJobs.clear()
+        jobIds.clear()
+        unloadedLockKeys.clear()
+        removedIds.clear()
+        skipCounts.clear()
+        jobCount = 0
+        loaded = true
+        allLoaded = true
 
         val db = database.writableDatabase
         db.delete(Tables.JOBS, null, null)
       }
     }
   }
+
+  /**
+   * Waits for the work queued on the serial executor, such as page loads and row deletes, to
+   * finish. Used by tests.
+   *
+   * @return true if a page was being loaded.
+   */
+  internal fun awaitPendingWork(): Boolean {
+    val pageLoading = synchronized(jobs) { pageRequested }
+    serialExecutor.submit {}.get()
+    return pageLoading
+  }
+
+  companion object {
+
+    /**
+     * Number of jobs hydrated from the database at a time.
+     */
+    private const val PAGE_SIZE = 50
+
+    /**
+     * Jobs are only hydrated while fewer than this many jobs are held in memory, other than when
+     * coalescing.
+     */
+    private const val MAX_LOADED_JOBS = 4 * PAGE_SIZE
+
+    /**
+     * A runnable job is raised one priority level every time it has been passed over this many
+     * times, so lower priority jobs are not starved.
+     */
+    private const val SKIPS_PER_PRIORITY = 8
+  }
 }
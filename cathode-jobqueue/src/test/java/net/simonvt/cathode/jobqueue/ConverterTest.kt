@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.jobqueue
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+import java.io.DataInput
+import java.io.DataOutput
+
+class ConverterTest {
+
+  private val codecs = object : JobCodecRegistry {
+    override fun get(type: Class<out Job>): JobCodec<out Job>? {
+      return when (type) {
+        TestJob::class.java -> TestJobCodec
+        BatchJob::class.java -> BatchJobCodec
+        else -> null
+      }
+    }
+
+    override fun get(id: Int): JobCodec<out Job>? {
+      return when (id) {
+        TestJobCodec.id() -> TestJobCodec
+        BatchJobCodec.id() -> BatchJobCodec
+        else -> null
+      }
+    }
+  }
+
+  @Test
+  fun readJson() {
+    val json = Converter(JobCodecRegistry.EMPTY).to(TestJob(1L, "name", null))
+    assertThat(json[0]).isEqualTo('{'.toByte())
+
+    val converter = Converter(codecs)
+    val job = converter.from(json) as TestJob
+    assertThat(job.id).isEqualTo(1L)
+    assertThat(job.name).isEqualTo("name")
+    assertThat(job.flag).isNull()
+    assertThat(converter.needsMigration(json, job)).isTrue()
+  }
+
+  @Test
+  fun binaryRoundTrip() {
+    val converter = Converter(codecs)
+    val bytes = converter.to(TestJob(2L, null, true))
+    assertThat(bytes[0]).isEqualTo(Converter.FORMAT_BINARY)
+
+    val job = converter.from(bytes) as TestJob
+    assertThat(job.id).isEqualTo(2L)
+    assertThat(job.name).isNull()
+    assertThat(job.flag).isTrue()
+    assertThat(converter.needsMigration(bytes, job)).isFalse()
+  }
+
+  @Test
+  fun nestedJobs() {
+    val converter = Converter(codecs)
+    val bytes = converter.to(BatchJob(listOf(TestJob(1L, "a", false), TestJob(2L, "b", null))))
+
+    val job = converter.from(bytes) as BatchJob
+    assertThat(job.jobs.map { (it as TestJob).name }).containsExactly("a", "b").inOrder()
+  }
+
+  @Test
+  fun unknownCodec() {
+    val bytes = Converter(codecs).to(TestJob(1L, "name", null))
+    assertThat(Converter(JobCodecRegistry.EMPTY).from(bytes)).isNull()
+  }
+
+  class TestJob(val id: Long, val name: String?, val flag: Boolean?) : Job() {
+    override fun key(): String = "TestJob&id=$id"
+    override fun perform(): Boolean = true
+  }
+
+  class BatchJob(val jobs: List<Job>) : Job() {
+    override fun key(): String = "BatchJob"
+    override fun perform(): Boolean = true
+  }
+
+  object TestJobCodec : JobCodec<TestJob> {
+    override fun id(): Int = 1
+    override fun type(): Class<TestJob> = TestJob::class.java
+
+    override fun write(job: TestJob, out: DataOutput, converter: Converter) {
+      out.writeLong(job.id)
+      JobCodecUtils.writeString(out, job.name)
+      JobCodecUtils.writeBoolean(out, job.flag)
+    }
+
+    override fun read(input: DataInput, converter: Converter): TestJob {
+      return TestJob(
+        input.readLong(),
+        JobCodecUtils.readString(input),
+        JobCodecUtils.readBoolean(input)
+      )
+    }
+  }
+
+  object BatchJobCodec : JobCodec<BatchJob> {
+    override fun id(): Int = 2
+    override fun type(): Class<BatchJob> = BatchJob::class.java
+
+    override fun write(job: BatchJob, out: DataOutput, converter: Converter) {
+      JobCodecUtils.writeJobs(out, job.jobs, converter)
+    }
+
+    override fun read(input: DataInput, converter: Converter): BatchJob {
+      return BatchJob(JobCodecUtils.readJobs(input, converter))
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.jobqueue
+
+import android.content.Context
+import android.os.Looper
+import androidx.test.core.app.ApplicationProvider
+import dagger.android.AndroidInjector
+import dagger.android.DispatchingAndroidInjector_Factory
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.mockwebserver.Dispatcher
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.Shadows.shadowOf
+import org.robolectric.annotation.Config
+import org.robolectric.annotation.LooperMode
+import java.util.concurrent.TimeUnit
+import javax.inject.Provider
+
+/**
+ * Measures how long it takes to drain a queue of jobs that each make a request, with one job at a
+ * time and with the default number of concurrent jobs. Run with -Pbenchmarks.
+ */
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [21])
+@LooperMode(LooperMode.Mode.PAUSED)
+class JobExecutorBenchmark {
+
+  private lateinit var server: MockWebServer
+  private lateinit var jobManager: JobManager
+
+  @Before
+  fun setUp() {
+    server = MockWebServer()
+    server.dispatcher = object : Dispatcher() {
+      override fun dispatch(request: RecordedRequest): MockResponse {
+        return MockResponse().setBody("{}").setBodyDelay(RESPONSE_DELAY, TimeUnit.MILLISECONDS)
+      }
+    }
+    server.start()
+
+    val benchmarkJobInjector: Provider<AndroidInjector.Factory<*>> = Provider {
+      AndroidInjector.Factory<BenchmarkJob> { AndroidInjector<BenchmarkJob> { } }
+    }
+    val jobInjector = DispatchingAndroidInjector_Factory.newInstance<Job>(
+      mapOf<Class<*>, Provider<AndroidInjector.Factory<*>>>(
+        BenchmarkJob::class.java to benchmarkJobInjector
+      ),
+      emptyMap()
+    )
+    jobManager = JobManager(
+      ApplicationProvider.getApplicationContext<Context>(),
+      jobInjector,
+      JobCodecRegistry.EMPTY
+    )
+  }
+
+  @After
+  fun tearDown() {
+    server.shutdown()
+  }
+
+  @Test
+  fun drainQueue() {
+    val sequential = measure(1)
+    val concurrent = measure(JobExecutor.DEFAULT_MAX_CONCURRENT_JOBS)
+    println(
+      String.format(
+        "Executed %d jobs: %d ms with 1 job at a time, %d ms with %d concurrent jobs",
+        JOB_COUNT,
+        sequential,
+        concurrent,
+        JobExecutor.DEFAULT_MAX_CONCURRENT_JOBS
+      )
+    )
+  }
+
+  private fun measure(maxConcurrentJobs: Int): Long {
+    val url = server.url("/").toString()
+    for (i in 0 until JOB_COUNT) {
+      jobManager.addJobNow(BenchmarkJob(i, "items/" + i % LOCK_KEY_COUNT, url))
+    }
+
+    var queueEmpty = false
+    val listener = object : JobExecutor.JobExecutorListener {
+      override fun onStartJob(job: Job) {}
+
+      override fun onQueueEmpty() {
+        queueEmpty = true
+      }
+
+      override fun onQueueFailed() {
+        throw AssertionError("Queue failed")
+      }
+    }
+
+    val start = System.nanoTime()
+    val executor = JobExecutor(jobManager, listener, maxConcurrentJobs)
+    executor.start()
+    while (!queueEmpty) {
+      shadowOf(Looper.getMainLooper()).idle()
+      Thread.sleep(5L)
+    }
+    executor.stop()
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+  }
+
+  class BenchmarkJob(private val index: Int, private val lock: String, private val url: String) :
+    Job() {
+
+    override fun key(): String {
+      return "BenchmarkJob&index=$index"
+    }
+
+    override fun lockKey(): String {
+      return lock
+    }
+
+    override fun perform(): Boolean {
+      client.newCall(Request.Builder().url(url).build()).execute().use { response ->
+        return response.isSuccessful
+      }
+    }
+  }
+
+  companion object {
+
+    private const val JOB_COUNT = 1000
+    private const val LOCK_KEY_COUNT = 50
+    private const val RESPONSE_DELAY = 5L
+
+    private val client = OkHttpClient()
+  }
+}
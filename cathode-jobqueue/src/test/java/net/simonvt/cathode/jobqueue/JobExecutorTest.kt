@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.jobqueue
+
+import android.content.Context
+import android.os.Looper
+import androidx.test.core.app.ApplicationProvider
+import com.google.common.truth.Truth.assertThat
+import dagger.android.AndroidInjector
+import dagger.android.DispatchingAndroidInjector_Factory
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.mockwebserver.Dispatcher
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.Shadows.shadowOf
+import org.robolectric.annotation.Config
+import org.robolectric.annotation.LooperMode
+import java.util.Collections
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import javax.inject.Provider
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [21])
+@LooperMode(LooperMode.Mode.PAUSED)
+class JobExecutorTest {
+
+  private lateinit var server: MockWebServer
+  private lateinit var jobManager: JobManager
+
+  @Before
+  fun setUp() {
+    server = MockWebServer()
+    server.dispatcher = object : Dispatcher() {
+      override fun dispatch(request: RecordedRequest): MockResponse {
+        return MockResponse().setBody("{}").setBodyDelay(RESPONSE_DELAY, TimeUnit.MILLISECONDS)
+      }
+    }
+    server.start()
+
+    val testJobInjector: Provider<AndroidInjector.Factory<*>> = Provider {
+      AndroidInjector.Factory<TestJob> { AndroidInjector<TestJob> { } }
+    }
+    val jobInjector = DispatchingAndroidInjector_Factory.newInstance<Job>(
+      mapOf<Class<*>, Provider<AndroidInjector.Factory<*>>>(TestJob::class.java to testJobInjector),
+      emptyMap()
+    )
+    jobManager = JobManager(
+      ApplicationProvider.getApplicationContext<Context>(),
+      jobInjector,
+      JobCodecRegistry.EMPTY
+    )
+
+    executedJobs.clear()
+    runningJobs.set(0)
+    peakRunningJobs.set(0)
+  }
+
+  @After
+  fun tearDown() {
+    server.shutdown()
+  }
+
+  @Test
+  fun drainQueue() {
+    val url = server.url("/").toString()
+    for (i in 0 until JOB_COUNT) {
+      jobManager.addJobNow(TestJob(i, "items/" + i % LOCK_KEY_COUNT, url))
+    }
+
+    drain(JobExecutor.DEFAULT_MAX_CONCURRENT_JOBS)
+
+    assertThat(server.requestCount).isEqualTo(JOB_COUNT)
+    assertThat(peakRunningJobs.get()).isGreaterThan(1)
+    assertThat(peakRunningJobs.get()).isAtMost(JobExecutor.DEFAULT_MAX_CONCURRENT_JOBS)
+
+    // Jobs with the same lock key must execute in the order they were added.
+    val executedByLockKey = executedJobs.groupBy { it.lockKey() }
+    assertThat(executedByLockKey).hasSize(LOCK_KEY_COUNT)
+    for (jobs in executedByLockKey.values) {
+      assertThat(jobs.map { it.index }).isInStrictOrder()
+    }
+  }
+
+  @Test
+  fun lockAllBlocksQueue() {
+    val url = server.url("/").toString()
+    jobManager.addJobNow(TestJob(0, "items/0", url))
+    jobManager.addJobNow(TestJob(1, Job.LOCK_ALL, url))
+    jobManager.addJobNow(TestJob(2, "items/1", url))
+    jobManager.addJobNow(TestJob(3, "items/0/1", url))
+
+    drain(JobExecutor.DEFAULT_MAX_CONCURRENT_JOBS)
+
+    val executed = executedJobs.map { it.index }
+    assertThat(executed).hasSize(4)
+    assertThat(executed.indexOf(1)).isGreaterThan(executed.indexOf(0))
+    assertThat(executed.indexOf(2)).isGreaterThan(executed.indexOf(1))
+    assertThat(executed.indexOf(3)).isGreaterThan(executed.indexOf(1))
+  }
+
+  private fun drain(maxConcurrentJobs: Int) {
+    var queueEmpty = false
+    val listener = object : JobExecutor.JobExecutorListener {
+      override fun onStartJob(job: Job) {}
+
+      override fun onQueueEmpty() {
+        queueEmpty = true
+      }
+
+      override fun onQueueFailed() {
+        throw AssertionError("Queue failed")
+      }
+    }
+
+    val executor = JobExecutor(jobManager, listener, maxConcurrentJobs)
+    executor.start()
+
+    val timeout = System.currentTimeMillis() + DRAIN_TIMEOUT
+    while (!queueEmpty) {
+      assertThat(System.currentTimeMillis()).isLessThan(timeout)
+      shadowOf(Looper.getMainLooper()).idle()
+      Thread.sleep(5L)
+    }
+
+    executor.stop()
+  }
+
+  class TestJob(val index: Int, private val lock: String, private val url: String) : Job() {
+
+    override fun key(): String {
+      return "TestJob&index=$index"
+    }
+
+    override fun lockKey(): String {
+      return lock
+    }
+
+    override fun perform(): Boolean {
+      val running = runningJobs.incrementAndGet()
+      peakRunningJobs.accumulateAndGet(running) { a, b -> Math.max(a, b) }
+      executedJobs.add(this)
+
+      try {
+        client.newCall(Request.Builder().url(url).build()).execute().use { response ->
+          return response.isSuccessful
+        }
+      } finally {
+        runningJobs.decrementAndGet()
+      }
+    }
+  }
+
+  companion object {
+
+    private const val JOB_COUNT = 1000
+    private const val LOCK_KEY_COUNT = 50
+    private const val RESPONSE_DELAY = 5L
+    private const val DRAIN_TIMEOUT = 60 * 1000L
+
+    private val client = OkHttpClient()
+
+    private val executedJobs: MutableList<TestJob> = Collections.synchronizedList(mutableListOf())
+    private val runningJobs = AtomicInteger()
+    private val peakRunningJobs = AtomicInteger()
+  }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.jobqueue
+
+import android.content.Context
+import androidx.test.core.app.ApplicationProvider
+import com.google.common.truth.Truth.assertThat
+import dagger.android.AndroidInjector
+import dagger.android.DispatchingAndroidInjector
+import dagger.android.DispatchingAndroidInjector_Factory
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import javax.inject.Provider
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [21])
+class JobManagerTest {
+
+  private val context = ApplicationProvider.getApplicationContext<Context>()
+
+  private lateinit var jobInjector: DispatchingAndroidInjector<Job>
+
+  @Before
+  fun setUp() {
+    val testJobInjector: Provider<AndroidInjector.Factory<*>> = Provider {
+      AndroidInjector.Factory<TestJob> { AndroidInjector<TestJob> { } }
+    }
+    jobInjector = DispatchingAndroidInjector_Factory.newInstance<Job>(
+      mapOf<Class<*>, Provider<AndroidInjector.Factory<*>>>(TestJob::class.java to testJobInjector),
+      emptyMap()
+    )
+  }
+
+  @Test
+  fun pagedLoading() {
+    val jobManager = JobManager(context, jobInjector, JobCodecRegistry.EMPTY)
+    for (i in 0 until JOB_COUNT) {
+      jobManager.addJobNow(TestJob(i))
+    }
+
+    // A new instance only hydrates jobs as the queue reaches them.
+    val restarted = restart(jobManager)
+    assertThat(restarted.hasJobs()).isTrue()
+
+    for (i in 0 until JOB_COUNT) {
+      val job = restarted.awaitNextJob(emptyList()) as TestJob
+      assertThat(job.index).isEqualTo(i)
+      restarted.removeJob(job)
+    }
+
+    assertThat(restarted.awaitNextJob(emptyList())).isNull()
+    assertThat(restarted.hasJobs()).isFalse()
+  }
+
+  @Test
+  fun skipsRunningJobsAcrossPages() {
+    val jobManager = JobManager(context, jobInjector, JobCodecRegistry.EMPTY)
+    for (i in 0 until JOB_COUNT) {
+      jobManager.addJobNow(TestJob(i))
+    }
+
+    val restarted = restart(jobManager)
+    val running = mutableListOf<Job>()
+    for (i in 0 until JOB_COUNT) {
+      val job = restarted.awaitNextJob(running) as TestJob
+      assertThat(job.index).isEqualTo(i)
+      running.add(job)
+    }
+  }
+
+  @Test
+  fun userJobsSkipBackgroundJobs() {
+    val jobManager = JobManager(context, jobInjector, JobCodecRegistry.EMPTY)
+    for (i in 0 until 3) {
+      jobManager.addJobNow(TestJob(i))
+    }
+    jobManager.addJobNow(TestJob(3, Job.PRIORITY_USER))
+
+    val job = jobManager.awaitNextJob(emptyList()) as TestJob
+    assertThat(job.index).isEqualTo(3)
+  }
+
+  @Test
+  fun userJobsWaitForConflictingJobs() {
+    val jobManager = JobManager(context, jobInjector, JobCodecRegistry.EMPTY)
+    jobManager.addJobNow(TestJob(0, lockKey = "items/1"))
+    jobManager.addJobNow(TestJob(1, Job.PRIORITY_USER, "items/1/2"))
+
+    val job = jobManager.awaitNextJob(emptyList()) as TestJob
+    assertThat(job.index).isEqualTo(0)
+    assertThat(jobManager.awaitNextJob(listOf(job))).isNull()
+  }
+
+  @Test
+  fun userJobsSkipUnloadedBackgroundJobs() {
+    val jobManager = JobManager(context, jobInjector, JobCodecRegistry.EMPTY)
+    for (i in 0 until BACKLOG_COUNT) {
+      jobManager.addJobNow(TestJob(i))
+    }
+    jobManager.addJobNow(TestJob(BACKLOG_COUNT, Job.PRIORITY_USER, "user/1"))
+
+    val job = jobManager.awaitNextJob(emptyList()) as TestJob
+    assertThat(job.index).isEqualTo(BACKLOG_COUNT)
+    jobManager.removeJob(job)
+
+    // User jobs queued behind the first page are loaded on startup.
+    jobManager.addJobNow(TestJob(BACKLOG_COUNT + 1, Job.PRIORITY_USER, "user/2"))
+    val restarted = restart(jobManager)
+    val restartedJob = restarted.awaitNextJob(emptyList()) as TestJob
+    assertThat(restartedJob.index).isEqualTo(BACKLOG_COUNT + 1)
+    restarted.removeJob(restartedJob)
+
+    val started = mutableListOf<Int>()
+    while (true) {
+      val next = restarted.awaitNextJob(emptyList()) as TestJob? ?: break
+      started.add(next.index)
+      restarted.removeJob(next)
+    }
+    assertThat(started).containsExactlyElementsIn(0 until BACKLOG_COUNT).inOrder()
+  }
+
+  @Test
+  fun userJobsWaitForUnloadedConflictingJobs() {
+    val jobManager = JobManager(context, jobInjector, JobCodecRegistry.EMPTY)
+    for (i in 0 until BACKLOG_COUNT) {
+      jobManager.addJobNow(TestJob(i))
+    }
+    val lastIndex = BACKLOG_COUNT - 1
+    jobManager.addJobNow(TestJob(BACKLOG_COUNT, Job.PRIORITY_USER, "items/$lastIndex/1"))
+    jobManager.addJobNow(TestJob(BACKLOG_COUNT + 1, Job.PRIORITY_USER, "items/$BACKLOG_COUNT"))
+
+    val started = mutableListOf<Int>()
+    while (true) {
+      val job = jobManager.awaitNextJob(emptyList()) as TestJob? ?: break
+      started.add(job.index)
+      jobManager.removeJob(job)
+    }
+
+    assertThat(started).hasSize(BACKLOG_COUNT + 2)
+    assertThat(started.first()).isEqualTo(BACKLOG_COUNT + 1)
+    assertThat(started.indexOf(BACKLOG_COUNT)).isGreaterThan(started.indexOf(lastIndex))
+  }
+
+  @Test
+  fun backgroundJobsAreAged() {
+    val jobManager = JobManager(context, jobInjector, JobCodecRegistry.EMPTY)
+    jobManager.addJobNow(TestJob(0))
+    for (i in 1..JOB_COUNT) {
+      jobManager.addJobNow(TestJob(i, Job.PRIORITY_USER))
+    }
+
+    var started = 0
+    while (true) {
+      val job = jobManager.awaitNextJob(emptyList()) as TestJob
+      jobManager.removeJob(job)
+      if (job.index == 0) {
+        break
+      }
+      started++
+    }
+
+    assertThat(started).isGreaterThan(0)
+    assertThat(started).isLessThan(JOB_COUNT)
+  }
+
+  @Test
+  fun minPriority() {
+    val jobManager = JobManager(context, jobInjector, JobCodecRegistry.EMPTY)
+    jobManager.addJobNow(TestJob(0))
+    assertThat(jobManager.awaitNextJob(emptyList(), Job.PRIORITY_USER)).isNull()
+
+    jobManager.addJobNow(TestJob(1, Job.PRIORITY_USER))
+    val job = jobManager.awaitNextJob(emptyList(), Job.PRIORITY_USER) as TestJob
+    assertThat(job.index).isEqualTo(1)
+  }
+
+  @Test
+  fun adjacentJobsAreCoalesced() {
+    val jobManager = JobManager(context, jobInjector, JobCodecRegistry.EMPTY)
+    for (i in 0 until 3) {
+      jobManager.addJobNow(TestJob(i, group = "a"))
+    }
+
+    val job = jobManager.awaitNextJob(emptyList()) as TestJob
+    assertThat(job.batch).containsExactly(0, 1, 2).inOrder()
+
+    // The coalesced job replaces the original jobs in the database.
+    val restarted = restart(jobManager)
+    val restartedJob = restarted.awaitNextJob(emptyList()) as TestJob
+    assertThat(restartedJob.batch).containsExactly(0, 1, 2).inOrder()
+    restarted.removeJob(restartedJob)
+    assertThat(restarted.hasJobs()).isFalse()
+  }
+
+  @Test
+  fun nonAdjacentJobsAreNotCoalesced() {
+    val jobManager = JobManager(context, jobInjector, JobCodecRegistry.EMPTY)
+    jobManager.addJobNow(TestJob(0, group = "a"))
+    jobManager.addJobNow(TestJob(1, group = "b"))
+    jobManager.addJobNow(TestJob(2, group = "a"))
+
+    val batches = mutableListOf<List<Int>>()
+    while (true) {
+      val job = jobManager.awaitNextJob(emptyList()) as TestJob? ?: break
+      batches.add(job.batch)
+      jobManager.removeJob(job)
+    }
+
+    assertThat(batches).containsExactly(listOf(0), listOf(1), listOf(2)).inOrder()
+  }
+
+  @Test
+  fun coalescingStopsAtJobLimit() {
+    val jobManager = JobManager(context, jobInjector, JobCodecRegistry.EMPTY)
+    for (i in 0 until TestJob.MAX_BATCH + 2) {
+      jobManager.addJobNow(TestJob(i, group = "a"))
+    }
+
+    val first = jobManager.awaitNextJob(emptyList()) as TestJob
+    assertThat(first.batch).hasSize(TestJob.MAX_BATCH)
+    jobManager.removeJob(first)
+
+    val second = jobManager.awaitNextJob(emptyList()) as TestJob
+    assertThat(second.batch).containsExactly(TestJob.MAX_BATCH, TestJob.MAX_BATCH + 1).inOrder()
+  }
+
+  /**
+   * Creates a new job manager once the rows removed or replaced by [jobManager] are written.
+   */
+  private fun restart(jobManager: JobManager): JobManager {
+    jobManager.awaitPendingWork()
+    return JobManager(context, jobInjector, JobCodecRegistry.EMPTY)
+  }
+
+  /**
+   * Picks the next job, waiting for the pages [nextJob] requests to be loaded.
+   */
+  private fun JobManager.awaitNextJob(
+    runningJobs: Collection<Job>,
+    minPriority: Int = Int.MIN_VALUE
+  ): Job? {
+    while (true) {
+      val job = nextJob(runningJobs, minPriority)
+      if (job != null || !awaitPendingWork()) {
+        return job
+      }
+    }
+  }
+
+  class TestJob(
+    val index: Int,
+    private val priority: Int = Job.PRIORITY_BACKGROUND,
+    private val lockKey: String = "items/$index",
+    private val group: String? = null,
+    val batch: List<Int> = listOf(index)
+  ) : Job() {
+
+    override fun key(): String = "TestJob&index=$index&batch=${batch.size}"
+
+    override fun lockKey(): String = lockKey
+
+    override fun priority(): Int = priority
+
+    override fun perform(): Boolean = true
+
+    /**
+     * Jobs in the same group are coalesced, up to [MAX_BATCH] jobs.
+     */
+    override fun coalesce(job: Job): Job? {
+      if (group == null || job !is TestJob || job.group != group) {
+        return null
+      }
+      if (batch.size + job.batch.size > MAX_BATCH) {
+        return null
+      }
+
+      return TestJob(index, priority, lockKey, group, batch + job.batch)
+    }
+
+    companion object {
+      const val MAX_BATCH = 3
+    }
+  }
+
+  companion object {
+    private const val JOB_COUNT = 180
+
+    /**
+     * More jobs than the job manager holds in memory.
+     */
+    private const val BACKLOG_COUNT = 250
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.provider
+
+import android.content.ContentProviderOperation
+import android.content.ContentProviderResult
+import android.content.OperationApplicationException
+import android.os.Bundle
+import net.simonvt.cathode.provider.ProviderSchematic.Seasons
+import net.simonvt.cathode.provider.ProviderSchematic.Shows
+import net.simonvt.cathode.provider.generated.CathodeDatabase
+import net.simonvt.cathode.provider.generated.CathodeProvider
+import net.simonvt.cathode.settings.FirstAiredOffsetPreference
+import timber.log.Timber
+
+/**
+ * Adds methods to the generated provider that can't be expressed as content uris.
+ *
+ * Operations applied through [METHOD_BULK_BATCH] run in a single transaction with the season and
+ * show episode count triggers suspended, and the counts of each touched show are recalculated
+ * once at the end. If an operation fails the transaction is rolled back, and the returned bundle
+ * holds the error in [EXTRA_ERROR] instead of [EXTRA_RESULTS].
+ *
+ * [METHOD_REFRESH_AIRED_COUNTS] updates the aired and unaired counts of shows and seasons with
+ * episodes that have aired since the last refresh, and returns when it should next be called.
+ */
+class CathodeContentProvider : CathodeProvider() {
+
+  override fun call(method: String, arg: String?, extras: Bundle?): Bundle? {
+    if (METHOD_BULK_BATCH == method) {
+      val ops = extras?.getParcelableArrayList<ContentProviderOperation>(EXTRA_OPERATIONS)
+        ?: throw IllegalArgumentException("$METHOD_BULK_BATCH requires $EXTRA_OPERATIONS")
+      val results = Bundle()
+      try {
+        results.putParcelableArray(EXTRA_RESULTS, applyBulkBatch(ops))
+      } catch (e: OperationApplicationException) {
+        Timber.e(e)
+        results.putString(EXTRA_ERROR, e.message)
+      }
+      return results
+    }
+
+    if (METHOD_REFRESH_AIRED_COUNTS == method) {
+      val result = Bundle()
+      result.putLong(EXTRA_NEXT_REFRESH, refreshAiredCounts())
+      return result
+    }
+
+    return super.call(method, arg, extras)
+  }
+
+  private fun applyBulkBatch(
+    ops: ArrayList<ContentProviderOperation>
+  ): Array<ContentProviderResult> {
+    val db = CathodeDatabase.getInstance(context).writableDatabase
+    db.beginTransaction()
+    try {
+      DatabaseSchematic.beginDeferredCounts(db)
+      val results = applyBatch(ops)
+      DatabaseSchematic.endDeferredCounts(db)
+      db.setTransactionSuccessful()
+      return results
+    } finally {
+      db.endTransaction()
+    }
+  }
+
+  private fun refreshAiredCounts(): Long {
+    val db = CathodeDatabase.getInstance(context).writableDatabase
+    val offset = FirstAiredOffsetPreference.getInstance().offsetMillis
+    val nextRefresh = DatabaseSchematic.refreshAiredCounts(db, System.currentTimeMillis(), offset)
+    context!!.contentResolver.notifyChange(Shows.SHOWS, null)
+    context!!.contentResolver.notifyChange(Seasons.SEASONS, null)
+    return nextRefresh
+  }
+
+  companion object {
+
+    const val METHOD_BULK_BATCH = "bulkBatch"
+    const val EXTRA_OPERATIONS = "net.simonvt.cathode.provider.CathodeContentProvider.operations"
+    const val EXTRA_RESULTS = "net.simonvt.cathode.provider.CathodeContentProvider.results"
+    const val EXTRA_ERROR = "net.simonvt.cathode.provider.CathodeContentProvider.error"
+
+    const val METHOD_REFRESH_AIRED_COUNTS = "refreshAiredCounts"
+    const val EXTRA_NEXT_REFRESH = "net.simonvt.cathode.provider.CathodeContentProvider.nextRefresh"
+  }
+}
@@ -109,11 +109,10 @@ public final class DatabaseContract {
 
     @DataType(INTEGER) @DefaultValue("0") String WATCHING = "watchingShow";
 
-    // Don't create a columns in database
-    String AIRED_COUNT = "airedCount";
-    String UNAIRED_COUNT = "unairedCount";
-    String EPISODE_COUNT = "episodeCount";
-    String WATCHING_EPISODE_ID = "watchingEpisodeId";
+    @DataType(INTEGER) @DefaultValue("0") String AIRED_COUNT = "airedCount";
+    @DataType(INTEGER) @DefaultValue("0") String UNAIRED_COUNT = "unairedCount";
+    @DataType(INTEGER) @DefaultValue("0") String EPISODE_COUNT = "episodeCount";
+    @DataType(INTEGER) String WATCHING_EPISODE_ID = "watchingEpisodeId";
   }
 
   public interface ShowGenreColumns {
@@ -178,11 +177,12 @@ public final class DatabaseContract {
 
     String SHOW_TITLE = "seasonShowTitle";
 
-    String AIRED_COUNT = "airedCount";
-    String UNAIRED_COUNT = "unairedCount";
+    @DataType(INTEGER) @DefaultValue("0") String AIRED_COUNT = "airedCount";
+    @DataType(INTEGER) @DefaultValue("0") String UNAIRED_COUNT = "unairedCount";
+    @DataType(INTEGER) @DefaultValue("0") String EPISODE_COUNT = "episodeCount";
+
     String WATCHED_AIRED_COUNT = "watchedAiredCount";
     String COLLECTED_AIRED_COUNT = "collectedAiredCount";
-    String EPISODE_COUNT = "episodeCount";
   }
 
   public interface EpisodeColumns extends LastModifiedColumns {
@@ -358,6 +358,16 @@ public final class DatabaseContract {
     @DataType(INTEGER) @NotNull String QUERIED_AT = "queriedAt";
   }
 
+  public interface AiredThresholdsColumns {
+    @DataType(INTEGER) String SHOW_AIRED_BEFORE = "showAiredBefore";
+    @DataType(INTEGER) String SEASON_AIRED_BEFORE = "seasonAiredBefore";
+    @DataType(INTEGER) String UNAIRED_AFTER = "unairedAfter";
+  }
+
+  public interface DeferredCountsColumns {
+    @DataType(INTEGER) @PrimaryKey String SHOW_ID = "showId";
+  }
+
   public interface ListsColumns extends LastModifiedColumns {
 
     @DataType(INTEGER) @PrimaryKey @AutoIncrement String ID = BaseColumns._ID;
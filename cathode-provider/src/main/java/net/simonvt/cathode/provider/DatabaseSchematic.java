@@ -17,9 +17,14 @@ package net.simonvt.cathode.provider;
 
 import android.content.ContentValues;
 import android.content.Context;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.provider.BaseColumns;
+import android.text.format.DateUtils;
 import java.util.Set;
+import net.simonvt.cathode.provider.DatabaseContract.AiredThresholdsColumns;
 import net.simonvt.cathode.provider.DatabaseContract.CommentColumns;
+import net.simonvt.cathode.provider.DatabaseContract.DeferredCountsColumns;
 import net.simonvt.cathode.provider.DatabaseContract.EpisodeColumns;
 import net.simonvt.cathode.provider.DatabaseContract.LastModifiedColumns;
 import net.simonvt.cathode.provider.DatabaseContract.ListItemColumns;
@@ -42,6 +47,7 @@ import net.simonvt.cathode.provider.entity.ItemTypeString;
 import net.simonvt.cathode.provider.generated.CathodeDatabase;
 import net.simonvt.cathode.provider.util.SqlIndex;
 import net.simonvt.cathode.provider.util.SqlUtils;
+import net.simonvt.cathode.settings.Settings;
 import net.simonvt.schematic.annotation.DataType;
 import net.simonvt.schematic.annotation.Database;
 import net.simonvt.schematic.annotation.ExecOnCreate;
@@ -58,7 +64,7 @@ public final class DatabaseSchematic {
   private DatabaseSchematic() {
   }
 
-  static final int DATABASE_VERSION = 47;
+  static final int DATABASE_VERSION = 52;
 
   public interface Tables {
 
@@ -88,6 +94,9 @@ public final class DatabaseSchematic {
     @Table(UserColumns.class) @IfNotExists String USERS = "users";
 
     @Table(CommentColumns.class) @IfNotExists String COMMENTS = "comments";
+
+    @Table(DeferredCountsColumns.class) @IfNotExists String DEFERRED_COUNTS = "deferredCounts";
+    @Table(AiredThresholdsColumns.class) @IfNotExists String AIRED_THRESHOLDS = "airedThresholds";
   }
 
   interface References {
@@ -102,12 +111,18 @@ public final class DatabaseSchematic {
     String EPISODE_UPDATE_AIRED = "episodeUpdateAired";
     String EPISODE_UPDATE_WATCHED = "episodeUpdateWatched";
     String EPISODE_UPDATE_COLLECTED = "episodeUpdateCollected";
+    String EPISODE_UPDATE_PARENT = "episodeUpdateParent";
+
     String EPISODE_UPDATE_WATCHING = "episodeUpdateWatching";
 
     String EPISODE_INSERT = "episodeInsert";
     String EPISODE_UPDATE = "episodeUpdate";
     String EPISODE_DELETE = "episodeDelete";
 
+    String EPISODE_INSERT_DEFERRED = "episodeInsertDeferred";
+    String EPISODE_UPDATE_DEFERRED = "episodeUpdateDeferred";
+    String EPISODE_DELETE_DEFERRED = "episodeDeleteDeferred";
+
     String SHOW_UPDATE = "showUpdate";
     String SHOW_DELETE = "showDelete";
 
@@ -127,54 +142,365 @@ public final class DatabaseSchematic {
     String COMMENT_UPDATE = "commentUpdate";
   }
 
+  /**
+   * Conditions under which an episode is counted towards the counts of its season and show.
+   * {@code %1$s} is replaced with the episode row, e.g. NEW, OLD or the episodes table. Specials
+   * are only counted towards the episode count.
+   */
+  interface EpisodeCondition {
+
+    String WATCHED = "%1$s." + EpisodeColumns.SEASON + ">0 AND %1$s." + EpisodeColumns.WATCHED
+        + "=1";
+    String COLLECTED = "%1$s." + EpisodeColumns.SEASON + ">0 AND %1$s."
+        + EpisodeColumns.IN_COLLECTION + "=1";
+    String AIRDATE = "%1$s." + EpisodeColumns.SEASON + ">0 AND %1$s." + EpisodeColumns.FIRST_AIRED
+        + " IS NOT NULL";
+    String SHOW_AIRED = "%1$s." + EpisodeColumns.SEASON + ">0 AND %1$s."
+        + EpisodeColumns.FIRST_AIRED + "<=(SELECT " + AiredThresholdsColumns.SHOW_AIRED_BEFORE
+        + " FROM " + Tables.AIRED_THRESHOLDS + ")";
+    String SEASON_AIRED = "%1$s." + EpisodeColumns.SEASON + ">0 AND %1$s."
+        + EpisodeColumns.FIRST_AIRED + "<=(SELECT " + AiredThresholdsColumns.SEASON_AIRED_BEFORE
+        + " FROM " + Tables.AIRED_THRESHOLDS + ")";
+    String UNAIRED = "%1$s." + EpisodeColumns.SEASON + ">0 AND %1$s." + EpisodeColumns.FIRST_AIRED
+        + ">(SELECT " + AiredThresholdsColumns.UNAIRED_AFTER + " FROM " + Tables.AIRED_THRESHOLDS
+        + ")";
+    String EPISODE = "%1$s." + EpisodeColumns.ID + " IS NOT NULL";
+  }
+
+  /**
+   * While {@link Tables#DEFERRED_COUNTS} has rows, episode changes only record the show they
+   * belong to, and the counts are recalculated once per show in {@link #endDeferredCounts}.
+   */
+  static final String COUNTS_NOT_DEFERRED =
+      "NOT EXISTS (SELECT 1 FROM " + Tables.DEFERRED_COUNTS + ")";
+
+  static final String COUNTS_DEFERRED = "EXISTS (SELECT 1 FROM " + Tables.DEFERRED_COUNTS + ")";
+
+  /**
+   * Marker row inserted while counts are deferred. Show ids start at 1, so it never matches a
+   * show.
+   */
+  private static final long DEFERRED_COUNTS_MARKER = 0L;
+
+  /**
+   * Returns 1 if the episode referenced by {@code row} (NEW or OLD) matches {@code condition},
+   * 0 otherwise.
+   */
+  static String counted(String row, String condition) {
+    return "(CASE WHEN " + String.format(condition, row) + " THEN 1 ELSE 0 END)";
+  }
+
+  /**
+   * Returns a condition that is true when the updated episode changed whether it matches
+   * {@code condition}.
+   */
+  static String countChanged(String condition) {
+    return counted("OLD", condition) + "<>" + counted("NEW", condition);
+  }
+
+  /**
+   * True when the updated episode was moved to another season or show.
+   */
+  static final String EPISODE_PARENT_CHANGED = "OLD." + EpisodeColumns.SEASON_ID + " IS NOT NEW."
+      + EpisodeColumns.SEASON_ID + " OR OLD." + EpisodeColumns.SHOW_ID + " IS NOT NEW."
+      + EpisodeColumns.SHOW_ID;
+
+  /**
+   * Removes the updated episode from {@code column} on its old parent row if it matched
+   * {@code condition}, and adds it to its new parent row if it matches now.
+   */
+  static String countDelta(String table, String column, String parentIdColumn,
+      String condition) {
+    return "UPDATE " + table + " SET " + column + "=" + column + "-" + counted("OLD", condition)
+        + " WHERE " + table + "." + BaseColumns._ID + "=OLD." + parentIdColumn + ";"
+        + "UPDATE " + table + " SET " + column + "=" + column + "+" + counted("NEW", condition)
+        + " WHERE " + table + "." + BaseColumns._ID + "=NEW." + parentIdColumn + ";";
+  }
+
+  /**
+   * Adds {@code delta} to every season and show count the inserted or deleted episode
+   * referenced by {@code row} is counted towards.
+   */
+  static String countChanges(String row, String delta) {
+    StringBuilder sb = new StringBuilder();
+    appendCountChange(sb, Tables.SEASONS, SeasonColumns.WATCHED_COUNT, EpisodeColumns.SEASON_ID,
+        row, EpisodeCondition.WATCHED, delta);
+    appendCountChange(sb, Tables.SEASONS, SeasonColumns.IN_COLLECTION_COUNT,
+        EpisodeColumns.SEASON_ID, row, EpisodeCondition.COLLECTED, delta);
+    appendCountChange(sb, Tables.SEASONS, SeasonColumns.AIRDATE_COUNT, EpisodeColumns.SEASON_ID,
+        row, EpisodeCondition.AIRDATE, delta);
+    appendCountChange(sb, Tables.SEASONS, SeasonColumns.AIRED_COUNT, EpisodeColumns.SEASON_ID,
+        row, EpisodeCondition.SEASON_AIRED, delta);
+    appendCountChange(sb, Tables.SEASONS, SeasonColumns.UNAIRED_COUNT, EpisodeColumns.SEASON_ID,
+        row, EpisodeCondition.UNAIRED, delta);
+    appendCountChange(sb, Tables.SEASONS, SeasonColumns.EPISODE_COUNT, EpisodeColumns.SEASON_ID,
+        row, EpisodeCondition.EPISODE, delta);
+    appendCountChange(sb, Tables.SHOWS, ShowColumns.WATCHED_COUNT, EpisodeColumns.SHOW_ID, row,
+        EpisodeCondition.WATCHED, delta);
+    appendCountChange(sb, Tables.SHOWS, ShowColumns.IN_COLLECTION_COUNT, EpisodeColumns.SHOW_ID,
+        row, EpisodeCondition.COLLECTED, delta);
+    appendCountChange(sb, Tables.SHOWS, ShowColumns.AIRDATE_COUNT, EpisodeColumns.SHOW_ID, row,
+        EpisodeCondition.AIRDATE, delta);
+    appendCountChange(sb, Tables.SHOWS, ShowColumns.AIRED_COUNT, EpisodeColumns.SHOW_ID, row,
+        EpisodeCondition.SHOW_AIRED, delta);
+    appendCountChange(sb, Tables.SHOWS, ShowColumns.UNAIRED_COUNT, EpisodeColumns.SHOW_ID, row,
+        EpisodeCondition.UNAIRED, delta);
+    appendCountChange(sb, Tables.SHOWS, ShowColumns.EPISODE_COUNT, EpisodeColumns.SHOW_ID, row,
+        EpisodeCondition.EPISODE, delta);
+    return sb.toString();
+  }
+
+  private static void appendCountChange(StringBuilder sb, String table, String column,
+      String parentIdColumn, String row, String condition, String delta) {
+    sb.append("UPDATE ")
+        .append(table)
+        .append(" SET ")
+        .append(column)
+        .append("=")
+        .append(column)
+        .append(delta)
+        .append(" WHERE ")
+        .append(table)
+        .append(".")
+        .append(BaseColumns._ID)
+        .append("=")
+        .append(row)
+        .append(".")
+        .append(parentIdColumn)
+        .append(" AND ")
+        .append(counted(row, condition))
+        .append("=1 AND ")
+        .append(COUNTS_NOT_DEFERRED)
+        .append(";");
+  }
+
+  /**
+   * Returns a SET clause that recalculates {@code column} on {@code parentTable} from the number
+   * of episodes matching {@code condition}.
+   */
+  private static String recount(String parentTable, String column, String parentIdColumn,
+      String condition) {
+    return column + "=(SELECT COUNT(*) FROM " + Tables.EPISODES + " WHERE " + Tables.EPISODES + "."
+        + parentIdColumn + "=" + parentTable + "." + BaseColumns._ID + " AND "
+        + String.format(condition, Tables.EPISODES) + ")";
+  }
+
+  static final String RECOUNT_SEASONS_AIRED = "UPDATE " + Tables.SEASONS + " SET "
+      + recount(Tables.SEASONS, SeasonColumns.AIRED_COUNT, EpisodeColumns.SEASON_ID,
+      EpisodeCondition.SEASON_AIRED) + ","
+      + recount(Tables.SEASONS, SeasonColumns.UNAIRED_COUNT, EpisodeColumns.SEASON_ID,
+      EpisodeCondition.UNAIRED);
+
+  static final String RECOUNT_SHOWS_AIRED = "UPDATE " + Tables.SHOWS + " SET "
+      + recount(Tables.SHOWS, ShowColumns.AIRED_COUNT, EpisodeColumns.SHOW_ID,
+      EpisodeCondition.SHOW_AIRED) + ","
+      + recount(Tables.SHOWS, ShowColumns.UNAIRED_COUNT, EpisodeColumns.SHOW_ID,
+      EpisodeCondition.UNAIRED);
+
+  static final String RECOUNT_SEASONS = RECOUNT_SEASONS_AIRED + ","
+      + recount(Tables.SEASONS, SeasonColumns.WATCHED_COUNT, EpisodeColumns.SEASON_ID,
+      EpisodeCondition.WATCHED) + ","
+      + recount(Tables.SEASONS, SeasonColumns.IN_COLLECTION_COUNT, EpisodeColumns.SEASON_ID,
+      EpisodeCondition.COLLECTED) + ","
+      + recount(Tables.SEASONS, SeasonColumns.AIRDATE_COUNT, EpisodeColumns.SEASON_ID,
+      EpisodeCondition.AIRDATE) + ","
+      + recount(Tables.SEASONS, SeasonColumns.EPISODE_COUNT, EpisodeColumns.SEASON_ID,
+      EpisodeCondition.EPISODE);
+
+  static final String RECOUNT_SHOWS = RECOUNT_SHOWS_AIRED + ","
+      + recount(Tables.SHOWS, ShowColumns.WATCHED_COUNT, EpisodeColumns.SHOW_ID,
+      EpisodeCondition.WATCHED) + ","
+      + recount(Tables.SHOWS, ShowColumns.IN_COLLECTION_COUNT, EpisodeColumns.SHOW_ID,
+      EpisodeCondition.COLLECTED) + ","
+      + recount(Tables.SHOWS, ShowColumns.AIRDATE_COUNT, EpisodeColumns.SHOW_ID,
+      EpisodeCondition.AIRDATE) + ","
+      + recount(Tables.SHOWS, ShowColumns.EPISODE_COUNT, EpisodeColumns.SHOW_ID,
+      EpisodeCondition.EPISODE);
+
+  static final String RECOUNT_SHOWS_WATCHING = "UPDATE " + Tables.SHOWS + " SET "
+      + ShowColumns.WATCHING + "=(SELECT COUNT(*) FROM " + Tables.EPISODES + " WHERE "
+      + Tables.EPISODES + "." + EpisodeColumns.SHOW_ID + "=" + Tables.SHOWS + "." + ShowColumns.ID
+      + " AND (" + Tables.EPISODES + "." + EpisodeColumns.WATCHING + "=1 OR " + Tables.EPISODES
+      + "." + EpisodeColumns.CHECKED_IN + "=1)),"
+      + ShowColumns.WATCHING_EPISODE_ID + "=(SELECT " + Tables.EPISODES + "." + EpisodeColumns.ID
+      + " FROM " + Tables.EPISODES + " WHERE " + Tables.EPISODES + "." + EpisodeColumns.SHOW_ID
+      + "=" + Tables.SHOWS + "." + ShowColumns.ID + " AND (" + Tables.EPISODES + "."
+      + EpisodeColumns.WATCHING + "=1 OR " + Tables.EPISODES + "." + EpisodeColumns.CHECKED_IN
+      + "=1) LIMIT 1)";
+
+  /**
+   * Recalculates the episode counts of all seasons and shows from the episodes table. The
+   * triggers only apply deltas, so this repairs counts that have drifted.
+   */
+  public static void recountEpisodeCounts(SQLiteDatabase db) {
+    db.beginTransaction();
+    try {
+      db.execSQL(RECOUNT_SEASONS);
+      db.execSQL(RECOUNT_SHOWS);
+      db.execSQL(RECOUNT_SHOWS_WATCHING);
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+    }
+  }
+
+  /**
+   * Suspends the episode count triggers. Must be called inside a transaction that ends with
+   * {@link #endDeferredCounts(SQLiteDatabase)}.
+   */
+  public static void beginDeferredCounts(SQLiteDatabase db) {
+    db.execSQL("INSERT OR IGNORE INTO " + Tables.DEFERRED_COUNTS + "("
+        + DeferredCountsColumns.SHOW_ID + ") VALUES (" + DEFERRED_COUNTS_MARKER + ")");
+  }
+
+  /**
+   * Recalculates the counts of every show touched since
+   * {@link #beginDeferredCounts(SQLiteDatabase)} and resumes the episode count triggers.
+   */
+  public static void endDeferredCounts(SQLiteDatabase db) {
+    final String deferredShows =
+        " IN (SELECT " + DeferredCountsColumns.SHOW_ID + " FROM " + Tables.DEFERRED_COUNTS + ")";
+    db.execSQL(RECOUNT_SEASONS + " WHERE " + Tables.SEASONS + "." + SeasonColumns.SHOW_ID
+        + deferredShows);
+    db.execSQL(RECOUNT_SHOWS + " WHERE " + Tables.SHOWS + "." + ShowColumns.ID + deferredShows);
+    db.delete(Tables.DEFERRED_COUNTS, null, null);
+  }
+
+  /**
+   * Moves the aired thresholds to {@code currentTime} and recounts the aired and unaired counts
+   * of the shows and seasons that have episodes crossing a threshold.
+   *
+   * @return The time at which the next episode crosses a threshold, or -1 if none will.
+   */
+  public static long refreshAiredCounts(SQLiteDatabase db, long currentTime, long offset) {
+    final long showAiredBefore = currentTime - offset + DateUtils.DAY_IN_MILLIS;
+    final long seasonAiredBefore = currentTime + offset;
+    final long unairedAfter = currentTime - offset;
+
+    db.beginTransaction();
+    try {
+      Cursor thresholds = db.query(Tables.AIRED_THRESHOLDS, new String[] {
+          AiredThresholdsColumns.SHOW_AIRED_BEFORE, AiredThresholdsColumns.SEASON_AIRED_BEFORE,
+          AiredThresholdsColumns.UNAIRED_AFTER,
+      }, null, null, null, null, null);
+      final boolean hasThresholds = thresholds.moveToFirst();
+      final long oldShowAiredBefore = hasThresholds ? thresholds.getLong(0) : 0L;
+      final long oldSeasonAiredBefore = hasThresholds ? thresholds.getLong(1) : 0L;
+      final long oldUnairedAfter = hasThresholds ? thresholds.getLong(2) : 0L;
+      thresholds.close();
+
+      ContentValues values = new ContentValues();
+      values.put(AiredThresholdsColumns.SHOW_AIRED_BEFORE, showAiredBefore);
+      values.put(AiredThresholdsColumns.SEASON_AIRED_BEFORE, seasonAiredBefore);
+      values.put(AiredThresholdsColumns.UNAIRED_AFTER, unairedAfter);
+      db.delete(Tables.AIRED_THRESHOLDS, null, null);
+      db.insert(Tables.AIRED_THRESHOLDS, null, values);
+
+      if (!hasThresholds) {
+        db.execSQL(RECOUNT_SHOWS_AIRED);
+        db.execSQL(RECOUNT_SEASONS_AIRED);
+      } else {
+        db.execSQL(RECOUNT_SHOWS_AIRED + " WHERE " + Tables.SHOWS + "." + ShowColumns.ID + " IN "
+                + crossedEpisodes(EpisodeColumns.SHOW_ID),
+            crossedArgs(oldShowAiredBefore, showAiredBefore, oldUnairedAfter, unairedAfter));
+        db.execSQL(RECOUNT_SEASONS_AIRED + " WHERE " + Tables.SEASONS + "." + SeasonColumns.ID
+                + " IN " + crossedEpisodes(EpisodeColumns.SEASON_ID),
+            crossedArgs(oldSeasonAiredBefore, seasonAiredBefore, oldUnairedAfter, unairedAfter));
+      }
+
+      long nextCrossing = Long.MAX_VALUE;
+      for (long threshold : new long[] { showAiredBefore, seasonAiredBefore, unairedAfter }) {
+        Cursor next = db.rawQuery("SELECT MIN(" + EpisodeColumns.FIRST_AIRED + ") FROM "
+            + Tables.EPISODES + " WHERE " + EpisodeColumns.SEASON + ">0 AND "
+            + EpisodeColumns.FIRST_AIRED + ">?", new String[] { String.valueOf(threshold) });
+        if (next.moveToFirst() && !next.isNull(0)) {
+          nextCrossing = Math.min(nextCrossing, currentTime + next.getLong(0) - threshold);
+        }
+        next.close();
+      }
+
+      db.setTransactionSuccessful();
+      return nextCrossing == Long.MAX_VALUE ? -1L : nextCrossing;
+    } finally {
+      db.endTransaction();
+    }
+  }
+
+  /**
+   * Selects {@code column} of the episodes whose first aired time lies between either of two
+   * pairs of thresholds.
+   */
+  private static String crossedEpisodes(String column) {
+    return "(SELECT " + column + " FROM " + Tables.EPISODES + " WHERE " + EpisodeColumns.SEASON
+        + ">0 AND ((" + EpisodeColumns.FIRST_AIRED + ">? AND " + EpisodeColumns.FIRST_AIRED
+        + "<=?) OR (" + EpisodeColumns.FIRST_AIRED + ">? AND " + EpisodeColumns.FIRST_AIRED
+        + "<=?)))";
+  }
+
+  private static Object[] crossedArgs(long oldAired, long aired, long oldUnaired, long unaired) {
+    return new Object[] {
+        Math.min(oldAired, aired), Math.max(oldAired, aired), Math.min(oldUnaired, unaired),
+        Math.max(oldUnaired, unaired),
+    };
+  }
+
   interface Trigger {
 
     String SEASONS_UPDATE_WATCHED =
-        "UPDATE " + Tables.SEASONS + " SET " + SeasonColumns.WATCHED_COUNT
-            + "=(SELECT COUNT(*) FROM " + Tables.EPISODES + " WHERE " + Tables.EPISODES + "."
-            + EpisodeColumns.SEASON_ID + "=NEW." + EpisodeColumns.SEASON_ID + " AND "
-            + Tables.EPISODES + "." + EpisodeColumns.WATCHED + "=1" + " AND " + Tables.EPISODES
-            + "." + EpisodeColumns.SEASON + ">0)" + " WHERE " + Tables.SEASONS + "."
-            + SeasonColumns.ID + "=NEW." + EpisodeColumns.SEASON_ID + ";";
+        countDelta(Tables.SEASONS, SeasonColumns.WATCHED_COUNT, EpisodeColumns.SEASON_ID,
+            EpisodeCondition.WATCHED);
 
     String SEASONS_UPDATE_COLLECTED =
-        "UPDATE " + Tables.SEASONS + " SET " + SeasonColumns.IN_COLLECTION_COUNT
-            + "=(SELECT COUNT(*) FROM " + Tables.EPISODES + " WHERE " + Tables.EPISODES + "."
-            + EpisodeColumns.SEASON_ID + "=NEW." + EpisodeColumns.SEASON_ID + " AND "
-            + Tables.EPISODES + "." + EpisodeColumns.IN_COLLECTION + "=1"
-            + " AND " + Tables.EPISODES + "." + EpisodeColumns.SEASON + ">0)" + " WHERE "
-            + Tables.SEASONS + "." + SeasonColumns.ID + "=NEW." + EpisodeColumns.SEASON_ID + ";";
+        countDelta(Tables.SEASONS, SeasonColumns.IN_COLLECTION_COUNT, EpisodeColumns.SEASON_ID,
+            EpisodeCondition.COLLECTED);
 
     String SEASONS_UPDATE_AIRDATE =
-        "UPDATE " + Tables.SEASONS + " SET " + SeasonColumns.AIRDATE_COUNT
-            + "=(SELECT COUNT(*) FROM " + Tables.EPISODES + " WHERE " + Tables.EPISODES + "."
-            + EpisodeColumns.SEASON_ID + "=NEW." + EpisodeColumns.SEASON_ID + " AND "
-            + Tables.EPISODES + "." + EpisodeColumns.FIRST_AIRED + " IS NOT NULL "
-            + " AND " + Tables.EPISODES + "." + EpisodeColumns.SEASON + ">0)" + " WHERE "
-            + Tables.SEASONS + "." + SeasonColumns.ID + "=NEW." + EpisodeColumns.SEASON_ID + ";";
+        countDelta(Tables.SEASONS, SeasonColumns.AIRDATE_COUNT, EpisodeColumns.SEASON_ID,
+            EpisodeCondition.AIRDATE)
+            + countDelta(Tables.SEASONS, SeasonColumns.AIRED_COUNT, EpisodeColumns.SEASON_ID,
+            EpisodeCondition.SEASON_AIRED)
+            + countDelta(Tables.SEASONS, SeasonColumns.UNAIRED_COUNT, EpisodeColumns.SEASON_ID,
+            EpisodeCondition.UNAIRED);
 
     String SHOWS_UPDATE_WATCHED =
-        "UPDATE " + Tables.SHOWS + " SET " + ShowColumns.WATCHED_COUNT + "=(SELECT COUNT(*) FROM "
-            + Tables.EPISODES + " WHERE " + Tables.EPISODES + "." + EpisodeColumns.SHOW_ID + "=NEW."
-            + EpisodeColumns.SHOW_ID + " AND " + Tables.EPISODES + "." + EpisodeColumns.WATCHED
-            + "=1" + " AND " + Tables.EPISODES + "." + EpisodeColumns.SEASON + ">0)" + " WHERE "
-            + Tables.SHOWS + "." + ShowColumns.ID + "=NEW." + EpisodeColumns.SHOW_ID + ";";
+        countDelta(Tables.SHOWS, ShowColumns.WATCHED_COUNT, EpisodeColumns.SHOW_ID,
+            EpisodeCondition.WATCHED);
 
     String SHOWS_UPDATE_COLLECTED =
-        "UPDATE " + Tables.SHOWS + " SET " + ShowColumns.IN_COLLECTION_COUNT
-            + "=(SELECT COUNT(*) FROM " + Tables.EPISODES + " WHERE " + Tables.EPISODES + "."
-            + EpisodeColumns.SHOW_ID + "=NEW." + EpisodeColumns.SHOW_ID + " AND " + Tables.EPISODES
-            + "." + EpisodeColumns.IN_COLLECTION + "=1" + " AND " + Tables.EPISODES + "."
-            + EpisodeColumns.SEASON + ">0)" + " WHERE " + Tables.SHOWS + "." + ShowColumns.ID
-            + "=NEW." + EpisodeColumns.SHOW_ID + ";";
+        countDelta(Tables.SHOWS, ShowColumns.IN_COLLECTION_COUNT, EpisodeColumns.SHOW_ID,
+            EpisodeCondition.COLLECTED);
 
     String SHOWS_UPDATE_AIRDATE =
-        "UPDATE " + Tables.SHOWS + " SET " + ShowColumns.AIRDATE_COUNT + "=(SELECT COUNT(*) FROM "
-            + Tables.EPISODES + " WHERE " + Tables.EPISODES + "." + EpisodeColumns.SHOW_ID + "=NEW."
-            + EpisodeColumns.SHOW_ID + " AND " + Tables.EPISODES + "." + EpisodeColumns.FIRST_AIRED
-            + " IS NOT NULL " + " AND " + Tables.EPISODES + "." + EpisodeColumns.SEASON + ">0)"
-            + " WHERE " + Tables.SHOWS + "." + ShowColumns.ID + "=NEW." + EpisodeColumns.SHOW_ID
-            + ";";
+        countDelta(Tables.SHOWS, ShowColumns.AIRDATE_COUNT, EpisodeColumns.SHOW_ID,
+            EpisodeCondition.AIRDATE)
+            + countDelta(Tables.SHOWS, ShowColumns.AIRED_COUNT, EpisodeColumns.SHOW_ID,
+            EpisodeCondition.SHOW_AIRED)
+            + countDelta(Tables.SHOWS, ShowColumns.UNAIRED_COUNT, EpisodeColumns.SHOW_ID,
+            EpisodeCondition.UNAIRED);
+
+    String EPISODE_UPDATE_PARENT =
+        countDelta(Tables.SEASONS, SeasonColumns.EPISODE_COUNT, EpisodeColumns.SEASON_ID,
+            EpisodeCondition.EPISODE)
+            + countDelta(Tables.SHOWS, ShowColumns.EPISODE_COUNT, EpisodeColumns.SHOW_ID,
+            EpisodeCondition.EPISODE);
+
+    String EPISODE_INSERT_COUNTS = countChanges("NEW", "+1");
+
+    String EPISODE_DELETE_COUNTS = countChanges("OLD", "-1");
+
+    String DEFER_COUNTS_NEW = "INSERT OR IGNORE INTO " + Tables.DEFERRED_COUNTS + "("
+        + DeferredCountsColumns.SHOW_ID + ") VALUES (NEW." + EpisodeColumns.SHOW_ID + ");";
+
+    String DEFER_COUNTS_OLD = "INSERT OR IGNORE INTO " + Tables.DEFERRED_COUNTS + "("
+        + DeferredCountsColumns.SHOW_ID + ") VALUES (OLD." + EpisodeColumns.SHOW_ID + ");";
+
+    /**
+     * Records both shows of an episode that was moved to another show.
+     */
+    String DEFER_COUNTS_MOVED = "INSERT OR IGNORE INTO " + Tables.DEFERRED_COUNTS + "("
+        + DeferredCountsColumns.SHOW_ID + ") SELECT OLD." + EpisodeColumns.SHOW_ID + " WHERE OLD."
+        + EpisodeColumns.SHOW_ID + " IS NOT NULL AND OLD." + EpisodeColumns.SHOW_ID + " IS NOT NEW."
+        + EpisodeColumns.SHOW_ID + ";";
 
     String SHOWS_UPDATE_WATCHING = "UPDATE "
         + Tables.SHOWS
@@ -190,6 +516,21 @@ public final class DatabaseSchematic {
         + " OR "
         + Tables.EPISODES + "." + EpisodeColumns.CHECKED_IN + "=1"
         + ")"
+        + "),"
+        + ShowColumns.WATCHING_EPISODE_ID
+        + "=(SELECT "
+        + Tables.EPISODES + "." + EpisodeColumns.ID
+        + " FROM "
+        + Tables.EPISODES
+        + " WHERE "
+        + Tables.EPISODES + "." + EpisodeColumns.SHOW_ID + "=NEW." + EpisodeColumns.SHOW_ID
+        + " AND "
+        + "("
+        + Tables.EPISODES + "." + EpisodeColumns.WATCHING + "=1"
+        + " OR "
+        + Tables.EPISODES + "." + EpisodeColumns.CHECKED_IN + "=1"
+        + ")"
+        + " LIMIT 1"
         + ")"
         + " WHERE "
         + Tables.SHOWS + "." + ShowColumns.ID + "=NEW." + EpisodeColumns.SHOW_ID
@@ -291,19 +632,37 @@ public final class DatabaseSchematic {
 
   @ExecOnCreate public static final String TRIGGER_EPISODE_UPDATE_AIRED =
       "CREATE TRIGGER IF NOT EXISTS " + TriggerName.EPISODE_UPDATE_AIRED + " AFTER UPDATE OF "
-          + EpisodeColumns.FIRST_AIRED + " ON " + Tables.EPISODES + " BEGIN "
+          + EpisodeColumns.FIRST_AIRED + "," + EpisodeColumns.SEASON + ","
+          + EpisodeColumns.SEASON_ID + "," + EpisodeColumns.SHOW_ID + " ON " + Tables.EPISODES
+          + " WHEN (" + countChanged(EpisodeCondition.AIRDATE) + " OR "
+          + countChanged(EpisodeCondition.SHOW_AIRED) + " OR "
+          + countChanged(EpisodeCondition.SEASON_AIRED) + " OR "
+          + countChanged(EpisodeCondition.UNAIRED) + " OR " + EPISODE_PARENT_CHANGED + ") AND "
+          + COUNTS_NOT_DEFERRED + " BEGIN "
           + Trigger.SEASONS_UPDATE_AIRDATE + Trigger.SHOWS_UPDATE_AIRDATE + " END;";
 
   @ExecOnCreate public static final String TRIGGER_EPISODE_UPDATE_WATCHED =
       "CREATE TRIGGER IF NOT EXISTS " + TriggerName.EPISODE_UPDATE_WATCHED + " AFTER UPDATE OF "
-          + EpisodeColumns.WATCHED + " ON " + Tables.EPISODES + " BEGIN "
+          + EpisodeColumns.WATCHED + "," + EpisodeColumns.SEASON + "," + EpisodeColumns.SEASON_ID
+          + "," + EpisodeColumns.SHOW_ID + " ON " + Tables.EPISODES + " WHEN ("
+          + countChanged(EpisodeCondition.WATCHED) + " OR " + EPISODE_PARENT_CHANGED + ") AND "
+          + COUNTS_NOT_DEFERRED + " BEGIN "
           + Trigger.SEASONS_UPDATE_WATCHED + Trigger.SHOWS_UPDATE_WATCHED + " END;";
 
   @ExecOnCreate public static final String TRIGGER_EPISODE_UPDATE_COLLECTED =
       "CREATE TRIGGER IF NOT EXISTS " + TriggerName.EPISODE_UPDATE_COLLECTED + " AFTER UPDATE OF "
-          + EpisodeColumns.IN_COLLECTION + " ON " + Tables.EPISODES + " BEGIN "
+          + EpisodeColumns.IN_COLLECTION + "," + EpisodeColumns.SEASON + ","
+          + EpisodeColumns.SEASON_ID + "," + EpisodeColumns.SHOW_ID + " ON " + Tables.EPISODES
+          + " WHEN (" + countChanged(EpisodeCondition.COLLECTED) + " OR " + EPISODE_PARENT_CHANGED
+          + ") AND " + COUNTS_NOT_DEFERRED + " BEGIN "
           + Trigger.SEASONS_UPDATE_COLLECTED + Trigger.SHOWS_UPDATE_COLLECTED + " END;";
 
+  @ExecOnCreate public static final String TRIGGER_EPISODE_UPDATE_PARENT =
+      "CREATE TRIGGER IF NOT EXISTS " + TriggerName.EPISODE_UPDATE_PARENT + " AFTER UPDATE OF "
+          + EpisodeColumns.SEASON_ID + "," + EpisodeColumns.SHOW_ID + " ON " + Tables.EPISODES
+          + " WHEN (" + EPISODE_PARENT_CHANGED + ") AND " + COUNTS_NOT_DEFERRED + " BEGIN "
+          + Trigger.EPISODE_UPDATE_PARENT + " END;";
+
   @ExecOnCreate public static final String TRIGGER_EPISODE_UPDATE_WATCHING =
       "CREATE TRIGGER IF NOT EXISTS " + TriggerName.EPISODE_UPDATE_WATCHING + " AFTER UPDATE OF "
           + EpisodeColumns.WATCHING + "," + EpisodeColumns.CHECKED_IN + " ON " + Tables.EPISODES
@@ -311,10 +670,25 @@ public final class DatabaseSchematic {
 
   @ExecOnCreate public static final String TRIGGER_EPISODE_INSERT =
       "CREATE TRIGGER IF NOT EXISTS " + TriggerName.EPISODE_INSERT + " AFTER INSERT ON "
-          + Tables.EPISODES + " BEGIN " + Trigger.SEASONS_UPDATE_WATCHED
-          + Trigger.SEASONS_UPDATE_AIRDATE + Trigger.SEASONS_UPDATE_COLLECTED
-          + Trigger.SHOWS_UPDATE_WATCHED + Trigger.SHOWS_UPDATE_AIRDATE
-          + Trigger.SHOWS_UPDATE_COLLECTED + " END;";
+          + Tables.EPISODES + " BEGIN " + Trigger.EPISODE_INSERT_COUNTS + " END;";
+
+  @ExecOnCreate public static final String TRIGGER_EPISODE_INSERT_DEFERRED =
+      "CREATE TRIGGER IF NOT EXISTS " + TriggerName.EPISODE_INSERT_DEFERRED + " AFTER INSERT ON "
+          + Tables.EPISODES + " WHEN NEW." + EpisodeColumns.SHOW_ID + " IS NOT NULL AND "
+          + COUNTS_DEFERRED + " BEGIN " + Trigger.DEFER_COUNTS_NEW + " END;";
+
+  @ExecOnCreate public static final String TRIGGER_EPISODE_UPDATE_DEFERRED =
+      "CREATE TRIGGER IF NOT EXISTS " + TriggerName.EPISODE_UPDATE_DEFERRED + " AFTER UPDATE OF "
+          + EpisodeColumns.WATCHED + "," + EpisodeColumns.IN_COLLECTION + ","
+          + EpisodeColumns.FIRST_AIRED + "," + EpisodeColumns.SEASON + ","
+          + EpisodeColumns.SEASON_ID + "," + EpisodeColumns.SHOW_ID + " ON " + Tables.EPISODES
+          + " WHEN NEW." + EpisodeColumns.SHOW_ID + " IS NOT NULL AND " + COUNTS_DEFERRED
+          + " BEGIN " + Trigger.DEFER_COUNTS_NEW + Trigger.DEFER_COUNTS_MOVED + " END;";
+
+  @ExecOnCreate public static final String TRIGGER_EPISODE_DELETE_DEFERRED =
+      "CREATE TRIGGER IF NOT EXISTS " + TriggerName.EPISODE_DELETE_DEFERRED + " AFTER DELETE ON "
+          + Tables.EPISODES + " WHEN OLD." + EpisodeColumns.SHOW_ID + " IS NOT NULL AND "
+          + COUNTS_DEFERRED + " BEGIN " + Trigger.DEFER_COUNTS_OLD + " END;";
 
   @ExecOnCreate public static final String TRIGGER_SHOW_DELETE =
       "CREATE TRIGGER IF NOT EXISTS " + TriggerName.SHOW_DELETE + " AFTER DELETE ON " + Tables.SHOWS
@@ -328,7 +702,8 @@ public final class DatabaseSchematic {
 
   @ExecOnCreate public static final String TRIGGER_EPISODE_DELETE =
       "CREATE TRIGGER IF NOT EXISTS " + TriggerName.EPISODE_DELETE + " AFTER DELETE ON "
-          + Tables.EPISODES + " BEGIN " + Trigger.EPISODE_DELETE_COMMENTS + " END";
+          + Tables.EPISODES + " BEGIN " + Trigger.EPISODE_DELETE_COMMENTS
+          + Trigger.EPISODE_DELETE_COUNTS + " END";
 
   @ExecOnCreate public static final String TRIGGER_MOVIE_DELETE =
       "CREATE TRIGGER IF NOT EXISTS " + TriggerName.MOVIE_DELETE + " AFTER DELETE ON "
@@ -442,6 +817,91 @@ public final class DatabaseSchematic {
           .forColumns(EpisodeColumns.SEASON_ID)
           .build();
 
+  @ExecOnCreate public static final String INDEX_EPISODES_FIRST_AIRED =
+      SqlIndex.index("episodesFirstAired")
+          .ifNotExists()
+          .onTable(Tables.EPISODES)
+          .forColumns(EpisodeColumns.FIRST_AIRED)
+          .build();
+
+  @ExecOnCreate public static final String INDEX_SHOWS_TRAKT_ID =
+      SqlIndex.index("showsTraktId")
+          .ifNotExists()
+          .onTable(Tables.SHOWS)
+          .forColumns(ShowColumns.TRAKT_ID)
+          .build();
+
+  @ExecOnCreate public static final String INDEX_SHOWS_TMDB_ID =
+      SqlIndex.index("showsTmdbId")
+          .ifNotExists()
+          .onTable(Tables.SHOWS)
+          .forColumns(ShowColumns.TMDB_ID)
+          .build();
+
+  @ExecOnCreate public static final String INDEX_EPISODES_TRAKT_ID =
+      SqlIndex.index("episodesTraktId")
+          .ifNotExists()
+          .onTable(Tables.EPISODES)
+          .forColumns(EpisodeColumns.TRAKT_ID)
+          .build();
+
+  @ExecOnCreate public static final String INDEX_MOVIES_TRAKT_ID =
+      SqlIndex.index("moviesTraktId")
+          .ifNotExists()
+          .onTable(Tables.MOVIES)
+          .forColumns(MovieColumns.TRAKT_ID)
+          .build();
+
+  @ExecOnCreate public static final String INDEX_MOVIES_TMDB_ID =
+      SqlIndex.index("moviesTmdbId")
+          .ifNotExists()
+          .onTable(Tables.MOVIES)
+          .forColumns(MovieColumns.TMDB_ID)
+          .build();
+
+  @ExecOnCreate public static final String INDEX_PEOPLE_TRAKT_ID =
+      SqlIndex.index("peopleTraktId")
+          .ifNotExists()
+          .onTable(Tables.PEOPLE)
+          .forColumns(PersonColumns.TRAKT_ID)
+          .build();
+
+  @ExecOnCreate public static final String INDEX_PEOPLE_TMDB_ID =
+      SqlIndex.index("peopleTmdbId")
+          .ifNotExists()
+          .onTable(Tables.PEOPLE)
+          .forColumns(PersonColumns.TMDB_ID)
+          .build();
+
+  @ExecOnCreate public static final String INDEX_LISTS_TRAKT_ID =
+      SqlIndex.index("listsTraktId")
+          .ifNotExists()
+          .onTable(Tables.LISTS)
+          .forColumns(ListsColumns.TRAKT_ID)
+          .build();
+
+  @ExecOnCreate public static final String INDEX_LIST_ITEMS_LIST_ID =
+      SqlIndex.index("listItemsListId")
+          .ifNotExists()
+          .onTable(Tables.LIST_ITEMS)
+          .forColumns(ListItemColumns.LIST_ID)
+          .build();
+
+  @ExecOnCreate public static final String INDEX_LIST_ITEMS_ITEM =
+      SqlIndex.index("listItemsItem")
+          .ifNotExists()
+          .onTable(Tables.LIST_ITEMS)
+          .forColumns(ListItemColumns.ITEM_TYPE, ListItemColumns.ITEM_ID,
+              ListItemColumns.LIST_ID)
+          .build();
+
+  @ExecOnCreate public static final String INDEX_COMMENTS_ITEM =
+      SqlIndex.index("commentsItem")
+          .ifNotExists()
+          .onTable(Tables.COMMENTS)
+          .forColumns(CommentColumns.ITEM_TYPE, CommentColumns.ITEM_ID)
+          .build();
+
   @OnUpgrade
   public static void onUpgrade(Context context, SQLiteDatabase db, int oldVersion, int newVersion) {
     if (oldVersion < 12) {
@@ -790,5 +1250,95 @@ public final class DatabaseSchematic {
       SqlUtils.createColumnIfNotExists(db, Tables.LIST_ITEMS, ListItemColumns.RANK,
           DataType.Type.INTEGER, null);
     }
+
+    if (oldVersion < 48) {
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_UPDATE_WATCHED);
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_UPDATE_COLLECTED);
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_UPDATE_AIRED);
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_INSERT);
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_DELETE);
+      db.execSQL(TRIGGER_EPISODE_UPDATE_WATCHED);
+      db.execSQL(TRIGGER_EPISODE_UPDATE_COLLECTED);
+      db.execSQL(TRIGGER_EPISODE_UPDATE_AIRED);
+      db.execSQL(TRIGGER_EPISODE_INSERT);
+      db.execSQL(TRIGGER_EPISODE_DELETE);
+    }
+
+    if (oldVersion < 49) {
+      db.execSQL(CathodeDatabase.DEFERRED_COUNTS);
+
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_UPDATE_WATCHED);
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_UPDATE_COLLECTED);
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_UPDATE_AIRED);
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_INSERT);
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_DELETE);
+      db.execSQL(TRIGGER_EPISODE_UPDATE_WATCHED);
+      db.execSQL(TRIGGER_EPISODE_UPDATE_COLLECTED);
+      db.execSQL(TRIGGER_EPISODE_UPDATE_AIRED);
+      db.execSQL(TRIGGER_EPISODE_INSERT);
+      db.execSQL(TRIGGER_EPISODE_DELETE);
+      db.execSQL(TRIGGER_EPISODE_INSERT_DEFERRED);
+      db.execSQL(TRIGGER_EPISODE_UPDATE_DEFERRED);
+      db.execSQL(TRIGGER_EPISODE_DELETE_DEFERRED);
+    }
+
+    if (oldVersion < 50) {
+      SqlUtils.createColumnIfNotExists(db, Tables.SHOWS, ShowColumns.AIRED_COUNT,
+          DataType.Type.INTEGER, "0");
+      SqlUtils.createColumnIfNotExists(db, Tables.SHOWS, ShowColumns.UNAIRED_COUNT,
+          DataType.Type.INTEGER, "0");
+      SqlUtils.createColumnIfNotExists(db, Tables.SHOWS, ShowColumns.EPISODE_COUNT,
+          DataType.Type.INTEGER, "0");
+      SqlUtils.createColumnIfNotExists(db, Tables.SHOWS, ShowColumns.WATCHING_EPISODE_ID,
+          DataType.Type.INTEGER, null);
+      SqlUtils.createColumnIfNotExists(db, Tables.SEASONS, SeasonColumns.AIRED_COUNT,
+          DataType.Type.INTEGER, "0");
+      SqlUtils.createColumnIfNotExists(db, Tables.SEASONS, SeasonColumns.UNAIRED_COUNT,
+          DataType.Type.INTEGER, "0");
+      SqlUtils.createColumnIfNotExists(db, Tables.SEASONS, SeasonColumns.EPISODE_COUNT,
+          DataType.Type.INTEGER, "0");
+      db.execSQL(CathodeDatabase.AIRED_THRESHOLDS);
+      db.execSQL(INDEX_EPISODES_FIRST_AIRED);
+
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_UPDATE_AIRED);
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_UPDATE_WATCHING);
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_INSERT);
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_DELETE);
+      db.execSQL(TRIGGER_EPISODE_UPDATE_AIRED);
+      db.execSQL(TRIGGER_EPISODE_UPDATE_WATCHING);
+      db.execSQL(TRIGGER_EPISODE_INSERT);
+      db.execSQL(TRIGGER_EPISODE_DELETE);
+
+      recountEpisodeCounts(db);
+      final long offset =
+          Settings.get(context).getInt(Settings.SHOWS_OFFSET, 0) * DateUtils.HOUR_IN_MILLIS;
+      refreshAiredCounts(db, System.currentTimeMillis(), offset);
+    }
+
+    if (oldVersion < 51) {
+      db.execSQL(INDEX_SHOWS_TRAKT_ID);
+      db.execSQL(INDEX_SHOWS_TMDB_ID);
+      db.execSQL(INDEX_EPISODES_TRAKT_ID);
+      db.execSQL(INDEX_MOVIES_TRAKT_ID);
+      db.execSQL(INDEX_MOVIES_TMDB_ID);
+      db.execSQL(INDEX_PEOPLE_TRAKT_ID);
+      db.execSQL(INDEX_PEOPLE_TMDB_ID);
+      db.execSQL(INDEX_LISTS_TRAKT_ID);
+      db.execSQL(INDEX_LIST_ITEMS_LIST_ID);
+      db.execSQL(INDEX_LIST_ITEMS_ITEM);
+      db.execSQL(INDEX_COMMENTS_ITEM);
+    }
+
+    if (oldVersion < 52) {
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_UPDATE_WATCHED);
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_UPDATE_COLLECTED);
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_UPDATE_AIRED);
+      db.execSQL("DROP TRIGGER IF EXISTS " + TriggerName.EPISODE_UPDATE_DEFERRED);
+      db.execSQL(TRIGGER_EPISODE_UPDATE_WATCHED);
+      db.execSQL(TRIGGER_EPISODE_UPDATE_COLLECTED);
+      db.execSQL(TRIGGER_EPISODE_UPDATE_AIRED);
+      db.execSQL(TRIGGER_EPISODE_UPDATE_PARENT);
+      db.execSQL(TRIGGER_EPISODE_UPDATE_DEFERRED);
+    }
   }
 }
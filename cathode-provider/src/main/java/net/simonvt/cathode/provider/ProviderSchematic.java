@@ -19,7 +19,6 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.net.Uri;
-import android.text.format.DateUtils;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -185,21 +184,6 @@ public final class ProviderSchematic {
 
   @TableEndpoint(table = Tables.SHOWS) public static class Shows {
 
-    @MapColumns public static Map<String, String> mapColumns() {
-      Map<String, String> map = new HashMap<>();
-
-      map.put(ShowColumns.AIRED_COUNT, getAiredQuery());
-      map.put(ShowColumns.UNAIRED_COUNT, getUnairedQuery());
-      map.put(ShowColumns.EPISODE_COUNT, getEpisodeCountQuery());
-      map.put(ShowColumns.WATCHING_EPISODE_ID, getWatchingIdQuery());
-      map.put(Tables.SHOWS + "." + ShowColumns.AIRED_COUNT, getAiredQuery());
-      map.put(Tables.SHOWS + "." + ShowColumns.UNAIRED_COUNT, getUnairedQuery());
-      map.put(Tables.SHOWS + "." + ShowColumns.EPISODE_COUNT, getEpisodeCountQuery());
-      map.put(Tables.SHOWS + "." + ShowColumns.WATCHING_EPISODE_ID, getWatchingIdQuery());
-
-      return map;
-    }
-
     @ContentUri(
         path = Path.SHOWS,
         type = Type.SHOW) @NotificationUri(
@@ -476,91 +460,6 @@ public final class ProviderSchematic {
 
     public static final String SORT_COLLECTED =
         Tables.SHOWS + "." + ShowColumns.LAST_COLLECTED_AT + " DESC";
-
-    public static String getAiredQuery() {
-      final long firstAiredOffset = FirstAiredOffsetPreference.getInstance().getOffsetMillis();
-      final long currentTime = System.currentTimeMillis();
-      return "(SELECT COUNT(*) FROM "
-          + Tables.EPISODES
-          + " WHERE "
-          + Tables.EPISODES
-          + "."
-          + EpisodeColumns.SHOW_ID
-          + "="
-          + Tables.SHOWS
-          + "."
-          + ShowColumns.ID
-          + " AND "
-          + Tables.EPISODES
-          + "."
-          + EpisodeColumns.FIRST_AIRED
-          + "<="
-          + (currentTime - firstAiredOffset + DateUtils.DAY_IN_MILLIS)
-          + " AND "
-          + Tables.EPISODES
-          + "."
-          + EpisodeColumns.SEASON
-          + ">0"
-          + ")";
-    }
-
-    public static String getUnairedQuery() {
-      final long firstAiredOffset = FirstAiredOffsetPreference.getInstance().getOffsetMillis();
-      final long currentTime = System.currentTimeMillis();
-      return "(SELECT COUNT(*) FROM "
-          + Tables.EPISODES
-          + " WHERE "
-          + Tables.EPISODES
-          + "."
-          + EpisodeColumns.SHOW_ID
-          + "="
-          + Tables.SHOWS
-          + "."
-          + ShowColumns.ID
-          + " AND "
-          + Tables.EPISODES
-          + "."
-          + EpisodeColumns.FIRST_AIRED
-          + ">"
-          + (currentTime - firstAiredOffset)
-          + " AND "
-          + Tables.EPISODES
-          + "."
-          + EpisodeColumns.SEASON
-          + ">0"
-          + ")";
-    }
-
-    public static String getEpisodeCountQuery() {
-      return "(SELECT COUNT(*) FROM "
-          + Tables.EPISODES
-          + " WHERE "
-          + Tables.EPISODES
-          + "."
-          + EpisodeColumns.SHOW_ID
-          + "="
-          + Tables.SHOWS
-          + "."
-          + ShowColumns.ID
-          + ")";
-    }
-
-    public static String getWatchingIdQuery() {
-      return "(SELECT " + Tables.EPISODES + "." + EpisodeColumns.ID + " FROM "
-          + Tables.EPISODES
-          + " WHERE "
-          + Tables.EPISODES + "." + EpisodeColumns.SHOW_ID
-          + "="
-          + Tables.SHOWS + "." + ShowColumns.ID
-          + " AND ("
-          + Tables.EPISODES + "." + EpisodeColumns.WATCHING
-          + "=1"
-          + " OR "
-          + Tables.EPISODES + "." + EpisodeColumns.CHECKED_IN
-          + "=1"
-          + ")"
-          + ")";
-    }
   }
 
   @TableEndpoint(table = Tables.SEASONS)
@@ -570,17 +469,11 @@ public final class ProviderSchematic {
       Map<String, String> map = new HashMap<>();
 
       map.put(SeasonColumns.SHOW_TITLE, getShowTitleQuery());
-      map.put(SeasonColumns.AIRED_COUNT, getAiredQuery());
-      map.put(SeasonColumns.UNAIRED_COUNT, getUnairedQuery());
       map.put(SeasonColumns.WATCHED_AIRED_COUNT, getWatchedAiredCount());
       map.put(SeasonColumns.COLLECTED_AIRED_COUNT, getCollectedAiredCount());
-      map.put(SeasonColumns.EPISODE_COUNT, getEpisodeCountQuery());
       map.put(Tables.SEASONS + "." + SeasonColumns.SHOW_TITLE, getShowTitleQuery());
-      map.put(Tables.SEASONS + "." + SeasonColumns.AIRED_COUNT, getAiredQuery());
-      map.put(Tables.SEASONS + "." + SeasonColumns.UNAIRED_COUNT, getUnairedQuery());
       map.put(Tables.SEASONS + "." + SeasonColumns.WATCHED_AIRED_COUNT, getWatchedAiredCount());
       map.put(Tables.SEASONS + "." + SeasonColumns.COLLECTED_AIRED_COUNT, getCollectedAiredCount());
-      map.put(Tables.SEASONS + "." + SeasonColumns.EPISODE_COUNT, getEpisodeCountQuery());
 
       return map;
     }
@@ -617,7 +510,7 @@ public final class ProviderSchematic {
     @Where(path = Path.SEASONS + "/" + Path.FROM_SHOW + "/#")
     public static String[] fromShowWhere() {
       return new String[] {
-          getEpisodeCountQuery() + ">0",
+          Tables.SEASONS + "." + SeasonColumns.EPISODE_COUNT + ">0",
       };
     }
 
@@ -678,60 +571,6 @@ public final class ProviderSchematic {
           + ")";
     }
 
-    public static String getAiredQuery() {
-      final long firstAiredOffset = FirstAiredOffsetPreference.getInstance().getOffsetMillis();
-      final long currentTime = System.currentTimeMillis();
-      return "(SELECT COUNT(*) FROM "
-          + Tables.EPISODES
-          + " WHERE "
-          + Tables.EPISODES
-          + "."
-          + EpisodeColumns.SEASON_ID
-          + "="
-          + Tables.SEASONS
-          + "."
-          + SeasonColumns.ID
-          + " AND "
-          + Tables.EPISODES
-          + "."
-          + EpisodeColumns.FIRST_AIRED
-          + "<="
-          + (currentTime + firstAiredOffset)
-          + " AND "
-          + Tables.EPISODES
-          + "."
-          + EpisodeColumns.SEASON
-          + ">0"
-          + ")";
-    }
-
-    public static String getUnairedQuery() {
-      final long firstAiredOffset = FirstAiredOffsetPreference.getInstance().getOffsetMillis();
-      final long currentTime = System.currentTimeMillis();
-      return "(SELECT COUNT(*) FROM "
-          + Tables.EPISODES
-          + " WHERE "
-          + Tables.EPISODES
-          + "."
-          + EpisodeColumns.SEASON_ID
-          + "="
-          + Tables.SEASONS
-          + "."
-          + SeasonColumns.ID
-          + " AND "
-          + Tables.EPISODES
-          + "."
-          + EpisodeColumns.FIRST_AIRED
-          + ">"
-          + (currentTime - firstAiredOffset)
-          + " AND "
-          + Tables.EPISODES
-          + "."
-          + EpisodeColumns.SEASON
-          + ">0"
-          + ")";
-    }
-
     public static String getWatchedAiredCount() {
       final long firstAiredOffset = FirstAiredOffsetPreference.getInstance().getOffsetMillis();
       final long currentTime = System.currentTimeMillis();
@@ -789,20 +628,6 @@ public final class ProviderSchematic {
           + Tables.EPISODES + "." + EpisodeColumns.IN_COLLECTION + "=1"
           + ")";
     }
-
-    public static String getEpisodeCountQuery() {
-      return "(SELECT COUNT(*) FROM "
-          + Tables.EPISODES
-          + " WHERE "
-          + Tables.EPISODES
-          + "."
-          + EpisodeColumns.SEASON_ID
-          + "="
-          + Tables.SEASONS
-          + "."
-          + SeasonColumns.ID
-          + ")";
-    }
   }
 
   @TableEndpoint(table = Tables.EPISODES)
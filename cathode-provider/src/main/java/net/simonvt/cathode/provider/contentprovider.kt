@@ -6,6 +6,7 @@ import android.content.ContentValues
 import android.content.OperationApplicationException
 import android.database.Cursor
 import android.net.Uri
+import android.os.Bundle
 import android.os.RemoteException
 import net.simonvt.cathode.provider.generated.CathodeProvider
 import timber.log.Timber
@@ -22,6 +23,44 @@ fun ContentResolver.batch(ops: ArrayList<ContentProviderOperation>) {
   }
 }
 
+/**
+ * Applies [ops] like [batch], but recalculates season and show episode counts once per touched
+ * show instead of once per episode row. Meant for syncs that update many episodes at once.
+ */
+fun ContentResolver.bulkBatch(ops: ArrayList<ContentProviderOperation>) {
+  val extras = Bundle()
+  extras.putParcelableArrayList(CathodeContentProvider.EXTRA_OPERATIONS, ops)
+  val result = call(
+    ProviderSchematic.BASE_CONTENT_URI,
+    CathodeContentProvider.METHOD_BULK_BATCH,
+    null,
+    extras
+  )
+
+  val error = result?.getString(CathodeContentProvider.EXTRA_ERROR)
+  if (result == null || error != null) {
+    val e = OperationApplicationException(error ?: "No result")
+    Timber.e(e)
+    throw RuntimeException(e)
+  }
+}
+
+/**
+ * Updates aired and unaired counts that changed since the last refresh.
+ *
+ * @return The time at which the counts should next be refreshed, or -1 if no episodes are
+ * waiting to air.
+ */
+fun ContentResolver.refreshAiredCounts(): Long {
+  val result = call(
+    ProviderSchematic.BASE_CONTENT_URI,
+    CathodeContentProvider.METHOD_REFRESH_AIRED_COUNTS,
+    null,
+    null
+  )
+  return result!!.getLong(CathodeContentProvider.EXTRA_NEXT_REFRESH)
+}
+
 fun ContentResolver.query(
   uri: Uri,
   projection: Array<String>? = null,
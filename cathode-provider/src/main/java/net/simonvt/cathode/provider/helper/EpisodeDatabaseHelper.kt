@@ -39,69 +39,59 @@ class EpisodeDatabaseHelper @Inject constructor(
 ) {
 
   fun getId(traktId: Long): Long {
-    synchronized(LOCK_ID) {
-      val c = context.contentResolver.query(
-        Episodes.EPISODES,
-        arrayOf(EpisodeColumns.ID),
-        EpisodeColumns.TRAKT_ID + "=?",
-        arrayOf(traktId.toString())
-      )
-      val id = if (!c.moveToFirst()) -1L else c.getLong(EpisodeColumns.ID)
-      c.close()
-      return id
-    }
+    val c = context.contentResolver.query(
+      Episodes.EPISODES,
+      arrayOf(EpisodeColumns.ID),
+      EpisodeColumns.TRAKT_ID + "=?",
+      arrayOf(traktId.toString())
+    )
+    val id = if (!c.moveToFirst()) -1L else c.getLong(EpisodeColumns.ID)
+    c.close()
+    return id
   }
 
   fun getId(showId: Long, season: Int, episode: Int): Long {
-    synchronized(LOCK_ID) {
-      val c = context.contentResolver.query(
-        Episodes.EPISODES,
-        arrayOf(EpisodeColumns.ID),
-        EpisodeColumns.SHOW_ID + "=? AND " + EpisodeColumns.SEASON + "=? AND " + EpisodeColumns.EPISODE + "=?",
-        arrayOf(showId.toString(), season.toString(), episode.toString())
-      )
-      val id = if (!c.moveToFirst()) -1L else c.getLong(EpisodeColumns.ID)
-      c.close()
-      return id
-    }
+    val c = context.contentResolver.query(
+      Episodes.EPISODES,
+      arrayOf(EpisodeColumns.ID),
+      EpisodeColumns.SHOW_ID + "=? AND " + EpisodeColumns.SEASON + "=? AND " + EpisodeColumns.EPISODE + "=?",
+      arrayOf(showId.toString(), season.toString(), episode.toString())
+    )
+    val id = if (!c.moveToFirst()) -1L else c.getLong(EpisodeColumns.ID)
+    c.close()
+    return id
   }
 
   fun getId(showId: Long, seasonId: Long, episode: Int): Long {
-    synchronized(LOCK_ID) {
-      val c = context.contentResolver.query(
-        Episodes.EPISODES,
-        arrayOf(EpisodeColumns.ID),
-        EpisodeColumns.SHOW_ID + "=? AND " + EpisodeColumns.SEASON_ID + "=? AND " + EpisodeColumns.EPISODE + "=?",
-        arrayOf(showId.toString(), seasonId.toString(), episode.toString())
-      )
-      val id = if (!c.moveToFirst()) -1L else c.getLong(EpisodeColumns.ID)
-      c.close()
-      return id
-    }
+    val c = context.contentResolver.query(
+      Episodes.EPISODES,
+      arrayOf(EpisodeColumns.ID),
+      EpisodeColumns.SHOW_ID + "=? AND " + EpisodeColumns.SEASON_ID + "=? AND " + EpisodeColumns.EPISODE + "=?",
+      arrayOf(showId.toString(), seasonId.toString(), episode.toString())
+    )
+    val id = if (!c.moveToFirst()) -1L else c.getLong(EpisodeColumns.ID)
+    c.close()
+    return id
   }
 
   fun getTraktId(episodeId: Long): Long {
-    synchronized(LOCK_ID) {
-      val c = context.contentResolver.query(
-        Episodes.withId(episodeId),
-        arrayOf(EpisodeColumns.TRAKT_ID)
-      )
-      val traktId = if (!c.moveToFirst()) -1L else c.getLong(EpisodeColumns.TRAKT_ID)
-      c.close()
-      return traktId
-    }
+    val c = context.contentResolver.query(
+      Episodes.withId(episodeId),
+      arrayOf(EpisodeColumns.TRAKT_ID)
+    )
+    val traktId = if (!c.moveToFirst()) -1L else c.getLong(EpisodeColumns.TRAKT_ID)
+    c.close()
+    return traktId
   }
 
   fun getTmdbId(episodeId: Long): Int {
-    synchronized(LOCK_ID) {
-      val c = context.contentResolver.query(
-        Episodes.withId(episodeId),
-        arrayOf(EpisodeColumns.TMDB_ID)
-      )
-      val traktId = if (!c.moveToFirst()) -1 else c.getInt(EpisodeColumns.TMDB_ID)
-      c.close()
-      return traktId
-    }
+    val c = context.contentResolver.query(
+      Episodes.withId(episodeId),
+      arrayOf(EpisodeColumns.TMDB_ID)
+    )
+    val traktId = if (!c.moveToFirst()) -1 else c.getInt(EpisodeColumns.TMDB_ID)
+    c.close()
+    return traktId
   }
 
   class IdResult(var id: Long, var didCreate: Boolean)
@@ -109,28 +99,57 @@ class EpisodeDatabaseHelper @Inject constructor(
   fun getIdOrCreate(showId: Long, seasonId: Long, episode: Int): IdResult {
     Preconditions.checkArgument(showId >= 0, "showId must be >=0, was %d", showId)
     Preconditions.checkArgument(seasonId >= 0, "seasonId must be >=0, was %d", seasonId)
-    synchronized(LOCK_ID) {
-      var id = getId(showId, seasonId, episode)
+    return ID_LOCKS.withLock(seasonId) {
+      val id = getId(showId, seasonId, episode)
 
       if (id == -1L) {
-        id = create(showId, seasonId, episode)
-        return IdResult(id, true)
+        IdResult(create(showId, seasonId, episode), true)
       } else {
-        return IdResult(id, false)
+        IdResult(id, false)
+      }
+    }
+  }
+
+  /**
+   * Returns the id of each of [episodes] in the season, mapped by episode number. Episodes that do
+   * not exist are created with a single bulk insert.
+   */
+  fun getIdsOrCreate(showId: Long, seasonId: Long, episodes: Collection<Int>): Map<Int, IdResult> {
+    Preconditions.checkArgument(showId >= 0, "showId must be >=0, was %d", showId)
+    Preconditions.checkArgument(seasonId >= 0, "seasonId must be >=0, was %d", seasonId)
+    return ID_LOCKS.withLock(seasonId) {
+      var season: Int? = null
+      val ids = context.contentResolver.queryOrCreateIds(
+        Episodes.EPISODES,
+        EpisodeColumns.ID,
+        EpisodeColumns.EPISODE,
+        episodes.map { it.toLong() },
+        EpisodeColumns.SHOW_ID + "=? AND " + EpisodeColumns.SEASON_ID + "=?",
+        arrayOf(showId.toString(), seasonId.toString())
+      ) { episode ->
+        val number = season ?: seasonHelper.getNumber(seasonId).also { season = it }
+        createValues(showId, seasonId, number, episode.toInt())
       }
+
+      val results = mutableMapOf<Int, IdResult>()
+      ids.forEach { (episode, id) -> results[episode.toInt()] = IdResult(id.id, id.didCreate) }
+      results
     }
   }
 
   private fun create(showId: Long, seasonId: Long, episode: Int): Long {
     val season = seasonHelper.getNumber(seasonId)
+    val values = createValues(showId, seasonId, season, episode)
+    return Episodes.getId(context.contentResolver.insert(Episodes.EPISODES, values)!!)
+  }
 
+  private fun createValues(showId: Long, seasonId: Long, season: Int, episode: Int): ContentValues {
     val values = ContentValues()
     values.put(EpisodeColumns.SHOW_ID, showId)
     values.put(EpisodeColumns.SEASON_ID, seasonId)
     values.put(EpisodeColumns.SEASON, season)
     values.put(EpisodeColumns.EPISODE, episode)
-
-    return Episodes.getId(context.contentResolver.insert(Episodes.EPISODES, values)!!)
+    return values
   }
 
   fun updateEpisode(episodeId: Long, episode: Episode): Long {
@@ -275,6 +294,6 @@ class EpisodeDatabaseHelper @Inject constructor(
 
     const val WATCHED_RELEASE = -1L
 
-    private val LOCK_ID = Any()
+    private val ID_LOCKS = StripedLock()
   }
 }
@@ -62,31 +62,27 @@ class MovieDatabaseHelper @Inject constructor(private val context: Context) {
   }
 
   fun getId(traktId: Long): Long {
-    synchronized(LOCK_ID) {
-      val c = context.contentResolver.query(
-        Movies.MOVIES,
-        arrayOf(MovieColumns.ID),
-        MovieColumns.TRAKT_ID + "=?",
-        arrayOf(traktId.toString())
-      )
-      val id = if (!c.moveToFirst()) -1L else c.getLong(MovieColumns.ID)
-      c.close()
-      return id
-    }
+    val c = context.contentResolver.query(
+      Movies.MOVIES,
+      arrayOf(MovieColumns.ID),
+      MovieColumns.TRAKT_ID + "=?",
+      arrayOf(traktId.toString())
+    )
+    val id = if (!c.moveToFirst()) -1L else c.getLong(MovieColumns.ID)
+    c.close()
+    return id
   }
 
   fun getIdFromTmdb(tmdbId: Int): Long {
-    synchronized(LOCK_ID) {
-      val c = context.contentResolver.query(
-        Movies.MOVIES,
-        arrayOf(MovieColumns.ID),
-        MovieColumns.TMDB_ID + "=?",
-        arrayOf(tmdbId.toString())
-      )
-      val id = if (!c.moveToFirst()) -1L else c.getLong(MovieColumns.ID)
-      c.close()
-      return id
-    }
+    val c = context.contentResolver.query(
+      Movies.MOVIES,
+      arrayOf(MovieColumns.ID),
+      MovieColumns.TMDB_ID + "=?",
+      arrayOf(tmdbId.toString())
+    )
+    val id = if (!c.moveToFirst()) -1L else c.getLong(MovieColumns.ID)
+    c.close()
+    return id
   }
 
   fun needsSync(movieId: Long): Boolean {
@@ -148,24 +144,41 @@ class MovieDatabaseHelper @Inject constructor(private val context: Context) {
   class IdResult(var movieId: Long, var didCreate: Boolean)
 
   fun getIdOrCreate(traktId: Long): IdResult {
-    synchronized(LOCK_ID) {
-      var id = getId(traktId)
+    return ID_LOCKS.withLock(traktId) {
+      val id = getId(traktId)
 
       if (id == -1L) {
-        id = create(traktId)
-        return IdResult(id, true)
+        IdResult(create(traktId), true)
       } else {
-        return IdResult(id, false)
+        IdResult(id, false)
       }
     }
   }
 
+  /**
+   * Returns the id of each of [traktIds], mapped by trakt id. Movies that do not exist are created
+   * with a single bulk insert.
+   */
+  fun getIdsOrCreate(traktIds: Collection<Long>): Map<Long, IdResult> {
+    return ID_LOCKS.withLocks(traktIds) {
+      context.contentResolver.queryOrCreateIds(
+        Movies.MOVIES,
+        MovieColumns.ID,
+        MovieColumns.TRAKT_ID,
+        traktIds
+      ) { traktId -> createValues(traktId) }.mapValues { (_, id) -> IdResult(id.id, id.didCreate) }
+    }
+  }
+
   private fun create(traktId: Long): Long {
+    return Movies.getId(context.contentResolver.insert(Movies.MOVIES, createValues(traktId))!!)
+  }
+
+  private fun createValues(traktId: Long): ContentValues {
     val values = ContentValues()
     values.put(MovieColumns.TRAKT_ID, traktId)
     values.put(MovieColumns.NEEDS_SYNC, true)
-
-    return Movies.getId(context.contentResolver.insert(Movies.MOVIES, values)!!)
+    return values
   }
 
   fun fullUpdate(movie: Movie): Long {
@@ -343,6 +356,6 @@ class MovieDatabaseHelper @Inject constructor(private val context: Context) {
 
     const val WATCHED_RELEASE = -1L
 
-    private val LOCK_ID = Any()
+    private val ID_LOCKS = StripedLock()
   }
 }
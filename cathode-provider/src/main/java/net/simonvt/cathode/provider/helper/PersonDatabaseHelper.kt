@@ -16,6 +16,7 @@
 
 package net.simonvt.cathode.provider.helper
 
+import android.content.ContentProviderOperation
 import android.content.ContentValues
 import android.content.Context
 import net.simonvt.cathode.api.entity.Person
@@ -23,6 +24,7 @@ import net.simonvt.cathode.common.database.getInt
 import net.simonvt.cathode.common.database.getLong
 import net.simonvt.cathode.provider.DatabaseContract.PersonColumns
 import net.simonvt.cathode.provider.ProviderSchematic.People
+import net.simonvt.cathode.provider.batch
 import net.simonvt.cathode.provider.query
 import net.simonvt.cathode.provider.update
 import javax.inject.Inject
@@ -43,6 +45,18 @@ class PersonDatabaseHelper @Inject constructor(private val context: Context) {
     return id
   }
 
+  /**
+   * Returns the id of each of [traktIds] that exists, mapped by trakt id.
+   */
+  fun getIds(traktIds: Collection<Long>): Map<Long, Long> {
+    return context.contentResolver.queryIds(
+      People.PEOPLE,
+      PersonColumns.ID,
+      PersonColumns.TRAKT_ID,
+      traktIds
+    )
+  }
+
   fun getIdFromTmdb(tmdbId: Int): Long {
     val c = context.contentResolver.query(
       People.PEOPLE,
@@ -70,18 +84,21 @@ class PersonDatabaseHelper @Inject constructor(private val context: Context) {
   }
 
   private fun createPerson(traktId: Long): Long {
+    return People.getId(context.contentResolver.insert(People.PEOPLE, createValues(traktId))!!)
+  }
+
+  private fun createValues(traktId: Long): ContentValues {
     val values = ContentValues()
     values.put(PersonColumns.TRAKT_ID, traktId)
     values.put(PersonColumns.NEEDS_SYNC, true)
-
-    return People.getId(context.contentResolver.insert(People.PEOPLE, values)!!)
+    return values
   }
 
   fun getIdOrCreate(person: Person): Long {
-    synchronized(LOCK_ID) {
-      val traktId = person.ids.trakt!!
+    val traktId = person.ids.trakt!!
+    return ID_LOCKS.withLock(traktId) {
       val personId = getId(traktId)
-      return if (personId == -1L) {
+      if (personId == -1L) {
         createPerson(traktId)
       } else {
         personId
@@ -96,6 +113,36 @@ class PersonDatabaseHelper @Inject constructor(private val context: Context) {
     return id
   }
 
+  /**
+   * Creates the people that do not exist and updates all of them in a single batch.
+   *
+   * @return The id of each person, mapped by trakt id.
+   */
+  fun partialUpdate(people: Collection<Person>): Map<Long, Long> {
+    val traktIds = people.map { it.ids.trakt!! }
+    val ids = ID_LOCKS.withLocks(traktIds) {
+      context.contentResolver.queryOrCreateIds(
+        People.PEOPLE,
+        PersonColumns.ID,
+        PersonColumns.TRAKT_ID,
+        traktIds
+      ) { traktId -> createValues(traktId) }.mapValues { (_, id) -> id.id }
+    }
+
+    val ops = arrayListOf<ContentProviderOperation>()
+    people.distinctBy { it.ids.trakt }.forEach { person ->
+      val id = ids.getValue(person.ids.trakt!!)
+      ops.add(
+        ContentProviderOperation.newUpdate(People.withId(id))
+          .withValues(getPartialValues(person))
+          .build()
+      )
+    }
+    context.contentResolver.batch(ops)
+
+    return ids
+  }
+
   fun fullUpdate(person: Person): Long {
     val id = getIdOrCreate(person)
 
@@ -135,6 +182,6 @@ class PersonDatabaseHelper @Inject constructor(private val context: Context) {
 
   companion object {
 
-    private val LOCK_ID = Any()
+    private val ID_LOCKS = StripedLock()
   }
 }
@@ -41,31 +41,27 @@ class SeasonDatabaseHelper @Inject constructor(
 ) {
 
   fun getId(showId: Long, season: Int): Long {
-    synchronized(LOCK_ID) {
-      var c: Cursor? = null
-      try {
-        c = context.contentResolver.query(
-          Seasons.SEASONS,
-          arrayOf(SeasonColumns.ID),
-          SeasonColumns.SHOW_ID + "=? AND " + SeasonColumns.SEASON + "=?",
-          arrayOf(showId.toString(), season.toString())
-        )
-        return if (!c.moveToFirst()) -1L else c.getLong(SeasonColumns.ID)
-      } finally {
-        c?.close()
-      }
+    var c: Cursor? = null
+    try {
+      c = context.contentResolver.query(
+        Seasons.SEASONS,
+        arrayOf(SeasonColumns.ID),
+        SeasonColumns.SHOW_ID + "=? AND " + SeasonColumns.SEASON + "=?",
+        arrayOf(showId.toString(), season.toString())
+      )
+      return if (!c.moveToFirst()) -1L else c.getLong(SeasonColumns.ID)
+    } finally {
+      c?.close()
     }
   }
 
   fun getTmdbId(seasonId: Long): Int {
-    synchronized(LOCK_ID) {
-      var c: Cursor? = null
-      try {
-        c = context.contentResolver.query(Seasons.withId(seasonId), arrayOf(SeasonColumns.TMDB_ID))
-        return if (!c.moveToFirst()) -1 else c.getInt(SeasonColumns.TMDB_ID)
-      } finally {
-        c?.close()
-      }
+    var c: Cursor? = null
+    try {
+      c = context.contentResolver.query(Seasons.withId(seasonId), arrayOf(SeasonColumns.TMDB_ID))
+      return if (!c.moveToFirst()) -1 else c.getInt(SeasonColumns.TMDB_ID)
+    } finally {
+      c?.close()
     }
   }
 
@@ -101,25 +97,49 @@ class SeasonDatabaseHelper @Inject constructor(
 
   fun getIdOrCreate(showId: Long, season: Int): IdResult {
     Preconditions.checkArgument(showId >= 0, "showId must be >=0, was %d", showId)
-    synchronized(LOCK_ID) {
-      var id = getId(showId, season)
+    return ID_LOCKS.withLock(showId) {
+      val id = getId(showId, season)
 
       if (id == -1L) {
-        id = create(showId, season)
-        return IdResult(id, true)
+        IdResult(create(showId, season), true)
       } else {
-        return IdResult(id, false)
+        IdResult(id, false)
       }
     }
   }
 
+  /**
+   * Returns the id of each of [seasons] in the show, mapped by season number. Seasons that do not
+   * exist are created with a single bulk insert.
+   */
+  fun getIdsOrCreate(showId: Long, seasons: Collection<Int>): Map<Int, IdResult> {
+    Preconditions.checkArgument(showId >= 0, "showId must be >=0, was %d", showId)
+    return ID_LOCKS.withLock(showId) {
+      val ids = context.contentResolver.queryOrCreateIds(
+        Seasons.SEASONS,
+        SeasonColumns.ID,
+        SeasonColumns.SEASON,
+        seasons.map { it.toLong() },
+        SeasonColumns.SHOW_ID + "=?",
+        arrayOf(showId.toString())
+      ) { season -> createValues(showId, season.toInt()) }
+
+      val results = mutableMapOf<Int, IdResult>()
+      ids.forEach { (season, id) -> results[season.toInt()] = IdResult(id.id, id.didCreate) }
+      results
+    }
+  }
+
   private fun create(showId: Long, season: Int): Long {
+    val uri = context.contentResolver.insert(Seasons.SEASONS, createValues(showId, season))
+    return Seasons.getId(uri!!)
+  }
+
+  private fun createValues(showId: Long, season: Int): ContentValues {
     val values = ContentValues()
     values.put(SeasonColumns.SHOW_ID, showId)
     values.put(SeasonColumns.SEASON, season)
-
-    val uri = context.contentResolver.insert(Seasons.SEASONS, values)
-    return Seasons.getId(uri!!)
+    return values
   }
 
   fun updateSeason(showId: Long, season: Season): Long {
@@ -213,7 +233,7 @@ class SeasonDatabaseHelper @Inject constructor(
     episodes.close()
   }
 
-  private fun getValues(season: Season): ContentValues {
+  fun getValues(season: Season): ContentValues {
     val values = ContentValues()
     values.put(SeasonColumns.SEASON, season.number)
     values.put(SeasonColumns.FIRST_AIRED, season.first_aired?.timeInMillis)
@@ -229,6 +249,6 @@ class SeasonDatabaseHelper @Inject constructor(
 
     const val WATCHED_RELEASE = -1L
 
-    private val LOCK_ID = Any()
+    private val ID_LOCKS = StripedLock()
   }
 }
@@ -16,6 +16,7 @@
 
 package net.simonvt.cathode.provider.helper
 
+import android.content.ContentProviderOperation
 import android.content.ContentValues
 import android.content.Context
 import android.database.Cursor
@@ -31,6 +32,7 @@ import net.simonvt.cathode.provider.DatabaseContract.ShowColumns
 import net.simonvt.cathode.provider.ProviderSchematic
 import net.simonvt.cathode.provider.ProviderSchematic.Episodes
 import net.simonvt.cathode.provider.ProviderSchematic.Shows
+import net.simonvt.cathode.provider.batch
 import net.simonvt.cathode.provider.query
 import net.simonvt.cathode.provider.update
 import net.simonvt.cathode.settings.FirstAiredOffsetPreference
@@ -41,33 +43,41 @@ import javax.inject.Singleton
 class ShowDatabaseHelper @Inject constructor(private val context: Context) {
 
   fun getId(traktId: Long): Long {
-    synchronized(LOCK_ID) {
-      val c = context.contentResolver.query(
-        Shows.SHOWS,
-        arrayOf(ShowColumns.ID),
-        ShowColumns.TRAKT_ID + "=?",
-        arrayOf(traktId.toString())
-      )
+    val c = context.contentResolver.query(
+      Shows.SHOWS,
+      arrayOf(ShowColumns.ID),
+      ShowColumns.TRAKT_ID + "=?",
+      arrayOf(traktId.toString())
+    )
 
-      val id = if (c.moveToFirst()) c.getLong(ShowColumns.ID) else -1L
-      c.close()
-      return id
-    }
+    val id = if (c.moveToFirst()) c.getLong(ShowColumns.ID) else -1L
+    c.close()
+    return id
   }
 
   fun getIdFromTmdb(tmdbId: Int): Long {
-    synchronized(LOCK_ID) {
-      val c = context.contentResolver.query(
-        Shows.SHOWS,
-        arrayOf(ShowColumns.ID),
-        ShowColumns.TMDB_ID + "=?",
-        arrayOf(tmdbId.toString())
-      )
+    val c = context.contentResolver.query(
+      Shows.SHOWS,
+      arrayOf(ShowColumns.ID),
+      ShowColumns.TMDB_ID + "=?",
+      arrayOf(tmdbId.toString())
+    )
 
-      val id = if (c.moveToFirst()) c.getLong(ShowColumns.ID) else -1L
-      c.close()
-      return id
-    }
+    val id = if (c.moveToFirst()) c.getLong(ShowColumns.ID) else -1L
+    c.close()
+    return id
+  }
+
+  /**
+   * Returns the trakt id of each of [showIds], mapped by show id.
+   */
+  fun getTraktIds(showIds: Collection<Long>): Map<Long, Long> {
+    return context.contentResolver.queryIds(
+      Shows.SHOWS,
+      ShowColumns.TRAKT_ID,
+      ShowColumns.ID,
+      showIds
+    )
   }
 
   fun getTraktId(showId: Long): Long {
@@ -95,24 +105,41 @@ class ShowDatabaseHelper @Inject constructor(private val context: Context) {
   class IdResult(var showId: Long, var didCreate: Boolean)
 
   fun getIdOrCreate(traktId: Long): IdResult {
-    synchronized(LOCK_ID) {
-      var id = getId(traktId)
+    return ID_LOCKS.withLock(traktId) {
+      val id = getId(traktId)
 
       if (id == -1L) {
-        id = create(traktId)
-        return IdResult(id, true)
+        IdResult(create(traktId), true)
       } else {
-        return IdResult(id, false)
+        IdResult(id, false)
       }
     }
   }
 
+  /**
+   * Returns the id of each of [traktIds], mapped by trakt id. Shows that do not exist are created
+   * with a single bulk insert.
+   */
+  fun getIdsOrCreate(traktIds: Collection<Long>): Map<Long, IdResult> {
+    return ID_LOCKS.withLocks(traktIds) {
+      context.contentResolver.queryOrCreateIds(
+        Shows.SHOWS,
+        ShowColumns.ID,
+        ShowColumns.TRAKT_ID,
+        traktIds
+      ) { traktId -> createValues(traktId) }.mapValues { (_, id) -> IdResult(id.id, id.didCreate) }
+    }
+  }
+
   private fun create(traktId: Long): Long {
+    return Shows.getShowId(context.contentResolver.insert(Shows.SHOWS, createValues(traktId))!!)
+  }
+
+  private fun createValues(traktId: Long): ContentValues {
     val values = ContentValues()
     values.put(ShowColumns.TRAKT_ID, traktId)
     values.put(ShowColumns.NEEDS_SYNC, true)
-
-    return Shows.getShowId(context.contentResolver.insert(Shows.SHOWS, values)!!)
+    return values
   }
 
   fun fullUpdate(show: Show): Long {
@@ -131,6 +158,23 @@ class ShowDatabaseHelper @Inject constructor(private val context: Context) {
     return id
   }
 
+  /**
+   * Returns the operations that [fullUpdate] applies to the show with id [showId], so they can be
+   * applied in the same batch as other rows of the show.
+   */
+  fun fullUpdateOps(showId: Long, show: Show): List<ContentProviderOperation> {
+    val values = getValues(show)
+    values.put(ShowColumns.NEEDS_SYNC, false)
+    values.put(ShowColumns.LAST_SYNC, System.currentTimeMillis())
+
+    val ops = arrayListOf<ContentProviderOperation>()
+    ops.add(ContentProviderOperation.newUpdate(Shows.withId(showId)).withValues(values).build())
+    if (show.genres != null) {
+      ops.addAll(genreOps(showId, show.genres!!))
+    }
+    return ops
+  }
+
   /**
    * Creates the show if it does not exist.
    */
@@ -148,6 +192,50 @@ class ShowDatabaseHelper @Inject constructor(private val context: Context) {
     return id
   }
 
+  /**
+   * Creates the shows that do not exist and updates all of them in a single batch.
+   *
+   * @return The id of each show, mapped by trakt id.
+   */
+  fun partialUpdate(shows: Collection<Show>): Map<Long, Long> {
+    val ids = getIdsOrCreate(shows.map { it.ids.trakt!! })
+      .mapValues { (_, result) -> result.showId }
+
+    val ops = arrayListOf<ContentProviderOperation>()
+    shows.distinctBy { it.ids.trakt }.forEach { show ->
+      val id = ids.getValue(show.ids.trakt!!)
+      ops.add(
+        ContentProviderOperation.newUpdate(Shows.withId(id))
+          .withValues(getPartialValues(show))
+          .build()
+      )
+
+      val genres = show.genres
+      if (genres != null) {
+        ops.addAll(genreOps(id, genres))
+      }
+    }
+    context.contentResolver.batch(ops)
+
+    return ids
+  }
+
+  private fun genreOps(showId: Long, genres: List<String>): List<ContentProviderOperation> {
+    val ops = arrayListOf<ContentProviderOperation>()
+    ops.add(
+      ContentProviderOperation.newDelete(ProviderSchematic.ShowGenres.fromShow(showId)).build()
+    )
+    for (genre in genres) {
+      ops.add(
+        ContentProviderOperation.newInsert(ProviderSchematic.ShowGenres.fromShow(showId))
+          .withValue(DatabaseContract.ShowGenreColumns.SHOW_ID, showId)
+          .withValue(DatabaseContract.ShowGenreColumns.GENRE, TextUtils.upperCaseFirstLetter(genre))
+          .build()
+      )
+    }
+    return ops
+  }
+
   fun getNextEpisodeId(showId: Long): Long {
     var lastWatchedSeason = -1
     var lastWatchedEpisode = -1
@@ -385,6 +473,6 @@ class ShowDatabaseHelper @Inject constructor(private val context: Context) {
 
     const val WATCHED_RELEASE = -1L
 
-    private val LOCK_ID = Any()
+    private val ID_LOCKS = StripedLock()
   }
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.provider.helper
+
+import java.util.concurrent.locks.ReentrantLock
+
+/**
+ * A fixed set of locks where a key always maps to the same lock. Threads creating rows for
+ * different keys mostly proceed in parallel, while two threads creating the same row are
+ * serialized.
+ */
+internal class StripedLock(stripes: Int = DEFAULT_STRIPES) {
+
+  private val locks = Array(stripes) { ReentrantLock() }
+
+  private fun stripe(key: Long): Int {
+    return ((key xor (key ushr 32)).toInt() and Int.MAX_VALUE) % locks.size
+  }
+
+  fun <T> withLock(key: Long, block: () -> T): T {
+    val lock = locks[stripe(key)]
+    lock.lock()
+    try {
+      return block()
+    } finally {
+      lock.unlock()
+    }
+  }
+
+  /**
+   * Runs [block] while holding the locks of all [keys]. Locks are always taken in stripe order,
+   * so two callers with overlapping keys can not deadlock.
+   */
+  fun <T> withLocks(keys: Collection<Long>, block: () -> T): T {
+    val held = keys.map { stripe(it) }.distinct().sorted().map { locks[it] }
+    held.forEach { it.lock() }
+    try {
+      return block()
+    } finally {
+      held.asReversed().forEach { it.unlock() }
+    }
+  }
+
+  companion object {
+    private const val DEFAULT_STRIPES = 32
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.provider.helper
+
+import android.content.ContentResolver
+import android.content.ContentValues
+import android.net.Uri
+import net.simonvt.cathode.common.database.forEach
+import net.simonvt.cathode.common.database.getLong
+import net.simonvt.cathode.provider.query
+
+/**
+ * Upper bound on the number of keys bound in a single IN (...) lookup, well below SQLite's limit
+ * of 999 arguments.
+ */
+private const val MAX_KEYS = 500
+
+internal class ResolvedId(val id: Long, val didCreate: Boolean)
+
+/**
+ * Returns the id of the rows in [uri] whose [keyColumn] is one of [keys], mapped by key. Keys
+ * without a row are not included. [selection] further restricts the rows that are matched.
+ */
+internal fun ContentResolver.queryIds(
+  uri: Uri,
+  idColumn: String,
+  keyColumn: String,
+  keys: Collection<Long>,
+  selection: String? = null,
+  selectionArgs: Array<String> = emptyArray()
+): MutableMap<Long, Long> {
+  val ids = mutableMapOf<Long, Long>()
+  keys.distinct().chunked(MAX_KEYS).forEach { chunk ->
+    val where = StringBuilder()
+    if (selection != null) {
+      where.append(selection).append(" AND ")
+    }
+    where.append(keyColumn).append(" IN (")
+    chunk.indices.joinTo(where, ",") { "?" }
+    where.append(")")
+
+    val args = selectionArgs + chunk.map { it.toString() }
+    val c = query(uri, arrayOf(idColumn, keyColumn), where.toString(), args)
+    c.forEach { cursor -> ids[cursor.getLong(keyColumn)] = cursor.getLong(idColumn) }
+    c.close()
+  }
+  return ids
+}
+
+/**
+ * Like [queryIds], but creates the rows that are missing with a single bulk insert of the values
+ * returned by [createValues].
+ */
+internal fun ContentResolver.queryOrCreateIds(
+  uri: Uri,
+  idColumn: String,
+  keyColumn: String,
+  keys: Collection<Long>,
+  selection: String? = null,
+  selectionArgs: Array<String> = emptyArray(),
+  createValues: (Long) -> ContentValues
+): Map<Long, ResolvedId> {
+  val ids = mutableMapOf<Long, ResolvedId>()
+  val existing = queryIds(uri, idColumn, keyColumn, keys, selection, selectionArgs)
+  existing.forEach { (key, id) -> ids[key] = ResolvedId(id, false) }
+
+  val missing = keys.distinct().filter { !existing.containsKey(it) }
+  if (missing.isNotEmpty()) {
+    bulkInsert(uri, missing.map(createValues).toTypedArray())
+    queryIds(uri, idColumn, keyColumn, missing, selection, selectionArgs).forEach { (key, id) ->
+      ids[key] = ResolvedId(id, true)
+    }
+  }
+
+  return ids
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.provider
+
+import android.content.ContentProviderOperation
+import android.content.ContentValues
+import android.content.Context
+import android.content.pm.ProviderInfo
+import androidx.test.core.app.ApplicationProvider
+import net.simonvt.cathode.TestApp
+import net.simonvt.cathode.provider.DatabaseContract.EpisodeColumns
+import net.simonvt.cathode.provider.DatabaseContract.SeasonColumns
+import net.simonvt.cathode.provider.DatabaseContract.ShowColumns
+import net.simonvt.cathode.provider.ProviderSchematic.Episodes
+import net.simonvt.cathode.provider.ProviderSchematic.Seasons
+import net.simonvt.cathode.provider.ProviderSchematic.Shows
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.Robolectric
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.util.concurrent.TimeUnit
+
+/**
+ * Compares applying episode updates with [batch] and with [bulkBatch], which defers the episode
+ * count triggers. Run with -Pbenchmarks.
+ */
+@RunWith(RobolectricTestRunner::class)
+@Config(application = TestApp::class, sdk = [21], packageName = "net.simonvt.cathode")
+class CathodeContentProviderBenchmark {
+
+  private val context = ApplicationProvider.getApplicationContext<Context>()
+  private val contentResolver = context.contentResolver
+
+  @Before
+  fun setUp() {
+    val info = ProviderInfo()
+    info.authority = BuildConfig.PROVIDER_AUTHORITY
+    Robolectric.buildContentProvider(CathodeContentProvider::class.java).create(info)
+  }
+
+  @Test
+  fun bulkBatch() {
+    val showIds = (1..SHOWS * 2).map { insertShow(it.toLong()) }
+
+    var start = System.nanoTime()
+    for (showId in showIds.subList(0, SHOWS)) {
+      contentResolver.batch(updateEpisodes(showId))
+    }
+    val batchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+
+    start = System.nanoTime()
+    for (showId in showIds.subList(SHOWS, SHOWS * 2)) {
+      contentResolver.bulkBatch(updateEpisodes(showId))
+    }
+    val bulkMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+
+    println(
+      String.format(
+        "Updated %d shows of %d episodes: batch %d ms, bulkBatch %d ms",
+        SHOWS,
+        SEASONS * EPISODES,
+        batchMillis,
+        bulkMillis
+      )
+    )
+  }
+
+  private fun updateEpisodes(showId: Long): ArrayList<ContentProviderOperation> {
+    val ops = arrayListOf<ContentProviderOperation>()
+    val episodes = contentResolver.query(Episodes.fromShow(showId), arrayOf(EpisodeColumns.ID))
+    while (episodes.moveToNext()) {
+      val op = ContentProviderOperation.newUpdate(Episodes.withId(episodes.getLong(0)))
+        .withValue(EpisodeColumns.WATCHED, true)
+        .build()
+      ops.add(op)
+    }
+    episodes.close()
+    return ops
+  }
+
+  private fun insertShow(traktId: Long): Long {
+    val values = ContentValues()
+    values.put(ShowColumns.TRAKT_ID, traktId)
+    val showId = Shows.getShowId(contentResolver.insert(Shows.SHOWS, values)!!)
+
+    for (season in 1..SEASONS) {
+      val seasonValues = ContentValues()
+      seasonValues.put(SeasonColumns.SHOW_ID, showId)
+      seasonValues.put(SeasonColumns.SEASON, season)
+      val seasonId = Seasons.getId(contentResolver.insert(Seasons.SEASONS, seasonValues)!!)
+
+      for (episode in 1..EPISODES) {
+        val episodeValues = ContentValues()
+        episodeValues.put(EpisodeColumns.SHOW_ID, showId)
+        episodeValues.put(EpisodeColumns.SEASON_ID, seasonId)
+        episodeValues.put(EpisodeColumns.SEASON, season)
+        episodeValues.put(EpisodeColumns.EPISODE, episode)
+        contentResolver.insert(Episodes.EPISODES, episodeValues)
+      }
+    }
+
+    return showId
+  }
+
+  companion object {
+    private const val SHOWS = 5
+    private const val SEASONS = 5
+    private const val EPISODES = 20
+  }
+}
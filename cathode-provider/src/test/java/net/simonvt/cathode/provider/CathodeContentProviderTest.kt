@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.provider
+
+import android.content.ContentProviderOperation
+import android.content.ContentValues
+import android.content.Context
+import android.content.pm.ProviderInfo
+import androidx.test.core.app.ApplicationProvider
+import com.google.common.truth.Truth.assertThat
+import net.simonvt.cathode.TestApp
+import net.simonvt.cathode.common.database.getInt
+import net.simonvt.cathode.provider.DatabaseContract.EpisodeColumns
+import net.simonvt.cathode.provider.DatabaseContract.SeasonColumns
+import net.simonvt.cathode.provider.DatabaseContract.ShowColumns
+import net.simonvt.cathode.provider.DatabaseSchematic.Tables
+import net.simonvt.cathode.provider.ProviderSchematic.Episodes
+import net.simonvt.cathode.provider.ProviderSchematic.Seasons
+import net.simonvt.cathode.provider.ProviderSchematic.Shows
+import net.simonvt.cathode.provider.generated.CathodeDatabase
+import org.junit.Assert.assertThrows
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.Robolectric
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(application = TestApp::class, sdk = [21], packageName = "net.simonvt.cathode")
+class CathodeContentProviderTest {
+
+  private val context = ApplicationProvider.getApplicationContext<Context>()
+  private val contentResolver = context.contentResolver
+
+  @Before
+  fun setUp() {
+    val info = ProviderInfo()
+    info.authority = BuildConfig.PROVIDER_AUTHORITY
+    Robolectric.buildContentProvider(CathodeContentProvider::class.java).create(info)
+  }
+
+  @Test
+  fun bulkBatchRecountsTouchedShows() {
+    val showId = insertShow(1)
+    val otherShowId = insertShow(2)
+
+    contentResolver.bulkBatch(updateEpisodes(showId, EpisodeColumns.WATCHED))
+
+    assertThat(showCount(showId, ShowColumns.WATCHED_COUNT)).isEqualTo(SEASONS * EPISODES)
+    assertThat(showCount(otherShowId, ShowColumns.WATCHED_COUNT)).isEqualTo(0)
+
+    val seasons = contentResolver.query(
+      Seasons.fromShow(showId),
+      arrayOf(SeasonColumns.WATCHED_COUNT)
+    )
+    while (seasons.moveToNext()) {
+      assertThat(seasons.getInt(SeasonColumns.WATCHED_COUNT)).isEqualTo(EPISODES)
+    }
+    seasons.close()
+
+    // Counts are maintained by the triggers again once the batch is done
+    val values = ContentValues()
+    values.put(EpisodeColumns.WATCHED, false)
+    contentResolver.update(Episodes.fromShow(showId), values, null, null)
+    assertThat(showCount(showId, ShowColumns.WATCHED_COUNT)).isEqualTo(0)
+
+    val db = CathodeDatabase.getInstance(context).readableDatabase
+    val deferred = db.query(Tables.DEFERRED_COUNTS, null, null, null, null, null, null)
+    assertThat(deferred.count).isEqualTo(0)
+    deferred.close()
+  }
+
+  @Test
+  fun bulkBatchMatchesBatch() {
+    val batchShowId = insertShow(1)
+    val bulkShowId = insertShow(2)
+
+    contentResolver.batch(updateEpisodes(batchShowId, EpisodeColumns.IN_COLLECTION))
+    contentResolver.bulkBatch(updateEpisodes(bulkShowId, EpisodeColumns.IN_COLLECTION))
+
+    for (column in arrayOf(ShowColumns.IN_COLLECTION_COUNT, ShowColumns.WATCHED_COUNT)) {
+      assertThat(showCount(bulkShowId, column)).isEqualTo(showCount(batchShowId, column))
+    }
+    assertThat(showCount(bulkShowId, ShowColumns.IN_COLLECTION_COUNT))
+      .isEqualTo(SEASONS * EPISODES)
+  }
+
+  @Test
+  fun bulkBatchFailureRollsBack() {
+    val showId = insertShow(1)
+
+    val ops = updateEpisodes(showId, EpisodeColumns.WATCHED)
+    ops.add(
+      ContentProviderOperation.newAssertQuery(Shows.withId(showId))
+        .withExpectedCount(2)
+        .build()
+    )
+    assertThrows(RuntimeException::class.java) { contentResolver.bulkBatch(ops) }
+
+    assertThat(showCount(showId, ShowColumns.WATCHED_COUNT)).isEqualTo(0)
+
+    val db = CathodeDatabase.getInstance(context).readableDatabase
+    val deferred = db.query(Tables.DEFERRED_COUNTS, null, null, null, null, null, null)
+    assertThat(deferred.count).isEqualTo(0)
+    deferred.close()
+  }
+
+  private fun updateEpisodes(showId: Long, column: String): ArrayList<ContentProviderOperation> {
+    val ops = arrayListOf<ContentProviderOperation>()
+    val episodes = contentResolver.query(Episodes.fromShow(showId), arrayOf(EpisodeColumns.ID))
+    while (episodes.moveToNext()) {
+      val op = ContentProviderOperation.newUpdate(Episodes.withId(episodes.getLong(0)))
+        .withValue(column, true)
+        .build()
+      ops.add(op)
+    }
+    episodes.close()
+    return ops
+  }
+
+  private fun showCount(showId: Long, column: String): Int {
+    val show = contentResolver.query(Shows.withId(showId), arrayOf(column))
+    show.moveToFirst()
+    val count = show.getInt(column)
+    show.close()
+    return count
+  }
+
+  private fun insertShow(traktId: Long): Long {
+    val values = ContentValues()
+    values.put(ShowColumns.TRAKT_ID, traktId)
+    val showId = Shows.getShowId(contentResolver.insert(Shows.SHOWS, values)!!)
+
+    for (season in 1..SEASONS) {
+      val seasonValues = ContentValues()
+      seasonValues.put(SeasonColumns.SHOW_ID, showId)
+      seasonValues.put(SeasonColumns.SEASON, season)
+      val seasonId = Seasons.getId(contentResolver.insert(Seasons.SEASONS, seasonValues)!!)
+
+      for (episode in 1..EPISODES) {
+        val episodeValues = ContentValues()
+        episodeValues.put(EpisodeColumns.SHOW_ID, showId)
+        episodeValues.put(EpisodeColumns.SEASON_ID, seasonId)
+        episodeValues.put(EpisodeColumns.SEASON, season)
+        episodeValues.put(EpisodeColumns.EPISODE, episode)
+        contentResolver.insert(Episodes.EPISODES, episodeValues)
+      }
+    }
+
+    return showId
+  }
+
+  companion object {
+    private const val SEASONS = 5
+    private const val EPISODES = 20
+  }
+}
@@ -30,6 +30,8 @@ import net.simonvt.cathode.provider.ProviderSchematic.Episodes
 import net.simonvt.cathode.provider.ProviderSchematic.Seasons
 import net.simonvt.cathode.provider.ProviderSchematic.Shows
 import net.simonvt.cathode.provider.generated.CathodeProvider
+import net.simonvt.cathode.provider.helper.EpisodeDatabaseHelper
+import net.simonvt.cathode.provider.helper.SeasonDatabaseHelper
 import net.simonvt.cathode.provider.helper.ShowDatabaseHelper
 import org.junit.Before
 import org.junit.Test
@@ -91,6 +93,60 @@ class ShowDatabaseHelperTest {
     assertNextEpisode(nextEpisode, 3, 1)
   }
 
+  @Test
+  fun getIdsOrCreate() {
+    val values = ContentValues()
+    values.put(ShowColumns.TRAKT_ID, 1L)
+    val existingId = Shows.getShowId(contentResolver.insert(Shows.SHOWS, values)!!)
+
+    val showHelper = ShowDatabaseHelper(ApplicationProvider.getApplicationContext<Context>())
+    val traktIds = (1L..600L).toList() + 2L
+    val results = showHelper.getIdsOrCreate(traktIds)
+
+    assertThat(results).hasSize(600)
+    assertThat(results.getValue(1L).showId).isEqualTo(existingId)
+    assertThat(results.getValue(1L).didCreate).isFalse()
+    for (traktId in 2L..600L) {
+      val result = results.getValue(traktId)
+      assertThat(result.didCreate).isTrue()
+      assertThat(showHelper.getId(traktId)).isEqualTo(result.showId)
+      assertThat(showHelper.needsSync(result.showId)).isTrue()
+    }
+
+    val again = showHelper.getIdsOrCreate(traktIds)
+    assertThat(again.values.none { it.didCreate }).isTrue()
+    assertThat(again.mapValues { it.value.showId })
+      .isEqualTo(results.mapValues { it.value.showId })
+
+    val traktIdsByShow = results.entries.associate { (traktId, result) -> result.showId to traktId }
+    assertThat(showHelper.getTraktIds(traktIdsByShow.keys)).isEqualTo(traktIdsByShow)
+  }
+
+  @Test
+  fun seasonAndEpisodeIdsOrCreate() {
+    val context = ApplicationProvider.getApplicationContext<Context>()
+    val showHelper = ShowDatabaseHelper(context)
+    val seasonHelper = SeasonDatabaseHelper(context, showHelper)
+    val episodeHelper = EpisodeDatabaseHelper(context, showHelper, seasonHelper)
+    val showId = showHelper.getIdOrCreate(1L).showId
+    val existingSeasonId = seasonHelper.getIdOrCreate(showId, 1).id
+
+    val seasons = seasonHelper.getIdsOrCreate(showId, listOf(1, 2, 3))
+    assertThat(seasons.getValue(1).id).isEqualTo(existingSeasonId)
+    assertThat(seasons.getValue(1).didCreate).isFalse()
+    assertThat(seasons.getValue(2).didCreate).isTrue()
+    assertThat(seasonHelper.getId(showId, 3)).isEqualTo(seasons.getValue(3).id)
+
+    val seasonId = seasons.getValue(2).id
+    val episodes = episodeHelper.getIdsOrCreate(showId, seasonId, (1..10).toList())
+    assertThat(episodes).hasSize(10)
+    for ((number, result) in episodes) {
+      assertThat(result.didCreate).isTrue()
+      assertThat(episodeHelper.getId(showId, seasonId, number)).isEqualTo(result.id)
+      assertThat(episodeHelper.getSeason(result.id)).isEqualTo(2)
+    }
+  }
+
   private fun assertNextEpisode(episodeId: Long, assertSeason: Int, assertEpisode: Int) {
     assertThat(episodeId).isGreaterThan(-1L)
 
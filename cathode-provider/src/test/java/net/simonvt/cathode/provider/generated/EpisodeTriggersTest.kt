@@ -3,10 +3,14 @@ package net.simonvt.cathode.provider.generated
 import android.content.ContentValues
 import android.content.Context
 import androidx.test.core.app.ApplicationProvider
+import android.database.sqlite.SQLiteDatabase
 import com.google.common.truth.Truth.assertThat
 import net.simonvt.cathode.DatabaseHelper
 import net.simonvt.cathode.provider.DatabaseContract.CommentColumns
 import net.simonvt.cathode.provider.DatabaseContract.EpisodeColumns
+import net.simonvt.cathode.provider.DatabaseContract.SeasonColumns
+import net.simonvt.cathode.provider.DatabaseContract.ShowColumns
+import net.simonvt.cathode.provider.DatabaseSchematic
 import net.simonvt.cathode.provider.DatabaseSchematic.Tables
 import net.simonvt.cathode.provider.entity.ItemTypeString
 import org.junit.Test
@@ -40,4 +44,328 @@ class EpisodeTriggersTest {
     val comments = db.query(Tables.COMMENTS, null, null, null, null, null, null, null)
     assertThat(comments.count).isEqualTo(0L)
   }
+
+  @Test
+  fun seasonCountsFollowEpisodeUpdates() {
+    val helper = DatabaseHelper.getInstance(ApplicationProvider.getApplicationContext<Context>())
+    val db = helper.writableDatabase
+
+    val showId = insertShow(db)
+    val seasonId = insertSeason(db, showId, 1)
+    val specialsId = insertSeason(db, showId, 0)
+    val episodeIds = (1..10).map { insertEpisode(db, showId, seasonId, 1, it) }
+    val specialIds = (1..3).map { insertEpisode(db, showId, specialsId, 0, it) }
+
+    episodeIds.filterIndexed { index, _ -> index % 2 == 0 }
+      .forEach { setEpisode(db, it, EpisodeColumns.WATCHED, 1) }
+    episodeIds.filterIndexed { index, _ -> index % 3 == 0 }
+      .forEach { setEpisode(db, it, EpisodeColumns.IN_COLLECTION, 1) }
+    specialIds.forEach { setEpisode(db, it, EpisodeColumns.WATCHED, 1) }
+    // Setting a value that is already set must not be counted twice
+    setEpisode(db, episodeIds[0], EpisodeColumns.WATCHED, 1)
+    setEpisode(db, episodeIds[2], EpisodeColumns.WATCHED, 0)
+    setEpisode(db, episodeIds[9], EpisodeColumns.FIRST_AIRED, null)
+
+    assertThat(seasonCounts(db, seasonId)).isEqualTo(Counts(4, 4, 9))
+    assertThat(seasonCounts(db, specialsId)).isEqualTo(Counts(0, 0, 0))
+    assertCountsMatchRecount(db)
+  }
+
+  @Test
+  fun countsFollowEpisodeInsertAndDelete() {
+    val helper = DatabaseHelper.getInstance(ApplicationProvider.getApplicationContext<Context>())
+    val db = helper.writableDatabase
+
+    val showId = insertShow(db)
+    val seasonId = insertSeason(db, showId, 1)
+    val episodeId = insertEpisode(db, showId, seasonId, 1, 1, watched = true, collected = true)
+    insertEpisode(db, showId, seasonId, 1, 2, watched = true)
+
+    assertThat(seasonCounts(db, seasonId)).isEqualTo(Counts(2, 1, 2))
+    assertCountsMatchRecount(db)
+
+    db.delete(Tables.EPISODES, EpisodeColumns.ID + "=?", arrayOf(episodeId.toString()))
+
+    assertThat(seasonCounts(db, seasonId)).isEqualTo(Counts(1, 0, 1))
+    assertCountsMatchRecount(db)
+  }
+
+  @Test
+  fun countsFollowSeasonNumberChange() {
+    val helper = DatabaseHelper.getInstance(ApplicationProvider.getApplicationContext<Context>())
+    val db = helper.writableDatabase
+
+    val showId = insertShow(db)
+    val seasonId = insertSeason(db, showId, 1)
+    val episodeId = insertEpisode(db, showId, seasonId, 0, 1, watched = true)
+    assertThat(seasonCounts(db, seasonId)).isEqualTo(Counts(0, 0, 0))
+
+    setEpisode(db, episodeId, EpisodeColumns.SEASON, 1)
+    assertThat(seasonCounts(db, seasonId)).isEqualTo(Counts(1, 0, 1))
+    assertCountsMatchRecount(db)
+  }
+
+  @Test
+  fun countsFollowEpisodeMovedBetweenSeasons() {
+    val helper = DatabaseHelper.getInstance(ApplicationProvider.getApplicationContext<Context>())
+    val db = helper.writableDatabase
+
+    val showId = insertShow(db)
+    val firstSeasonId = insertSeason(db, showId, 1)
+    val secondSeasonId = insertSeason(db, showId, 2)
+    val episodeId =
+      insertEpisode(db, showId, firstSeasonId, 1, 1, watched = true, collected = true)
+    insertEpisode(db, showId, secondSeasonId, 2, 1)
+
+    moveEpisode(db, episodeId, showId, secondSeasonId)
+
+    assertThat(seasonCounts(db, firstSeasonId)).isEqualTo(Counts(0, 0, 0))
+    assertThat(seasonCounts(db, secondSeasonId)).isEqualTo(Counts(1, 1, 2))
+    assertThat(airedCounts(db, Tables.SEASONS, firstSeasonId).episodes).isEqualTo(0)
+    assertThat(airedCounts(db, Tables.SEASONS, secondSeasonId).episodes).isEqualTo(2)
+    assertThat(airedCounts(db, Tables.SHOWS, showId).episodes).isEqualTo(2)
+    assertCountsMatchRecount(db)
+  }
+
+  @Test
+  fun countsFollowEpisodeMovedBetweenShows() {
+    val helper = DatabaseHelper.getInstance(ApplicationProvider.getApplicationContext<Context>())
+    val db = helper.writableDatabase
+
+    val firstShowId = insertShow(db)
+    val firstSeasonId = insertSeason(db, firstShowId, 1)
+    val secondShowId = insertShow(db)
+    val secondSeasonId = insertSeason(db, secondShowId, 1)
+    val episodeId = insertEpisode(db, firstShowId, firstSeasonId, 1, 1, watched = true)
+
+    moveEpisode(db, episodeId, secondShowId, secondSeasonId)
+
+    val firstShow = counts(db, Tables.SHOWS, ShowColumns.WATCHED_COUNT,
+      ShowColumns.IN_COLLECTION_COUNT, ShowColumns.AIRDATE_COUNT, firstShowId)
+    val secondShow = counts(db, Tables.SHOWS, ShowColumns.WATCHED_COUNT,
+      ShowColumns.IN_COLLECTION_COUNT, ShowColumns.AIRDATE_COUNT, secondShowId)
+    assertThat(firstShow).isEqualTo(Counts(0, 0, 0))
+    assertThat(secondShow).isEqualTo(Counts(1, 0, 1))
+    assertThat(airedCounts(db, Tables.SHOWS, firstShowId).episodes).isEqualTo(0)
+    assertThat(airedCounts(db, Tables.SHOWS, secondShowId).episodes).isEqualTo(1)
+    assertCountsMatchRecount(db)
+
+    // While counts are deferred both shows are recounted once the move is done
+    db.beginTransaction()
+    try {
+      DatabaseSchematic.beginDeferredCounts(db)
+      moveEpisode(db, episodeId, firstShowId, firstSeasonId)
+      DatabaseSchematic.endDeferredCounts(db)
+      db.setTransactionSuccessful()
+    } finally {
+      db.endTransaction()
+    }
+
+    assertThat(seasonCounts(db, firstSeasonId)).isEqualTo(Counts(1, 0, 1))
+    assertThat(seasonCounts(db, secondSeasonId)).isEqualTo(Counts(0, 0, 0))
+    assertCountsMatchRecount(db)
+  }
+
+  @Test
+  fun recountRepairsCounts() {
+    val helper = DatabaseHelper.getInstance(ApplicationProvider.getApplicationContext<Context>())
+    val db = helper.writableDatabase
+
+    val showId = insertShow(db)
+    val seasonId = insertSeason(db, showId, 1)
+    (1..5).forEach { insertEpisode(db, showId, seasonId, 1, it, watched = it % 2 == 0) }
+
+    val values = ContentValues()
+    values.put(SeasonColumns.WATCHED_COUNT, 42)
+    values.put(SeasonColumns.AIRDATE_COUNT, -1)
+    db.update(Tables.SEASONS, values, null, null)
+    db.update(Tables.SHOWS, values, null, null)
+
+    DatabaseSchematic.recountEpisodeCounts(db)
+
+    assertThat(seasonCounts(db, seasonId)).isEqualTo(Counts(2, 0, 5))
+    assertCountsMatchRecount(db)
+  }
+
+  @Test
+  fun bulkUpdateKeepsCountsInSync() {
+    val helper = DatabaseHelper.getInstance(ApplicationProvider.getApplicationContext<Context>())
+    val db = helper.writableDatabase
+
+    val showId = insertShow(db)
+    val seasonIds = (1..SEASON_COUNT).map { insertSeason(db, showId, it) }
+    db.beginTransaction()
+    try {
+      seasonIds.forEachIndexed { index, seasonId ->
+        for (episode in 1..EPISODE_COUNT / SEASON_COUNT) {
+          insertEpisode(db, showId, seasonId, index + 1, episode)
+        }
+      }
+      db.setTransactionSuccessful()
+    } finally {
+      db.endTransaction()
+    }
+
+    db.beginTransaction()
+    try {
+      val values = ContentValues()
+      values.put(EpisodeColumns.WATCHED, 1)
+      values.put(EpisodeColumns.IN_COLLECTION, 1)
+      val cursor = db.query(Tables.EPISODES, arrayOf(EpisodeColumns.ID), null, null, null, null,
+        null)
+      while (cursor.moveToNext()) {
+        db.update(Tables.EPISODES, values, EpisodeColumns.ID + "=?",
+          arrayOf(cursor.getLong(0).toString()))
+      }
+      cursor.close()
+      db.setTransactionSuccessful()
+    } finally {
+      db.endTransaction()
+    }
+
+    val show = counts(db, Tables.SHOWS, ShowColumns.WATCHED_COUNT,
+      ShowColumns.IN_COLLECTION_COUNT, ShowColumns.AIRDATE_COUNT, showId)
+    assertThat(show).isEqualTo(Counts(EPISODE_COUNT, EPISODE_COUNT, EPISODE_COUNT))
+    assertCountsMatchRecount(db)
+  }
+
+  @Test
+  fun refreshAiredCountsAdvancesThresholds() {
+    val helper = DatabaseHelper.getInstance(ApplicationProvider.getApplicationContext<Context>())
+    val db = helper.writableDatabase
+
+    val showId = insertShow(db)
+    val seasonId = insertSeason(db, showId, 1)
+    val episodeIds = (1..10).map { insertEpisode(db, showId, seasonId, 1, it) }
+
+    var nextRefresh = DatabaseSchematic.refreshAiredCounts(db, 5500L, 0L)
+    assertThat(nextRefresh).isEqualTo(6000L)
+    assertThat(airedCounts(db, Tables.SEASONS, seasonId)).isEqualTo(AiredCounts(5, 5, 10))
+    assertThat(airedCounts(db, Tables.SHOWS, showId)).isEqualTo(AiredCounts(10, 5, 10))
+
+    nextRefresh = DatabaseSchematic.refreshAiredCounts(db, 8500L, 0L)
+    assertThat(nextRefresh).isEqualTo(9000L)
+    assertThat(airedCounts(db, Tables.SEASONS, seasonId)).isEqualTo(AiredCounts(8, 2, 10))
+    assertThat(airedCounts(db, Tables.SHOWS, showId)).isEqualTo(AiredCounts(10, 2, 10))
+
+    // Triggers keep the counts current between refreshes
+    setEpisode(db, episodeIds[9], EpisodeColumns.FIRST_AIRED, 1000)
+    db.delete(Tables.EPISODES, EpisodeColumns.ID + "=?", arrayOf(episodeIds[0].toString()))
+    assertThat(airedCounts(db, Tables.SEASONS, seasonId)).isEqualTo(AiredCounts(8, 1, 9))
+    assertThat(airedCounts(db, Tables.SHOWS, showId)).isEqualTo(AiredCounts(9, 1, 9))
+
+    val incremental = airedCounts(db, Tables.SEASONS, seasonId)
+    DatabaseSchematic.recountEpisodeCounts(db)
+    assertThat(airedCounts(db, Tables.SEASONS, seasonId)).isEqualTo(incremental)
+  }
+
+  private data class Counts(val watched: Int, val collected: Int, val airdate: Int)
+
+  private data class AiredCounts(val aired: Int, val unaired: Int, val episodes: Int)
+
+  private fun insertShow(db: SQLiteDatabase): Long {
+    val values = ContentValues()
+    values.put(ShowColumns.TRAKT_ID, 1)
+    return db.insert(Tables.SHOWS, null, values)
+  }
+
+  private fun insertSeason(db: SQLiteDatabase, showId: Long, season: Int): Long {
+    val values = ContentValues()
+    values.put(SeasonColumns.SHOW_ID, showId)
+    values.put(SeasonColumns.SEASON, season)
+    return db.insert(Tables.SEASONS, null, values)
+  }
+
+  private fun insertEpisode(
+    db: SQLiteDatabase,
+    showId: Long,
+    seasonId: Long,
+    season: Int,
+    episode: Int,
+    watched: Boolean = false,
+    collected: Boolean = false
+  ): Long {
+    val values = ContentValues()
+    values.put(EpisodeColumns.SHOW_ID, showId)
+    values.put(EpisodeColumns.SEASON_ID, seasonId)
+    values.put(EpisodeColumns.SEASON, season)
+    values.put(EpisodeColumns.EPISODE, episode)
+    values.put(EpisodeColumns.FIRST_AIRED, 1000L * episode)
+    values.put(EpisodeColumns.WATCHED, watched)
+    values.put(EpisodeColumns.IN_COLLECTION, collected)
+    return db.insert(Tables.EPISODES, null, values)
+  }
+
+  private fun setEpisode(db: SQLiteDatabase, episodeId: Long, column: String, value: Int?) {
+    val values = ContentValues()
+    values.put(column, value)
+    db.update(Tables.EPISODES, values, EpisodeColumns.ID + "=?", arrayOf(episodeId.toString()))
+  }
+
+  private fun moveEpisode(db: SQLiteDatabase, episodeId: Long, showId: Long, seasonId: Long) {
+    val values = ContentValues()
+    values.put(EpisodeColumns.SHOW_ID, showId)
+    values.put(EpisodeColumns.SEASON_ID, seasonId)
+    db.update(Tables.EPISODES, values, EpisodeColumns.ID + "=?", arrayOf(episodeId.toString()))
+  }
+
+  private fun seasonCounts(db: SQLiteDatabase, seasonId: Long): Counts {
+    return counts(db, Tables.SEASONS, SeasonColumns.WATCHED_COUNT,
+      SeasonColumns.IN_COLLECTION_COUNT, SeasonColumns.AIRDATE_COUNT, seasonId)
+  }
+
+  private fun counts(
+    db: SQLiteDatabase,
+    table: String,
+    watched: String,
+    collected: String,
+    airdate: String,
+    id: Long
+  ): Counts {
+    val cursor = db.query(table, arrayOf(watched, collected, airdate), "_id=?",
+      arrayOf(id.toString()), null, null, null)
+    cursor.moveToFirst()
+    val counts = Counts(cursor.getInt(0), cursor.getInt(1), cursor.getInt(2))
+    cursor.close()
+    return counts
+  }
+
+  private fun airedCounts(db: SQLiteDatabase, table: String, id: Long): AiredCounts {
+    val cursor = db.query(table, arrayOf(ShowColumns.AIRED_COUNT, ShowColumns.UNAIRED_COUNT,
+      ShowColumns.EPISODE_COUNT), "_id=?", arrayOf(id.toString()), null, null, null)
+    cursor.moveToFirst()
+    val counts = AiredCounts(cursor.getInt(0), cursor.getInt(1), cursor.getInt(2))
+    cursor.close()
+    return counts
+  }
+
+  private fun allCounts(db: SQLiteDatabase): List<Counts> {
+    val counts = mutableListOf<Counts>()
+    var cursor = db.query(Tables.SEASONS, arrayOf(SeasonColumns.WATCHED_COUNT,
+      SeasonColumns.IN_COLLECTION_COUNT, SeasonColumns.AIRDATE_COUNT), null, null, null, null,
+      SeasonColumns.ID)
+    while (cursor.moveToNext()) {
+      counts.add(Counts(cursor.getInt(0), cursor.getInt(1), cursor.getInt(2)))
+    }
+    cursor.close()
+    cursor = db.query(Tables.SHOWS, arrayOf(ShowColumns.WATCHED_COUNT,
+      ShowColumns.IN_COLLECTION_COUNT, ShowColumns.AIRDATE_COUNT), null, null, null, null,
+      ShowColumns.ID)
+    while (cursor.moveToNext()) {
+      counts.add(Counts(cursor.getInt(0), cursor.getInt(1), cursor.getInt(2)))
+    }
+    cursor.close()
+    return counts
+  }
+
+  private fun assertCountsMatchRecount(db: SQLiteDatabase) {
+    val incremental = allCounts(db)
+    DatabaseSchematic.recountEpisodeCounts(db)
+    assertThat(incremental).isEqualTo(allCounts(db))
+  }
+
+  companion object {
+    private const val SEASON_COUNT = 25
+    private const val EPISODE_COUNT = 5000
+  }
 }
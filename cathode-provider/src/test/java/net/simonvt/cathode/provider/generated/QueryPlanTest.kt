@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.provider.generated
+
+import android.content.Context
+import android.database.sqlite.SQLiteDatabase
+import androidx.test.core.app.ApplicationProvider
+import com.google.common.truth.Truth.assertWithMessage
+import net.simonvt.cathode.DatabaseHelper
+import net.simonvt.cathode.provider.DatabaseContract.CommentColumns
+import net.simonvt.cathode.provider.DatabaseContract.EpisodeColumns
+import net.simonvt.cathode.provider.DatabaseContract.ListItemColumns
+import net.simonvt.cathode.provider.DatabaseContract.ListsColumns
+import net.simonvt.cathode.provider.DatabaseContract.MovieColumns
+import net.simonvt.cathode.provider.DatabaseContract.PersonColumns
+import net.simonvt.cathode.provider.DatabaseContract.SeasonColumns
+import net.simonvt.cathode.provider.DatabaseContract.ShowColumns
+import net.simonvt.cathode.provider.DatabaseSchematic.Tables
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+/**
+ * Runs EXPLAIN QUERY PLAN on the lookups that are executed for every synced item, and fails if
+ * any of them fall back to scanning the table.
+ */
+@RunWith(RobolectricTestRunner::class)
+class QueryPlanTest {
+
+  @Test
+  fun traktIdLookupsUseIndex() {
+    val db = database()
+    assertIndexed(db, selectId(Tables.SHOWS, ShowColumns.TRAKT_ID + "=?"))
+    assertIndexed(db, selectId(Tables.EPISODES, EpisodeColumns.TRAKT_ID + "=?"))
+    assertIndexed(db, selectId(Tables.MOVIES, MovieColumns.TRAKT_ID + "=?"))
+    assertIndexed(db, selectId(Tables.PEOPLE, PersonColumns.TRAKT_ID + "=?"))
+    assertIndexed(db, selectId(Tables.LISTS, ListsColumns.TRAKT_ID + "=?"))
+  }
+
+  @Test
+  fun tmdbIdLookupsUseIndex() {
+    val db = database()
+    assertIndexed(db, selectId(Tables.SHOWS, ShowColumns.TMDB_ID + "=?"))
+    assertIndexed(db, selectId(Tables.MOVIES, MovieColumns.TMDB_ID + "=?"))
+    assertIndexed(db, selectId(Tables.PEOPLE, PersonColumns.TMDB_ID + "=?"))
+  }
+
+  @Test
+  fun foreignKeyLookupsUseIndex() {
+    val db = database()
+    assertIndexed(db, selectId(Tables.SEASONS,
+      SeasonColumns.SHOW_ID + "=? AND " + SeasonColumns.SEASON + "=?"))
+    assertIndexed(db, selectId(Tables.EPISODES, EpisodeColumns.SEASON_ID + "=?"))
+  }
+
+  @Test
+  fun commentDeletesUseIndex() {
+    val db = database()
+    assertIndexed(db, "DELETE FROM " + Tables.COMMENTS + " WHERE " + CommentColumns.ITEM_TYPE
+        + "=? AND " + CommentColumns.ITEM_ID + "=?")
+  }
+
+  @Test
+  fun listItemDeletesUseIndex() {
+    val db = database()
+    assertIndexed(db, "DELETE FROM " + Tables.LIST_ITEMS + " WHERE " + ListItemColumns.LIST_ID
+        + "=?")
+    assertIndexed(db, "DELETE FROM " + Tables.LIST_ITEMS + " WHERE " + ListItemColumns.ITEM_TYPE
+        + "=? AND " + ListItemColumns.ITEM_ID + "=?")
+    assertIndexed(db, selectId(Tables.LIST_ITEMS, ListItemColumns.LIST_ID + "=? AND "
+        + ListItemColumns.ITEM_TYPE + "=? AND " + ListItemColumns.ITEM_ID + "=?"))
+  }
+
+  private fun database(): SQLiteDatabase {
+    val helper = DatabaseHelper.getInstance(ApplicationProvider.getApplicationContext<Context>())
+    return helper.writableDatabase
+  }
+
+  private fun selectId(table: String, where: String): String {
+    return "SELECT _id FROM $table WHERE $where"
+  }
+
+  private fun assertIndexed(db: SQLiteDatabase, sql: String) {
+    val args = Array(sql.count { it == '?' }) { "1" }
+    val cursor = db.rawQuery("EXPLAIN QUERY PLAN $sql", args)
+    val detailIndex = cursor.getColumnIndexOrThrow("detail")
+    val details = mutableListOf<String>()
+    while (cursor.moveToNext()) {
+      details.add(cursor.getString(detailIndex))
+    }
+    cursor.close()
+
+    assertWithMessage("Query plan for: %s", sql).that(details).isNotEmpty()
+    for (detail in details) {
+      assertWithMessage("Query plan for: %s", sql).that(detail).doesNotMatch(SCAN)
+    }
+  }
+
+  companion object {
+    private const val SCAN = "SCAN .*"
+  }
+}
@@ -3,10 +3,14 @@ package net.simonvt.cathode.provider.generated
 import android.content.ContentValues
 import android.content.Context
 import androidx.test.core.app.ApplicationProvider
+import android.database.sqlite.SQLiteDatabase
 import com.google.common.truth.Truth.assertThat
 import net.simonvt.cathode.DatabaseHelper
 import net.simonvt.cathode.provider.DatabaseContract.CommentColumns
+import net.simonvt.cathode.provider.DatabaseContract.EpisodeColumns
+import net.simonvt.cathode.provider.DatabaseContract.SeasonColumns
 import net.simonvt.cathode.provider.DatabaseContract.ShowColumns
+import net.simonvt.cathode.provider.DatabaseSchematic
 import net.simonvt.cathode.provider.DatabaseSchematic.Tables
 import net.simonvt.cathode.provider.entity.ItemTypeString
 import org.junit.Test
@@ -40,4 +44,61 @@ class ShowTriggersTest {
     val comments = db.query(Tables.COMMENTS, null, null, null, null, null, null, null)
     assertThat(comments.count).isEqualTo(0L)
   }
+
+  @Test
+  fun episodeCountsTrigger() {
+    val helper = DatabaseHelper.getInstance(ApplicationProvider.getApplicationContext<Context>())
+    val db = helper.writableDatabase
+
+    val showValues = ContentValues()
+    showValues.put(ShowColumns.TRAKT_ID, 1)
+    val showId = db.insert(Tables.SHOWS, null, showValues)
+
+    val episodeIds = mutableListOf<Long>()
+    for (season in 0..3) {
+      val seasonValues = ContentValues()
+      seasonValues.put(SeasonColumns.SHOW_ID, showId)
+      seasonValues.put(SeasonColumns.SEASON, season)
+      val seasonId = db.insert(Tables.SEASONS, null, seasonValues)
+
+      for (episode in 1..5) {
+        val episodeValues = ContentValues()
+        episodeValues.put(EpisodeColumns.SHOW_ID, showId)
+        episodeValues.put(EpisodeColumns.SEASON_ID, seasonId)
+        episodeValues.put(EpisodeColumns.SEASON, season)
+        episodeValues.put(EpisodeColumns.EPISODE, episode)
+        if (episode < 5) {
+          episodeValues.put(EpisodeColumns.FIRST_AIRED, 1000L * episode)
+        }
+        episodeIds.add(db.insert(Tables.EPISODES, null, episodeValues))
+      }
+    }
+
+    val watched = ContentValues()
+    watched.put(EpisodeColumns.WATCHED, 1)
+    watched.put(EpisodeColumns.IN_COLLECTION, 1)
+    episodeIds.forEach {
+      db.update(Tables.EPISODES, watched, EpisodeColumns.ID + "=?", arrayOf(it.toString()))
+    }
+
+    val unwatched = ContentValues()
+    unwatched.put(EpisodeColumns.WATCHED, 0)
+    db.update(Tables.EPISODES, unwatched, EpisodeColumns.SEASON + "=3", null)
+
+    // Specials are not counted
+    assertThat(showCounts(db, showId)).isEqualTo(listOf(10, 15, 12))
+
+    DatabaseSchematic.recountEpisodeCounts(db)
+    assertThat(showCounts(db, showId)).isEqualTo(listOf(10, 15, 12))
+  }
+
+  private fun showCounts(db: SQLiteDatabase, showId: Long): List<Int> {
+    val cursor = db.query(Tables.SHOWS, arrayOf(ShowColumns.WATCHED_COUNT,
+      ShowColumns.IN_COLLECTION_COUNT, ShowColumns.AIRDATE_COUNT), ShowColumns.ID + "=?",
+      arrayOf(showId.toString()), null, null, null)
+    cursor.moveToFirst()
+    val counts = listOf(cursor.getInt(0), cursor.getInt(1), cursor.getInt(2))
+    cursor.close()
+    return counts
+  }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.provider.helper
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class StripedLockTest {
+
+  @Test
+  fun sameKeyIsSerialized() {
+    val lock = StripedLock()
+    val executor = Executors.newFixedThreadPool(THREADS)
+    var counter = 0
+
+    repeat(THREADS) {
+      executor.execute {
+        repeat(ITERATIONS) {
+          lock.withLock(42L) { counter++ }
+        }
+      }
+    }
+    executor.shutdown()
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue()
+
+    assertThat(counter).isEqualTo(THREADS * ITERATIONS)
+  }
+
+  @Test
+  fun differentKeysDoNotBlock() {
+    val lock = StripedLock(2)
+    val held = CountDownLatch(1)
+    val release = CountDownLatch(1)
+
+    val thread = Thread {
+      lock.withLock(0L) {
+        held.countDown()
+        release.await()
+      }
+    }
+    thread.start()
+    held.await()
+
+    assertThat(lock.withLock(1L) { true }).isTrue()
+    release.countDown()
+    thread.join()
+  }
+
+  @Test
+  fun overlappingKeysDoNotDeadlock() {
+    val lock = StripedLock()
+    val executor = Executors.newFixedThreadPool(THREADS)
+    var counter = 0
+
+    repeat(THREADS) { thread ->
+      val keys = if (thread % 2 == 0) (1L..20L).toList() else (20L downTo 1L).toList()
+      executor.execute {
+        repeat(ITERATIONS) {
+          lock.withLocks(keys) { counter++ }
+        }
+      }
+    }
+    executor.shutdown()
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue()
+
+    assertThat(counter).isEqualTo(THREADS * ITERATIONS)
+  }
+
+  companion object {
+    private const val THREADS = 4
+    private const val ITERATIONS = 1000
+  }
+}
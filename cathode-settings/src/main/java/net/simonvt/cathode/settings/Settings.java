@@ -53,6 +53,10 @@ public final class Settings {
   public static final String NOTIFICACTION_VIBRATE = "notificationVibrate";
   public static final String NOTIFICACTION_SOUND = "notificationSound";
 
+  // Sync
+  public static final String MAX_CONCURRENT_JOBS = "maxConcurrentJobs";
+  public static final String FETCH_CONCURRENCY = "fetchConcurrency";
+
   public static SharedPreferences get(Context context) {
     return PreferenceManager.getDefaultSharedPreferences(context);
   }
@@ -1,5 +1,6 @@
 package net.simonvt.cathode.actions
 
+import kotlinx.coroutines.CompletableDeferred
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Deferred
 import kotlinx.coroutines.Dispatchers
@@ -8,11 +9,12 @@ import kotlinx.coroutines.async
 import kotlinx.coroutines.launch
 import timber.log.Timber
 
-suspend fun <T> Action<T>.invokeSync(params: T) {
-  ActionManager.invokeSync(this, params)
-}
+/**
+ * @return false if the action failed.
+ */
+suspend fun <T> Action<T>.invokeSync(params: T): Boolean = ActionManager.invokeSync(this, params)
 
-suspend fun <T> Action<T>.invokeAsync(params: T): Deferred<*> =
+suspend fun <T> Action<T>.invokeAsync(params: T): Deferred<Boolean> =
   ActionManager.invokeAsync(this, params)
 
 object ActionManager {
@@ -20,16 +22,16 @@ object ActionManager {
   private val job = SupervisorJob()
   private val scope = CoroutineScope(Dispatchers.IO + job)
 
-  private val inFlight = mutableMapOf<String, Deferred<*>>()
+  private val inFlight = mutableMapOf<String, Deferred<Boolean>>()
 
-  suspend fun <P> invokeSync(action: Action<P>, params: P) {
+  suspend fun <P> invokeSync(action: Action<P>, params: P): Boolean {
     val deferred = invokeAsync(action, params)
-    deferred.await()
+    return deferred.await()
   }
 
-  suspend fun <P> invokeAsync(action: Action<P>, params: P): Deferred<*> {
+  suspend fun <P> invokeAsync(action: Action<P>, params: P): Deferred<Boolean> {
     val key = action.key(params)
-    var deferred: Deferred<Unit>?
+    var deferred: Deferred<Boolean>?
     synchronized(inFlight) {
       Timber.d("Invoking action: $key")
       if (inFlight.containsKey(key)) {
@@ -41,10 +43,13 @@ object ActionManager {
       deferred = scope.async(Dispatchers.IO) {
         try {
           action(params)
+          true
         } catch (e: ActionFailedException) {
           Timber.d(e, "Action failed: $key")
+          false
         } catch (t: Throwable) {
           Timber.e(t, "Action failed: $key")
+          false
         }
       }
       inFlight[key] = deferred!!
@@ -67,4 +72,35 @@ object ActionManager {
     Timber.d("Returning deferred: $key")
     return deferred!!
   }
+
+  /**
+   * Marks [action] as in flight for [params] without invoking it, for callers that do the work of
+   * the action themselves. Invoking the action before the claim is completed waits for the claim
+   * instead of running the action again.
+   *
+   * @return The claim, to be completed with whether the work succeeded, or null if the action is
+   * already in flight.
+   */
+  fun <P> claim(action: Action<P>, params: P): CompletableDeferred<Boolean>? {
+    val key = action.key(params)
+    synchronized(inFlight) {
+      if (inFlight.containsKey(key)) {
+        Timber.d("Existing action found: $key")
+        return null
+      }
+
+      Timber.d("Claiming action: $key")
+      val claim = CompletableDeferred<Boolean>()
+      inFlight[key] = claim
+      claim.invokeOnCompletion {
+        synchronized(inFlight) {
+          if (inFlight[key] === claim) {
+            Timber.d("Removing action: $key")
+            inFlight.remove(key)
+          }
+        }
+      }
+      return claim
+    }
+  }
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.actions
+
+import android.content.Context
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Semaphore
+import net.simonvt.cathode.settings.Settings
+import timber.log.Timber
+
+/**
+ * Receives the number of items an action has processed, out of the total it will process.
+ */
+typealias ProgressListener = (done: Int, total: Int) -> Unit
+
+/**
+ * Fetches up to [concurrency] items at a time. A single writer applies the results in the order
+ * they arrive. The next items are fetched while earlier ones are written, so the network is kept
+ * busy while the database is written.
+ *
+ * [fetch] returns null for items that should be skipped. An [ActionFailedException] thrown for an
+ * item is logged, and the remaining items are still processed.
+ *
+ * Each item is claimed with [claim] before it is fetched, and the claim is completed once the item
+ * has been written. Items that can't be claimed are being processed elsewhere, and are skipped.
+ */
+internal class FetchPipeline<Item, Result : Any>(
+  private val concurrency: Int,
+  private val fetch: suspend (Item) -> Result?,
+  private val write: suspend (Item, Result) -> Unit,
+  private val claim: (Item) -> CompletableDeferred<Boolean>? = { CompletableDeferred() }
+) {
+
+  private class Fetched<Item, Result>(
+    val item: Item,
+    val result: Result?,
+    val claim: CompletableDeferred<Boolean>?,
+    val failed: Boolean = false
+  )
+
+  /**
+   * Processes all [items]. Once [isStopped] returns true no further items are fetched, and results
+   * that have not been written yet are dropped.
+   *
+   * @return The number of items that failed to be fetched or written.
+   */
+  suspend fun run(
+    items: Collection<Item>,
+    isStopped: () -> Boolean,
+    progressListener: ProgressListener? = null
+  ): Int = coroutineScope {
+    val results = Channel<Fetched<Item, Result>>(concurrency)
+    val semaphore = Semaphore(concurrency)
+    val claims = mutableListOf<CompletableDeferred<Boolean>>()
+
+    val fetcher = launch(Dispatchers.IO) {
+      for (item in items) {
+        semaphore.acquire()
+        if (isStopped()) {
+          semaphore.release()
+          break
+        }
+
+        val claim = claim(item)
+        if (claim == null) {
+          semaphore.release()
+          results.send(Fetched(item, null, null))
+          continue
+        }
+        synchronized(claims) { claims.add(claim) }
+
+        launch {
+          try {
+            results.send(fetchItem(item, claim))
+          } finally {
+            semaphore.release()
+          }
+        }
+      }
+    }
+    launch {
+      fetcher.join()
+      results.close()
+    }
+
+    var done = 0
+    var failed = 0
+    try {
+      for (fetched in results) {
+        if (isStopped()) {
+          fetcher.cancel()
+          results.cancel()
+          break
+        }
+
+        val succeeded = !fetched.failed &&
+          (fetched.result == null || writeItem(fetched.item, fetched.result))
+        fetched.claim?.complete(succeeded)
+        if (!succeeded) {
+          failed++
+        }
+        progressListener?.invoke(++done, items.size)
+      }
+    } finally {
+      // Releases the items that were dropped
+      synchronized(claims) { claims.forEach { it.complete(false) } }
+    }
+
+    failed
+  }
+
+  private suspend fun fetchItem(
+    item: Item,
+    claim: CompletableDeferred<Boolean>
+  ): Fetched<Item, Result> {
+    return try {
+      Fetched(item, fetch(item), claim)
+    } catch (e: ActionFailedException) {
+      Timber.d(e, "Fetch failed: %s", item)
+      Fetched(item, null, claim, true)
+    }
+  }
+
+  private suspend fun writeItem(item: Item, result: Result): Boolean {
+    return try {
+      write(item, result)
+      true
+    } catch (e: ActionFailedException) {
+      Timber.d(e, "Write failed: %s", item)
+      false
+    }
+  }
+
+  companion object {
+
+    const val DEFAULT_CONCURRENCY = 4
+
+    /**
+     * The number of items fetched at a time, as set in [Settings.FETCH_CONCURRENCY].
+     */
+    fun concurrency(context: Context): Int {
+      return Settings.get(context).getInt(Settings.FETCH_CONCURRENCY, DEFAULT_CONCURRENCY)
+        .coerceAtLeast(1)
+    }
+  }
+}
@@ -1,11 +1,22 @@
 package net.simonvt.cathode.actions
 
+import com.squareup.moshi.JsonAdapter
+import com.squareup.moshi.JsonDataException
+import com.squareup.moshi.JsonReader
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.supervisorScope
 import net.simonvt.cathode.common.http.requireBody
 import net.simonvt.cathode.common.tmdb.TmdbRateLimiter
+import okhttp3.ResponseBody
 import retrofit2.Call
 import retrofit2.Response
 import timber.log.Timber
 import java.io.IOException
+import kotlin.math.max
+import kotlin.math.min
 
 interface Action<in Params> {
   fun key(params: Params): String
@@ -25,20 +36,31 @@ abstract class CallAction<Params, T> : ErrorHandlerAction<Params>() {
 
   override suspend fun invoke(params: Params) {
     Timber.d("Invoking action: %s", javaClass.name)
+    val response = fetch(params)
+
+    if (stopped || response == null) {
+      return
+    }
+
+    handleResponse(params, response)
+  }
+
+  /**
+   * Executes the call without handling the response.
+   *
+   * @return The response body, or null if the request failed with an error that is ignored.
+   */
+  internal fun fetch(params: Params): T? {
     try {
       val response = getCall(params).execute()
 
-      if (stopped) {
-        return
-      }
-
       if (response.isSuccessful) {
-        handleResponse(params, response.requireBody())
-      } else {
-        if (isError(response)) {
-          throw ActionFailedException()
-        }
+        return response.requireBody()
+      } else if (isError(response)) {
+        throw ActionFailedException()
       }
+
+      return null
     } catch (e: IOException) {
       throw ActionFailedException(e)
     }
@@ -77,6 +99,82 @@ abstract class OptionalBodyCallAction<Params, T> : ErrorHandlerAction<Params>()
   abstract suspend fun handleResponse(params: Params, response: T?)
 }
 
+/**
+ * Reads the items of a JSON array response one at a time, and hands them out in chunks of at most
+ * [chunkSize]. Only a single chunk is held in memory, regardless of the size of the response.
+ */
+class ItemStream<T> internal constructor(
+  private val reader: JsonReader,
+  private val adapter: JsonAdapter<T>,
+  private val chunkSize: Int
+) {
+
+  suspend fun forEachChunk(block: suspend (List<T>) -> Unit) {
+    val chunk = ArrayList<T>(chunkSize)
+    try {
+      reader.beginArray()
+      while (reader.hasNext()) {
+        chunk.add(adapter.fromJson(reader)!!)
+        if (chunk.size == chunkSize) {
+          block(chunk)
+          chunk.clear()
+        }
+      }
+      reader.endArray()
+    } catch (e: IOException) {
+      throw ActionFailedException(e)
+    } catch (e: JsonDataException) {
+      throw ActionFailedException(e)
+    }
+
+    if (chunk.isNotEmpty()) {
+      block(chunk)
+    }
+  }
+}
+
+/**
+ * Like [CallAction], but the response body is parsed while it is handled instead of being
+ * deserialized up front. Used for endpoints that return a user's entire library.
+ */
+abstract class StreamingCallAction<Params, T> : ErrorHandlerAction<Params>() {
+
+  internal open val chunkSize: Int = CHUNK_SIZE
+
+  override suspend fun invoke(params: Params) {
+    Timber.d("Invoking action: %s", javaClass.name)
+    val response = try {
+      getCall(params).execute()
+    } catch (e: IOException) {
+      throw ActionFailedException(e)
+    }
+
+    if (!response.isSuccessful) {
+      if (isError(response)) {
+        throw ActionFailedException()
+      }
+      return
+    }
+
+    response.requireBody().use { body ->
+      if (!stopped) {
+        val reader = JsonReader.of(body.source())
+        handleResponse(params, ItemStream(reader, getAdapter(), chunkSize))
+      }
+    }
+  }
+
+  internal abstract fun getCall(params: Params): Call<ResponseBody>
+
+  internal abstract fun getAdapter(): JsonAdapter<T>
+
+  abstract suspend fun handleResponse(params: Params, response: ItemStream<T>)
+
+  companion object {
+    private const val CHUNK_SIZE = 50
+  }
+}
+
 abstract class TmdbCallAction<Params, T> : CallAction<Params, T>() {
 
   override suspend fun invoke(params: Params) {
@@ -87,40 +185,94 @@ abstract class TmdbCallAction<Params, T> : CallAction<Params, T>() {
 }
 
 class PagedResponse<Params, T> internal constructor(
-  private val action: PagedAction<Params, T>,
+  private val pages: PagedAction<Params, T>.PageFetcher,
   val params: Params,
   val page: Int,
   val pageCount: Int,
   val response: List<T>
 ) {
 
-  fun nextPage(): PagedResponse<Params, T>? {
-    return action.nextPage(params, page, pageCount)
+  suspend fun nextPage(): PagedResponse<Params, T>? {
+    return pages.nextPage(page)
   }
 }
 
 abstract class PagedAction<Params, T> : ErrorHandlerAction<Params>() {
 
-  internal fun nextPage(params: Params, page: Int, pageCount: Int): PagedResponse<Params, T>? {
-    if (stopped || page >= pageCount) {
-      return null
-    } else {
-      try {
-        val newPage = page + 1
-        val call = getCall(params, newPage)
-        val response = call.execute()
-        return createPage(params, response, newPage, pageCount)
+  /**
+   * The number of pages that are fetched ahead of the page being handled. Requests go through the
+   * Trakt rate limiter, so this only bounds how many are in flight at a time.
+   */
+  internal open val prefetchPages: Int = PREFETCH_PAGES
+
+  /**
+   * Fetches the pages following the first one. Once the page count is known, up to
+   * [prefetchPages] pages are requested concurrently while the current page is handled. Pages are
+   * still handed out in order, and a failed prefetch only surfaces once its page is requested.
+   */
+  internal inner class PageFetcher(
+    private val scope: CoroutineScope,
+    val params: Params,
+    val pageCount: Int
+  ) {
+
+    private val calls = mutableMapOf<Int, Call<List<T>>>()
+    private val pending = mutableMapOf<Int, Deferred<Response<List<T>>>>()
+    private var nextPrefetch = 2
+
+    internal fun prefetch(from: Int) {
+      nextPrefetch = max(nextPrefetch, from)
+      val last = min(pageCount, from + prefetchPages - 1)
+      while (!stopped && nextPrefetch <= last) {
+        val call = getCall(params, nextPrefetch)
+        calls[nextPrefetch] = call
+        pending[nextPrefetch] = scope.async(Dispatchers.IO) { call.execute() }
+        nextPrefetch++
+      }
+    }
+
+    suspend fun nextPage(page: Int): PagedResponse<Params, T>? {
+      if (stopped || page >= pageCount) {
+        cancel()
+        return null
+      }
+
+      val newPage = page + 1
+      prefetch(newPage)
+      calls.remove(newPage)
+      // Nothing is prefetched once stopped
+      val deferred = pending.remove(newPage)
+      if (deferred == null) {
+        cancel()
+        return null
+      }
+      val response = try {
+        deferred.await()
       } catch (e: IOException) {
         throw ActionFailedException(e)
       }
+
+      if (stopped) {
+        cancel()
+        return null
+      }
+
+      prefetch(newPage + 1)
+      return createPage(this, response, newPage)
+    }
+
+    internal fun cancel() {
+      calls.values.forEach { it.cancel() }
+      calls.clear()
+      pending.values.forEach { it.cancel() }
+      pending.clear()
     }
   }
 
   private fun createPage(
-    params: Params,
+    fetcher: PageFetcher,
     response: Response<List<T>>,
-    page: Int,
-    pageCount: Int
+    page: Int
   ): PagedResponse<Params, T>? {
     if (!response.isSuccessful) {
       if (!isError(response)) {
@@ -130,30 +282,38 @@ abstract class PagedAction<Params, T> : ErrorHandlerAction<Params>() {
       }
     }
     val result = response.requireBody()
-    return PagedResponse(this, params, page, pageCount, result)
+    return PagedResponse(fetcher, fetcher.params, page, fetcher.pageCount, result)
   }
 
   final override suspend fun invoke(params: Params) {
     Timber.d("Invoking action: %s", javaClass.name)
-    try {
-      val page = 1
-      val call = getCall(params, 1)
-      val response = call.execute()
+    supervisorScope {
+      try {
+        val page = 1
+        val call = getCall(params, 1)
+        val response = call.execute()
 
-      val headers = response.headers()
-      val pageCount = headers.get(HEADER_PAGE_COUNT)?.toIntOrNull() ?: 0
+        val headers = response.headers()
+        val pageCount = headers.get(HEADER_PAGE_COUNT)?.toIntOrNull() ?: 0
+
+        val fetcher = PageFetcher(this, params, pageCount)
+        val pagedResult = createPage(fetcher, response, page)
+        if (pagedResult != null) {
+          fetcher.prefetch(page + 1)
+          try {
+            handleResponse(params, pagedResult)
+          } finally {
+            fetcher.cancel()
+          }
+        }
 
-      val pagedResult = createPage(params, response, page, pageCount)
-      if (pagedResult != null) {
-        handleResponse(params, pagedResult)
-      }
+        if (!stopped) {
+          onDone()
+        }
+      } catch (e: IOException) {
 
-      if (!stopped) {
-        onDone()
+        throw ActionFailedException(e)
       }
-    } catch (e: IOException) {
-
-      throw ActionFailedException(e)
     }
   }
 
@@ -168,6 +328,7 @@ abstract class PagedAction<Params, T> : ErrorHandlerAction<Params>() {
 
   companion object {
     internal const val HEADER_PAGE_COUNT = "x-pagination-page-count"
+    private const val PREFETCH_PAGES = 3
   }
 }
 
@@ -104,6 +104,16 @@ class SyncList @Inject constructor(
     }
     localListItems.close()
 
+    val showResults = showHelper.getIdsOrCreate(
+      response.filter { it.type in SHOW_TYPES }.map { it.show!!.ids.trakt!! }
+    )
+    val movieResults = movieHelper.getIdsOrCreate(
+      response.filter { it.type == ItemType.MOVIE }.map { it.movie!!.ids.trakt!! }
+    )
+    val personIds = personHelper.getIds(
+      response.filter { it.type == ItemType.PERSON }.map { it.person!!.ids.trakt!! }
+    )
+
     val ops = arrayListOf<ContentProviderOperation>()
     var syncPendingShows = false
     var syncPendingMovies = false
@@ -112,8 +122,7 @@ class SyncList @Inject constructor(
       when (listItem.type) {
         ItemType.SHOW -> {
           val showTraktId = listItem.show!!.ids.trakt!!
-          val showResult = showHelper.getIdOrCreate(showTraktId)
-          val showId = showResult.showId
+          val showId = showResults.getValue(showTraktId).showId
           val lastSync = showHelper.lastSync(showId)
           if (lastSync == 0L) {
             showHelper.markPending(showId)
@@ -136,8 +145,7 @@ class SyncList @Inject constructor(
         ItemType.SEASON -> {
           val show = listItem.show
           val showTraktId = show!!.ids.trakt!!
-          val showResult = showHelper.getIdOrCreate(showTraktId)
-          val showId = showResult.showId
+          val showId = showResults.getValue(showTraktId).showId
 
           val seasonNumber = listItem.season!!.number
           val seasonResult = seasonHelper.getIdOrCreate(showId, seasonNumber)
@@ -165,8 +173,7 @@ class SyncList @Inject constructor(
           val episode = listItem.episode!!
 
           val showTraktId = show.ids.trakt!!
-          val showResult = showHelper.getIdOrCreate(showTraktId)
-          val showId = showResult.showId
+          val showId = showResults.getValue(showTraktId).showId
 
           val seasonNumber = episode.season!!
           val seasonResult = seasonHelper.getIdOrCreate(showId, seasonNumber)
@@ -195,8 +202,7 @@ class SyncList @Inject constructor(
 
         ItemType.MOVIE -> {
           val movieTraktId = listItem.movie!!.ids.trakt!!
-          val result = movieHelper.getIdOrCreate(movieTraktId)
-          val movieId = result.movieId
+          val movieId = movieResults.getValue(movieTraktId).movieId
           val lastSync = movieHelper.lastSync(movieId)
           if (lastSync == 0L) {
             movieHelper.markPending(movieId)
@@ -218,7 +224,7 @@ class SyncList @Inject constructor(
 
         ItemType.PERSON -> {
           val traktId = listItem.person!!.ids.trakt!!
-          var personId = personHelper.getId(traktId)
+          var personId = personIds[traktId] ?: -1L
           if (personId == -1L) {
             personId = personHelper.partialUpdate(listItem.person!!)
             syncPerson.invokeSync(SyncPerson.Params(traktId))
@@ -260,4 +266,8 @@ class SyncList @Inject constructor(
   }
 
   data class Params(val traktId: Long)
+
+  companion object {
+    private val SHOW_TYPES = setOf(ItemType.SHOW, ItemType.SEASON, ItemType.EPISODE)
+  }
 }
@@ -22,6 +22,7 @@ import net.simonvt.cathode.actions.CallAction
 import net.simonvt.cathode.actions.movies.SyncMovieCredits.Params
 import net.simonvt.cathode.api.entity.CrewMember
 import net.simonvt.cathode.api.entity.People
+import net.simonvt.cathode.api.entity.Person
 import net.simonvt.cathode.api.enumeration.Department
 import net.simonvt.cathode.api.enumeration.Extended
 import net.simonvt.cathode.api.service.MoviesService
@@ -59,10 +60,18 @@ class SyncMovieCredits @Inject constructor(
     op = ContentProviderOperation.newDelete(MovieCrew.fromMovie(movieId)).build()
     ops.add(op)
 
+    val people = mutableListOf<Person>()
+    response.cast?.forEach { people.add(it.person) }
+    response.crew?.apply {
+      listOfNotNull(production, art, crew, costume_and_make_up, directing, writing, sound, camera)
+        .forEach { department -> department.forEach { people.add(it.person) } }
+    }
+    val personIds = personHelper.partialUpdate(people)
+
     val cast = response.cast
     if (cast != null) {
       for ((character, person) in cast) {
-        val personId = personHelper.partialUpdate(person)
+        val personId = personIds.getValue(person.ids.trakt!!)
 
         op = ContentProviderOperation.newInsert(MovieCast.MOVIE_CAST)
           .withValue(MovieCastColumns.MOVIE_ID, movieId)
@@ -75,14 +84,14 @@ class SyncMovieCredits @Inject constructor(
 
     val crew = response.crew
     if (crew != null) {
-      insertCrew(ops, movieId, Department.PRODUCTION, crew.production)
-      insertCrew(ops, movieId, Department.ART, crew.art)
-      insertCrew(ops, movieId, Department.CREW, crew.crew)
-      insertCrew(ops, movieId, Department.COSTUME_AND_MAKEUP, crew.costume_and_make_up)
-      insertCrew(ops, movieId, Department.DIRECTING, crew.directing)
-      insertCrew(ops, movieId, Department.WRITING, crew.writing)
-      insertCrew(ops, movieId, Department.SOUND, crew.sound)
-      insertCrew(ops, movieId, Department.CAMERA, crew.camera)
+      insertCrew(ops, movieId, personIds, Department.PRODUCTION, crew.production)
+      insertCrew(ops, movieId, personIds, Department.ART, crew.art)
+      insertCrew(ops, movieId, personIds, Department.CREW, crew.crew)
+      insertCrew(ops, movieId, personIds, Department.COSTUME_AND_MAKEUP, crew.costume_and_make_up)
+      insertCrew(ops, movieId, personIds, Department.DIRECTING, crew.directing)
+      insertCrew(ops, movieId, personIds, Department.WRITING, crew.writing)
+      insertCrew(ops, movieId, personIds, Department.SOUND, crew.sound)
+      insertCrew(ops, movieId, personIds, Department.CAMERA, crew.camera)
     }
 
     ops.add(
@@ -98,6 +107,7 @@ class SyncMovieCredits @Inject constructor(
   private fun insertCrew(
     ops: ArrayList<ContentProviderOperation>,
     movieId: Long,
+    personIds: Map<Long, Long>,
     department: Department,
     crew: List<CrewMember>?
   ) {
@@ -105,7 +115,7 @@ class SyncMovieCredits @Inject constructor(
       return
     }
     for ((job, person) in crew) {
-      val personId = personHelper.partialUpdate(person)
+      val personId = personIds.getValue(person.ids.trakt!!)
 
       val op = ContentProviderOperation.newInsert(MovieCrew.MOVIE_CREW)
         .withValue(MovieCrewColumns.MOVIE_ID, movieId)
@@ -17,8 +17,12 @@
 package net.simonvt.cathode.actions.movies
 
 import android.content.Context
+import net.simonvt.cathode.actions.ActionFailedException
 import net.simonvt.cathode.actions.ActionManager
 import net.simonvt.cathode.actions.ErrorHandlerAction
+import net.simonvt.cathode.actions.FetchPipeline
+import net.simonvt.cathode.actions.ProgressListener
+import net.simonvt.cathode.api.entity.Movie
 import net.simonvt.cathode.api.service.MoviesService
 import net.simonvt.cathode.common.database.forEach
 import net.simonvt.cathode.common.database.getLong
@@ -40,6 +44,8 @@ class SyncPendingMovies @Inject constructor(
   val movieHelper: MovieDatabaseHelper
 ) : ErrorHandlerAction<Unit>() {
 
+  var progressListener: ProgressListener? = null
+
   override fun key(params: Unit): String = "SyncPendingMovies"
 
   override suspend fun invoke(params: Unit) {
@@ -83,15 +89,23 @@ class SyncPendingMovies @Inject constructor(
     }
     listMovies.close()
 
-    syncItems.forEach { (_, traktId) ->
-      Timber.d("Syncing pending movie %d", traktId)
-      ActionManager.invokeSync(syncMovie, SyncMovie.Params(traktId))
+    val pipeline = FetchPipeline<Long, Movie>(
+      FetchPipeline.concurrency(context),
+      { traktId ->
+        Timber.d("Syncing pending movie %d", traktId)
+        syncMovie.fetch(SyncMovie.Params(traktId))
+      },
+      { traktId, movie -> syncMovie.handleResponse(SyncMovie.Params(traktId), movie) },
+      { traktId -> ActionManager.claim(syncMovie, SyncMovie.Params(traktId)) }
+    )
+    val failed = pipeline.run(syncItems.values, { stopped }, progressListener)
 
-      if (stopped) {
-        return
-      }
+    if (!stopped) {
+      ItemsUpdatedEvent.post()
     }
 
-    ItemsUpdatedEvent.post()
+    if (failed > 0) {
+      throw ActionFailedException("$failed movies failed to sync")
+    }
   }
 }
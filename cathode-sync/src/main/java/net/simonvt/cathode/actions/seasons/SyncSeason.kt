@@ -15,6 +15,7 @@
  */
 package net.simonvt.cathode.actions.seasons
 
+import android.content.ContentProviderOperation
 import android.content.Context
 import net.simonvt.cathode.actions.CallAction
 import net.simonvt.cathode.actions.seasons.SyncSeason.Params
@@ -25,7 +26,7 @@ import net.simonvt.cathode.common.database.forEach
 import net.simonvt.cathode.common.database.getLong
 import net.simonvt.cathode.provider.DatabaseContract.EpisodeColumns
 import net.simonvt.cathode.provider.ProviderSchematic.Episodes
-import net.simonvt.cathode.provider.delete
+import net.simonvt.cathode.provider.bulkBatch
 import net.simonvt.cathode.provider.helper.EpisodeDatabaseHelper
 import net.simonvt.cathode.provider.helper.SeasonDatabaseHelper
 import net.simonvt.cathode.provider.helper.ShowDatabaseHelper
@@ -61,16 +62,22 @@ class SyncSeason @Inject constructor(
     currentEpisodes.forEach { cursor -> episodeIds.add(cursor.getLong(EpisodeColumns.ID)) }
     currentEpisodes.close()
 
+    val ops = arrayListOf<ContentProviderOperation>()
     for (episode in response) {
       val episodeResult = episodeHelper.getIdOrCreate(showId, seasonId, episode.number!!)
       val episodeId = episodeResult.id
-      episodeHelper.updateEpisode(episodeId, episode)
+      val op = ContentProviderOperation.newUpdate(Episodes.withId(episodeId))
+        .withValues(episodeHelper.getValues(episode))
+        .build()
+      ops.add(op)
       episodeIds.remove(episodeId)
     }
 
     for (episodeId in episodeIds) {
-      context.contentResolver.delete(Episodes.withId(episodeId))
+      ops.add(ContentProviderOperation.newDelete(Episodes.withId(episodeId)).build())
     }
+
+    context.contentResolver.bulkBatch(ops)
   }
 
   data class Params(val traktId: Long, val season: Int)
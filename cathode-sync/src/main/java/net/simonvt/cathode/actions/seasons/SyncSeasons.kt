@@ -16,54 +16,128 @@
 
 package net.simonvt.cathode.actions.seasons
 
+import android.content.ContentProviderOperation
 import android.content.Context
 import net.simonvt.cathode.actions.CallAction
-import net.simonvt.cathode.actions.invokeAsync
 import net.simonvt.cathode.actions.seasons.SyncSeasons.Params
 import net.simonvt.cathode.api.entity.Season
 import net.simonvt.cathode.api.enumeration.Extended
 import net.simonvt.cathode.api.service.SeasonService
 import net.simonvt.cathode.common.database.forEach
+import net.simonvt.cathode.common.database.getInt
 import net.simonvt.cathode.common.database.getLong
+import net.simonvt.cathode.provider.DatabaseContract.EpisodeColumns
 import net.simonvt.cathode.provider.DatabaseContract.SeasonColumns
+import net.simonvt.cathode.provider.ProviderSchematic.Episodes
 import net.simonvt.cathode.provider.ProviderSchematic.Seasons
-import net.simonvt.cathode.provider.delete
+import net.simonvt.cathode.provider.bulkBatch
+import net.simonvt.cathode.provider.helper.EpisodeDatabaseHelper
 import net.simonvt.cathode.provider.helper.SeasonDatabaseHelper
 import net.simonvt.cathode.provider.helper.ShowDatabaseHelper
 import net.simonvt.cathode.provider.query
 import retrofit2.Call
 import javax.inject.Inject
 
+/**
+ * Syncs every season and episode of a show. The seasons are fetched together with their episodes
+ * in a single request, and the whole show is diffed against the local rows and written in one
+ * batch.
+ */
 class SyncSeasons @Inject constructor(
   private val context: Context,
   private val seasonService: SeasonService,
   private val showHelper: ShowDatabaseHelper,
   private val seasonHelper: SeasonDatabaseHelper,
-  private val syncSeason: SyncSeason
+  private val episodeHelper: EpisodeDatabaseHelper
 ) : CallAction<Params, List<Season>>() {
 
   override fun key(params: Params): String = "SyncSeasons&traktId=${params.traktId}"
 
   override fun getCall(params: Params): Call<List<Season>> =
-    seasonService.getSummary(params.traktId, Extended.FULL)
+    seasonService.getSummary(params.traktId, Extended.FULL_EPISODES)
 
   override suspend fun handleResponse(params: Params, response: List<Season>) {
+    context.contentResolver.bulkBatch(getOps(params, response))
+  }
+
+  /**
+   * Creates the missing seasons and episodes, and returns the operations that update and delete
+   * the rest. Meant to be applied with [bulkBatch].
+   */
+  internal fun getOps(
+    params: Params,
+    response: List<Season>
+  ): ArrayList<ContentProviderOperation> {
     val showId = showHelper.getId(params.traktId)
-    val seasonIds = mutableListOf<Long>()
-    val currentSeasons =
-      context.contentResolver.query(Seasons.fromShow(showId), arrayOf(SeasonColumns.ID))
-    currentSeasons.forEach { cursor -> seasonIds.add(cursor.getLong(SeasonColumns.ID)) }
-    currentSeasons.close()
-
-    response.map {
-      val result = seasonHelper.getIdOrCreate(showId, it.number)
-      seasonIds.remove(result.id)
-      syncSeason.invokeAsync(SyncSeason.Params(params.traktId, it.number))
-    }.forEach { it.await() }
-
-    for (seasonId in seasonIds) {
-      context.contentResolver.delete(Seasons.withId(seasonId))
+
+    val localSeasons = mutableMapOf<Int, Long>()
+    val seasons = context.contentResolver.query(
+      Seasons.fromShow(showId),
+      arrayOf(SeasonColumns.ID, SeasonColumns.SEASON)
+    )
+    seasons.forEach { cursor ->
+      localSeasons[cursor.getInt(SeasonColumns.SEASON)] = cursor.getLong(SeasonColumns.ID)
+    }
+    seasons.close()
+
+    val localEpisodes = mutableMapOf<Long, MutableMap<Int, Long>>()
+    val episodes = context.contentResolver.query(
+      Episodes.fromShow(showId),
+      arrayOf(EpisodeColumns.ID, EpisodeColumns.SEASON_ID, EpisodeColumns.EPISODE)
+    )
+    episodes.forEach { cursor ->
+      val seasonEpisodes =
+        localEpisodes.getOrPut(cursor.getLong(EpisodeColumns.SEASON_ID)) { mutableMapOf() }
+      seasonEpisodes[cursor.getInt(EpisodeColumns.EPISODE)] = cursor.getLong(EpisodeColumns.ID)
+    }
+    episodes.close()
+
+    val missingSeasons = response.map { it.number }.filter { !localSeasons.containsKey(it) }
+    if (missingSeasons.isNotEmpty()) {
+      seasonHelper.getIdsOrCreate(showId, missingSeasons).forEach { (number, result) ->
+        localSeasons[number] = result.id
+      }
     }
+
+    val ops = arrayListOf<ContentProviderOperation>()
+    for (season in response) {
+      val seasonId = localSeasons.remove(season.number) ?: continue
+      ops.add(
+        ContentProviderOperation.newUpdate(Seasons.withId(seasonId))
+          .withValues(seasonHelper.getValues(season))
+          .build()
+      )
+
+      val seasonEpisodes = localEpisodes.remove(seasonId) ?: mutableMapOf()
+      // Without an episode list there is nothing to compare the local episodes against
+      val remoteEpisodes = season.episodes?.filter { it.number != null } ?: continue
+      val missingEpisodes =
+        remoteEpisodes.map { it.number!! }.filter { !seasonEpisodes.containsKey(it) }
+      if (missingEpisodes.isNotEmpty()) {
+        episodeHelper.getIdsOrCreate(showId, seasonId, missingEpisodes)
+          .forEach { (number, result) -> seasonEpisodes[number] = result.id }
+      }
+
+      for (episode in remoteEpisodes) {
+        val episodeId = seasonEpisodes.remove(episode.number!!) ?: continue
+        ops.add(
+          ContentProviderOperation.newUpdate(Episodes.withId(episodeId))
+            .withValues(episodeHelper.getValues(episode))
+            .build()
+        )
+      }
+
+      for (episodeId in seasonEpisodes.values) {
+        ops.add(ContentProviderOperation.newDelete(Episodes.withId(episodeId)).build())
+      }
+    }
+
+    // Episodes of removed seasons are deleted by the season delete trigger
+    for (seasonId in localSeasons.values) {
+      ops.add(ContentProviderOperation.newDelete(Seasons.withId(seasonId)).build())
+    }
+
+    return ops
   }
 
   data class Params(val traktId: Long)
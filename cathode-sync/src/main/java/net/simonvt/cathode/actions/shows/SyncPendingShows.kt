@@ -18,8 +18,11 @@ package net.simonvt.cathode.actions.shows
 
 import android.content.Context
 import net.simonvt.cathode.actions.ActionFailedException
+import net.simonvt.cathode.actions.ActionManager
 import net.simonvt.cathode.actions.ErrorHandlerAction
-import net.simonvt.cathode.actions.invokeSync
+import net.simonvt.cathode.actions.FetchPipeline
+import net.simonvt.cathode.actions.ProgressListener
+import net.simonvt.cathode.actions.shows.SyncShow.ShowTree
 import net.simonvt.cathode.common.database.forEach
 import net.simonvt.cathode.common.database.getLong
 import net.simonvt.cathode.common.event.ItemsUpdatedEvent
@@ -33,7 +36,6 @@ import net.simonvt.cathode.provider.helper.SeasonDatabaseHelper
 import net.simonvt.cathode.provider.helper.ShowDatabaseHelper
 import net.simonvt.cathode.provider.query
 import timber.log.Timber
-import java.io.IOException
 import javax.inject.Inject
 
 class SyncPendingShows @Inject constructor(
@@ -44,6 +46,8 @@ class SyncPendingShows @Inject constructor(
   private val syncShow: SyncShow
 ) : ErrorHandlerAction<Unit>() {
 
+  var progressListener: ProgressListener? = null
+
   override fun key(params: Unit): String = "SyncPendingShows"
 
   override suspend fun invoke(params: Unit) {
@@ -128,19 +132,23 @@ class SyncPendingShows @Inject constructor(
     }
     listEpisodes.close()
 
-    try {
-      for ((showId, traktId) in syncItems) {
+    val pipeline = FetchPipeline<Long, ShowTree>(
+      FetchPipeline.concurrency(context),
+      { traktId ->
         Timber.d("Syncing pending show %d", traktId)
-        syncShow.invokeSync(SyncShow.Params(traktId))
-
-        if (stopped) {
-          return
-        }
-      }
+        syncShow.fetchShow(SyncShow.Params(traktId))
+      },
+      { traktId, tree -> syncShow.writeShow(SyncShow.Params(traktId), tree) },
+      { traktId -> ActionManager.claim(syncShow, SyncShow.Params(traktId)) }
+    )
+    val failed = pipeline.run(syncItems.values, { stopped }, progressListener)
 
+    if (!stopped) {
       ItemsUpdatedEvent.post()
-    } catch (e: IOException) {
-      throw ActionFailedException(e)
+    }
+
+    if (failed > 0) {
+      throw ActionFailedException("$failed shows failed to sync")
     }
   }
 }
@@ -15,17 +15,21 @@
  */
 package net.simonvt.cathode.actions.shows
 
+import android.content.Context
 import net.simonvt.cathode.actions.CallAction
 import net.simonvt.cathode.actions.seasons.SyncSeasons
 import net.simonvt.cathode.actions.shows.SyncShow.Params
+import net.simonvt.cathode.api.entity.Season
 import net.simonvt.cathode.api.entity.Show
 import net.simonvt.cathode.api.enumeration.Extended
 import net.simonvt.cathode.api.service.ShowsService
+import net.simonvt.cathode.provider.bulkBatch
 import net.simonvt.cathode.provider.helper.ShowDatabaseHelper
 import retrofit2.Call
 import javax.inject.Inject
 
 class SyncShow @Inject constructor(
+  private val context: Context,
   private val showsService: ShowsService,
   private val showHelper: ShowDatabaseHelper,
   private val syncSeasons: SyncSeasons
@@ -41,5 +45,29 @@ class SyncShow @Inject constructor(
     showHelper.fullUpdate(response)
   }
 
+  /**
+   * Fetches the show and all of its seasons and episodes, without writing anything.
+   *
+   * @return The fetched show, or null if either request failed with an error that is ignored.
+   */
+  internal fun fetchShow(params: Params): ShowTree? {
+    val show = fetch(params) ?: return null
+    val seasons = syncSeasons.fetch(SyncSeasons.Params(params.traktId)) ?: return null
+    return ShowTree(show, seasons)
+  }
+
+  /**
+   * Writes a show fetched with [fetchShow]. The show, its seasons and its episodes are written in a
+   * single batch, so a failure never leaves the show partially updated.
+   */
+  internal fun writeShow(params: Params, tree: ShowTree) {
+    val ops = syncSeasons.getOps(SyncSeasons.Params(params.traktId), tree.seasons)
+    val showId = showHelper.getId(params.traktId)
+    ops.addAll(showHelper.fullUpdateOps(showId, tree.show))
+    context.contentResolver.bulkBatch(ops)
+  }
+
+  class ShowTree(val show: Show, val seasons: List<Season>)
+
   data class Params(val traktId: Long)
 }
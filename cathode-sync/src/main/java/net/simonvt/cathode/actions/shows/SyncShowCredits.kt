@@ -22,6 +22,7 @@ import net.simonvt.cathode.actions.CallAction
 import net.simonvt.cathode.actions.shows.SyncShowCredits.Params
 import net.simonvt.cathode.api.entity.CrewMember
 import net.simonvt.cathode.api.entity.People
+import net.simonvt.cathode.api.entity.Person
 import net.simonvt.cathode.api.enumeration.Department
 import net.simonvt.cathode.api.enumeration.Extended
 import net.simonvt.cathode.api.service.ShowsService
@@ -56,9 +57,17 @@ class SyncShowCredits @Inject constructor(
     ops.add(ContentProviderOperation.newDelete(ShowCast.fromShow(showId)).build())
     ops.add(ContentProviderOperation.newDelete(ShowCrew.fromShow(showId)).build())
 
+    val people = mutableListOf<Person>()
+    response.cast?.forEach { people.add(it.person) }
+    response.crew?.apply {
+      listOfNotNull(production, art, crew, costume_and_make_up, directing, writing, sound, camera)
+        .forEach { department -> department.forEach { people.add(it.person) } }
+    }
+    val personIds = personHelper.partialUpdate(people)
+
     response.cast?.forEach { character ->
       val person = character.person
-      val personId = personHelper.partialUpdate(person)
+      val personId = personIds.getValue(person.ids.trakt!!)
 
       val op = ContentProviderOperation.newInsert(ShowCast.SHOW_CAST)
         .withValue(ShowCastColumns.SHOW_ID, showId)
@@ -69,14 +78,14 @@ class SyncShowCredits @Inject constructor(
     }
 
     response.crew?.apply {
-      insertCrew(ops, showId, Department.PRODUCTION, production)
-      insertCrew(ops, showId, Department.ART, art)
-      insertCrew(ops, showId, Department.CREW, crew)
-      insertCrew(ops, showId, Department.COSTUME_AND_MAKEUP, costume_and_make_up)
-      insertCrew(ops, showId, Department.DIRECTING, directing)
-      insertCrew(ops, showId, Department.WRITING, writing)
-      insertCrew(ops, showId, Department.SOUND, sound)
-      insertCrew(ops, showId, Department.CAMERA, camera)
+      insertCrew(ops, showId, personIds, Department.PRODUCTION, production)
+      insertCrew(ops, showId, personIds, Department.ART, art)
+      insertCrew(ops, showId, personIds, Department.CREW, crew)
+      insertCrew(ops, showId, personIds, Department.COSTUME_AND_MAKEUP, costume_and_make_up)
+      insertCrew(ops, showId, personIds, Department.DIRECTING, directing)
+      insertCrew(ops, showId, personIds, Department.WRITING, writing)
+      insertCrew(ops, showId, personIds, Department.SOUND, sound)
+      insertCrew(ops, showId, personIds, Department.CAMERA, camera)
     }
 
     ops.add(
@@ -91,12 +100,13 @@ class SyncShowCredits @Inject constructor(
   private fun insertCrew(
     ops: MutableList<ContentProviderOperation>,
     showId: Long,
+    personIds: Map<Long, Long>,
     department: Department,
     crew: List<CrewMember>?
   ) {
     if (crew != null) {
       for (crewMember in crew) {
-        val personId = personHelper.partialUpdate(crewMember.person)
+        val personId = personIds.getValue(crewMember.person.ids.trakt!!)
 
         val op = ContentProviderOperation.newInsert(ShowCrew.SHOW_CREW)
           .withValue(ShowCrewColumns.SHOW_ID, showId)
@@ -24,7 +24,7 @@ import net.simonvt.cathode.api.entity.ShowProgress
 import net.simonvt.cathode.api.service.ShowsService
 import net.simonvt.cathode.provider.DatabaseContract.EpisodeColumns
 import net.simonvt.cathode.provider.ProviderSchematic.Episodes
-import net.simonvt.cathode.provider.batch
+import net.simonvt.cathode.provider.bulkBatch
 import net.simonvt.cathode.provider.helper.EpisodeDatabaseHelper
 import net.simonvt.cathode.provider.helper.SeasonDatabaseHelper
 import net.simonvt.cathode.provider.helper.ShowDatabaseHelper
@@ -65,7 +65,7 @@ class SyncShowWatchedStatus @Inject constructor(
       }
     }
 
-    context.contentResolver.batch(ops)
+    context.contentResolver.bulkBatch(ops)
   }
 
   data class Params(val traktId: Long)
@@ -52,9 +52,9 @@ class SyncTrendingShows @Inject constructor(
     localShows.forEach { cursor -> showIds.add(cursor.getLong(ShowColumns.ID)) }
     localShows.close()
 
+    val trendingIds = showHelper.partialUpdate(response.map { it.show!! })
     response.forEachIndexed { index, trendingItem ->
-      val show = trendingItem.show!!
-      val showId = showHelper.partialUpdate(show)
+      val showId = trendingIds.getValue(trendingItem.show!!.ids.trakt!!)
       showIds.remove(showId)
 
       val values = ContentValues()
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.actions.user
+
+import net.simonvt.cathode.common.util.LongLongMap
+import net.simonvt.cathode.common.util.LongSet
+
+/**
+ * The episodes that are marked as watched locally, keyed by show, season and episode number.
+ * Episodes are marked as seen while the watched shows returned by Trakt are processed; those
+ * that are never seen are no longer watched.
+ */
+internal class LocalWatchedEpisodes {
+
+  private val shows = LongLongMap()
+  private val seasons = LongLongMap()
+  private val episodes = LongLongMap()
+  private val lastWatched = LongLongMap()
+  private val unseen = LongSet()
+
+  val size: Int
+    get() = episodes.size
+
+  fun addEpisode(
+    showTraktId: Long,
+    showId: Long,
+    season: Int,
+    seasonId: Long,
+    episode: Int,
+    episodeId: Long,
+    lastWatchedAt: Long
+  ) {
+    shows.put(showTraktId, showId)
+    seasons.put(key(showId, season), seasonId)
+    episodes.put(key(showId, season, episode), episodeId)
+    lastWatched.put(episodeId, lastWatchedAt)
+    unseen.add(episodeId)
+  }
+
+  /** Returns the local id of the show with [traktId], or -1 if it has no watched episodes. */
+  fun showId(traktId: Long): Long = shows.get(traktId, -1L)
+
+  fun putShow(traktId: Long, showId: Long) {
+    shows.put(traktId, showId)
+  }
+
+  /** Returns the local id of the season, or -1 if it has no watched episodes. */
+  fun seasonId(showId: Long, season: Int): Long = seasons.get(key(showId, season), -1L)
+
+  fun putSeason(showId: Long, season: Int, seasonId: Long) {
+    seasons.put(key(showId, season), seasonId)
+  }
+
+  /** Returns the local id of the episode, or -1 if it is not watched. */
+  fun episodeId(showId: Long, season: Int, episode: Int): Long =
+    episodes.get(key(showId, season, episode), -1L)
+
+  fun lastWatchedAt(episodeId: Long): Long = lastWatched.get(episodeId, 0L)
+
+  fun markSeen(episodeId: Long) {
+    unseen.remove(episodeId)
+  }
+
+  /** Returns the ids of watched episodes that were not seen in the response. */
+  fun unseenEpisodeIds(): LongArray = unseen.toArray()
+
+  companion object {
+
+    /**
+     * Packs a show id and season number into a single key. Show ids are row ids, and season and
+     * episode numbers fit in 16 bits.
+     */
+    fun key(showId: Long, season: Int): Long =
+      (showId shl 32) or ((season.toLong() and 0xFFFF) shl 16)
+
+    fun key(showId: Long, season: Int, episode: Int): Long =
+      key(showId, season) or (episode.toLong() and 0xFFFF)
+  }
+}
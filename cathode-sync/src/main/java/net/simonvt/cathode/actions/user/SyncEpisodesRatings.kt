@@ -18,8 +18,12 @@ package net.simonvt.cathode.actions.user
 
 import android.content.ContentProviderOperation
 import android.content.Context
-import net.simonvt.cathode.actions.CallAction
+import com.squareup.moshi.JsonAdapter
+import com.squareup.moshi.Moshi
+import net.simonvt.cathode.actions.ItemStream
+import net.simonvt.cathode.actions.StreamingCallAction
 import net.simonvt.cathode.actions.user.SyncEpisodesRatings.Params
+import net.simonvt.cathode.api.TraktModule.Companion.NAMED_TRAKT
 import net.simonvt.cathode.api.entity.RatingItem
 import net.simonvt.cathode.api.service.SyncService
 import net.simonvt.cathode.common.database.forEach
@@ -32,24 +36,29 @@ import net.simonvt.cathode.provider.helper.SeasonDatabaseHelper
 import net.simonvt.cathode.provider.helper.ShowDatabaseHelper
 import net.simonvt.cathode.provider.query
 import net.simonvt.cathode.settings.TraktTimestamps
+import okhttp3.ResponseBody
 import retrofit2.Call
 import javax.inject.Inject
+import javax.inject.Named
 
 class SyncEpisodesRatings @Inject constructor(
   private val context: Context,
   private val showHelper: ShowDatabaseHelper,
   private val seasonHelper: SeasonDatabaseHelper,
   private val episodeHelper: EpisodeDatabaseHelper,
-  private val syncService: SyncService
-) : CallAction<Params, List<RatingItem>>() {
+  private val syncService: SyncService,
+  @Named(NAMED_TRAKT) private val moshi: Moshi
+) : StreamingCallAction<Params, RatingItem>() {
 
   override fun key(params: Params): String = "SyncEpisodesRatings"
 
-  override fun getCall(params: Params): Call<List<RatingItem>> = syncService.getEpisodeRatings()
+  override fun getCall(params: Params): Call<ResponseBody> = syncService.streamEpisodeRatings()
 
-  override suspend fun handleResponse(params: Params, response: List<RatingItem>) {
+  override fun getAdapter(): JsonAdapter<RatingItem> = moshi.adapter(RatingItem::class.java)
+
+  override suspend fun handleResponse(params: Params, response: ItemStream<RatingItem>) {
     val ops = arrayListOf<ContentProviderOperation>()
-    val episodeIds = mutableListOf<Long>()
+    val episodeIds = mutableSetOf<Long>()
 
     val episodes = context.contentResolver.query(
       Episodes.EPISODES,
@@ -59,26 +68,31 @@ class SyncEpisodesRatings @Inject constructor(
     episodes.forEach { cursor -> episodeIds.add(cursor.getLong(EpisodeColumns.ID)) }
     episodes.close()
 
-    for (rating in response) {
-      val seasonNumber = rating.episode!!.season!!
-      val episodeNumber = rating.episode!!.number!!
+    response.forEachChunk { ratings ->
+      for (rating in ratings) {
+        val seasonNumber = rating.episode!!.season!!
+        val episodeNumber = rating.episode!!.number!!
 
-      val showTraktId = rating.show!!.ids.trakt!!
-      val showResult = showHelper.getIdOrCreate(showTraktId)
-      val showId = showResult.showId
+        val showTraktId = rating.show!!.ids.trakt!!
+        val showResult = showHelper.getIdOrCreate(showTraktId)
+        val showId = showResult.showId
 
-      val seasonResult = seasonHelper.getIdOrCreate(showId, seasonNumber)
-      val seasonId = seasonResult.id
+        val seasonResult = seasonHelper.getIdOrCreate(showId, seasonNumber)
+        val seasonId = seasonResult.id
 
-      val episodeResult = episodeHelper.getIdOrCreate(showId, seasonId, episodeNumber)
-      val episodeId = episodeResult.id
-      episodeIds.remove(episodeId)
+        val episodeResult = episodeHelper.getIdOrCreate(showId, seasonId, episodeNumber)
+        val episodeId = episodeResult.id
+        episodeIds.remove(episodeId)
 
-      val op = ContentProviderOperation.newUpdate(Episodes.withId(episodeId))
-        .withValue(EpisodeColumns.USER_RATING, rating.rating)
-        .withValue(EpisodeColumns.RATED_AT, rating.rated_at.timeInMillis)
-        .build()
-      ops.add(op)
+        val op = ContentProviderOperation.newUpdate(Episodes.withId(episodeId))
+          .withValue(EpisodeColumns.USER_RATING, rating.rating)
+          .withValue(EpisodeColumns.RATED_AT, rating.rated_at.timeInMillis)
+          .build()
+        ops.add(op)
+      }
+
+      context.contentResolver.batch(ops)
+      ops.clear()
     }
 
     for (episodeId in episodeIds) {
@@ -29,6 +29,7 @@ import net.simonvt.cathode.provider.helper.MovieDatabaseHelper
 import net.simonvt.cathode.provider.query
 import net.simonvt.cathode.settings.TraktTimestamps
 import net.simonvt.cathode.work.enqueueUniqueNow
+import net.simonvt.cathode.work.images.PrefetchImagesWorker
 import net.simonvt.cathode.work.movies.SyncPendingMoviesWorker
 import retrofit2.Call
 import javax.inject.Inject
@@ -71,6 +72,7 @@ class SyncMoviesCollection @Inject constructor(
     }
 
     workManager.enqueueUniqueNow(SyncPendingMoviesWorker.TAG, SyncPendingMoviesWorker::class.java)
+    PrefetchImagesWorker.schedule(workManager)
 
     if (params.userActivityTime > 0L) {
       TraktTimestamps.getSettings(context)
@@ -19,17 +19,22 @@ import android.content.ContentProviderOperation
 import android.content.ContentValues
 import android.content.Context
 import androidx.work.WorkManager
-import net.simonvt.cathode.actions.CallAction
+import com.squareup.moshi.JsonAdapter
+import com.squareup.moshi.Moshi
+import net.simonvt.cathode.actions.ItemStream
+import net.simonvt.cathode.actions.StreamingCallAction
 import net.simonvt.cathode.actions.user.SyncShowsCollection.Params
+import net.simonvt.cathode.api.TraktModule.Companion.NAMED_TRAKT
 import net.simonvt.cathode.api.entity.CollectionItem
 import net.simonvt.cathode.api.service.SyncService
 import net.simonvt.cathode.common.database.getInt
 import net.simonvt.cathode.common.database.getLong
+import net.simonvt.cathode.common.util.LongSet
 import net.simonvt.cathode.provider.DatabaseContract.EpisodeColumns
 import net.simonvt.cathode.provider.DatabaseContract.ShowColumns
 import net.simonvt.cathode.provider.ProviderSchematic.Episodes
 import net.simonvt.cathode.provider.ProviderSchematic.Shows
-import net.simonvt.cathode.provider.batch
+import net.simonvt.cathode.provider.bulkBatch
 import net.simonvt.cathode.provider.helper.EpisodeDatabaseHelper
 import net.simonvt.cathode.provider.helper.SeasonDatabaseHelper
 import net.simonvt.cathode.provider.helper.ShowDatabaseHelper
@@ -37,9 +42,11 @@ import net.simonvt.cathode.provider.query
 import net.simonvt.cathode.settings.TraktTimestamps
 import net.simonvt.cathode.work.enqueueUniqueNow
 import net.simonvt.cathode.work.shows.SyncPendingShowsWorker
+import okhttp3.ResponseBody
 import retrofit2.Call
 import java.util.ArrayList
 import javax.inject.Inject
+import javax.inject.Named
 
 class SyncShowsCollection @Inject constructor(
   private val context: Context,
@@ -47,14 +54,18 @@ class SyncShowsCollection @Inject constructor(
   private val seasonHelper: SeasonDatabaseHelper,
   private val episodeHelper: EpisodeDatabaseHelper,
   private val syncService: SyncService,
-  private val workManager: WorkManager
-) : CallAction<Params, List<CollectionItem>>() {
+  private val workManager: WorkManager,
+  @Named(NAMED_TRAKT) private val moshi: Moshi
+) : StreamingCallAction<Params, CollectionItem>() {
 
   override fun key(params: Params): String = "SyncShowsCollection"
 
-  override fun getCall(params: Params): Call<List<CollectionItem>> = syncService.getShowCollection()
+  override fun getCall(params: Params): Call<ResponseBody> = syncService.streamShowCollection()
 
-  override suspend fun handleResponse(params: Params, response: List<CollectionItem>) {
+  override fun getAdapter(): JsonAdapter<CollectionItem> =
+    moshi.adapter(CollectionItem::class.java)
+
+  override suspend fun handleResponse(params: Params, response: ItemStream<CollectionItem>) {
     val c = context.contentResolver.query(
       Episodes.EPISODES,
       arrayOf(
@@ -70,7 +81,7 @@ class SyncShowsCollection @Inject constructor(
 
     val showsMap = mutableMapOf<Long, CollectedShow>()
     val showIdToTraktMap = mutableMapOf<Long, Long>()
-    val episodeIds = mutableListOf<Long>()
+    val episodeIds = LongSet()
 
     while (c.moveToNext()) {
       val id = c.getLong(EpisodeColumns.ID)
@@ -112,75 +123,77 @@ class SyncShowsCollection @Inject constructor(
 
     val ops = arrayListOf<ContentProviderOperation>()
 
-    for (collectionItem in response) {
-      val traktId = collectionItem.show!!.ids.trakt!!
-
-      var collectedShow = showsMap[traktId]
+    response.forEachChunk { collectionItems ->
+      for (collectionItem in collectionItems) {
+        val traktId = collectionItem.show!!.ids.trakt!!
+
+        var collectedShow = showsMap[traktId]
+
+        val showId: Long
+        var markPending = false
+        if (collectedShow == null) {
+          val showResult = showHelper.getIdOrCreate(traktId)
+          showId = showResult.showId
+          markPending = markPending || showResult.didCreate
+          collectedShow = CollectedShow(showId)
+          showsMap[traktId] = collectedShow
+        } else {
+          showId = collectedShow.id
+        }
 
-      val showId: Long
-      var markPending = false
-      if (collectedShow == null) {
-        val showResult = showHelper.getIdOrCreate(traktId)
-        showId = showResult.showId
-        markPending = markPending || showResult.didCreate
-        collectedShow = CollectedShow(showId)
-        showsMap[traktId] = collectedShow
-      } else {
-        showId = collectedShow.id
-      }
+        val lastCollectedMillis = collectionItem.last_collected_at!!.timeInMillis
+
+        ops.add(
+          ContentProviderOperation.newUpdate(Shows.withId(collectedShow.id))
+            .withValue(ShowColumns.LAST_COLLECTED_AT, lastCollectedMillis)
+            .build()
+        )
+
+        for (seasonCollectedResponse in collectionItem.seasons!!) {
+          var collectedSeason = collectedShow.seasons[seasonCollectedResponse.number]
+          if (collectedSeason == null) {
+            val seasonResult =
+              seasonHelper.getIdOrCreate(collectedShow.id, seasonCollectedResponse.number)
+            val seasonId = seasonResult.id
+            markPending = markPending || seasonResult.didCreate
+            collectedSeason = LocalCollectedSeason(seasonId)
+            collectedShow.seasons[seasonCollectedResponse.number] = collectedSeason
+          }
 
-      val lastCollectedMillis = collectionItem.last_collected_at!!.timeInMillis
-
-      ops.add(
-        ContentProviderOperation.newUpdate(Shows.withId(collectedShow.id))
-          .withValue(ShowColumns.LAST_COLLECTED_AT, lastCollectedMillis)
-          .build()
-      )
-
-      for (seasonCollectedResponse in collectionItem.seasons!!) {
-        var collectedSeason = collectedShow.seasons[seasonCollectedResponse.number]
-        if (collectedSeason == null) {
-          val seasonResult =
-            seasonHelper.getIdOrCreate(collectedShow.id, seasonCollectedResponse.number)
-          val seasonId = seasonResult.id
-          markPending = markPending || seasonResult.didCreate
-          collectedSeason = LocalCollectedSeason(seasonId)
-          collectedShow.seasons[seasonCollectedResponse.number] = collectedSeason
+          for (episode in seasonCollectedResponse.episodes) {
+            val collectedAt = episode.collected_at.timeInMillis
+            val syncEpisode = collectedSeason.episodes[episode.number]
+
+            if (syncEpisode == null || collectedAt != syncEpisode.collectedAt) {
+              val episodeResult =
+                episodeHelper.getIdOrCreate(collectedShow.id, collectedSeason.id, episode.number)
+              val episodeId = episodeResult.id
+              markPending = markPending || episodeResult.didCreate
+
+              val builder = ContentProviderOperation.newUpdate(Episodes.withId(episodeId))
+              val values = ContentValues()
+              values.put(EpisodeColumns.IN_COLLECTION, true)
+              values.put(EpisodeColumns.COLLECTED_AT, collectedAt)
+              builder.withValues(values)
+              ops.add(builder.build())
+            } else {
+              episodeIds.remove(syncEpisode.id)
+            }
+          }
         }
 
-        for (episode in seasonCollectedResponse.episodes) {
-          val collectedAt = episode.collected_at.timeInMillis
-          val syncEpisode = collectedSeason.episodes[episode.number]
-
-          if (syncEpisode == null || collectedAt != syncEpisode.collectedAt) {
-            val episodeResult =
-              episodeHelper.getIdOrCreate(collectedShow.id, collectedSeason.id, episode.number)
-            val episodeId = episodeResult.id
-            markPending = markPending || episodeResult.didCreate
-
-            val builder = ContentProviderOperation.newUpdate(Episodes.withId(episodeId))
-            val values = ContentValues()
-            values.put(EpisodeColumns.IN_COLLECTION, true)
-            values.put(EpisodeColumns.COLLECTED_AT, collectedAt)
-            builder.withValues(values)
-            ops.add(builder.build())
-          } else {
-            episodeIds.remove(syncEpisode.id)
-          }
+        if (markPending) {
+          showHelper.markPending(showId)
         }
-      }
 
-      if (markPending) {
-        showHelper.markPending(showId)
+        apply(ops)
       }
-
-      apply(ops)
     }
 
     workManager.enqueueUniqueNow(SyncPendingShowsWorker.TAG, SyncPendingShowsWorker::class.java)
 
     ops.clear()
-    for (episodeId in episodeIds) {
+    for (episodeId in episodeIds.toArray()) {
       val builder = ContentProviderOperation.newUpdate(Episodes.withId(episodeId))
       val values = ContentValues()
       values.put(EpisodeColumns.IN_COLLECTION, false)
@@ -199,7 +212,7 @@ class SyncShowsCollection @Inject constructor(
   }
 
   private fun apply(ops: ArrayList<ContentProviderOperation>) {
-    context.contentResolver.batch(ops)
+    context.contentResolver.bulkBatch(ops)
     ops.clear()
   }
 
@@ -19,28 +19,38 @@ import android.content.ContentProviderOperation
 import android.content.ContentValues
 import android.content.Context
 import androidx.work.WorkManager
-import net.simonvt.cathode.actions.CallAction
+import com.squareup.moshi.JsonAdapter
+import com.squareup.moshi.Moshi
+import net.simonvt.cathode.actions.ItemStream
+import net.simonvt.cathode.actions.StreamingCallAction
 import net.simonvt.cathode.actions.user.SyncWatchedShows.Params
+import net.simonvt.cathode.api.TraktModule.Companion.NAMED_TRAKT
 import net.simonvt.cathode.api.entity.WatchedItem
 import net.simonvt.cathode.api.service.SyncService
 import net.simonvt.cathode.common.database.getInt
 import net.simonvt.cathode.common.database.getLong
+import net.simonvt.cathode.common.util.LongSet
 import net.simonvt.cathode.provider.DatabaseContract.EpisodeColumns
 import net.simonvt.cathode.provider.DatabaseContract.ShowColumns
+import net.simonvt.cathode.provider.DatabaseSchematic.Tables
 import net.simonvt.cathode.provider.ProviderSchematic.Episodes
 import net.simonvt.cathode.provider.ProviderSchematic.Shows
-import net.simonvt.cathode.provider.batch
+import net.simonvt.cathode.provider.bulkBatch
 import net.simonvt.cathode.provider.helper.EpisodeDatabaseHelper
 import net.simonvt.cathode.provider.helper.SeasonDatabaseHelper
 import net.simonvt.cathode.provider.helper.ShowDatabaseHelper
 import net.simonvt.cathode.provider.query
+import net.simonvt.cathode.provider.util.SqlColumn
 import net.simonvt.cathode.settings.TraktTimestamps
 import net.simonvt.cathode.work.enqueueUniqueNow
+import net.simonvt.cathode.work.images.PrefetchImagesWorker
 import net.simonvt.cathode.work.shows.SyncPendingShowsWorker
+import okhttp3.ResponseBody
 import retrofit2.Call
 import timber.log.Timber
 import java.util.ArrayList
 import javax.inject.Inject
+import javax.inject.Named
 
 class SyncWatchedShows @Inject constructor(
   private val context: Context,
@@ -48,160 +58,135 @@ class SyncWatchedShows @Inject constructor(
   private val seasonHelper: SeasonDatabaseHelper,
   private val episodeHelper: EpisodeDatabaseHelper,
   private val syncService: SyncService,
-  private val workManager: WorkManager
-) : CallAction<Params, List<WatchedItem>>() {
+  private val workManager: WorkManager,
+  @Named(NAMED_TRAKT) private val moshi: Moshi
+) : StreamingCallAction<Params, WatchedItem>() {
 
   override fun key(params: Params): String = "SyncWatchedShows"
 
-  override fun getCall(params: Params): Call<List<WatchedItem>> = syncService.getWatchedShows()
+  override fun getCall(params: Params): Call<ResponseBody> = syncService.streamWatchedShows()
 
-  override suspend fun handleResponse(params: Params, response: List<WatchedItem>) {
-    val c = context.contentResolver.query(
-      Episodes.EPISODES,
-      arrayOf(
-        EpisodeColumns.ID,
-        EpisodeColumns.SHOW_ID,
-        EpisodeColumns.SEASON,
-        EpisodeColumns.SEASON_ID,
-        EpisodeColumns.EPISODE,
-        EpisodeColumns.LAST_WATCHED_AT
-      ),
-      EpisodeColumns.WATCHED
-    )
+  override fun getAdapter(): JsonAdapter<WatchedItem> = moshi.adapter(WatchedItem::class.java)
 
-    val showsMap = mutableMapOf<Long, WatchedShow>()
-    val showIdToTraktMap = mutableMapOf<Long, Long>()
-    val episodeIds = mutableListOf<Long>()
-
-    while (c.moveToNext()) {
-      val id = c.getLong(EpisodeColumns.ID)
-      val showId = c.getLong(EpisodeColumns.SHOW_ID)
-      val season = c.getInt(EpisodeColumns.SEASON)
-      val seasonId = c.getLong(EpisodeColumns.SEASON_ID)
-      val lastWatchedAt = c.getLong(EpisodeColumns.LAST_WATCHED_AT)
-
-      val watchedShow: WatchedShow?
-      var showTraktId = showIdToTraktMap[showId]
-      if (showTraktId == null) {
-        showTraktId = showHelper.getTraktId(showId)
-
-        showIdToTraktMap[showId] = showTraktId
-
-        watchedShow = WatchedShow(showId)
-        showsMap[showTraktId] = watchedShow
-      } else {
-        watchedShow = showsMap[showTraktId]
-      }
-
-      var syncSeason = watchedShow!!.seasons[season]
-      if (syncSeason == null) {
-        syncSeason = LocalWatchedSeason(seasonId)
-        watchedShow.seasons[season] = syncSeason
-      }
-
-      val number = c.getInt(EpisodeColumns.EPISODE)
-
-      var syncEpisode = syncSeason.episodes[number]
-      if (syncEpisode == null) {
-        syncEpisode = LocalWatchedEpisode(id, lastWatchedAt)
-        syncSeason.episodes[number] = syncEpisode
-      }
-
-      episodeIds.add(id)
-    }
-    c.close()
+  override suspend fun handleResponse(params: Params, response: ItemStream<WatchedItem>) {
+    val local = queryLocalEpisodes()
+    Timber.d("Loaded %d watched episodes", local.size)
 
     val ops = arrayListOf<ContentProviderOperation>()
 
-    Timber.d("Processing items")
-    for (watchedItem in response) {
-      val traktId = watchedItem.show!!.ids.trakt!!
-      Timber.d("Processing: %d", traktId)
-
-      var watchedShow = showsMap[traktId]
-
-      val showId: Long
+    response.forEachChunk { watchedItems ->
       var markPending = false
-      if (watchedShow == null) {
-        val showResult = showHelper.getIdOrCreate(traktId)
-        showId = showResult.showId
-        markPending = markPending || showResult.didCreate
-        watchedShow = WatchedShow(showId)
-        showsMap[traktId] = watchedShow
-      } else {
-        showId = watchedShow.id
-      }
 
-      val lastWatchedMillis = watchedItem.last_watched_at.timeInMillis
-
-      ops.add(
-        ContentProviderOperation.newUpdate(Shows.withId(watchedShow.id))
-          .withValue(ShowColumns.LAST_WATCHED_AT, lastWatchedMillis)
-          .build()
-      )
+      val createdShows = LongSet()
+      val missingShows = watchedItems.map { it.show!!.ids.trakt!! }
+        .filter { local.showId(it) == -1L }
+      if (missingShows.isNotEmpty()) {
+        for ((traktId, showResult) in showHelper.getIdsOrCreate(missingShows)) {
+          local.putShow(traktId, showResult.showId)
+          if (showResult.didCreate) {
+            createdShows.add(showResult.showId)
+          }
+        }
+      }
 
-      for ((seasonNumber, episodes) in watchedItem.seasons!!) {
-        var localWatchedSeason = watchedShow.seasons[seasonNumber]
-        if (localWatchedSeason == null) {
-          val seasonResult = seasonHelper.getIdOrCreate(watchedShow.id, seasonNumber)
-          val seasonId = seasonResult.id
-          markPending = markPending || seasonResult.didCreate
-          localWatchedSeason = LocalWatchedSeason(seasonId)
-          watchedShow.seasons[seasonNumber] = localWatchedSeason
+      for (watchedItem in watchedItems) {
+        val showId = local.showId(watchedItem.show!!.ids.trakt!!)
+        var showPending = createdShows.contains(showId)
+
+        ops.add(
+          ContentProviderOperation.newUpdate(Shows.withId(showId))
+            .withValue(ShowColumns.LAST_WATCHED_AT, watchedItem.last_watched_at.timeInMillis)
+            .build()
+        )
+
+        val seasons = watchedItem.seasons!!
+        val missingSeasons = seasons.map { it.number }.filter { local.seasonId(showId, it) == -1L }
+        if (missingSeasons.isNotEmpty()) {
+          val seasonResults = seasonHelper.getIdsOrCreate(showId, missingSeasons)
+          for ((seasonNumber, seasonResult) in seasonResults) {
+            local.putSeason(showId, seasonNumber, seasonResult.id)
+            showPending = showPending || seasonResult.didCreate
+          }
         }
 
-        for (watchedEpisode in episodes) {
-          val lastWatchedAt = watchedEpisode.last_watched_at.timeInMillis
-          val syncEpisode = localWatchedSeason.episodes[watchedEpisode.number]
+        for ((seasonNumber, episodes) in seasons) {
+          val seasonId = local.seasonId(showId, seasonNumber)
 
-          if (syncEpisode == null) {
-            val episodeResult =
-              episodeHelper.getIdOrCreate(
-                watchedShow.id,
-                localWatchedSeason.id,
-                watchedEpisode.number
-              )
-            val episodeId = episodeResult.id
-            markPending = markPending || episodeResult.didCreate
-
-            val builder = ContentProviderOperation.newUpdate(Episodes.withId(episodeId))
-            val values = ContentValues()
-            values.put(EpisodeColumns.WATCHED, true)
-            values.put(EpisodeColumns.LAST_WATCHED_AT, lastWatchedAt)
-            builder.withValues(values)
-            ops.add(builder.build())
+          val missingEpisodes = episodes.map { it.number }
+            .filter { local.episodeId(showId, seasonNumber, it) == -1L }
+          val episodeResults = if (missingEpisodes.isNotEmpty()) {
+            episodeHelper.getIdsOrCreate(showId, seasonId, missingEpisodes)
           } else {
-            episodeIds.remove(syncEpisode.id)
+            emptyMap()
+          }
+
+          for (watchedEpisode in episodes) {
+            val lastWatchedAt = watchedEpisode.last_watched_at.timeInMillis
+            val localEpisodeId = local.episodeId(showId, seasonNumber, watchedEpisode.number)
+
+            if (localEpisodeId == -1L) {
+              val episodeResult = episodeResults.getValue(watchedEpisode.number)
+              showPending = showPending || episodeResult.didCreate
 
-            if (lastWatchedAt != syncEpisode.lastWatched) {
-              val builder = ContentProviderOperation.newUpdate(Episodes.withId(syncEpisode.id))
               val values = ContentValues()
+              values.put(EpisodeColumns.WATCHED, true)
               values.put(EpisodeColumns.LAST_WATCHED_AT, lastWatchedAt)
-              builder.withValues(values)
-              ops.add(builder.build())
+              ops.add(
+                ContentProviderOperation.newUpdate(Episodes.withId(episodeResult.id))
+                  .withValues(values)
+                  .build()
+              )
+            } else {
+              local.markSeen(localEpisodeId)
+
+              if (lastWatchedAt != local.lastWatchedAt(localEpisodeId)) {
+                ops.add(
+                  ContentProviderOperation.newUpdate(Episodes.withId(localEpisodeId))
+                    .withValue(EpisodeColumns.LAST_WATCHED_AT, lastWatchedAt)
+                    .build()
+                )
+              }
             }
           }
         }
+
+        if (showPending) {
+          ops.add(
+            ContentProviderOperation.newUpdate(Shows.withId(showId))
+              .withValue(ShowColumns.NEEDS_SYNC, true)
+              .build()
+          )
+          markPending = true
+        }
+
+        if (ops.size >= BATCH_SIZE) {
+          apply(ops)
+        }
       }
 
+      apply(ops)
+
       if (markPending) {
-        showHelper.markPending(showId)
         workManager.enqueueUniqueNow(SyncPendingShowsWorker.TAG, SyncPendingShowsWorker::class.java)
       }
-
-      apply(ops)
     }
 
-    for (episodeId in episodeIds) {
-      val builder = ContentProviderOperation.newUpdate(Episodes.withId(episodeId))
-      val values = ContentValues()
-      values.put(EpisodeColumns.WATCHED, false)
-      builder.withValues(values)
-      ops.add(builder.build())
+    for (episodeId in local.unseenEpisodeIds()) {
+      ops.add(
+        ContentProviderOperation.newUpdate(Episodes.withId(episodeId))
+          .withValue(EpisodeColumns.WATCHED, false)
+          .build()
+      )
+
+      if (ops.size >= BATCH_SIZE) {
+        apply(ops)
+      }
     }
 
     apply(ops)
 
+    PrefetchImagesWorker.schedule(workManager)
+
     if (params.userActivityTime > 0L) {
       TraktTimestamps.getSettings(context)
         .edit()
@@ -210,21 +195,51 @@ class SyncWatchedShows @Inject constructor(
     }
   }
 
-  private fun apply(ops: ArrayList<ContentProviderOperation>): Boolean {
-    context.contentResolver.batch(ops)
-    ops.clear()
-    return true
-  }
-
-  private class WatchedShow(var id: Long) {
-    var seasons = mutableMapOf<Int, LocalWatchedSeason>()
+  /**
+   * Loads all watched episodes, along with the Trakt id of their show, in a single query.
+   */
+  private fun queryLocalEpisodes(): LocalWatchedEpisodes {
+    val local = LocalWatchedEpisodes()
+    val c = context.contentResolver.query(
+      Episodes.EPISODES_WITH_SHOW,
+      arrayOf(
+        SqlColumn.table(Tables.EPISODES).column(EpisodeColumns.ID),
+        SqlColumn.table(Tables.EPISODES).column(EpisodeColumns.SHOW_ID),
+        SqlColumn.table(Tables.EPISODES).column(EpisodeColumns.SEASON),
+        SqlColumn.table(Tables.EPISODES).column(EpisodeColumns.SEASON_ID),
+        SqlColumn.table(Tables.EPISODES).column(EpisodeColumns.EPISODE),
+        SqlColumn.table(Tables.EPISODES).column(EpisodeColumns.LAST_WATCHED_AT),
+        SqlColumn.table(Tables.SHOWS).column(ShowColumns.TRAKT_ID) + " AS " + SHOW_TRAKT_ID
+      ),
+      SqlColumn.table(Tables.EPISODES).column(EpisodeColumns.WATCHED) + "=1"
+    )
+    c.use {
+      while (c.moveToNext()) {
+        local.addEpisode(
+          c.getLong(SHOW_TRAKT_ID),
+          c.getLong(EpisodeColumns.SHOW_ID),
+          c.getInt(EpisodeColumns.SEASON),
+          c.getLong(EpisodeColumns.SEASON_ID),
+          c.getInt(EpisodeColumns.EPISODE),
+          c.getLong(EpisodeColumns.ID),
+          c.getLong(EpisodeColumns.LAST_WATCHED_AT)
+        )
+      }
+    }
+    return local
   }
 
-  private class LocalWatchedSeason(var id: Long) {
-    var episodes = mutableMapOf<Int, LocalWatchedEpisode>()
+  private fun apply(ops: ArrayList<ContentProviderOperation>) {
+    if (ops.isNotEmpty()) {
+      context.contentResolver.bulkBatch(ops)
+      ops.clear()
+    }
   }
 
-  private class LocalWatchedEpisode(var id: Long, var lastWatched: Long)
-
   data class Params(val userActivityTime: Long = 0L)
+
+  companion object {
+    private const val SHOW_TRAKT_ID = "showTraktId"
+    private const val BATCH_SIZE = 500
+  }
 }
@@ -23,6 +23,13 @@ import timber.log.Timber;
 
 public abstract class CallJob<T> extends ErrorHandlerJob<T> {
 
+  /**
+   * Call jobs send the user's own actions to Trakt, and are started ahead of background syncs.
+   */
+  @Override public int priority() {
+    return PRIORITY_USER;
+  }
+
   @Override public boolean perform() {
     try {
       Call<T> call = getCall();
@@ -28,7 +28,7 @@ public class RemoveHistoryItem extends CallJob<SyncResponse> {
 
   @Inject transient SyncService syncService;
 
-  private long historyId;
+  long historyId;
 
   public RemoveHistoryItem(long historyId) {
 
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.simonvt.cathode.remote.action;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.inject.Inject;
+import net.simonvt.cathode.api.entity.SyncResponse;
+import net.simonvt.cathode.api.service.SyncService;
+import net.simonvt.cathode.jobqueue.Job;
+import net.simonvt.cathode.remote.CallJob;
+import net.simonvt.cathode.remote.sync.SyncUserActivity;
+import retrofit2.Call;
+
+/**
+ * Sends the items of multiple {@link SyncItemsJob}s of the same type in a single request.
+ * <p>
+ * Jobs are only coalesced when the job queue picks the first of them. When a burst of jobs is
+ * queued, the jobs that start before the rest are queued are sent one request each.
+ */
+public class SyncItemsBatchJob extends CallJob<SyncResponse> {
+
+  static final int MAX_ITEMS = 500;
+
+  @Inject transient SyncService syncService;
+
+  SyncItemsJob.Type type;
+
+  List<Job> jobs;
+
+  SyncItemsBatchJob(SyncItemsJob.Type type, List<Job> jobs) {
+    this.type = type;
+    this.jobs = new ArrayList<>(jobs);
+  }
+
+  /**
+   * The key is persisted and logged, so it only identifies the batch by its first and last job.
+   */
+  @Override public String key() {
+    return "SyncItemsBatchJob"
+        + "&type="
+        + type
+        + "&count="
+        + jobs.size()
+        + "&first="
+        + jobs.get(0).key()
+        + "&last="
+        + jobs.get(jobs.size() - 1).key();
+  }
+
+  /**
+   * Every job in a batch is for the same kind of item, so the common key is scoped to that kind,
+   * e.g. "movies", and never conflicts with every other job.
+   */
+  @Override public String lockKey() {
+    List<String> lockKeys = new ArrayList<>();
+    for (Job job : jobs) {
+      lockKeys.add(job.lockKey());
+    }
+    return Job.commonLockKey(lockKeys);
+  }
+
+  @Override public Job coalesce(Job job) {
+    if (canAdd(type, jobs, job)) {
+      List<Job> coalescedJobs = new ArrayList<>(jobs);
+      coalescedJobs.add(job);
+      return new SyncItemsBatchJob(type, coalescedJobs);
+    }
+
+    return null;
+  }
+
+  /**
+   * A job can be added to a batch if it has the same type, is for the same kind of item, and it
+   * does not modify the same item as one of the jobs already in the batch.
+   */
+  static boolean canAdd(SyncItemsJob.Type type, List<Job> jobs, Job job) {
+    if (!(job instanceof SyncItemsJob) || ((SyncItemsJob) job).getType() != type) {
+      return false;
+    }
+
+    if (jobs.size() >= MAX_ITEMS) {
+      return false;
+    }
+
+    String lockKey = job.lockKey();
+    if (!itemKind(lockKey).equals(itemKind(jobs.get(0).lockKey()))) {
+      return false;
+    }
+
+    for (Job batchedJob : jobs) {
+      if (batchedJob.lockKey().equals(lockKey)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * The first segment of a lock key, e.g. "shows" for "shows/1/2".
+   */
+  private static String itemKind(String lockKey) {
+    int separator = lockKey.indexOf('/');
+    return separator == -1 ? lockKey : lockKey.substring(0, separator);
+  }
+
+  @Override public Call<SyncResponse> getCall() {
+    return SyncItemsJob.createCall(syncService, type, jobs);
+  }
+
+  @Override public boolean handleResponse(SyncResponse response) {
+    queue(new SyncUserActivity());
+    return true;
+  }
+}
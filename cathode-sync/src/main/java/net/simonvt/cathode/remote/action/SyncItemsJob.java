@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.simonvt.cathode.remote.action;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.inject.Inject;
+import net.simonvt.cathode.api.body.RateItems;
+import net.simonvt.cathode.api.body.SyncItems;
+import net.simonvt.cathode.api.entity.SyncResponse;
+import net.simonvt.cathode.api.service.SyncService;
+import net.simonvt.cathode.jobqueue.Job;
+import net.simonvt.cathode.remote.CallJob;
+import net.simonvt.cathode.remote.sync.SyncUserActivity;
+import retrofit2.Call;
+
+/**
+ * A job that sends a single item to one of the /sync endpoints. Adjacent jobs of the same type are
+ * coalesced into a {@link SyncItemsBatchJob}. Jobs extend either {@link ItemJob} or
+ * {@link RatingJob}, depending on the request they add to.
+ */
+public abstract class SyncItemsJob extends CallJob<SyncResponse> {
+
+  public enum Type {
+    HISTORY_ADD,
+    COLLECTION_ADD,
+    COLLECTION_REMOVE,
+    WATCHLIST_ADD,
+    WATCHLIST_REMOVE,
+    RATINGS_ADD,
+  }
+
+  /**
+   * A job that adds an item to a {@link SyncItems} request. Used for all types except
+   * {@link Type#RATINGS_ADD}.
+   */
+  public abstract static class ItemJob extends SyncItemsJob {
+
+    protected abstract void addItem(SyncItems.Builder builder);
+  }
+
+  /**
+   * A job that adds a rating to a {@link RateItems} request.
+   */
+  public abstract static class RatingJob extends SyncItemsJob {
+
+    @Override public final Type getType() {
+      return Type.RATINGS_ADD;
+    }
+
+    protected abstract void addRating(RateItems.Builder builder);
+  }
+
+  @Inject transient SyncService syncService;
+
+  /**
+   * Only {@link ItemJob} and {@link RatingJob} extend this class directly.
+   */
+  SyncItemsJob() {
+  }
+
+  public abstract Type getType();
+
+  @Override public Call<SyncResponse> getCall() {
+    return createCall(syncService, getType(), Collections.singletonList(this));
+  }
+
+  @Override public boolean handleResponse(SyncResponse response) {
+    queue(new SyncUserActivity());
+    return true;
+  }
+
+  @Override public Job coalesce(Job job) {
+    if (SyncItemsBatchJob.canAdd(getType(), Collections.<Job>singletonList(this), job)) {
+      return new SyncItemsBatchJob(getType(), Arrays.asList(this, job));
+    }
+
+    return null;
+  }
+
+  static Call<SyncResponse> createCall(SyncService syncService, Type type,
+      List<? extends Job> jobs) {
+    if (type == Type.RATINGS_ADD) {
+      RateItems.Builder builder = new RateItems.Builder();
+      for (Job job : jobs) {
+        ((RatingJob) job).addRating(builder);
+      }
+      return syncService.rate(builder.build());
+    }
+
+    SyncItems.Builder builder = new SyncItems.Builder();
+    for (Job job : jobs) {
+      ((ItemJob) job).addItem(builder);
+    }
+    SyncItems items = builder.build();
+
+    switch (type) {
+      case HISTORY_ADD:
+        return syncService.watched(items);
+
+      case COLLECTION_ADD:
+        return syncService.collect(items);
+
+      case COLLECTION_REMOVE:
+        return syncService.uncollect(items);
+
+      case WATCHLIST_ADD:
+        return syncService.watchlist(items);
+
+      case WATCHLIST_REMOVE:
+        return syncService.unwatchlist(items);
+
+      default:
+        throw new IllegalArgumentException("Unknown type " + type);
+    }
+  }
+}
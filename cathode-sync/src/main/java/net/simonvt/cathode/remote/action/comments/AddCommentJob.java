@@ -34,10 +34,10 @@ public class AddCommentJob extends CallJob<Comment> {
 
   @Inject transient CommentsService commentsService;
 
-  private ItemType type;
-  private long traktId;
-  private String comment;
-  private Boolean spoiler;
+  ItemType type;
+  long traktId;
+  String comment;
+  Boolean spoiler;
 
   public AddCommentJob(ItemType type, long traktId, String comment, boolean spoiler) {
     this.type = type;
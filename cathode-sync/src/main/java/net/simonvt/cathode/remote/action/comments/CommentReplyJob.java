@@ -32,9 +32,9 @@ public class CommentReplyJob extends CallJob<Comment> {
 
   @Inject transient CommentsService commentsService;
 
-  private long parentId;
-  private String comment;
-  private Boolean spoiler;
+  long parentId;
+  String comment;
+  Boolean spoiler;
 
   public CommentReplyJob(long parentId, String comment, boolean spoiler) {
 
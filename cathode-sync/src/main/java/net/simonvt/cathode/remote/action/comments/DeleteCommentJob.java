@@ -27,7 +27,7 @@ public class DeleteCommentJob extends CallJob<ResponseBody> {
 
   @Inject transient CommentsService commentsService;
 
-  private long commentId;
+  long commentId;
 
   public DeleteCommentJob(long commentId) {
 
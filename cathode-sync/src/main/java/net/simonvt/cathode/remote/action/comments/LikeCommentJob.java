@@ -28,7 +28,7 @@ public class LikeCommentJob extends CallJob<ResponseBody> {
 
   @Inject transient CommentsService commentsService;
 
-  private long commentId;
+  long commentId;
 
   public LikeCommentJob(long commentId) {
     this.commentId = commentId;
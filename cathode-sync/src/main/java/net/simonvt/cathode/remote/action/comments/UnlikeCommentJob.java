@@ -27,7 +27,7 @@ public class UnlikeCommentJob extends CallJob<ResponseBody> {
 
   @Inject transient CommentsService commentsService;
 
-  private long commentId;
+  long commentId;
 
   public UnlikeCommentJob(long commentId) {
 
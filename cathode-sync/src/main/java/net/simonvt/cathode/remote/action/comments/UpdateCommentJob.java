@@ -32,9 +32,9 @@ public class UpdateCommentJob extends CallJob<Comment> {
 
   @Inject transient CommentsService commentsService;
 
-  private long commentId;
-  private String comment;
-  private Boolean spoiler;
+  long commentId;
+  String comment;
+  Boolean spoiler;
 
   public UpdateCommentJob(long commentId, String comment, boolean spoiler) {
 
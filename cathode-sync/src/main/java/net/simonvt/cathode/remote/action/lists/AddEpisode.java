@@ -28,10 +28,10 @@ public class AddEpisode extends CallJob<ListItemActionResponse> {
 
   @Inject transient UsersService usersService;
 
-  private long listId;
-  private long showTraktId;
-  private int seasonNumber;
-  private int episodeNumber;
+  long listId;
+  long showTraktId;
+  int seasonNumber;
+  int episodeNumber;
 
   public AddEpisode(long listId, long showTraktId, int seasonNumber, int episodeNumber) {
 
@@ -52,6 +52,10 @@ public class AddEpisode extends CallJob<ListItemActionResponse> {
         + episodeNumber;
   }
 
+  @Override public String lockKey() {
+    return "lists/" + listId;
+  }
+
   @Override public Call<ListItemActionResponse> getCall() {
     return usersService.addItems(listId,
         new IdsBody.Builder().episode(showTraktId, seasonNumber, episodeNumber).build());
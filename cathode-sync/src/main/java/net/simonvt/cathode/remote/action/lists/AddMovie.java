@@ -28,8 +28,8 @@ public class AddMovie extends CallJob<ListItemActionResponse> {
 
   @Inject transient UsersService usersService;
 
-  private long listId;
-  private long traktId;
+  long listId;
+  long traktId;
 
   public AddMovie(long listId, long traktId) {
 
@@ -41,6 +41,10 @@ public class AddMovie extends CallJob<ListItemActionResponse> {
     return "AddMovie&listId=" + listId + "?traktId=" + traktId;
   }
 
+  @Override public String lockKey() {
+    return "lists/" + listId;
+  }
+
   @Override public Call<ListItemActionResponse> getCall() {
     return usersService.addItems(listId, new IdsBody.Builder().movie(traktId).build());
   }
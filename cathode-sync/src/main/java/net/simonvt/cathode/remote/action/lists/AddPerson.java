@@ -28,8 +28,8 @@ public class AddPerson extends CallJob<ListItemActionResponse> {
 
   @Inject transient UsersService usersService;
 
-  private long listId;
-  private long traktId;
+  long listId;
+  long traktId;
 
   public AddPerson(long listId, long traktId) {
 
@@ -41,6 +41,10 @@ public class AddPerson extends CallJob<ListItemActionResponse> {
     return "AddPerson&listId=" + listId + "?traktId=" + traktId;
   }
 
+  @Override public String lockKey() {
+    return "lists/" + listId;
+  }
+
   @Override public Call<ListItemActionResponse> getCall() {
     return usersService.addItems(listId, new IdsBody.Builder().person(traktId).build());
   }
@@ -28,9 +28,9 @@ public class AddSeason extends CallJob<ListItemActionResponse> {
 
   @Inject transient UsersService usersService;
 
-  private long listId;
-  private long showTraktId;
-  private int seasonNumber;
+  long listId;
+  long showTraktId;
+  int seasonNumber;
 
   public AddSeason(long listId, long showTraktId, int seasonNumber) {
 
@@ -48,6 +48,10 @@ public class AddSeason extends CallJob<ListItemActionResponse> {
         + seasonNumber;
   }
 
+  @Override public String lockKey() {
+    return "lists/" + listId;
+  }
+
   @Override public Call<ListItemActionResponse> getCall() {
     return usersService.addItems(listId,
         new IdsBody.Builder().season(showTraktId, seasonNumber).build());
@@ -28,10 +28,10 @@ public class RemoveEpisode extends CallJob<ListItemActionResponse> {
 
   @Inject transient UsersService usersService;
 
-  private long listId;
-  private long showTraktId;
-  private int seasonNumber;
-  private int episodeNumber;
+  long listId;
+  long showTraktId;
+  int seasonNumber;
+  int episodeNumber;
 
   public RemoveEpisode(long listId, long showTraktId, int seasonNumber, int episodeNumber) {
 
@@ -52,6 +52,10 @@ public class RemoveEpisode extends CallJob<ListItemActionResponse> {
         + episodeNumber;
   }
 
+  @Override public String lockKey() {
+    return "lists/" + listId;
+  }
+
   @Override public Call<ListItemActionResponse> getCall() {
     return usersService.removeItem(listId,
         new IdsBody.Builder().episode(showTraktId, seasonNumber, episodeNumber).build());
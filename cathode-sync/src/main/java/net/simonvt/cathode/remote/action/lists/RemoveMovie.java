@@ -28,8 +28,8 @@ public class RemoveMovie extends CallJob<ListItemActionResponse> {
 
   @Inject transient UsersService usersService;
 
-  private long listId;
-  private long traktId;
+  long listId;
+  long traktId;
 
   public RemoveMovie(long listId, long traktId) {
 
@@ -41,6 +41,10 @@ public class RemoveMovie extends CallJob<ListItemActionResponse> {
     return "RemoveMovie&listId=" + listId + "?traktId=" + traktId;
   }
 
+  @Override public String lockKey() {
+    return "lists/" + listId;
+  }
+
   @Override public Call<ListItemActionResponse> getCall() {
     return usersService.removeItem(listId, new IdsBody.Builder().movie(traktId).build());
   }
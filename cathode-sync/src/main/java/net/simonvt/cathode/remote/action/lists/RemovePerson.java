@@ -28,8 +28,8 @@ public class RemovePerson extends CallJob<ListItemActionResponse> {
 
   @Inject transient UsersService usersService;
 
-  private long listId;
-  private long traktId;
+  long listId;
+  long traktId;
 
   public RemovePerson(long listId, long traktId) {
 
@@ -41,6 +41,10 @@ public class RemovePerson extends CallJob<ListItemActionResponse> {
     return "RemovePerson&listId=" + listId + "?traktId=" + traktId;
   }
 
+  @Override public String lockKey() {
+    return "lists/" + listId;
+  }
+
   @Override public Call<ListItemActionResponse> getCall() {
     return usersService.removeItem(listId, new IdsBody.Builder().person(traktId).build());
   }
@@ -28,8 +28,8 @@ public class RemoveShow extends CallJob<ListItemActionResponse> {
 
   @Inject transient UsersService usersService;
 
-  private long listId;
-  private long traktId;
+  long listId;
+  long traktId;
 
   public RemoveShow(long listId, long traktId) {
 
@@ -41,6 +41,10 @@ public class RemoveShow extends CallJob<ListItemActionResponse> {
     return "RemoveShow&listId=" + listId + "?traktId=" + traktId;
   }
 
+  @Override public String lockKey() {
+    return "lists/" + listId;
+  }
+
   @Override public Call<ListItemActionResponse> getCall() {
     return usersService.removeItem(listId, new IdsBody.Builder().show(traktId).build());
   }
@@ -15,20 +15,13 @@
  */
 package net.simonvt.cathode.remote.action.movies;
 
-import javax.inject.Inject;
 import net.simonvt.cathode.api.body.SyncItems;
-import net.simonvt.cathode.api.entity.SyncResponse;
-import net.simonvt.cathode.api.service.SyncService;
-import net.simonvt.cathode.remote.CallJob;
-import net.simonvt.cathode.remote.sync.SyncUserActivity;
-import retrofit2.Call;
+import net.simonvt.cathode.remote.action.SyncItemsJob;
 
-public class AddMovieToHistory extends CallJob<SyncResponse> {
+public class AddMovieToHistory extends SyncItemsJob.ItemJob {
 
-  @Inject transient SyncService syncService;
-
-  private long traktId;
-  private String watchedAt;
+  long traktId;
+  String watchedAt;
 
   public AddMovieToHistory(long traktId, String watchedAt) {
 
@@ -40,13 +33,15 @@ public class AddMovieToHistory extends CallJob<SyncResponse> {
     return "AddMovieToHistory" + "&traktId=" + traktId + "&watchedAt" + watchedAt;
   }
 
-  @Override public Call<SyncResponse> getCall() {
-    SyncItems items = new SyncItems.Builder().movie(traktId, watchedAt, null, null).build();
-    return syncService.watched(items);
+  @Override public String lockKey() {
+    return "movies/" + traktId;
+  }
+
+  @Override public Type getType() {
+    return Type.HISTORY_ADD;
   }
 
-  @Override public boolean handleResponse(SyncResponse response) {
-    queue(new SyncUserActivity());
-    return true;
+  @Override protected void addItem(SyncItems.Builder builder) {
+    builder.movie(traktId, watchedAt, null, null);
   }
 }
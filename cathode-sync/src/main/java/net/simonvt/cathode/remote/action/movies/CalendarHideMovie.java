@@ -29,8 +29,8 @@ public class CalendarHideMovie extends CallJob<HideResponse> {
 
   @Inject transient UsersService usersService;
 
-  private long traktId;
-  private boolean hidden;
+  long traktId;
+  boolean hidden;
 
   public CalendarHideMovie(long traktId, boolean hidden) {
 
@@ -42,6 +42,10 @@ public class CalendarHideMovie extends CallJob<HideResponse> {
     return "CalendarHideMovie?traktId=" + traktId + "&hidden=" + hidden;
   }
 
+  @Override public String lockKey() {
+    return "movies/" + traktId;
+  }
+
   @Override public Call<HideResponse> getCall() {
     HiddenItems items = new HiddenItems.Builder().movie(traktId).build();
 
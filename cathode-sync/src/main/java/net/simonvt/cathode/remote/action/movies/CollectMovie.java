@@ -15,21 +15,14 @@
  */
 package net.simonvt.cathode.remote.action.movies;
 
-import javax.inject.Inject;
 import net.simonvt.cathode.api.body.SyncItems;
-import net.simonvt.cathode.api.entity.SyncResponse;
-import net.simonvt.cathode.api.service.SyncService;
-import net.simonvt.cathode.remote.CallJob;
-import net.simonvt.cathode.remote.sync.SyncUserActivity;
-import retrofit2.Call;
+import net.simonvt.cathode.remote.action.SyncItemsJob;
 
-public class CollectMovie extends CallJob<SyncResponse> {
+public class CollectMovie extends SyncItemsJob.ItemJob {
 
-  @Inject transient SyncService syncService;
-
-  private long traktId;
-  private boolean collected;
-  private String collectedAt;
+  long traktId;
+  boolean collected;
+  String collectedAt;
 
   public CollectMovie(long traktId, boolean collected, String collectedAt) {
 
@@ -48,18 +41,19 @@ public class CollectMovie extends CallJob<SyncResponse> {
         + collectedAt;
   }
 
-  @Override public Call<SyncResponse> getCall() {
+  @Override public String lockKey() {
+    return "movies/" + traktId;
+  }
+
+  @Override public Type getType() {
+    return collected ? Type.COLLECTION_ADD : Type.COLLECTION_REMOVE;
+  }
+
+  @Override protected void addItem(SyncItems.Builder builder) {
     if (collected) {
-      return syncService.collect(
-          new SyncItems.Builder().movie(traktId, null, collectedAt, null).build());
+      builder.movie(traktId, null, collectedAt, null);
     } else {
-      return syncService.uncollect(
-          new SyncItems.Builder().movie(traktId, null, null, null).build());
+      builder.movie(traktId, null, null, null);
     }
   }
-
-  @Override public boolean handleResponse(SyncResponse response) {
-    queue(new SyncUserActivity());
-    return true;
-  }
 }
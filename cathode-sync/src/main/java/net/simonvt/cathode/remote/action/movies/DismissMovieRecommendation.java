@@ -26,7 +26,7 @@ public class DismissMovieRecommendation extends CallJob<ResponseBody> {
 
   @Inject transient RecommendationsService recommendationsService;
 
-  private long traktId;
+  long traktId;
 
   public DismissMovieRecommendation(long traktId) {
 
@@ -37,6 +37,10 @@ public class DismissMovieRecommendation extends CallJob<ResponseBody> {
     return "DismissMovieRecommendation" + "&traktId=" + traktId;
   }
 
+  @Override public String lockKey() {
+    return "movies/" + traktId;
+  }
+
   @Override public Call<ResponseBody> getCall() {
     return recommendationsService.dismissMovie(traktId);
   }
@@ -15,21 +15,14 @@
  */
 package net.simonvt.cathode.remote.action.movies;
 
-import javax.inject.Inject;
 import net.simonvt.cathode.api.body.RateItems;
-import net.simonvt.cathode.api.entity.SyncResponse;
-import net.simonvt.cathode.api.service.SyncService;
-import net.simonvt.cathode.remote.CallJob;
-import net.simonvt.cathode.remote.sync.SyncUserActivity;
-import retrofit2.Call;
+import net.simonvt.cathode.remote.action.SyncItemsJob;
 
-public class RateMovie extends CallJob<SyncResponse> {
+public class RateMovie extends SyncItemsJob.RatingJob {
 
-  @Inject transient SyncService syncService;
-
-  private long traktId;
-  private int rating;
-  private String ratedAt;
+  long traktId;
+  int rating;
+  String ratedAt;
 
   public RateMovie(long traktId, int rating, String ratedAt) {
 
@@ -42,13 +35,11 @@ public class RateMovie extends CallJob<SyncResponse> {
     return "RateMovie" + "&traktId=" + traktId + "&rating=" + rating + "&ratedAt=" + ratedAt;
   }
 
-  @Override public Call<SyncResponse> getCall() {
-    RateItems items = new RateItems.Builder().movie(traktId, rating, ratedAt).build();
-    return syncService.rate(items);
+  @Override public String lockKey() {
+    return "movies/" + traktId;
   }
 
-  @Override public boolean handleResponse(SyncResponse response) {
-    queue(new SyncUserActivity());
-    return true;
+  @Override protected void addRating(RateItems.Builder builder) {
+    builder.movie(traktId, rating, ratedAt);
   }
 }
@@ -28,7 +28,7 @@ public class RemoveMovieFromHistory extends CallJob<SyncResponse> {
 
   @Inject transient SyncService syncService;
 
-  private long traktId;
+  long traktId;
 
   public RemoveMovieFromHistory(long traktId) {
 
@@ -39,6 +39,10 @@ public class RemoveMovieFromHistory extends CallJob<SyncResponse> {
     return "RemoveMovieFromHistory" + "&traktId=" + traktId;
   }
 
+  @Override public String lockKey() {
+    return "movies/" + traktId;
+  }
+
   @Override public Call<SyncResponse> getCall() {
     SyncItems items = new SyncItems.Builder().movie(traktId, null, null, null).build();
     return syncService.unwatched(items);
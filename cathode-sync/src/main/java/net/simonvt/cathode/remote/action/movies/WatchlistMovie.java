@@ -15,21 +15,14 @@
  */
 package net.simonvt.cathode.remote.action.movies;
 
-import javax.inject.Inject;
 import net.simonvt.cathode.api.body.SyncItems;
-import net.simonvt.cathode.api.entity.SyncResponse;
-import net.simonvt.cathode.api.service.SyncService;
-import net.simonvt.cathode.remote.CallJob;
-import net.simonvt.cathode.remote.sync.SyncUserActivity;
-import retrofit2.Call;
+import net.simonvt.cathode.remote.action.SyncItemsJob;
 
-public class WatchlistMovie extends CallJob<SyncResponse> {
+public class WatchlistMovie extends SyncItemsJob.ItemJob {
 
-  @Inject transient SyncService syncService;
-
-  private long traktId;
-  private boolean inWatchlist;
-  private String listedAt;
+  long traktId;
+  boolean inWatchlist;
+  String listedAt;
 
   public WatchlistMovie(long traktId, boolean inWatchlist, String listedAt) {
 
@@ -48,18 +41,19 @@ public class WatchlistMovie extends CallJob<SyncResponse> {
         + listedAt;
   }
 
-  @Override public Call<SyncResponse> getCall() {
+  @Override public String lockKey() {
+    return "movies/" + traktId;
+  }
+
+  @Override public Type getType() {
+    return inWatchlist ? Type.WATCHLIST_ADD : Type.WATCHLIST_REMOVE;
+  }
+
+  @Override protected void addItem(SyncItems.Builder builder) {
     if (inWatchlist) {
-      return syncService.watchlist(
-          new SyncItems.Builder().movie(traktId, null, null, listedAt).build());
+      builder.movie(traktId, null, null, listedAt);
     } else {
-      return syncService.unwatchlist(
-          new SyncItems.Builder().movie(traktId, null, null, null).build());
+      builder.movie(traktId, null, null, null);
     }
   }
-
-  @Override public boolean handleResponse(SyncResponse response) {
-    queue(new SyncUserActivity());
-    return true;
-  }
 }
@@ -15,22 +15,15 @@
  */
 package net.simonvt.cathode.remote.action.shows;
 
-import javax.inject.Inject;
 import net.simonvt.cathode.api.body.SyncItems;
-import net.simonvt.cathode.api.entity.SyncResponse;
-import net.simonvt.cathode.api.service.SyncService;
-import net.simonvt.cathode.remote.CallJob;
-import net.simonvt.cathode.remote.sync.SyncUserActivity;
-import retrofit2.Call;
+import net.simonvt.cathode.remote.action.SyncItemsJob;
 
-public class AddEpisodeToHistory extends CallJob<SyncResponse> {
+public class AddEpisodeToHistory extends SyncItemsJob.ItemJob {
 
-  @Inject transient SyncService syncService;
-
-  private long traktId;
-  private int season;
-  private int episode;
-  private String watchedAt;
+  long traktId;
+  int season;
+  int episode;
+  String watchedAt;
 
   public AddEpisodeToHistory(long traktId, int season, int episode, String watchedAt) {
 
@@ -53,14 +46,15 @@ public class AddEpisodeToHistory extends CallJob<SyncResponse> {
         + watchedAt;
   }
 
-  @Override public Call<SyncResponse> getCall() {
-    SyncItems items =
-        new SyncItems.Builder().episode(traktId, season, episode, watchedAt, null, null).build();
-    return syncService.watched(items);
+  @Override public String lockKey() {
+    return "shows/" + traktId + "/" + season + "/" + episode;
+  }
+
+  @Override public Type getType() {
+    return Type.HISTORY_ADD;
   }
 
-  @Override public boolean handleResponse(SyncResponse response) {
-    queue(new SyncUserActivity());
-    return true;
+  @Override protected void addItem(SyncItems.Builder builder) {
+    builder.episode(traktId, season, episode, watchedAt, null, null);
   }
 }
@@ -27,9 +27,9 @@ public class AddSeasonToHistory extends CallJob<SyncResponse> {
 
   @Inject transient SyncService syncService;
 
-  private long traktId;
-  private int season;
-  private String watchedAt;
+  long traktId;
+  int season;
+  String watchedAt;
 
   public AddSeasonToHistory(long traktId, int season, String watchedAt) {
 
@@ -48,6 +48,10 @@ public class AddSeasonToHistory extends CallJob<SyncResponse> {
         + watchedAt;
   }
 
+  @Override public String lockKey() {
+    return "shows/" + traktId + "/" + season;
+  }
+
   @Override public Call<SyncResponse> getCall() {
     SyncItems items =
         new SyncItems.Builder().season(traktId, season, watchedAt, null, null).build();
@@ -27,8 +27,8 @@ public class AddShowToHistory extends CallJob<SyncResponse> {
 
   @Inject transient SyncService syncService;
 
-  private long traktId;
-  private String watchedAt;
+  long traktId;
+  String watchedAt;
 
   public AddShowToHistory(long traktId, String watchedAt) {
 
@@ -40,6 +40,10 @@ public class AddShowToHistory extends CallJob<SyncResponse> {
     return "AddShowToHistory" + "&traktId=" + traktId + "&watchedAt=" + watchedAt;
   }
 
+  @Override public String lockKey() {
+    return "shows/" + traktId;
+  }
+
   @Override public Call<SyncResponse> getCall() {
     SyncItems items = new SyncItems.Builder().show(traktId, watchedAt, null, null).build();
     return syncService.watched(items);
@@ -29,8 +29,8 @@ public class CalendarHideShow extends CallJob<HideResponse> {
 
   @Inject transient UsersService usersService;
 
-  private long traktId;
-  private boolean hidden;
+  long traktId;
+  boolean hidden;
 
   public CalendarHideShow(long traktId, boolean hidden) {
 
@@ -42,6 +42,10 @@ public class CalendarHideShow extends CallJob<HideResponse> {
     return "CalendarHideShow?traktId=" + traktId + "&hidden=" + hidden;
   }
 
+  @Override public String lockKey() {
+    return "shows/" + traktId;
+  }
+
   @Override public Call<HideResponse> getCall() {
     HiddenItems items = new HiddenItems.Builder().show(traktId).build();
 
@@ -15,23 +15,16 @@
  */
 package net.simonvt.cathode.remote.action.shows;
 
-import javax.inject.Inject;
 import net.simonvt.cathode.api.body.SyncItems;
-import net.simonvt.cathode.api.entity.SyncResponse;
-import net.simonvt.cathode.api.service.SyncService;
-import net.simonvt.cathode.remote.CallJob;
-import net.simonvt.cathode.remote.sync.SyncUserActivity;
-import retrofit2.Call;
+import net.simonvt.cathode.remote.action.SyncItemsJob;
 
-public class CollectEpisode extends CallJob<SyncResponse> {
+public class CollectEpisode extends SyncItemsJob.ItemJob {
 
-  @Inject transient SyncService syncService;
-
-  private long traktId;
-  private int season;
-  private int episode;
-  private boolean inCollection;
-  private String collectedAt;
+  long traktId;
+  int season;
+  int episode;
+  boolean inCollection;
+  String collectedAt;
 
   public CollectEpisode(long traktId, int season, int episode, boolean inCollection,
       String collectedAt) {
@@ -57,21 +50,19 @@ public class CollectEpisode extends CallJob<SyncResponse> {
         + collectedAt;
   }
 
-  @Override public Call<SyncResponse> getCall() {
+  @Override public String lockKey() {
+    return "shows/" + traktId + "/" + season + "/" + episode;
+  }
+
+  @Override public Type getType() {
+    return inCollection ? Type.COLLECTION_ADD : Type.COLLECTION_REMOVE;
+  }
+
+  @Override protected void addItem(SyncItems.Builder builder) {
     if (inCollection) {
-      SyncItems items =
-          new SyncItems.Builder().episode(traktId, season, episode, null, collectedAt, null)
-              .build();
-      return syncService.collect(items);
+      builder.episode(traktId, season, episode, null, collectedAt, null);
     } else {
-      SyncItems items =
-          new SyncItems.Builder().episode(traktId, season, episode, null, null, null).build();
-      return syncService.uncollect(items);
+      builder.episode(traktId, season, episode, null, null, null);
     }
   }
-
-  @Override public boolean handleResponse(SyncResponse response) {
-    queue(new SyncUserActivity());
-    return true;
-  }
 }
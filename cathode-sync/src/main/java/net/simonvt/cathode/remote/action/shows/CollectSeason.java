@@ -27,10 +27,10 @@ public class CollectSeason extends CallJob<SyncResponse> {
 
   @Inject transient SyncService syncService;
 
-  private long traktId;
-  private int season;
-  private boolean inCollection;
-  private String collectedAt;
+  long traktId;
+  int season;
+  boolean inCollection;
+  String collectedAt;
 
   public CollectSeason(long traktId, int season, boolean inCollection, String collectedAt) {
 
@@ -52,6 +52,10 @@ public class CollectSeason extends CallJob<SyncResponse> {
         + collectedAt;
   }
 
+  @Override public String lockKey() {
+    return "shows/" + traktId + "/" + season;
+  }
+
   @Override public Call<SyncResponse> getCall() {
     if (inCollection) {
       SyncItems items =
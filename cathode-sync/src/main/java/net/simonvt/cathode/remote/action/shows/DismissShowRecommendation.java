@@ -26,7 +26,7 @@ public class DismissShowRecommendation extends CallJob<ResponseBody> {
 
   @Inject transient RecommendationsService recommendationsService;
 
-  private long traktId;
+  long traktId;
 
   public DismissShowRecommendation(long traktId) {
 
@@ -37,6 +37,10 @@ public class DismissShowRecommendation extends CallJob<ResponseBody> {
     return "DismissShowRecommendation" + "&traktId=" + traktId;
   }
 
+  @Override public String lockKey() {
+    return "shows/" + traktId;
+  }
+
   @Override public Call<ResponseBody> getCall() {
     return recommendationsService.dismissShow(traktId);
   }
@@ -15,23 +15,16 @@
  */
 package net.simonvt.cathode.remote.action.shows;
 
-import javax.inject.Inject;
 import net.simonvt.cathode.api.body.RateItems;
-import net.simonvt.cathode.api.entity.SyncResponse;
-import net.simonvt.cathode.api.service.SyncService;
-import net.simonvt.cathode.remote.CallJob;
-import net.simonvt.cathode.remote.sync.SyncUserActivity;
-import retrofit2.Call;
+import net.simonvt.cathode.remote.action.SyncItemsJob;
 
-public class RateEpisode extends CallJob<SyncResponse> {
+public class RateEpisode extends SyncItemsJob.RatingJob {
 
-  @Inject transient SyncService syncService;
-
-  private long traktId;
-  private int season;
-  private int episode;
-  private int rating;
-  private String ratedAt;
+  long traktId;
+  int season;
+  int episode;
+  int rating;
+  String ratedAt;
 
   public RateEpisode(long traktId, int season, int episode, int rating, String ratedAt) {
 
@@ -56,14 +49,11 @@ public class RateEpisode extends CallJob<SyncResponse> {
         + ratedAt;
   }
 
-  @Override public Call<SyncResponse> getCall() {
-    RateItems items =
-        new RateItems.Builder().episode(traktId, season, episode, rating, ratedAt).build();
-    return syncService.rate(items);
+  @Override public String lockKey() {
+    return "shows/" + traktId + "/" + season + "/" + episode;
   }
 
-  @Override public boolean handleResponse(SyncResponse response) {
-    queue(new SyncUserActivity());
-    return true;
+  @Override protected void addRating(RateItems.Builder builder) {
+    builder.episode(traktId, season, episode, rating, ratedAt);
   }
 }
@@ -27,9 +27,9 @@ public class RateShow extends CallJob<SyncResponse> {
 
   @Inject transient SyncService syncService;
 
-  private long traktId;
-  private int rating;
-  private String ratedAt;
+  long traktId;
+  int rating;
+  String ratedAt;
 
   public RateShow(long traktId, int rating, String ratedAt) {
 
@@ -42,6 +42,10 @@ public class RateShow extends CallJob<SyncResponse> {
     return "RateShow" + "&traktId=" + traktId + "&rating=" + rating + "&ratedAt=" + ratedAt;
   }
 
+  @Override public String lockKey() {
+    return "shows/" + traktId;
+  }
+
   @Override public Call<SyncResponse> getCall() {
     RateItems items = new RateItems.Builder().show(traktId, rating, ratedAt).build();
     return syncService.rate(items);
@@ -28,9 +28,9 @@ public class RemoveEpisodeFromHistory extends CallJob<SyncResponse> {
 
   @Inject transient SyncService syncService;
 
-  private long traktId;
-  private int season;
-  private int episode;
+  long traktId;
+  int season;
+  int episode;
 
   public RemoveEpisodeFromHistory(long traktId, int season, int episode) {
 
@@ -49,6 +49,10 @@ public class RemoveEpisodeFromHistory extends CallJob<SyncResponse> {
         + episode;
   }
 
+  @Override public String lockKey() {
+    return "shows/" + traktId + "/" + season + "/" + episode;
+  }
+
   @Override public Call<SyncResponse> getCall() {
     SyncItems items =
         new SyncItems.Builder().episode(traktId, season, episode, null, null, null).build();
@@ -28,8 +28,8 @@ public class RemoveSeasonFromHistory extends CallJob<SyncResponse> {
 
   @Inject transient SyncService syncService;
 
-  private long traktId;
-  private int season;
+  long traktId;
+  int season;
 
   public RemoveSeasonFromHistory(long traktId, int season) {
 
@@ -41,6 +41,10 @@ public class RemoveSeasonFromHistory extends CallJob<SyncResponse> {
     return "RemoveSeasonFromHistory" + "&traktId=" + traktId + "&season=" + season;
   }
 
+  @Override public String lockKey() {
+    return "shows/" + traktId + "/" + season;
+  }
+
   @Override public Call<SyncResponse> getCall() {
     SyncItems items =
         new SyncItems.Builder().season(traktId, season, null, null, null).build();
@@ -15,23 +15,16 @@
  */
 package net.simonvt.cathode.remote.action.shows;
 
-import javax.inject.Inject;
 import net.simonvt.cathode.api.body.SyncItems;
-import net.simonvt.cathode.api.entity.SyncResponse;
-import net.simonvt.cathode.api.service.SyncService;
-import net.simonvt.cathode.remote.CallJob;
-import net.simonvt.cathode.remote.sync.SyncUserActivity;
-import retrofit2.Call;
+import net.simonvt.cathode.remote.action.SyncItemsJob;
 
-public class WatchlistEpisode extends CallJob<SyncResponse> {
+public class WatchlistEpisode extends SyncItemsJob.ItemJob {
 
-  @Inject transient SyncService syncService;
-
-  private long traktId;
-  private int season;
-  private int episode;
-  private boolean inWatchlist;
-  private String listedAt;
+  long traktId;
+  int season;
+  int episode;
+  boolean inWatchlist;
+  String listedAt;
 
   public WatchlistEpisode(long traktId, int season, int episode, boolean inWatchlist,
       String listedAt) {
@@ -57,20 +50,19 @@ public class WatchlistEpisode extends CallJob<SyncResponse> {
         + listedAt;
   }
 
-  @Override public Call<SyncResponse> getCall() {
+  @Override public String lockKey() {
+    return "shows/" + traktId + "/" + season + "/" + episode;
+  }
+
+  @Override public Type getType() {
+    return inWatchlist ? Type.WATCHLIST_ADD : Type.WATCHLIST_REMOVE;
+  }
+
+  @Override protected void addItem(SyncItems.Builder builder) {
     if (inWatchlist) {
-      SyncItems items =
-          new SyncItems.Builder().episode(traktId, season, episode, null, null, listedAt).build();
-      return syncService.watchlist(items);
+      builder.episode(traktId, season, episode, null, null, listedAt);
     } else {
-      SyncItems items =
-          new SyncItems.Builder().episode(traktId, season, episode, null, null, null).build();
-      return syncService.unwatchlist(items);
+      builder.episode(traktId, season, episode, null, null, null);
     }
   }
-
-  @Override public boolean handleResponse(SyncResponse response) {
-    queue(new SyncUserActivity());
-    return true;
-  }
 }
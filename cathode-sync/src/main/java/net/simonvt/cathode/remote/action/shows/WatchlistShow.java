@@ -27,9 +27,9 @@ public class WatchlistShow extends CallJob<SyncResponse> {
 
   @Inject transient SyncService syncService;
 
-  private long traktId;
-  private boolean inWatchlist;
-  private String listedAt;
+  long traktId;
+  boolean inWatchlist;
+  String listedAt;
 
   public WatchlistShow(long traktId, boolean inWatchlist, String listedAt) {
 
@@ -48,6 +48,10 @@ public class WatchlistShow extends CallJob<SyncResponse> {
         + listedAt;
   }
 
+  @Override public String lockKey() {
+    return "shows/" + traktId;
+  }
+
   @Override public Call<SyncResponse> getCall() {
     if (inWatchlist) {
       return syncService.watchlist(
@@ -31,6 +31,10 @@ class SyncUserActivity : Job() {
     return "SyncUserActivity"
   }
 
+  override fun coalesce(job: Job): Job? {
+    return if (job is SyncUserActivity) this else null
+  }
+
   override fun perform(): Boolean {
     runBlocking {
       syncUserActivity.invokeSync(Unit)
@@ -16,6 +16,7 @@
 
 package net.simonvt.cathode.sync.jobqueue
 
+import android.content.Context
 import android.text.format.DateUtils
 import androidx.work.WorkManager
 import net.simonvt.cathode.common.event.SyncEvent
@@ -23,6 +24,7 @@ import net.simonvt.cathode.common.util.MainHandler
 import net.simonvt.cathode.jobqueue.Job
 import net.simonvt.cathode.jobqueue.JobExecutor
 import net.simonvt.cathode.jobqueue.JobManager
+import net.simonvt.cathode.settings.Settings
 import net.simonvt.cathode.work.enqueueNow
 import net.simonvt.cathode.work.jobs.JobHandlerWorker
 import timber.log.Timber
@@ -31,6 +33,7 @@ import javax.inject.Singleton
 
 @Singleton
 class JobHandler @Inject constructor(
+  context: Context,
   private val workManager: WorkManager,
   jobManager: JobManager
 ) {
@@ -68,7 +71,9 @@ class JobHandler @Inject constructor(
   }
 
   init {
-    executor = JobExecutor(jobManager, executorListener)
+    val maxConcurrentJobs = Settings.get(context)
+      .getInt(Settings.MAX_CONCURRENT_JOBS, JobExecutor.DEFAULT_MAX_CONCURRENT_JOBS)
+    executor = JobExecutor(jobManager, executorListener, maxConcurrentJobs.coerceAtLeast(1))
   }
 
   fun hasJobs() = executor.hasJobs()
@@ -9,6 +9,7 @@ import net.simonvt.cathode.work.movies.MarkSyncUserMoviesWorker
 import net.simonvt.cathode.work.movies.SyncPendingMoviesWorker
 import net.simonvt.cathode.work.movies.SyncUpdatedMoviesWorker
 import net.simonvt.cathode.work.shows.MarkSyncUserShowsWorker
+import net.simonvt.cathode.work.shows.RefreshAiredCountsWorker
 import net.simonvt.cathode.work.shows.SyncPendingShowsWorker
 import net.simonvt.cathode.work.shows.SyncUpdatedShowsWorker
 import net.simonvt.cathode.work.user.SyncUserActivityWorker
@@ -57,6 +58,8 @@ class PeriodicWorkInitializer @Inject constructor(private val workManager: WorkM
       SyncPendingMoviesWorker.TAG_DAILY,
       constraints
     )
+
+    RefreshAiredCountsWorker.refreshNow(workManager)
   }
 
   fun initAuthWork() {
@@ -20,11 +20,13 @@ import dagger.Binds
 import dagger.Module
 import dagger.multibindings.IntoMap
 import net.simonvt.cathode.work.ChildWorkerFactory
+import net.simonvt.cathode.work.images.PrefetchImagesWorker
 import net.simonvt.cathode.work.jobs.JobHandlerWorker
 import net.simonvt.cathode.work.movies.MarkSyncUserMoviesWorker
 import net.simonvt.cathode.work.movies.SyncPendingMoviesWorker
 import net.simonvt.cathode.work.movies.SyncUpdatedMoviesWorker
 import net.simonvt.cathode.work.shows.MarkSyncUserShowsWorker
+import net.simonvt.cathode.work.shows.RefreshAiredCountsWorker
 import net.simonvt.cathode.work.shows.SyncPendingShowsWorker
 import net.simonvt.cathode.work.shows.SyncUpdatedShowsWorker
 import net.simonvt.cathode.work.user.PeriodicSyncWorker
@@ -37,6 +39,12 @@ import net.simonvt.cathode.work.user.SyncWatchingWorker
 @Module
 abstract class WorkerModuleBinds {
 
+  /* Images */
+  @Binds
+  @IntoMap
+  @WorkerKey(PrefetchImagesWorker::class)
+  abstract fun prefetchImagesWorker(factory: PrefetchImagesWorker.Factory): ChildWorkerFactory
+
   /* Jobs */
   @Binds
   @IntoMap
@@ -65,6 +73,11 @@ abstract class WorkerModuleBinds {
   @WorkerKey(MarkSyncUserShowsWorker::class)
   abstract fun markSyncUserShowsWorker(factory: MarkSyncUserShowsWorker.Factory): ChildWorkerFactory
 
+  @Binds
+  @IntoMap
+  @WorkerKey(RefreshAiredCountsWorker::class)
+  abstract fun refreshAiredCountsWorker(factory: RefreshAiredCountsWorker.Factory): ChildWorkerFactory
+
   @Binds
   @IntoMap
   @WorkerKey(SyncPendingShowsWorker::class)
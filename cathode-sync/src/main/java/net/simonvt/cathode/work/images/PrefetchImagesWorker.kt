@@ -0,0 +1,148 @@
+package net.simonvt.cathode.work.images
+
+import android.content.Context
+import android.net.Uri
+import android.text.format.DateUtils
+import androidx.work.Constraints
+import androidx.work.CoroutineWorker
+import androidx.work.ExistingWorkPolicy
+import androidx.work.NetworkType
+import androidx.work.OneTimeWorkRequest
+import androidx.work.WorkManager
+import androidx.work.WorkerParameters
+import com.squareup.inject.assisted.Assisted
+import com.squareup.inject.assisted.AssistedInject
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.withContext
+import net.simonvt.cathode.common.database.forEach
+import net.simonvt.cathode.common.database.getLong
+import net.simonvt.cathode.images.ImageSettings
+import net.simonvt.cathode.images.ImageSizeSelector
+import net.simonvt.cathode.images.ImageType
+import net.simonvt.cathode.images.ItemRequestHandler
+import net.simonvt.cathode.images.MovieRequestHandler
+import net.simonvt.cathode.images.ShowRequestHandler
+import net.simonvt.cathode.provider.DatabaseContract.MovieColumns
+import net.simonvt.cathode.provider.DatabaseContract.ShowColumns
+import net.simonvt.cathode.provider.ProviderSchematic.Movies
+import net.simonvt.cathode.provider.ProviderSchematic.Shows
+import net.simonvt.cathode.provider.query
+import net.simonvt.cathode.work.ChildWorkerFactory
+import timber.log.Timber
+import java.io.IOException
+
+/**
+ * Resolves stale TMDB image paths of the shows and movies in the user's library, and downloads
+ * their posters into the image disk cache, so the first scroll through a list after a sync doesn't
+ * wait on TMDB. TMDB calls go through the request handlers, and are rate limited the same way.
+ *
+ * The size of the library is stored as well, and used to size the image disk caches.
+ */
+class PrefetchImagesWorker @AssistedInject constructor(
+  @Assisted context: Context,
+  @Assisted params: WorkerParameters,
+  private val showRequestHandler: ShowRequestHandler,
+  private val movieRequestHandler: MovieRequestHandler
+) : CoroutineWorker(context, params) {
+
+  override suspend fun doWork(): Result = withContext(Dispatchers.IO) {
+    val size = ImageSizeSelector.getInstance(applicationContext).getPrefetchSize(ImageType.POSTER)
+    val staleBefore = System.currentTimeMillis() - DateUtils.WEEK_IN_MILLIS
+
+    val librarySize = count(Shows.SHOWS, ShowColumns.ID, SHOWS_IN_LIBRARY) +
+      count(Movies.MOVIES, MovieColumns.ID, MOVIES_IN_LIBRARY)
+    ImageSettings.setLibrarySize(applicationContext, librarySize)
+
+    val showIds = queryStale(
+      Shows.SHOWS,
+      ShowColumns.ID,
+      SHOWS_IN_LIBRARY + " AND " +
+        ShowColumns.TMDB_ID + ">0 AND " + ShowColumns.IMAGES_LAST_UPDATE + "<?",
+      staleBefore
+    )
+    val movieIds = queryStale(
+      Movies.MOVIES,
+      MovieColumns.ID,
+      MOVIES_IN_LIBRARY + " AND " +
+        MovieColumns.TMDB_ID + ">0 AND " + MovieColumns.IMAGES_LAST_UPDATE + "<?",
+      staleBefore
+    )
+
+    Timber.d("Prefetching images of %d shows and %d movies", showIds.size, movieIds.size)
+    if (!prefetch(showRequestHandler, showIds, size) ||
+      !prefetch(movieRequestHandler, movieIds, size)
+    ) {
+      return@withContext Result.retry()
+    }
+
+    Result.success()
+  }
+
+  private fun count(uri: Uri, idColumn: String, where: String): Int {
+    val c = applicationContext.contentResolver.query(uri, arrayOf(idColumn), where)
+    val count = c.count
+    c.close()
+    return count
+  }
+
+  private fun queryStale(uri: Uri, idColumn: String, where: String, staleBefore: Long): List<Long> {
+    val ids = mutableListOf<Long>()
+    val c = applicationContext.contentResolver.query(
+      uri,
+      arrayOf(idColumn),
+      where,
+      arrayOf(staleBefore.toString())
+    )
+    c.forEach { cursor -> ids.add(cursor.getLong(idColumn)) }
+    c.close()
+    return ids
+  }
+
+  /**
+   * @return false if prefetching was interrupted, either because the worker was stopped or
+   * because of a network error.
+   */
+  private fun prefetch(handler: ItemRequestHandler, ids: List<Long>, size: String): Boolean {
+    for (id in ids) {
+      if (isStopped) {
+        return false
+      }
+
+      try {
+        handler.prefetch(id, ImageType.POSTER, size)
+      } catch (e: IOException) {
+        Timber.d(e, "Prefetching images failed")
+        return false
+      }
+    }
+
+    return true
+  }
+
+  @AssistedInject.Factory
+  interface Factory : ChildWorkerFactory
+
+  companion object {
+    const val TAG = "PrefetchImagesWorker"
+
+    private const val SHOWS_IN_LIBRARY =
+      "(" + ShowColumns.WATCHED_COUNT + ">0 OR " + ShowColumns.IN_COLLECTION_COUNT + ">0)"
+    private const val MOVIES_IN_LIBRARY =
+      "(" + MovieColumns.WATCHED + "=1 OR " + MovieColumns.IN_COLLECTION + "=1)"
+
+    /**
+     * Schedules a prefetch for when the device is charging and on an unmetered network. A prefetch
+     * that is already scheduled is kept.
+     */
+    fun schedule(workManager: WorkManager) {
+      val constraints = Constraints.Builder()
+        .setRequiredNetworkType(NetworkType.UNMETERED)
+        .setRequiresCharging(true)
+        .build()
+      val request = OneTimeWorkRequest.Builder(PrefetchImagesWorker::class.java)
+        .setConstraints(constraints)
+        .build()
+      workManager.enqueueUniqueWork(TAG, ExistingWorkPolicy.KEEP, request)
+    }
+  }
+}
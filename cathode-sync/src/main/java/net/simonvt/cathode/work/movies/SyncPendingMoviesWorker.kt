@@ -10,6 +10,7 @@ import kotlinx.coroutines.withContext
 import net.simonvt.cathode.actions.invokeSync
 import net.simonvt.cathode.actions.movies.SyncPendingMovies
 import net.simonvt.cathode.work.ChildWorkerFactory
+import net.simonvt.cathode.work.progress
 
 class SyncPendingMoviesWorker @AssistedInject constructor(
   @Assisted context: Context,
@@ -18,8 +19,9 @@ class SyncPendingMoviesWorker @AssistedInject constructor(
 ) : CoroutineWorker(context, params) {
 
   override suspend fun doWork(): Result = withContext(Dispatchers.IO) {
-    syncPendingMovies.invokeSync(Unit)
-    Result.success()
+    syncPendingMovies.progressListener = { done, total -> setProgressAsync(progress(done, total)) }
+    // Movies that failed are still pending, and are synced again on retry
+    if (syncPendingMovies.invokeSync(Unit)) Result.success() else Result.retry()
   }
 
   @AssistedInject.Factory
@@ -0,0 +1,77 @@
+package net.simonvt.cathode.work.shows
+
+import android.content.Context
+import android.text.format.DateUtils
+import androidx.work.CoroutineWorker
+import androidx.work.ExistingWorkPolicy
+import androidx.work.WorkManager
+import androidx.work.WorkerParameters
+import com.squareup.inject.assisted.Assisted
+import com.squareup.inject.assisted.AssistedInject
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.withContext
+import net.simonvt.cathode.provider.refreshAiredCounts
+import net.simonvt.cathode.work.ChildWorkerFactory
+import net.simonvt.cathode.work.enqueueUniqueDelayed
+
+/**
+ * Keeps the stored aired and unaired counts of shows and seasons current. Each run appends the
+ * next run to its own unique work, delayed until the next episode airs and rounded up to [BUCKET]
+ * so episodes airing close together are handled by a single run. The next run only starts once
+ * this one has succeeded.
+ */
+class RefreshAiredCountsWorker @AssistedInject constructor(
+  @Assisted context: Context,
+  @Assisted params: WorkerParameters,
+  private val workManager: WorkManager
+) : CoroutineWorker(context, params) {
+
+  override suspend fun doWork(): Result = withContext(Dispatchers.IO) {
+    val nextRefresh = applicationContext.contentResolver.refreshAiredCounts()
+    // A stopped run has been replaced by refreshNow, which schedules its own next run
+    if (!isStopped) {
+      schedule(workManager, nextRefresh)
+    }
+    Result.success()
+  }
+
+  @AssistedInject.Factory
+  interface Factory : ChildWorkerFactory
+
+  companion object {
+    const val TAG = "RefreshAiredCountsWorker"
+
+    private const val BUCKET = 15 * DateUtils.MINUTE_IN_MILLIS
+    private const val MAX_DELAY = DateUtils.DAY_IN_MILLIS
+
+    private fun schedule(workManager: WorkManager, nextRefresh: Long) {
+      val currentTime = System.currentTimeMillis()
+      val delay = if (nextRefresh < 0L) {
+        MAX_DELAY
+      } else {
+        val bucketed = (nextRefresh + BUCKET - 1) / BUCKET * BUCKET
+        (bucketed - currentTime).coerceIn(0L, MAX_DELAY)
+      }
+      workManager.enqueueUniqueDelayed(
+        TAG,
+        RefreshAiredCountsWorker::class.java,
+        delay,
+        ExistingWorkPolicy.APPEND,
+        requiresNetwork = false
+      )
+    }
+
+    /**
+     * Refreshes the counts right away, replacing the pending run.
+     */
+    fun refreshNow(workManager: WorkManager) {
+      workManager.enqueueUniqueDelayed(
+        TAG,
+        RefreshAiredCountsWorker::class.java,
+        0L,
+        ExistingWorkPolicy.REPLACE,
+        requiresNetwork = false
+      )
+    }
+  }
+}
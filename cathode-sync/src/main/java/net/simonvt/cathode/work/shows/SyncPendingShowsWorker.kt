@@ -2,6 +2,7 @@ package net.simonvt.cathode.work.shows
 
 import android.content.Context
 import androidx.work.CoroutineWorker
+import androidx.work.WorkManager
 import androidx.work.WorkerParameters
 import com.squareup.inject.assisted.Assisted
 import com.squareup.inject.assisted.AssistedInject
@@ -10,16 +11,22 @@ import kotlinx.coroutines.withContext
 import net.simonvt.cathode.actions.invokeSync
 import net.simonvt.cathode.actions.shows.SyncPendingShows
 import net.simonvt.cathode.work.ChildWorkerFactory
+import net.simonvt.cathode.work.progress
 
 class SyncPendingShowsWorker @AssistedInject constructor(
   @Assisted context: Context,
   @Assisted params: WorkerParameters,
+  private val workManager: WorkManager,
   private val syncPendingShows: SyncPendingShows
 ) : CoroutineWorker(context, params) {
 
   override suspend fun doWork(): Result = withContext(Dispatchers.IO) {
-    syncPendingShows.invokeSync(Unit)
-    Result.success()
+    syncPendingShows.progressListener = { done, total -> setProgressAsync(progress(done, total)) }
+    val succeeded = syncPendingShows.invokeSync(Unit)
+    // Synced episodes may air before the next scheduled refresh
+    RefreshAiredCountsWorker.refreshNow(workManager)
+    // Shows that failed are still pending, and are synced again on retry
+    if (succeeded) Result.success() else Result.retry()
   }
 
   @AssistedInject.Factory
@@ -11,10 +11,20 @@ import androidx.work.NetworkType.CONNECTED
 import androidx.work.OneTimeWorkRequest
 import androidx.work.PeriodicWorkRequest
 import androidx.work.WorkManager
+import androidx.work.workDataOf
 import timber.log.Timber
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.TimeUnit.MILLISECONDS
 
+const val PROGRESS_DONE = "progressDone"
+const val PROGRESS_TOTAL = "progressTotal"
+
+/**
+ * Creates progress data for workers that process a known number of items.
+ */
+fun progress(done: Int, total: Int): Data =
+  workDataOf(PROGRESS_DONE to done, PROGRESS_TOTAL to total)
+
 fun WorkManager.enqueueNow(
   clazz: Class<out ListenableWorker>,
   data: Data? = null,
@@ -43,6 +53,25 @@ fun WorkManager.enqueueUniqueNow(
   enqueueUniqueWork(tag, existingWorkPolicy, requestBuilder.build())
 }
 
+fun WorkManager.enqueueUniqueDelayed(
+  tag: String,
+  clazz: Class<out ListenableWorker>,
+  delay: Long,
+  existingWorkPolicy: ExistingWorkPolicy = APPEND,
+  requiresNetwork: Boolean = true
+) {
+  Timber.d("Enqueueing %s in %d ms", clazz.name, delay)
+  val requestBuilder = OneTimeWorkRequest.Builder(clazz)
+  if (delay > 0L) {
+    requestBuilder.setInitialDelay(delay, MILLISECONDS)
+  }
+  if (requiresNetwork) {
+    val constraintsBuilder = Constraints.Builder().setRequiredNetworkType(CONNECTED)
+    requestBuilder.setConstraints(constraintsBuilder.build())
+  }
+  enqueueUniqueWork(tag, existingWorkPolicy, requestBuilder.build())
+}
+
 fun WorkManager.enqueueDelayed(
   clazz: Class<out ListenableWorker>,
   delay: Long = 0L,
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.actions
+
+import com.google.common.truth.Truth.assertThat
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withTimeout
+import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+
+class FetchPipelineTest {
+
+  @Test
+  fun resultsAreWrittenInTheOrderTheyArrive() = runBlocking {
+    val items = (1..5).toList()
+    val fetched = items.associateWith { CompletableDeferred<Unit>() }
+    val written = Channel<Int>(Channel.UNLIMITED)
+    val pipeline = FetchPipeline<Int, Int>(
+      items.size,
+      { item ->
+        fetched.getValue(item).await()
+        item
+      },
+      { _, result -> written.send(result) }
+    )
+
+    val run = launch { pipeline.run(items, { false }) }
+    withTimeout(TIMEOUT) {
+      for (item in items.reversed()) {
+        fetched.getValue(item).complete(Unit)
+        assertThat(written.receive()).isEqualTo(item)
+      }
+    }
+    run.join()
+  }
+
+  @Test
+  fun fetchesAreBoundedByConcurrency() = runBlocking {
+    val items = (1..20).toList()
+    val active = AtomicInteger()
+    val peak = AtomicInteger()
+    val release = CompletableDeferred<Unit>()
+    val written = Collections.synchronizedList(mutableListOf<Int>())
+    val pipeline = FetchPipeline<Int, Int>(
+      CONCURRENCY,
+      { item ->
+        val running = active.incrementAndGet()
+        peak.accumulateAndGet(running) { a, b -> maxOf(a, b) }
+        release.await()
+        active.decrementAndGet()
+        item
+      },
+      { item, _ -> written.add(item) }
+    )
+
+    val run = launch { pipeline.run(items, { false }) }
+    withTimeout(TIMEOUT) {
+      while (active.get() < CONCURRENCY) {
+        delay(5L)
+      }
+    }
+    // Give the pipeline a chance to start more fetches than it is allowed to
+    delay(50L)
+    assertThat(active.get()).isEqualTo(CONCURRENCY)
+
+    release.complete(Unit)
+    withTimeout(TIMEOUT) { run.join() }
+    assertThat(peak.get()).isEqualTo(CONCURRENCY)
+    assertThat(written).containsExactlyElementsIn(items)
+  }
+
+  @Test
+  fun stoppingDropsRemainingItems() = runBlocking {
+    val items = (1..100).toList()
+    val fetched = AtomicInteger()
+    val written = mutableListOf<Int>()
+    val stopped = AtomicBoolean()
+    val pipeline = FetchPipeline<Int, Int>(
+      1,
+      { item ->
+        fetched.incrementAndGet()
+        item
+      },
+      { item, _ ->
+        written.add(item)
+        stopped.set(written.size == 2)
+      }
+    )
+
+    withTimeout(TIMEOUT) { pipeline.run(items, { stopped.get() }) }
+
+    assertThat(written).containsExactly(1, 2).inOrder()
+    assertThat(fetched.get()).isLessThan(items.size)
+  }
+
+  @Test
+  fun failedItemsDoNotStopTheRun() = runBlocking {
+    val items = (1..6).toList()
+    val written = mutableListOf<Int>()
+    val progress = mutableListOf<Int>()
+    val pipeline = FetchPipeline<Int, Int>(
+      CONCURRENCY,
+      { item ->
+        if (item == 2) throw ActionFailedException("Fetch failed")
+        if (item == 3) null else item
+      },
+      { item, _ ->
+        if (item == 4) throw ActionFailedException("Write failed")
+        written.add(item)
+      }
+    )
+
+    val failed = withTimeout(TIMEOUT) {
+      pipeline.run(items, { false }) { done, total ->
+        assertThat(total).isEqualTo(items.size)
+        progress.add(done)
+      }
+    }
+
+    assertThat(failed).isEqualTo(2)
+    assertThat(written).containsExactly(1, 5, 6)
+    assertThat(progress).containsExactlyElementsIn(1..items.size).inOrder()
+  }
+
+  @Test
+  fun claimsAreCompletedOnceWritten() = runBlocking {
+    val items = (1..4).toList()
+    val claims = mutableMapOf<Int, CompletableDeferred<Boolean>>()
+    val fetched = Collections.synchronizedList(mutableListOf<Int>())
+    val pipeline = FetchPipeline<Int, Int>(
+      CONCURRENCY,
+      { item ->
+        fetched.add(item)
+        item
+      },
+      { item, _ ->
+        assertThat(claims.getValue(item).isCompleted).isFalse()
+        if (item == 4) throw ActionFailedException("Write failed")
+      },
+      { item ->
+        // Item 2 is already being processed elsewhere
+        if (item == 2) null else CompletableDeferred<Boolean>().also { claims[item] = it }
+      }
+    )
+
+    val failed = withTimeout(TIMEOUT) { pipeline.run(items, { false }) }
+
+    assertThat(failed).isEqualTo(1)
+    assertThat(fetched).containsExactly(1, 3, 4)
+    assertThat(claims.getValue(1).await()).isTrue()
+    assertThat(claims.getValue(3).await()).isTrue()
+    assertThat(claims.getValue(4).await()).isFalse()
+  }
+
+  @Test
+  fun droppedItemsReleaseTheirClaims() = runBlocking {
+    val items = (1..10).toList()
+    val claims = Collections.synchronizedList(mutableListOf<CompletableDeferred<Boolean>>())
+    val stopped = AtomicBoolean()
+    val pipeline = FetchPipeline<Int, Int>(
+      CONCURRENCY,
+      { item -> item },
+      { _, _ -> stopped.set(true) },
+      { CompletableDeferred<Boolean>().also { claims.add(it) } }
+    )
+
+    withTimeout(TIMEOUT) { pipeline.run(items, { stopped.get() }) }
+
+    assertThat(claims).isNotEmpty()
+    assertThat(claims.all { it.isCompleted }).isTrue()
+  }
+
+  companion object {
+    private const val CONCURRENCY = 3
+    private const val TIMEOUT = 5000L
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.actions
+
+import com.google.common.truth.Truth.assertThat
+import kotlinx.coroutines.runBlocking
+import okhttp3.mockwebserver.Dispatcher
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import retrofit2.Call
+import retrofit2.Retrofit
+import retrofit2.converter.moshi.MoshiConverterFactory
+import retrofit2.http.GET
+import retrofit2.http.Query
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class PagedActionTest {
+
+  interface PageService {
+    @GET("items")
+    fun getItems(@Query("page") page: Int): Call<List<String>>
+  }
+
+  private lateinit var server: MockWebServer
+  private lateinit var service: PageService
+
+  private val requestedPages = Collections.synchronizedList(mutableListOf<Int>())
+  private val secondPageRequested = CountDownLatch(1)
+
+  @Before
+  fun setUp() {
+    server = MockWebServer()
+    server.dispatcher = object : Dispatcher() {
+      override fun dispatch(request: RecordedRequest): MockResponse {
+        val page = request.requestUrl!!.queryParameter("page")!!.toInt()
+        requestedPages.add(page)
+        if (page == 2) {
+          secondPageRequested.countDown()
+        }
+        return MockResponse()
+          .setHeader(PagedAction.HEADER_PAGE_COUNT, PAGE_COUNT)
+          .setBody("[\"item-$page\"]")
+          .setBodyDelay(RESPONSE_DELAY, TimeUnit.MILLISECONDS)
+      }
+    }
+    server.start()
+
+    service = Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(MoshiConverterFactory.create())
+      .build()
+      .create(PageService::class.java)
+  }
+
+  @After
+  fun tearDown() {
+    server.shutdown()
+  }
+
+  @Test
+  fun pagesAreHandledInOrder() {
+    val action = TestAction(service, HANDLE_DELAY)
+    runBlocking { action(Unit) }
+
+    assertThat(action.items).containsExactly(
+      "item-1", "item-2", "item-3", "item-4", "item-5", "item-6"
+    ).inOrder()
+    assertThat(action.done).isTrue()
+  }
+
+  @Test
+  fun nextPageIsFetchedWhileCurrentPageIsHandled() {
+    var prefetched = false
+    val action = TestAction(service, 0L) { page ->
+      if (page == 1) {
+        prefetched = secondPageRequested.await(5, TimeUnit.SECONDS)
+      }
+    }
+    runBlocking { action(Unit) }
+
+    assertThat(prefetched).isTrue()
+    assertThat(action.items).hasSize(PAGE_COUNT)
+  }
+
+  @Test
+  fun fetchOverlapsHandling() {
+    val sequential = PAGE_COUNT * (RESPONSE_DELAY + HANDLE_DELAY)
+
+    val start = System.nanoTime()
+    runBlocking { TestAction(service, HANDLE_DELAY)(Unit) }
+    val elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+
+    // Only the first page is waited on in full. Later pages arrive while earlier ones are handled.
+    assertThat(elapsed).isLessThan(sequential - 2 * RESPONSE_DELAY)
+  }
+
+  @Test
+  fun stoppedActionFetchesNoFurtherPages() {
+    lateinit var action: TestAction
+    action = TestAction(service, 0L) { page ->
+      if (page == 2) {
+        action.stopped = true
+      }
+    }
+    runBlocking { action(Unit) }
+
+    assertThat(action.items).containsExactly("item-1", "item-2").inOrder()
+    assertThat(action.done).isFalse()
+    assertThat(requestedPages.size).isAtMost(2 + PREFETCH_PAGES)
+  }
+
+  class TestAction(
+    private val service: PageService,
+    private val handleDelay: Long,
+    private val onPage: (Int) -> Unit = {}
+  ) : PagedAction<Unit, String>() {
+
+    val items = mutableListOf<String>()
+    var done = false
+
+    override fun key(params: Unit): String = "TestAction"
+
+    override fun getCall(params: Unit, page: Int): Call<List<String>> = service.getItems(page)
+
+    override suspend fun handleResponse(params: Unit, pagedResponse: PagedResponse<Unit, String>) {
+      var page: PagedResponse<Unit, String>? = pagedResponse
+      do {
+        items.addAll(page!!.response)
+        Thread.sleep(handleDelay)
+        onPage(page.page)
+
+        page = page.nextPage()
+      } while (page != null)
+    }
+
+    override fun onDone() {
+      done = true
+    }
+  }
+
+  companion object {
+    private const val PAGE_COUNT = 6
+    private const val PREFETCH_PAGES = 3
+    private const val RESPONSE_DELAY = 200L
+    private const val HANDLE_DELAY = 200L
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.actions.user
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+import java.util.concurrent.TimeUnit
+
+/**
+ * Diffs a synthetic history of 50k watched episodes, where every other episode is still watched on
+ * Trakt. Compares against the list based diff SyncWatchedShows used to do. Run with -Pbenchmarks.
+ */
+class LocalWatchedEpisodesBenchmark {
+
+  @Test
+  fun diff() {
+    diffIndexed()
+    var start = System.nanoTime()
+    assertThat(diffIndexed()).isEqualTo(EPISODE_COUNT / 2)
+    val indexed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+
+    start = System.nanoTime()
+    assertThat(diffListBased()).isEqualTo(EPISODE_COUNT / 2)
+    val listBased = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+
+    println(String.format("50k episodes: indexed %d ms, list based %d ms", indexed, listBased))
+  }
+
+  private fun diffIndexed(): Int {
+    val local = LocalWatchedEpisodes()
+    forEachEpisode { showId, season, episode, episodeId ->
+      val seasonId = showId * 100L + season
+      local.addEpisode(showId + 1000L, showId, season, seasonId, episode, episodeId, 0L)
+    }
+
+    forEachEpisode { showId, season, episode, episodeId ->
+      if (episodeId % 2L == 0L) {
+        local.markSeen(local.episodeId(showId, season, episode))
+      }
+    }
+
+    return local.unseenEpisodeIds().size
+  }
+
+  private fun diffListBased(): Int {
+    val shows = mutableMapOf<Long, MutableMap<Int, MutableMap<Int, Long>>>()
+    val episodeIds = mutableListOf<Long>()
+    forEachEpisode { showId, season, episode, episodeId ->
+      shows.getOrPut(showId) { mutableMapOf() }.getOrPut(season) { mutableMapOf() }[episode] =
+        episodeId
+      episodeIds.add(episodeId)
+    }
+
+    forEachEpisode { showId, season, episode, episodeId ->
+      if (episodeId % 2L == 0L) {
+        episodeIds.remove(shows.getValue(showId).getValue(season).getValue(episode))
+      }
+    }
+
+    return episodeIds.size
+  }
+
+  private inline fun forEachEpisode(block: (Long, Int, Int, Long) -> Unit) {
+    var episodeId = 0L
+    for (showId in 1L..SHOW_COUNT.toLong()) {
+      for (season in 1..SEASONS_PER_SHOW) {
+        for (episode in 1..EPISODES_PER_SEASON) {
+          block(showId, season, episode, episodeId++)
+        }
+      }
+    }
+  }
+
+  companion object {
+    private const val SHOW_COUNT = 250
+    private const val SEASONS_PER_SHOW = 10
+    private const val EPISODES_PER_SEASON = 20
+    private const val EPISODE_COUNT = SHOW_COUNT * SEASONS_PER_SHOW * EPISODES_PER_SEASON
+  }
+}
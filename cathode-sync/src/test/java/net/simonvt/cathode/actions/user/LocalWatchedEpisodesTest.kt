@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.actions.user
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+
+class LocalWatchedEpisodesTest {
+
+  @Test
+  fun keysDoNotCollide() {
+    val keys = HashSet<Long>()
+    for (showId in 1L..3L) {
+      for (season in listOf(0, 1, 2, 2019)) {
+        for (episode in listOf(0, 1, 2, 1000)) {
+          keys.add(LocalWatchedEpisodes.key(showId, season, episode))
+        }
+      }
+    }
+    assertThat(keys).hasSize(3 * 4 * 4)
+    assertThat(LocalWatchedEpisodes.key(1L, 2)).isNotEqualTo(LocalWatchedEpisodes.key(1L, 2, 0))
+  }
+
+  @Test
+  fun unseenEpisodesAreReturned() {
+    val local = LocalWatchedEpisodes()
+    local.addEpisode(100L, 1L, 1, 10L, 1, 1000L, 5L)
+    local.addEpisode(100L, 1L, 1, 10L, 2, 1001L, 5L)
+    local.addEpisode(200L, 2L, 1, 20L, 1, 2000L, 5L)
+
+    assertThat(local.showId(100L)).isEqualTo(1L)
+    assertThat(local.showId(300L)).isEqualTo(-1L)
+    assertThat(local.seasonId(2L, 1)).isEqualTo(20L)
+    assertThat(local.seasonId(2L, 2)).isEqualTo(-1L)
+
+    local.markSeen(local.episodeId(1L, 1, 2))
+    local.markSeen(local.episodeId(2L, 1, 1))
+
+    assertThat(local.episodeId(1L, 1, 3)).isEqualTo(-1L)
+    assertThat(local.lastWatchedAt(1001L)).isEqualTo(5L)
+    assertThat(local.unseenEpisodeIds()).asList().containsExactly(1000L)
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.remote.action
+
+import com.google.common.truth.Truth.assertThat
+import net.simonvt.cathode.jobqueue.Job
+import net.simonvt.cathode.remote.action.movies.CollectMovie
+import net.simonvt.cathode.remote.action.movies.RateMovie
+import net.simonvt.cathode.remote.action.movies.WatchlistMovie
+import net.simonvt.cathode.remote.action.shows.CollectEpisode
+import org.junit.Test
+
+class SyncItemsJobTest {
+
+  @Test
+  fun adjacentJobsOfSameTypeAreBatched() {
+    val batch = CollectMovie(1L, true, null)
+      .coalesce(CollectMovie(2L, true, null))!!
+      .coalesce(CollectMovie(3L, true, null)) as SyncItemsBatchJob
+
+    assertThat(batch.type).isEqualTo(SyncItemsJob.Type.COLLECTION_ADD)
+    assertThat(batch.jobs).hasSize(3)
+    assertThat(batch.priority()).isEqualTo(Job.PRIORITY_USER)
+    assertThat(batch.lockKey()).isEqualTo("movies")
+  }
+
+  @Test
+  fun moviesAndEpisodesAreBatchedSeparately() {
+    val movies = CollectMovie(1L, true, null).coalesce(CollectMovie(2L, true, null))!!
+    assertThat(movies.coalesce(CollectEpisode(3L, 1, 1, true, null))).isNull()
+
+    val episodes = CollectEpisode(1L, 1, 1, true, null)
+      .coalesce(CollectEpisode(2L, 1, 2, true, null))!!
+    assertThat(episodes.lockKey()).isEqualTo("shows")
+    assertThat(episodes.coalesce(CollectMovie(3L, true, null))).isNull()
+  }
+
+  @Test
+  fun mixedTypesAreNotBatched() {
+    val collect = CollectMovie(1L, true, null)
+    assertThat(collect.coalesce(CollectMovie(2L, false, null))).isNull()
+    assertThat(collect.coalesce(WatchlistMovie(2L, true, null))).isNull()
+    assertThat(collect.coalesce(RateMovie(2L, 8, null))).isNull()
+
+    val rate = RateMovie(1L, 8, null)
+    assertThat(rate.coalesce(collect)).isNull()
+    assertThat(rate.coalesce(RateMovie(2L, 6, null))).isInstanceOf(SyncItemsBatchJob::class.java)
+
+    val batch = collect.coalesce(CollectMovie(2L, true, null))!!
+    assertThat(batch.coalesce(WatchlistMovie(3L, true, null))).isNull()
+  }
+
+  @Test
+  fun sameItemIsNotBatchedTwice() {
+    val batch = CollectMovie(1L, true, null).coalesce(CollectMovie(2L, true, null))!!
+    assertThat(batch.coalesce(CollectMovie(1L, true, null))).isNull()
+  }
+
+  @Test
+  fun batchSizeIsCapped() {
+    var batch: Job = CollectMovie(0L, true, null)
+    for (i in 1 until SyncItemsBatchJob.MAX_ITEMS) {
+      batch = batch.coalesce(CollectMovie(i.toLong(), true, null))!!
+    }
+
+    assertThat((batch as SyncItemsBatchJob).jobs).hasSize(SyncItemsBatchJob.MAX_ITEMS)
+    assertThat(batch.coalesce(CollectMovie(SyncItemsBatchJob.MAX_ITEMS.toLong(), true, null)))
+      .isNull()
+  }
+
+  @Test
+  fun batchKeyIsBounded() {
+    var batch: Job = CollectMovie(0L, true, null)
+    for (i in 1 until SyncItemsBatchJob.MAX_ITEMS) {
+      batch = batch.coalesce(CollectMovie(i.toLong(), true, null))!!
+    }
+
+    val key = batch.key()
+    assertThat(key).contains("count=" + SyncItemsBatchJob.MAX_ITEMS)
+    assertThat(key).contains(CollectMovie(0L, true, null).key())
+    assertThat(key).contains(CollectMovie(499L, true, null).key())
+    assertThat(key.length).isLessThan(CollectMovie(0L, true, null).key().length * 4)
+  }
+}
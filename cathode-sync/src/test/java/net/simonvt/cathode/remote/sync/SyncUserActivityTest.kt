@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.remote.sync
+
+import com.google.common.truth.Truth.assertThat
+import net.simonvt.cathode.remote.action.movies.CollectMovie
+import org.junit.Test
+
+class SyncUserActivityTest {
+
+  @Test
+  fun coalescesWithSyncUserActivity() {
+    val job = SyncUserActivity()
+    assertThat(job.coalesce(SyncUserActivity())).isSameInstanceAs(job)
+  }
+
+  @Test
+  fun doesNotCoalesceWithOtherJobs() {
+    assertThat(SyncUserActivity().coalesce(CollectMovie(1L, true, null))).isNull()
+  }
+}
@@ -18,15 +18,17 @@ package net.simonvt.cathode.entitymapper
 
 import android.database.Cursor
 import net.simonvt.cathode.common.data.MappedCursorLiveData
+import net.simonvt.cathode.common.database.ColumnIndexCursor
 import net.simonvt.cathode.entity.Comment
 
 object CommentListMapper : MappedCursorLiveData.CursorMapper<List<Comment>> {
 
   override fun map(cursor: Cursor): List<Comment> {
     val comments = mutableListOf<Comment>()
-    cursor.moveToPosition(-1)
-    while (cursor.moveToNext()) {
-      comments.add(CommentMapper.mapComment(cursor))
+    val c = ColumnIndexCursor.wrap(cursor)
+    c.moveToPosition(-1)
+    while (c.moveToNext()) {
+      comments.add(CommentMapper.mapComment(c))
     }
     return comments
   }
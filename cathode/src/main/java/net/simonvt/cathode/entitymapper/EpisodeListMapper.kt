@@ -18,15 +18,17 @@ package net.simonvt.cathode.entitymapper
 
 import android.database.Cursor
 import net.simonvt.cathode.common.data.MappedCursorLiveData
+import net.simonvt.cathode.common.database.ColumnIndexCursor
 import net.simonvt.cathode.entity.Episode
 
 object EpisodeListMapper : MappedCursorLiveData.CursorMapper<List<Episode>> {
 
   override fun map(cursor: Cursor): List<Episode> {
     val episodes = mutableListOf<Episode>()
-    cursor.moveToPosition(-1)
-    while (cursor.moveToNext()) {
-      episodes.add(EpisodeMapper.mapEpisode(cursor))
+    val c = ColumnIndexCursor.wrap(cursor)
+    c.moveToPosition(-1)
+    while (c.moveToNext()) {
+      episodes.add(EpisodeMapper.mapEpisode(c))
     }
     return episodes
   }
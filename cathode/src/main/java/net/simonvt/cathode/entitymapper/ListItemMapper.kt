@@ -45,7 +45,6 @@ import net.simonvt.cathode.provider.DatabaseContract.ShowColumns
 import net.simonvt.cathode.provider.DatabaseSchematic.Tables
 import net.simonvt.cathode.provider.ProviderSchematic.Episodes
 import net.simonvt.cathode.provider.ProviderSchematic.Seasons
-import net.simonvt.cathode.provider.ProviderSchematic.Shows
 import net.simonvt.cathode.provider.util.DataHelper
 import net.simonvt.cathode.provider.util.SqlCoalesce
 import net.simonvt.cathode.provider.util.SqlColumn
@@ -348,10 +347,11 @@ object ListItemMapper : MappedCursorLiveData.CursorMapper<ListItem> {
     SqlColumn.table(Tables.SHOWS).column(ShowColumns.IN_COLLECTION_COUNT),
     SqlColumn.table(Tables.SHOWS).column(ShowColumns.IN_WATCHLIST),
     SqlColumn.table(Tables.SHOWS).column(ShowColumns.IN_WATCHLIST_COUNT),
-    Shows.getAiredQuery() + " AS " + SHOW_AIRED_COUNT,
+    SqlColumn.table(Tables.SHOWS).column(ShowColumns.AIRED_COUNT) + " AS " + SHOW_AIRED_COUNT,
 
     SqlColumn.table(Tables.SEASONS).column(SeasonColumns.SHOW_ID),
-    Seasons.getAiredQuery() + " AS " + SEASON_AIRED_COUNT,
+    SqlColumn.table(Tables.SEASONS).column(SeasonColumns.AIRED_COUNT) + " AS " +
+        SEASON_AIRED_COUNT,
     Seasons.getShowTitleQuery() + " AS " + SeasonColumns.SHOW_TITLE,
     "(SELECT " + ShowColumns.TITLE_NO_ARTICLE + " FROM " + Tables.SHOWS + " WHERE " +
         Tables.SHOWS + "." + ShowColumns.ID + "=" + Tables.SEASONS + "." + SeasonColumns.SHOW_ID +
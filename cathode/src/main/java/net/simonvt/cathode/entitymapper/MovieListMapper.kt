@@ -18,15 +18,17 @@ package net.simonvt.cathode.entitymapper
 
 import android.database.Cursor
 import net.simonvt.cathode.common.data.MappedCursorLiveData
+import net.simonvt.cathode.common.database.ColumnIndexCursor
 import net.simonvt.cathode.entity.Movie
 
 object MovieListMapper : MappedCursorLiveData.CursorMapper<List<Movie>> {
 
   override fun map(cursor: Cursor): List<Movie> {
     val movies = mutableListOf<Movie>()
-    cursor.moveToPosition(-1)
-    while (cursor.moveToNext()) {
-      movies.add(MovieMapper.mapMovie(cursor))
+    val c = ColumnIndexCursor.wrap(cursor)
+    c.moveToPosition(-1)
+    while (c.moveToNext()) {
+      movies.add(MovieMapper.mapMovie(c))
     }
     return movies
   }
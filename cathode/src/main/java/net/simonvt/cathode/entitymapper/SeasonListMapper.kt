@@ -18,15 +18,17 @@ package net.simonvt.cathode.entitymapper
 
 import android.database.Cursor
 import net.simonvt.cathode.common.data.MappedCursorLiveData
+import net.simonvt.cathode.common.database.ColumnIndexCursor
 import net.simonvt.cathode.entity.Season
 
 object SeasonListMapper : MappedCursorLiveData.CursorMapper<List<Season>> {
 
   override fun map(cursor: Cursor): List<Season> {
     val seasons = mutableListOf<Season>()
-    cursor.moveToPosition(-1)
-    while (cursor.moveToNext()) {
-      seasons.add(SeasonMapper.mapSeason(cursor))
+    val c = ColumnIndexCursor.wrap(cursor)
+    c.moveToPosition(-1)
+    while (c.moveToNext()) {
+      seasons.add(SeasonMapper.mapSeason(c))
     }
     return seasons
   }
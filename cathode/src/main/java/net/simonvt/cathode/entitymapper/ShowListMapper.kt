@@ -2,15 +2,17 @@ package net.simonvt.cathode.entitymapper
 
 import android.database.Cursor
 import net.simonvt.cathode.common.data.MappedCursorLiveData
+import net.simonvt.cathode.common.database.ColumnIndexCursor
 import net.simonvt.cathode.entity.Show
 
 object ShowListMapper : MappedCursorLiveData.CursorMapper<List<Show>> {
 
   override fun map(cursor: Cursor): List<Show> {
     val shows = mutableListOf<Show>()
-    cursor.moveToPosition(-1)
-    while (cursor.moveToNext()) {
-      shows.add(ShowMapper.mapShow(cursor))
+    val c = ColumnIndexCursor.wrap(cursor)
+    c.moveToPosition(-1)
+    while (c.moveToNext()) {
+      shows.add(ShowMapper.mapShow(c))
     }
     return shows
   }
@@ -18,15 +18,17 @@ package net.simonvt.cathode.entitymapper
 
 import android.database.Cursor
 import net.simonvt.cathode.common.data.MappedCursorLiveData
+import net.simonvt.cathode.common.database.ColumnIndexCursor
 import net.simonvt.cathode.entity.ShowWithEpisode
 
 object ShowWithEpisodeListMapper : MappedCursorLiveData.CursorMapper<List<ShowWithEpisode>> {
 
   override fun map(cursor: Cursor): List<ShowWithEpisode> {
     val shows = mutableListOf<ShowWithEpisode>()
-    cursor.moveToPosition(-1)
-    while (cursor.moveToNext()) {
-      shows.add(ShowWithEpisodeMapper.mapShowAndEpisode(cursor))
+    val c = ColumnIndexCursor.wrap(cursor)
+    c.moveToPosition(-1)
+    while (c.moveToNext()) {
+      shows.add(ShowWithEpisodeMapper.mapShowAndEpisode(c))
     }
     return shows
   }
@@ -10,6 +10,7 @@ import androidx.annotation.RequiresApi
 import androidx.preference.Preference
 import androidx.preference.PreferenceFragmentCompat
 import androidx.preference.SwitchPreference
+import androidx.work.WorkManager
 import net.simonvt.android.colorpicker.ColorPickerDialog
 import net.simonvt.android.colorpicker.ColorPickerSwatch.OnColorSelectedListener
 import net.simonvt.cathode.R
@@ -24,10 +25,14 @@ import net.simonvt.cathode.settings.UpcomingTime.WEEKS_1
 import net.simonvt.cathode.settings.UpcomingTimeDialog.UpcomingTimeSelectedListener
 import net.simonvt.cathode.settings.hidden.HiddenItems
 import net.simonvt.cathode.settings.login.LoginActivity
+import net.simonvt.cathode.work.shows.RefreshAiredCountsWorker
 import timber.log.Timber
 import javax.inject.Inject
 
-class SettingsFragment @Inject constructor(private val upcomingTimePreference: UpcomingTimePreference) :
+class SettingsFragment @Inject constructor(
+  private val upcomingTimePreference: UpcomingTimePreference,
+  private val workManager: WorkManager
+) :
   PreferenceFragmentCompat(), UpcomingTimeSelectedListener, OnColorSelectedListener,
   ShowOffsetSelectedListener {
 
@@ -222,6 +227,7 @@ class SettingsFragment @Inject constructor(private val upcomingTimePreference: U
     val showOffset = FirstAiredOffsetPreference.getInstance().offsetHours
     if (offset != showOffset) {
       FirstAiredOffsetPreference.getInstance().set(offset)
+      RefreshAiredCountsWorker.refreshNow(workManager)
       val context = requireContext()
 
       Thread(Runnable {
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.entitymapper
+
+import android.app.Application
+import android.database.Cursor
+import com.google.common.truth.Truth.assertThat
+import net.simonvt.cathode.common.database.SimpleCursor
+import net.simonvt.cathode.entity.Show
+import net.simonvt.cathode.provider.DatabaseContract.ShowColumns
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+/**
+ * Compares mapping a list of shows with column indices resolved once per cursor, against resolving
+ * them by name for every row. Run with -Pbenchmarks, results are printed to the test output.
+ */
+@RunWith(RobolectricTestRunner::class)
+@Config(application = Application::class)
+class ShowListMapperBenchmark {
+
+  @Test
+  fun mapShows() {
+    val cursor = createCursor()
+    assertThat(ShowListMapper.map(cursor)).isEqualTo(mapUncached(cursor))
+
+    val cached = measure { ShowListMapper.map(cursor).size }
+    val uncached = measure { mapUncached(cursor).size }
+
+    println(
+      String.format("ShowListMapper, %d rows: %d ms; uncached: %d ms", ROWS, cached, uncached)
+    )
+  }
+
+  private fun mapUncached(cursor: Cursor): List<Show> {
+    val shows = mutableListOf<Show>()
+    cursor.moveToPosition(-1)
+    while (cursor.moveToNext()) {
+      shows.add(ShowMapper.mapShow(cursor))
+    }
+    return shows
+  }
+
+  /**
+   * Creates a cursor with the columns of [ShowMapper.projection]. Like a cursor returned by
+   * SQLite, the column names don't include the table.
+   */
+  private fun createCursor(): Cursor {
+    val columns = ShowMapper.projection.map { it.substringAfterLast('.') }.toTypedArray()
+    val cursor = SimpleCursor(columns)
+    for (row in 0 until ROWS) {
+      cursor.add(Array<Any?>(columns.size) { column ->
+        if (columns[column] == ShowColumns.STATUS) null else row.toLong()
+      })
+    }
+    return cursor
+  }
+
+  private fun measure(block: () -> Int): Long {
+    var blackhole = 0
+    repeat(WARMUP_ITERATIONS) { blackhole += block() }
+
+    val start = System.nanoTime()
+    repeat(ITERATIONS) { blackhole += block() }
+    val elapsed = System.nanoTime() - start
+
+    if (blackhole == 42) {
+      println()
+    }
+    return elapsed / ITERATIONS / 1_000_000L
+  }
+
+  companion object {
+    private const val ROWS = 5_000
+    private const val WARMUP_ITERATIONS = 5
+    private const val ITERATIONS = 10
+  }
+}
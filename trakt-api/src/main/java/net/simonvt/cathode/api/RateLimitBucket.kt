@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.api
+
+import java.util.concurrent.TimeUnit
+import kotlin.math.ceil
+import kotlin.math.max
+import kotlin.math.min
+
+/**
+ * Token bucket that hands out reservations rather than blocking. Tokens are allowed to go
+ * negative, so concurrent callers queue up behind each other in the order they reserved.
+ */
+internal class RateLimitBucket(
+  private val maxPermitsPerSecond: Double,
+  private val burst: Int,
+  private val clock: () -> Long
+) {
+
+  private var permitsPerSecond = maxPermitsPerSecond
+  private var ceiling = maxPermitsPerSecond
+  private var tokens = burst.toDouble()
+  private var lastRefill = clock()
+  private var pausedUntil = 0L
+
+  private var permits = 0L
+  private var totalWaitNanos = 0L
+  private var maxWaitNanos = 0L
+  private var rateLimited = 0L
+
+  /** Reserves a permit and returns how long the caller must wait before using it, in nanos. */
+  @Synchronized
+  fun reserve(): Long {
+    val now = clock()
+    refill(now)
+
+    tokens -= 1.0
+    var wait = max(0L, pausedUntil - now)
+    if (tokens < 0.0) {
+      wait += ceil(-tokens / permitsPerSecond * NANOS_PER_SECOND).toLong()
+    }
+
+    permits++
+    totalWaitNanos += wait
+    maxWaitNanos = max(maxWaitNanos, wait)
+    return wait
+  }
+
+  /**
+   * Stops handing out permits for [nanos] and halves the rate. Once the pause is over a single
+   * permit is available, as the server side window has been reset by then.
+   */
+  @Synchronized
+  fun throttle(nanos: Long) {
+    val now = clock()
+    refill(now)
+    rateLimited++
+    pausedUntil = max(pausedUntil, now + nanos)
+    tokens = min(tokens, 1.0)
+    permitsPerSecond = max(MIN_PERMITS_PER_SECOND, permitsPerSecond / 2.0)
+  }
+
+  /** Moves the rate back towards the ceiling after a request was accepted. */
+  @Synchronized
+  fun accepted() {
+    if (permitsPerSecond < ceiling) {
+      refill(clock())
+      permitsPerSecond = min(ceiling, permitsPerSecond + ceiling / RECOVERY_STEPS)
+    }
+  }
+
+  /** Applies the limit advertised by the server, never exceeding the configured maximum. */
+  @Synchronized
+  fun limit(limit: Int, periodSeconds: Int, remaining: Int) {
+    if (limit <= 0 || periodSeconds <= 0) {
+      return
+    }
+
+    refill(clock())
+    ceiling = min(maxPermitsPerSecond, limit.toDouble() / periodSeconds)
+    permitsPerSecond = min(permitsPerSecond, ceiling)
+    if (remaining >= 0) {
+      tokens = min(tokens, remaining.toDouble())
+    }
+  }
+
+  @Synchronized
+  fun rate(): Double = permitsPerSecond
+
+  @Synchronized
+  fun metrics(): RateLimitMetrics = RateLimitMetrics(
+    permits,
+    TimeUnit.NANOSECONDS.toMillis(totalWaitNanos),
+    TimeUnit.NANOSECONDS.toMillis(maxWaitNanos),
+    rateLimited
+  )
+
+  private fun refill(now: Long) {
+    val from = max(lastRefill, pausedUntil)
+    if (now > from) {
+      tokens = min(burst.toDouble(), tokens + (now - from) * permitsPerSecond / NANOS_PER_SECOND)
+    }
+    lastRefill = max(lastRefill, now)
+  }
+
+  companion object {
+    private const val NANOS_PER_SECOND = 1_000_000_000.0
+    private const val MIN_PERMITS_PER_SECOND = 0.1
+    private const val RECOVERY_STEPS = 20.0
+  }
+}
+
+data class RateLimitMetrics(
+  val permits: Long,
+  val totalWaitMillis: Long,
+  val maxWaitMillis: Long,
+  val rateLimited: Long
+)
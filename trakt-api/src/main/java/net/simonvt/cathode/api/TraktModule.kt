@@ -65,6 +65,7 @@ class TraktModule {
     context: Context,
     settings: TraktSettings,
     @Named(NAMED_TRAKT) interceptors: List<@JvmSuppressWildcards Interceptor>,
+    rateLimiter: TraktRateLimiter,
     authService: Lazy<AuthorizationService>
   ): OkHttpClient {
     val builder = OkHttpClient.Builder()
@@ -75,13 +76,21 @@ class TraktModule {
     builder.cache(Cache(cacheDir, OkHttpUtils.getCacheSize(cacheDir)))
 
     builder.interceptors().addAll(interceptors)
+    builder.interceptors().add(rateLimiter)
     builder.interceptors().add(ApiInterceptor(settings))
     builder.interceptors().add(AuthInterceptor(settings))
+    builder.networkInterceptors().add(rateLimiter.networkInterceptor)
     builder.authenticator(TraktAuthenticator(settings, authService))
 
     return builder.build()
   }
 
+  @Provides
+  @Singleton
+  fun provideRateLimiter(): TraktRateLimiter {
+    return TraktRateLimiter()
+  }
+
   @Provides
   @Singleton
   fun provideAuthorizationService(@Named(NAMED_TRAKT) adapter: Retrofit): AuthorizationService {
@@ -158,29 +167,41 @@ class TraktModule {
   @Singleton
   @Named(NAMED_TRAKT)
   fun provideMoshi(): Moshi {
-    val builder = Moshi.Builder()
-      .add(IsoTimeAdapter())
-      .add(ActionAdapter())
-      .add(CommentTypeAdapter())
-      .add(DepartmentAdapter())
-      .add(ExtendedAdapter())
-      .add(GenderAdapter())
-      .add(GrantTypeAdapter())
-      .add(HiddenSectionAdapter())
-      .add(ItemTypeAdapter())
-      .add(ItemTypesAdapter())
-      .add(PrivacyAdapter())
-      .add(ScopeAdapter())
-      .add(ShowStatusAdapter())
-      .add(SortByAdapter())
-      .add(SortOrientationAdapter())
-      .add(TokenTypeAdapter())
-      .add(KotlinJsonAdapterFactory())
-    return builder.build()
+    return createMoshi()
   }
 
   companion object {
     const val API_URL = "https://api.trakt.tv"
     const val NAMED_TRAKT = "Trakt"
+
+    /**
+     * Entities and request bodies use generated adapters. Reflection is only used for types
+     * without one when [reflectionFallback] is set.
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun createMoshi(reflectionFallback: Boolean = false): Moshi {
+      val builder = Moshi.Builder()
+        .add(IsoTimeAdapter(retainRaw = false))
+        .add(ActionAdapter())
+        .add(CommentTypeAdapter())
+        .add(DepartmentAdapter())
+        .add(ExtendedAdapter())
+        .add(GenderAdapter())
+        .add(GrantTypeAdapter())
+        .add(HiddenSectionAdapter())
+        .add(ItemTypeAdapter())
+        .add(ItemTypesAdapter())
+        .add(PrivacyAdapter())
+        .add(ScopeAdapter())
+        .add(ShowStatusAdapter())
+        .add(SortByAdapter())
+        .add(SortOrientationAdapter())
+        .add(TokenTypeAdapter())
+      if (reflectionFallback) {
+        builder.add(KotlinJsonAdapterFactory())
+      }
+      return builder.build()
+    }
   }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.api
+
+import okhttp3.Interceptor
+import okhttp3.Request
+import okhttp3.Response
+import timber.log.Timber
+import java.io.IOException
+import java.io.InterruptedIOException
+import java.util.concurrent.TimeUnit
+
+/**
+ * Throttles requests to the Trakt API. Reads and writes are limited separately, as Trakt does.
+ * Callers are parked until a permit is available, and a 429 is retried after Retry-After rather
+ * than being returned to the caller. The rate adapts to the X-Ratelimit header when it is sent.
+ *
+ * The limiter is added as an application interceptor, which retries 429s, and [networkInterceptor]
+ * is added as a network interceptor, which reserves the permits. Responses served from the cache
+ * never reach the network interceptor, and don't use a permit.
+ */
+class TraktRateLimiter internal constructor(
+  private val clock: () -> Long,
+  private val sleeper: (Long) -> Unit
+) : Interceptor {
+
+  constructor() : this({ System.nanoTime() }, { nanos -> TimeUnit.NANOSECONDS.sleep(nanos) })
+
+  internal val reads = RateLimitBucket(GET_PERMITS_PER_SECOND, GET_BURST, clock)
+  internal val writes = RateLimitBucket(POST_PERMITS_PER_SECOND, POST_BURST, clock)
+
+  fun readMetrics(): RateLimitMetrics = reads.metrics()
+
+  fun writeMetrics(): RateLimitMetrics = writes.metrics()
+
+  val networkInterceptor = Interceptor { chain ->
+    val request = chain.request()
+    val bucket = bucket(request)
+    park(bucket.reserve())
+
+    val response = chain.proceed(request)
+    val rateLimit = response.header(HEADER_RATE_LIMIT)
+    if (rateLimit != null) {
+      bucket.limit(
+        parseField(rateLimit, FIELD_LIMIT),
+        parseField(rateLimit, FIELD_PERIOD),
+        parseField(rateLimit, FIELD_REMAINING)
+      )
+    }
+
+    if (response.code != STATUS_TOO_MANY_REQUESTS) {
+      bucket.accepted()
+    }
+    response
+  }
+
+  @Throws(IOException::class)
+  override fun intercept(chain: Interceptor.Chain): Response {
+    val request = chain.request()
+    val bucket = bucket(request)
+
+    var retries = 0
+    while (true) {
+      val response = chain.proceed(request)
+      if (response.code != STATUS_TOO_MANY_REQUESTS) {
+        return response
+      }
+
+      val retryAfter = parseRetryAfter(response.header(HEADER_RETRY_AFTER))
+      bucket.throttle(retryAfter)
+      if (retries++ >= MAX_RETRIES) {
+        return response
+      }
+
+      Timber.d("Rate limited, retrying %s in %d ms", request.url, retryAfter / 1_000_000L)
+      response.close()
+    }
+  }
+
+  private fun bucket(request: Request): RateLimitBucket {
+    return if (request.method == "GET" || request.method == "HEAD") reads else writes
+  }
+
+  private fun park(nanos: Long) {
+    if (nanos <= 0L) {
+      return
+    }
+
+    try {
+      sleeper(nanos)
+    } catch (e: InterruptedException) {
+      Thread.currentThread().interrupt()
+      throw InterruptedIOException("Interrupted while waiting for rate limit")
+    }
+  }
+
+  companion object {
+
+    const val HEADER_RETRY_AFTER = "Retry-After"
+    const val HEADER_RATE_LIMIT = "X-Ratelimit"
+
+    private const val STATUS_TOO_MANY_REQUESTS = 429
+    private const val MAX_RETRIES = 3
+
+    // Trakt allows 1000 GET requests per 5 minutes, and 1 POST, PUT or DELETE per second.
+    private const val GET_PERMITS_PER_SECOND = 1000.0 / 300.0
+    private const val GET_BURST = 10
+    private const val POST_PERMITS_PER_SECOND = 1.0
+    private const val POST_BURST = 1
+
+    private val DEFAULT_RETRY_AFTER = TimeUnit.SECONDS.toNanos(1L)
+
+    private val FIELD_LIMIT = field("limit")
+    private val FIELD_PERIOD = field("period")
+    private val FIELD_REMAINING = field("remaining")
+
+    private fun field(name: String) = Regex("\"$name\"\\s*:\\s*(\\d+)")
+
+    internal fun parseRetryAfter(value: String?): Long {
+      val seconds = value?.trim()?.toLongOrNull() ?: return DEFAULT_RETRY_AFTER
+      return TimeUnit.SECONDS.toNanos(seconds.coerceAtLeast(1L))
+    }
+
+    private fun parseField(json: String, field: Regex): Int {
+      val match = field.find(json) ?: return -1
+      return match.groupValues[1].toIntOrNull() ?: -1
+    }
+  }
+}
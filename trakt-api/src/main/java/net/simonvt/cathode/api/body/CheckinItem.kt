@@ -16,9 +16,11 @@
 
 package net.simonvt.cathode.api.body
 
+import com.squareup.moshi.JsonClass
 import net.simonvt.cathode.api.entity.Sharing
 
-class CheckinItem private constructor(
+@JsonClass(generateAdapter = true)
+class CheckinItem internal constructor(
   val movie: TraktIdItem?,
   val episode: TraktIdItem?,
   val sharing: Sharing?,
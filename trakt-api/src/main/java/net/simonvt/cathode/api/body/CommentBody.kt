@@ -16,6 +16,9 @@
 
 package net.simonvt.cathode.api.body
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 class CommentBody(
   val comment: String,
   val spoiler: Boolean = false,
@@ -16,7 +16,10 @@
 
 package net.simonvt.cathode.api.body
 
-class HiddenItems private constructor(
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
+class HiddenItems internal constructor(
   val movies: List<TraktIdItem>,
   val shows: List<TraktIdItem>,
   val seasons: List<TraktIdItem>
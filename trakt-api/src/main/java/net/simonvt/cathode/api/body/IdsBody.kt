@@ -1,6 +1,9 @@
 package net.simonvt.cathode.api.body
 
-class IdsBody private constructor(
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
+class IdsBody internal constructor(
   val movies: List<TraktIdItem>,
   val shows: List<ShowTraktId>,
   val people: List<TraktIdItem>
@@ -16,7 +16,10 @@
 
 package net.simonvt.cathode.api.body
 
-class RateItems private constructor(val movies: List<RatingMovie>, val shows: List<RatingShow>) {
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
+class RateItems internal constructor(val movies: List<RatingMovie>, val shows: List<RatingShow>) {
 
   class Builder {
 
@@ -93,8 +96,10 @@ class RateItems private constructor(val movies: List<RatingMovie>, val shows: Li
   }
 }
 
+@JsonClass(generateAdapter = true)
 class RatingMovie internal constructor(val ids: TraktId, val rating: Int, val rated_at: String)
 
+@JsonClass(generateAdapter = true)
 class RatingShow internal constructor(
   val ids: TraktId,
   val rating: Int? = null,
@@ -102,6 +107,7 @@ class RatingShow internal constructor(
   val seasons: MutableList<RatingSeason> = mutableListOf()
 )
 
+@JsonClass(generateAdapter = true)
 class RatingSeason(
   val number: Int,
   val rating: Int? = null,
@@ -109,4 +115,5 @@ class RatingSeason(
   val episodes: MutableList<RatingEpisode> = mutableListOf()
 )
 
+@JsonClass(generateAdapter = true)
 class RatingEpisode(val number: Int, val rating: Int, val rated_at: String)
@@ -16,7 +16,10 @@
 
 package net.simonvt.cathode.api.body
 
-class RemoveHistoryBody private constructor(
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
+class RemoveHistoryBody internal constructor(
   val movies: List<TraktIdItem>,
   val shows: List<ShowTraktId>,
   val people: List<TraktIdItem>,
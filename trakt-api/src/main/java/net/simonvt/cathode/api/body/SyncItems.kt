@@ -16,7 +16,10 @@
 
 package net.simonvt.cathode.api.body
 
-class SyncItems private constructor(val movies: List<SyncMovie>, val shows: List<SyncShow>) {
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
+class SyncItems internal constructor(val movies: List<SyncMovie>, val shows: List<SyncShow>) {
 
   class Builder {
 
@@ -114,6 +117,7 @@ class SyncItems private constructor(val movies: List<SyncMovie>, val shows: List
   }
 }
 
+@JsonClass(generateAdapter = true)
 class SyncMovie internal constructor(
   val ids: TraktId,
   val watched_at: String? = null,
@@ -121,6 +125,7 @@ class SyncMovie internal constructor(
   val listed_at: String? = null
 )
 
+@JsonClass(generateAdapter = true)
 class SyncShow internal constructor(
   val ids: TraktId,
   val watched_at: String? = null,
@@ -129,6 +134,7 @@ class SyncShow internal constructor(
   val seasons: MutableList<SyncSeason> = mutableListOf()
 )
 
+@JsonClass(generateAdapter = true)
 class SyncSeason(
   val number: Int,
   val watched_at: String? = null,
@@ -137,6 +143,7 @@ class SyncSeason(
   val episodes: MutableList<SyncEpisode> = mutableListOf()
 )
 
+@JsonClass(generateAdapter = true)
 class SyncEpisode(
   val number: Int,
   val watched_at: String? = null,
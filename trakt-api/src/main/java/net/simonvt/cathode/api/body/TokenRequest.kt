@@ -16,8 +16,10 @@
 
 package net.simonvt.cathode.api.body
 
+import com.squareup.moshi.JsonClass
 import net.simonvt.cathode.api.enumeration.GrantType
 
+@JsonClass(generateAdapter = true)
 data class TokenRequest(
   val code: String?,
   val refresh_token: String?,
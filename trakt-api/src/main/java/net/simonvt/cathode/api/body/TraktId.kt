@@ -1,14 +1,21 @@
 package net.simonvt.cathode.api.body
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class TraktId(val trakt: Long)
 
+@JsonClass(generateAdapter = true)
 class ShowTraktId(val ids: TraktId, val seasons: MutableList<SeasonNumber> = mutableListOf())
 
+@JsonClass(generateAdapter = true)
 class SeasonNumber(val number: Int, val episodes: MutableList<EpisodeNumber> = mutableListOf())
 
+@JsonClass(generateAdapter = true)
 class EpisodeNumber(val number: Int)
 
-class TraktIdItem private constructor(val ids: TraktId) {
+@JsonClass(generateAdapter = true)
+class TraktIdItem internal constructor(val ids: TraktId) {
 
   companion object {
     @JvmStatic
@@ -16,9 +16,11 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
 import net.simonvt.cathode.api.enumeration.Scope
 import net.simonvt.cathode.api.enumeration.TokenType
 
+@JsonClass(generateAdapter = true)
 data class AccessToken(
   val access_token: String,
   val token_type: TokenType? = null,
@@ -16,6 +16,9 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class Account(
   val timezone: String? = null,
   val date_format: String? = null,
@@ -16,4 +16,7 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class Airs(val day: String? = null, val time: String? = null, val timezone: String? = null)
@@ -16,6 +16,9 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class AnticipatedItem(
   var list_count: Long,
   var show: Show? = null,
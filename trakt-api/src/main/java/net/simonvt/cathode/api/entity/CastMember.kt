@@ -16,4 +16,7 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class CastMember(val character: String, val person: Person)
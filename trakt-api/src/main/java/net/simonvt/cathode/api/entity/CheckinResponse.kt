@@ -16,6 +16,9 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class CheckinResponse(
   var watched_at: IsoTime,
   var sharing: Sharing,
@@ -24,6 +27,9 @@ data class CheckinResponse(
   var episode: CheckInEpisode? = null
 )
 
+@JsonClass(generateAdapter = true)
 data class CheckInMovie(val title: String?, val year: Int?, val ids: Ids)
+@JsonClass(generateAdapter = true)
 data class CheckInShow(val title: String?, val year: Int?, val ids: Ids)
+@JsonClass(generateAdapter = true)
 data class CheckInEpisode(val season: Int, val number: Int, val title: String?, val ids: Ids)
@@ -16,6 +16,9 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class CollectionItem(
   var collected_at: IsoTime? = null,
   var last_collected_at: IsoTime? = null,
@@ -24,5 +27,7 @@ data class CollectionItem(
   var movie: Movie? = null
 )
 
+@JsonClass(generateAdapter = true)
 data class CollectedSeason(var number: Int, var episodes: List<CollectedEpisode>)
+@JsonClass(generateAdapter = true)
 data class CollectedEpisode(var number: Int, var collected_at: IsoTime)
@@ -16,6 +16,9 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class Comment(
   val id: Long,
   val comment: String,
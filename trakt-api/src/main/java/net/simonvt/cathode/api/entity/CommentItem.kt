@@ -16,8 +16,10 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
 import net.simonvt.cathode.api.enumeration.ItemType
 
+@JsonClass(generateAdapter = true)
 data class CommentItem(
   val type: ItemType,
   val show: Show? = null,
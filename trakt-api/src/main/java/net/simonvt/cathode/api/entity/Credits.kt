@@ -16,11 +16,15 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class Credits(
   var cast: List<Credit>? = null,
   var crew: Crew? = null
 )
 
+@JsonClass(generateAdapter = true)
 data class Credit(
   var character: String? = null,
   var job: String? = null,
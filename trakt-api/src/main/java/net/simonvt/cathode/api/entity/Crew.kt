@@ -1,7 +1,9 @@
 package net.simonvt.cathode.api.entity
 
 import com.squareup.moshi.Json
+import com.squareup.moshi.JsonClass
 
+@JsonClass(generateAdapter = true)
 data class Crew(
   var production: List<Credit>? = null,
   var art: List<Credit>? = null,
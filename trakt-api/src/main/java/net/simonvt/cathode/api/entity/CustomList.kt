@@ -16,10 +16,12 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
 import net.simonvt.cathode.api.enumeration.Privacy
 import net.simonvt.cathode.api.enumeration.SortBy
 import net.simonvt.cathode.api.enumeration.SortOrientation
 
+@JsonClass(generateAdapter = true)
 data class CustomList(
   val name: String,
   val description: String,
@@ -16,10 +16,14 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class HideResponse(
   val added: HiddenItems?,
   val deleted: HiddenItems?,
   val not_found: NotFound?
 )
 
+@JsonClass(generateAdapter = true)
 data class HiddenItems(val movies: Int? = null, val shows: Int? = null, val seasons: Int? = null)
@@ -16,9 +16,11 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
 import net.simonvt.cathode.api.enumeration.Action
 import net.simonvt.cathode.api.enumeration.ItemType
 
+@JsonClass(generateAdapter = true)
 data class HistoryItem(
   val id: Long,
   val watched_at: IsoTime,
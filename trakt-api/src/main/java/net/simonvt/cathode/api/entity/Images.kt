@@ -16,8 +16,12 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class Images(val avatar: ImageType)
 
+@JsonClass(generateAdapter = true)
 data class ImageType(
   val thumb: String? = null,
   val medium: String? = null,
@@ -20,13 +20,33 @@ import com.squareup.moshi.FromJson
 import com.squareup.moshi.ToJson
 import net.simonvt.cathode.api.util.TimeUtils
 
-data class IsoTime(val time: String, val timeInMillis: Long)
+/**
+ * A point in time. The string it was parsed from is only kept if it was passed in, otherwise
+ * [time] is formatted from [timeInMillis] when requested.
+ */
+data class IsoTime(val timeInMillis: Long) {
+
+  private var raw: String? = null
+
+  constructor(time: String, timeInMillis: Long) : this(timeInMillis) {
+    raw = time
+  }
 
-class IsoTimeAdapter {
+  val time: String
+    get() = raw ?: TimeUtils.getIsoTime(timeInMillis)
+}
+
+/**
+ * @param retainRaw Whether parsed [IsoTime]s keep the string they were parsed from.
+ */
+class IsoTimeAdapter @JvmOverloads constructor(private val retainRaw: Boolean = true) {
 
   @ToJson
   fun toJson(isoTime: IsoTime): String = isoTime.time
 
   @FromJson
-  fun fromJson(value: String): IsoTime = IsoTime(value, TimeUtils.getMillis(value))
+  fun fromJson(value: String): IsoTime {
+    val millis = TimeUtils.getMillis(value)
+    return if (retainRaw) IsoTime(value, millis) else IsoTime(millis)
+  }
 }
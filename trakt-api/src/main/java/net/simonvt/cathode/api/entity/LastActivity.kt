@@ -16,6 +16,9 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class LastActivity(
   val movies: ActivityItem,
   val shows: ActivityItem,
@@ -25,6 +28,7 @@ data class LastActivity(
   val lists: ActivityItem
 )
 
+@JsonClass(generateAdapter = true)
 data class ActivityItem(
   val watched_at: IsoTime?,
   val collected_at: IsoTime?,
@@ -16,8 +16,10 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
 import net.simonvt.cathode.api.enumeration.ItemType
 
+@JsonClass(generateAdapter = true)
 data class ListItem(
   val rank: Int,
   val id: Long,
@@ -16,6 +16,9 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class ListItemActionResponse(
   val added: Items? = null,
   val deleted: Items? = null,
@@ -23,6 +26,7 @@ data class ListItemActionResponse(
   val not_found: NotFound? = null
 )
 
+@JsonClass(generateAdapter = true)
 data class Items(
   val movies: Int? = null,
   val shows: Int? = null,
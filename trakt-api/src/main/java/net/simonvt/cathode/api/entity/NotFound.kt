@@ -1,5 +1,8 @@
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class NotFound(
   val movies: List<Movie>? = null,
   val shows: List<Show>? = null,
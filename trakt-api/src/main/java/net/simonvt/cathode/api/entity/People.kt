@@ -17,9 +17,12 @@
 package net.simonvt.cathode.api.entity
 
 import com.squareup.moshi.Json
+import com.squareup.moshi.JsonClass
 
+@JsonClass(generateAdapter = true)
 data class People(val cast: List<CastMember>?, val crew: PeopleCrew?)
 
+@JsonClass(generateAdapter = true)
 data class PeopleCrew(
   val production: List<CrewMember>?,
   val art: List<CrewMember>?,
@@ -17,8 +17,10 @@
 package net.simonvt.cathode.api.entity
 
 import com.squareup.moshi.Json
+import com.squareup.moshi.JsonClass
 import net.simonvt.cathode.api.enumeration.Gender
 
+@JsonClass(generateAdapter = true)
 data class Profile(
   val username: String,
   @Json(name = "private") val isPrivate: Boolean? = null,
@@ -17,9 +17,12 @@
 package net.simonvt.cathode.api.entity
 
 import com.squareup.moshi.Json
+import com.squareup.moshi.JsonClass
 
+@JsonClass(generateAdapter = true)
 data class Rating(val rating: Float, val votes: Int, val distribution: Distribution)
 
+@JsonClass(generateAdapter = true)
 data class Distribution(
   @Json(name = "1") val one: Int,
   @Json(name = "2") val two: Int,
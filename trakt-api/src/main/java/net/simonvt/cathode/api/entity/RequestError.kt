@@ -16,4 +16,7 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class RequestError(val error: String? = null, val error_description: String? = null)
@@ -16,11 +16,15 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class Season(
   var number: Int,
   var ids: Ids,
   var rating: Float? = null,
   var votes: Int? = null,
   val first_aired: IsoTime? = null,
-  val network: String? = null
+  val network: String? = null,
+  val episodes: List<Episode>? = null
 )
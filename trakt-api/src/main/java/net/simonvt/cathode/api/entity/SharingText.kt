@@ -16,4 +16,7 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class SharingText(val watching: String? = null, val watched: String? = null)
@@ -16,8 +16,10 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
 import net.simonvt.cathode.api.enumeration.ShowStatus
 
+@JsonClass(generateAdapter = true)
 data class Show(
   var title: String? = null,
   var year: Int? = null,
@@ -16,6 +16,9 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class ShowProgress(
   val aired: Int,
   val completed: Int,
@@ -28,6 +31,7 @@ data class ShowProgress(
   val last_episode: LastNextEpisode?
 )
 
+@JsonClass(generateAdapter = true)
 data class ProgressSeason(
   val number: Int,
   val aired: Int? = null,
@@ -35,6 +39,7 @@ data class ProgressSeason(
   val episodes: List<ProgressEpisode>
 )
 
+@JsonClass(generateAdapter = true)
 data class ProgressEpisode(
   val number: Int,
   val completed: Boolean,
@@ -42,6 +47,7 @@ data class ProgressEpisode(
   val collected_at: IsoTime? = null
 )
 
+@JsonClass(generateAdapter = true)
 data class LastNextEpisode(
   val season: Int,
   val number: Int,
@@ -16,6 +16,9 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class SyncResponse(
   val added: Success? = null,
   val existing: Success? = null,
@@ -23,6 +26,7 @@ data class SyncResponse(
   val not_found: Errors? = null
 )
 
+@JsonClass(generateAdapter = true)
 data class Success(
   val movies: Int? = null,
   val shows: Int? = null,
@@ -30,6 +34,7 @@ data class Success(
   val episodes: Int? = null
 )
 
+@JsonClass(generateAdapter = true)
 data class Errors(
   val movies: List<ErrorMovie>? = null,
   val shows: List<ErrorShow>? = null,
@@ -38,7 +43,11 @@ data class Errors(
   val ids: List<Int>? = null
 )
 
+@JsonClass(generateAdapter = true)
 data class ErrorShow(val ids: Ids)
+@JsonClass(generateAdapter = true)
 data class ErrorSeason(val ids: Ids)
+@JsonClass(generateAdapter = true)
 data class ErrorEpisode(val ids: Ids)
+@JsonClass(generateAdapter = true)
 data class ErrorMovie(val ids: Ids)
@@ -16,6 +16,9 @@
 
 package net.simonvt.cathode.api.entity
 
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 data class WatchedItem(
   val plays: Int? = null,
   val last_watched_at: IsoTime,
@@ -25,11 +28,13 @@ data class WatchedItem(
   val movie: Movie? = null
 )
 
+@JsonClass(generateAdapter = true)
 data class WatchedSeason(
   val number: Int,
   val episodes: List<WatchedEpisode>
 )
 
+@JsonClass(generateAdapter = true)
 data class WatchedEpisode(
   val number: Int,
   val plays: Int,
@@ -22,7 +22,8 @@ import com.squareup.moshi.ToJson
 enum class Extended constructor(val value: String) {
   FULL("full"),
   IMAGES("images"),
-  FULL_IMAGES("full,images");
+  FULL_IMAGES("full,images"),
+  FULL_EPISODES("full,episodes");
 
   override fun toString(): String {
     return value
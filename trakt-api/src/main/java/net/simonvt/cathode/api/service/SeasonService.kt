@@ -28,7 +28,8 @@ import retrofit2.http.Query
 interface SeasonService {
 
   /**
-   * Returns all seasons for a show including the number of episodes in each season.
+   * Returns all seasons for a show including the number of episodes in each season. Pass
+   * [Extended.FULL_EPISODES] to also include the episodes of every season.
    *
    * @param id Show trakt ID
    */
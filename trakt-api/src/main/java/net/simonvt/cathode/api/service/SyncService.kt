@@ -26,11 +26,13 @@ import net.simonvt.cathode.api.entity.RatingItem
 import net.simonvt.cathode.api.entity.SyncResponse
 import net.simonvt.cathode.api.entity.WatchedItem
 import net.simonvt.cathode.api.entity.WatchlistItem
+import okhttp3.ResponseBody
 import retrofit2.Call
 import retrofit2.http.Body
 import retrofit2.http.GET
 import retrofit2.http.POST
 import retrofit2.http.Path
+import retrofit2.http.Streaming
 
 interface SyncService {
 
@@ -39,10 +41,12 @@ interface SyncService {
    *
    *
    * Get all collected shows in a user's collection. A collected item indicates availability to
-   * watch digitally or on physical media.
+   * watch digitally or on physical media. The body is not buffered, and is read as a JSON array
+   * of [CollectionItem].
    */
+  @Streaming
   @GET("/sync/collection/shows")
-  fun getShowCollection(): Call<List<CollectionItem>>
+  fun streamShowCollection(): Call<ResponseBody>
 
   /**
    * **OAuth Required**
@@ -67,10 +71,12 @@ interface SyncService {
    * **OAuth Required**
    *
    *
-   * Return all shows a user has watched.
+   * Return all shows a user has watched. The body is not buffered, and is read as a JSON array
+   * of [WatchedItem].
    */
+  @Streaming
   @GET("/sync/watched/shows")
-  fun getWatchedShows(): Call<List<WatchedItem>>
+  fun streamWatchedShows(): Call<ResponseBody>
 
   /**
    * **OAuth Required**
@@ -103,10 +109,11 @@ interface SyncService {
    * **OAuth Required**
    *
    *
-   * Get a users ratings.
+   * Get a users ratings. The body is not buffered, and is read as a JSON array of [RatingItem].
    */
+  @Streaming
   @GET("/sync/ratings/episodes")
-  fun getEpisodeRatings(): Call<List<RatingItem>>
+  fun streamEpisodeRatings(): Call<ResponseBody>
 
   /**
    * **OAuth Required**
@@ -20,35 +20,121 @@ import java.text.DateFormat
 import java.text.ParseException
 import java.text.SimpleDateFormat
 import java.util.Calendar
-import java.util.Date
 import java.util.Locale
 import java.util.TimeZone
 
 object TimeUtils {
 
+  /**
+   * Parses timestamps in the formats returned by Trakt, `yyyy-MM-dd'T'HH:mm:ss'Z'` with or without
+   * fractional seconds. Anything else is handed to [SimpleDateFormat].
+   */
   @JvmStatic
   fun getMillis(iso: String?): Long {
     if (iso != null) {
-      val dateFormat: DateFormat
+      val millis = parseIso(iso)
+      if (millis != INVALID) {
+        return millis
+      }
+
+      return parseLenient(iso)
+    }
 
-      val length = iso.length
+    return 0L
+  }
 
-      if (length <= 20) {
-        dateFormat = SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US)
-      } else {
-        dateFormat = SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US)
+  private fun parseIso(iso: String): Long {
+    val length = iso.length
+    if (length < 20 || iso[4] != '-' || iso[7] != '-' || iso[10] != 'T' || iso[13] != ':' ||
+      iso[16] != ':' || iso[length - 1] != 'Z'
+    ) {
+      return INVALID
+    }
+
+    val year = digits(iso, 0, 4)
+    val month = digits(iso, 5, 2)
+    val day = digits(iso, 8, 2)
+    val hour = digits(iso, 11, 2)
+    val minute = digits(iso, 14, 2)
+    val second = digits(iso, 17, 2)
+    if (year < 0 || month !in 1..12 || day < 1 || day > daysInMonth(year, month) ||
+      hour !in 0..23 || minute !in 0..59 || second !in 0..59
+    ) {
+      return INVALID
+    }
+
+    var millis = 0
+    if (length > 20) {
+      val fractionDigits = length - 21
+      if (iso[19] != '.' || fractionDigits !in 1..9) {
+        return INVALID
+      }
+
+      for (i in 0 until 3) {
+        val digit = if (i < fractionDigits) iso[20 + i] - '0' else 0
+        if (digit !in 0..9) {
+          return INVALID
+        }
+        millis = millis * 10 + digit
       }
+      if (fractionDigits > 3 && digits(iso, 23, fractionDigits - 3) < 0) {
+        return INVALID
+      }
+    }
+
+    val days = daysFromCivil(year, month, day)
+    return ((days * 24L + hour) * 60L + minute) * 60_000L + second * 1000L + millis
+  }
+
+  private fun parseLenient(iso: String): Long {
+    val dateFormat: DateFormat
+
+    val length = iso.length
 
-      dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"))
+    if (length <= 20) {
+      dateFormat = SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US)
+    } else {
+      dateFormat = SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US)
+    }
+
+    dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"))
+
+    try {
+      return dateFormat.parse(iso).time
+    } catch (e: ParseException) {
+      throw IllegalArgumentException(e)
+    }
+  }
 
-      try {
-        return dateFormat.parse(iso).time
-      } catch (e: ParseException) {
-        throw IllegalArgumentException(e)
+  /** Returns the value of [count] digits starting at [start], or -1 if one is not a digit. */
+  private fun digits(s: String, start: Int, count: Int): Int {
+    var value = 0
+    for (i in start until start + count) {
+      val digit = s[i] - '0'
+      if (digit !in 0..9) {
+        return -1
       }
+      value = value * 10 + digit
     }
+    return value
+  }
 
-    return 0L
+  private fun isLeapYear(year: Int) = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)
+
+  private fun daysInMonth(year: Int, month: Int): Int = when (month) {
+    2 -> if (isLeapYear(year)) 29 else 28
+    4, 6, 9, 11 -> 30
+    else -> 31
+  }
+
+  /** Days since 1970-01-01 in the proleptic Gregorian calendar. */
+  private fun daysFromCivil(year: Int, month: Int, day: Int): Long {
+    val y = if (month <= 2) year - 1 else year
+    val era = (if (y >= 0) y else y - 399) / 400
+    val yearOfEra = y - era * 400
+    val dayOfYear = (153 * ((month + 9) % 12) + 2) / 5 + day - 1
+    val dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear
+    return era * 146097L + dayOfEra - 719468L
   }
 
   /**
@@ -70,10 +156,57 @@ object TimeUtils {
   @JvmStatic
   fun getIsoTime(): String = getIsoTime(System.currentTimeMillis())
 
+  /**
+   * Formats [millis] as `yyyy-MM-dd'T'HH:mm:ss.SSS'Z'` in UTC.
+   */
   @JvmStatic
   fun getIsoTime(millis: Long): String {
-    val dateFormat = SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US)
-    dateFormat.timeZone = TimeZone.getTimeZone("UTC")
-    return dateFormat.format(Date(millis))
+    var days = millis / MILLIS_PER_DAY
+    var millisOfDay = (millis % MILLIS_PER_DAY).toInt()
+    if (millisOfDay < 0) {
+      days--
+      millisOfDay += MILLIS_PER_DAY.toInt()
+    }
+
+    // Inverse of daysFromCivil.
+    val z = days + 719468L
+    val era = (if (z >= 0) z else z - 146096L) / 146097L
+    val dayOfEra = (z - era * 146097L).toInt()
+    val yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365
+    val dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100)
+    val mp = (5 * dayOfYear + 2) / 153
+    val day = dayOfYear - (153 * mp + 2) / 5 + 1
+    val month = if (mp < 10) mp + 3 else mp - 9
+    val year = (yearOfEra + era * 400 + if (month <= 2) 1 else 0).toInt()
+
+    val chars = CharArray(24)
+    write(chars, 0, year, 4)
+    chars[4] = '-'
+    write(chars, 5, month, 2)
+    chars[7] = '-'
+    write(chars, 8, day, 2)
+    chars[10] = 'T'
+    write(chars, 11, millisOfDay / 3_600_000, 2)
+    millisOfDay %= 3_600_000
+    chars[13] = ':'
+    write(chars, 14, millisOfDay / 60_000, 2)
+    millisOfDay %= 60_000
+    chars[16] = ':'
+    write(chars, 17, millisOfDay / 1000, 2)
+    chars[19] = '.'
+    write(chars, 20, millisOfDay % 1000, 3)
+    chars[23] = 'Z'
+    return String(chars)
   }
+
+  private fun write(chars: CharArray, start: Int, value: Int, count: Int) {
+    var remaining = value
+    for (i in start + count - 1 downTo start) {
+      chars[i] = '0' + remaining % 10
+      remaining /= 10
+    }
+  }
+
+  private const val INVALID = Long.MIN_VALUE
+  private const val MILLIS_PER_DAY = 86_400_000L
 }
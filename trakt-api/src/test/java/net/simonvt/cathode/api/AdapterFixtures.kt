@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.api
+
+import com.squareup.moshi.Moshi
+import java.lang.reflect.Type
+import java.net.URLClassLoader
+
+/**
+ * Test helpers for comparing the adapters generated by Moshi codegen with reflection.
+ */
+internal object AdapterFixtures {
+
+  /**
+   * A Moshi configured like [TraktModule.createMoshi], with the API classes loaded in a class
+   * loader that hides the generated adapters. KotlinJsonAdapterFactory only falls back to
+   * reflection when the generated adapter of a class can't be found.
+   */
+  class ReflectiveMoshi {
+
+    private val loader = HidingClassLoader()
+
+    val moshi = loader.loadClass(TraktModule::class.java.name)
+      .getMethod("createMoshi", Boolean::class.javaPrimitiveType)
+      .invoke(null, true) as Moshi
+
+    /**
+     * Returns [type] as loaded by the reflective Moshi.
+     */
+    fun type(type: Class<*>): Type = loader.loadClass(type.name)
+  }
+
+  private class HidingClassLoader : URLClassLoader(
+    arrayOf(TraktModule::class.java.protectionDomain!!.codeSource.location),
+    TraktModule::class.java.classLoader
+  ) {
+
+    override fun loadClass(name: String, resolve: Boolean): Class<*> {
+      if (!name.startsWith(API_PACKAGE)) {
+        return super.loadClass(name, resolve)
+      }
+      if (name.endsWith(GENERATED_ADAPTER_SUFFIX)) {
+        throw ClassNotFoundException(name)
+      }
+
+      synchronized(getClassLoadingLock(name)) {
+        val loaded = findLoadedClass(name) ?: try {
+          findClass(name)
+        } catch (e: ClassNotFoundException) {
+          // Compiled outside of the Kotlin output, like BuildConfig
+          return super.loadClass(name, resolve)
+        }
+        if (resolve) {
+          resolveClass(loaded)
+        }
+        return loaded
+      }
+    }
+  }
+
+  /**
+   * A /sync/watched/shows response with [shows] shows, each with [seasons] seasons of [episodes]
+   * episodes.
+   */
+  fun watchedShows(shows: Int, seasons: Int, episodes: Int): String {
+    return (1..shows).joinToString(",", "[", "]") { show ->
+      """{"plays":${seasons * episodes},"last_watched_at":"$TIME","last_updated_at":"$TIME",""" +
+        """"show":${show(show)},"seasons":""" +
+        (1..seasons).joinToString(",", "[", "]") { season ->
+          """{"number":$season,"episodes":""" +
+            (1..episodes).joinToString(",", "[", "]") { episode ->
+              """{"number":$episode,"plays":1,"last_watched_at":"$TIME"}"""
+            } + "}"
+        } + "}"
+    }
+  }
+
+  /**
+   * A /shows/{id}/seasons?extended=full,episodes response with [seasons] seasons of [episodes]
+   * episodes.
+   */
+  fun seasons(seasons: Int, episodes: Int): String {
+    return (1..seasons).joinToString(",", "[", "]") { season ->
+      """{"number":$season,"ids":${ids(season.toLong())},"rating":8.5,"votes":120,""" +
+        """"first_aired":"$TIME","network":"HBO","episodes":""" +
+        (1..episodes).joinToString(",", "[", "]") { episode ->
+          val id = season * 1000L + episode
+          """{"season":$season,"number":$episode,"title":"Episode $episode",""" +
+            """"ids":${ids(id)},"number_abs":null,"overview":"Overview of episode $episode",""" +
+            """"first_aired":"$TIME","updated_at":"$TIME","rating":7.9,"votes":42,""" +
+            """"available_translations":["en","de"]}"""
+        } + "}"
+    }
+  }
+
+  private fun show(id: Int): String {
+    return """{"title":"Show $id","year":2011,"ids":${ids(id.toLong())},""" +
+      """"overview":"Overview of show $id","first_aired":"$TIME",""" +
+      """"airs":{"day":"Sunday","time":"21:00","timezone":"America/New_York"},""" +
+      """"runtime":60,"certification":"TV-MA","network":"HBO","country":"us",""" +
+      """"updated_at":"$TIME","trailer":null,"homepage":"http://example.com",""" +
+      """"status":"returning series","rating":9.3,"votes":5000,"language":"en",""" +
+      """"available_translations":["en","de"],"genres":["drama","fantasy"]}"""
+  }
+
+  private fun ids(id: Long): String {
+    return """{"trakt":$id,"slug":"item-$id","tvdb":$id,"imdb":"tt$id","tmdb":$id,""" +
+      """"tvrage":null}"""
+  }
+
+  private const val API_PACKAGE = "net.simonvt.cathode.api."
+  private const val GENERATED_ADAPTER_SUFFIX = "JsonAdapter"
+  private const val TIME = "2020-01-01T00:00:00.000Z"
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.api
+
+import com.squareup.moshi.JsonAdapter
+import com.squareup.moshi.Moshi
+import com.squareup.moshi.Types
+import net.simonvt.cathode.api.AdapterFixtures.ReflectiveMoshi
+import net.simonvt.cathode.api.entity.Season
+import net.simonvt.cathode.api.entity.WatchedItem
+import okio.Buffer
+import org.junit.Test
+import java.lang.management.ManagementFactory
+import java.lang.reflect.Type
+
+/**
+ * Compares the generated adapters with KotlinJsonAdapterFactory reflection by parsing synthetic
+ * responses the size of a large library. Run with -Pbenchmarks and check the test output for throughput and allocation
+ * numbers.
+ */
+class EntityParsingBenchmark {
+
+  private val generated = TraktModule.createMoshi()
+  private val reflective = ReflectiveMoshi()
+
+  @Test
+  fun watchedShows() {
+    val json = AdapterFixtures.watchedShows(SHOWS, SEASONS, EPISODES)
+    compare(
+      "/sync/watched/shows",
+      json,
+      listAdapter(reflective.moshi, reflective.type(WatchedItem::class.java)),
+      listAdapter(generated, WatchedItem::class.java)
+    )
+  }
+
+  @Test
+  fun seasons() {
+    val json = AdapterFixtures.seasons(SEASONS, EPISODES)
+    compare(
+      "/shows/{id}/seasons",
+      json,
+      listAdapter(reflective.moshi, reflective.type(Season::class.java)),
+      listAdapter(generated, Season::class.java)
+    )
+  }
+
+  private fun compare(name: String, json: String, before: JsonAdapter<*>, after: JsonAdapter<*>) {
+    val reflection = measure(json, before)
+    val codegen = measure(json, after)
+    println(
+      String.format(
+        "%s: reflection %.0f ops/s, %d bytes/op; codegen %.0f ops/s, %d bytes/op",
+        name, reflection.opsPerSecond, reflection.bytesPerOp, codegen.opsPerSecond,
+        codegen.bytesPerOp
+      )
+    )
+  }
+
+  private fun measure(json: String, adapter: JsonAdapter<*>): Result {
+    val buffer = Buffer().writeUtf8(json)
+    repeat(WARMUP_ITERATIONS) { adapter.fromJson(buffer.clone()) }
+
+    val allocatedBefore = allocatedBytes()
+    val start = System.nanoTime()
+    repeat(ITERATIONS) { adapter.fromJson(buffer.clone()) }
+    val elapsed = System.nanoTime() - start
+    val allocated = allocatedBytes() - allocatedBefore
+
+    return Result(ITERATIONS * 1_000_000_000.0 / elapsed, allocated / ITERATIONS)
+  }
+
+  private fun allocatedBytes(): Long {
+    val bean = ManagementFactory.getThreadMXBean()
+    if (bean is com.sun.management.ThreadMXBean && bean.isThreadAllocatedMemorySupported) {
+      return bean.getThreadAllocatedBytes(Thread.currentThread().id)
+    }
+    return 0L
+  }
+
+  private fun listAdapter(moshi: Moshi, type: Type): JsonAdapter<List<Any>> =
+    moshi.adapter(Types.newParameterizedType(List::class.java, type))
+
+  private class Result(val opsPerSecond: Double, val bytesPerOp: Long)
+
+  companion object {
+    private const val SHOWS = 50
+    private const val SEASONS = 5
+    private const val EPISODES = 10
+
+    private const val WARMUP_ITERATIONS = 200
+    private const val ITERATIONS = 500
+  }
+}
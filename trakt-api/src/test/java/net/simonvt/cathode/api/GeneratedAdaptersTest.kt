@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.api
+
+import com.google.common.truth.Truth.assertThat
+import com.squareup.moshi.JsonAdapter
+import com.squareup.moshi.Moshi
+import com.squareup.moshi.Types
+import net.simonvt.cathode.api.AdapterFixtures.ReflectiveMoshi
+import net.simonvt.cathode.api.entity.Season
+import net.simonvt.cathode.api.entity.WatchedItem
+import org.junit.Test
+import java.lang.reflect.Type
+
+/**
+ * Checks that the generated adapters parse responses the same way KotlinJsonAdapterFactory
+ * reflection does.
+ */
+class GeneratedAdaptersTest {
+
+  private val generated = TraktModule.createMoshi()
+  private val reflective = ReflectiveMoshi()
+
+  @Test
+  fun generatedAdaptersMatchReflection() {
+    assertSameParse(AdapterFixtures.watchedShows(3, 2, 4), WatchedItem::class.java)
+    assertSameParse(AdapterFixtures.seasons(2, 4), Season::class.java)
+  }
+
+  @Test
+  fun entitiesHaveGeneratedAdapters() {
+    assertThat(generated.adapter(WatchedItem::class.java).toString())
+      .contains("GeneratedJsonAdapter(WatchedItem)")
+    assertThat(generated.adapter(Season::class.java).toString())
+      .contains("GeneratedJsonAdapter(Season)")
+  }
+
+  @Test
+  fun referenceUsesReflection() {
+    assertThat(reflective.moshi.adapter<Any>(reflective.type(WatchedItem::class.java)).toString())
+      .contains("KotlinJsonAdapter")
+    assertThat(reflective.moshi.adapter<Any>(reflective.type(Season::class.java)).toString())
+      .contains("KotlinJsonAdapter")
+  }
+
+  /**
+   * The entities of the two Moshis are loaded by different class loaders, and are compared by
+   * their data class string representation.
+   */
+  private fun assertSameParse(json: String, type: Type) {
+    val expected = listAdapter(reflective.moshi, reflective.type(type)).fromJson(json)
+    val actual = listAdapter(generated, type).fromJson(json)
+    assertThat(actual.toString()).isEqualTo(expected.toString())
+  }
+
+  private fun listAdapter(moshi: Moshi, type: Type): JsonAdapter<List<Any>> =
+    moshi.adapter(Types.newParameterizedType(List::class.java, type))
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2020 Simon Vig Therkildsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simonvt.cathode.api
+
+import com.google.common.truth.Truth.assertThat
+import okhttp3.Cache
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.RequestBody.Companion.toRequestBody
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.util.concurrent.TimeUnit
+
+class TraktRateLimiterTest {
+
+  @get:Rule
+  val temporaryFolder = TemporaryFolder()
+
+  private val server = MockWebServer()
+
+  private var now = 0L
+  private val sleeps = mutableListOf<Long>()
+  private val limiter = TraktRateLimiter({ now }, { nanos ->
+    sleeps.add(nanos)
+    now += nanos
+  })
+  private var client = OkHttpClient.Builder()
+    .addInterceptor(limiter)
+    .addNetworkInterceptor(limiter.networkInterceptor)
+    .build()
+
+  @Before
+  fun setup() {
+    server.start()
+  }
+
+  @After
+  fun tearDown() {
+    server.shutdown()
+  }
+
+  @Test
+  fun burstIsNotParked() {
+    repeat(10) { server.enqueue(MockResponse()) }
+    repeat(10) { get() }
+
+    assertThat(sleeps).isEmpty()
+    assertThat(limiter.readMetrics().permits).isEqualTo(10L)
+  }
+
+  @Test
+  fun readsAreParkedOnceBurstIsUsed() {
+    repeat(11) { server.enqueue(MockResponse()) }
+    repeat(11) { get() }
+
+    assertThat(sleeps).hasSize(1)
+    assertThat(sleeps[0]).isEqualTo(TimeUnit.MILLISECONDS.toNanos(300L))
+    assertThat(limiter.readMetrics().maxWaitMillis).isEqualTo(300L)
+  }
+
+  @Test
+  fun writesUseSeparateBucket() {
+    repeat(3) { server.enqueue(MockResponse()) }
+    get()
+    post()
+    post()
+
+    assertThat(sleeps).containsExactly(TimeUnit.SECONDS.toNanos(1L))
+    assertThat(limiter.readMetrics().totalWaitMillis).isEqualTo(0L)
+    assertThat(limiter.writeMetrics().totalWaitMillis).isEqualTo(1000L)
+  }
+
+  @Test
+  fun tooManyRequestsIsRetriedAfterRetryAfter() {
+    server.enqueue(MockResponse().setResponseCode(429).setHeader("Retry-After", "5"))
+    server.enqueue(MockResponse())
+
+    val code = get()
+
+    assertThat(code).isEqualTo(200)
+    assertThat(server.requestCount).isEqualTo(2)
+    assertThat(sleeps).containsExactly(TimeUnit.SECONDS.toNanos(5L))
+    assertThat(limiter.readMetrics().rateLimited).isEqualTo(1L)
+    assertThat(limiter.reads.rate()).isLessThan(1000.0 / 300.0)
+  }
+
+  @Test
+  fun tooManyRequestsIsReturnedAfterRetries() {
+    repeat(4) {
+      server.enqueue(MockResponse().setResponseCode(429).setHeader("Retry-After", "1"))
+    }
+
+    assertThat(get()).isEqualTo(429)
+    assertThat(server.requestCount).isEqualTo(4)
+  }
+
+  @Test
+  fun rateLimitHeaderLowersRate() {
+    server.enqueue(
+      MockResponse().setHeader(
+        "X-Ratelimit",
+        "{\"name\":\"UNAUTHED_API_GET_LIMIT\",\"period\":300,\"limit\":300,\"remaining\":0," +
+          "\"until\":\"2020-10-10T00:24:00Z\"}"
+      )
+    )
+    server.enqueue(MockResponse())
+    get()
+    get()
+
+    assertThat(limiter.reads.rate()).isEqualTo(1.0)
+    assertThat(sleeps).containsExactly(TimeUnit.SECONDS.toNanos(1L))
+  }
+
+  @Test
+  fun cachedResponsesDoNotUsePermits() {
+    client = client.newBuilder().cache(Cache(temporaryFolder.root, 1024L * 1024L)).build()
+    server.enqueue(MockResponse().setHeader("Cache-Control", "max-age=60"))
+
+    repeat(11) { assertThat(get()).isEqualTo(200) }
+
+    assertThat(server.requestCount).isEqualTo(1)
+    assertThat(sleeps).isEmpty()
+    assertThat(limiter.readMetrics().permits).isEqualTo(1L)
+  }
+
+  @Test
+  fun retryAfterParsing() {
+    assertThat(TraktRateLimiter.parseRetryAfter("2")).isEqualTo(TimeUnit.SECONDS.toNanos(2L))
+    assertThat(TraktRateLimiter.parseRetryAfter(null)).isEqualTo(TimeUnit.SECONDS.toNanos(1L))
+    assertThat(TraktRateLimiter.parseRetryAfter("soon")).isEqualTo(TimeUnit.SECONDS.toNanos(1L))
+  }
+
+  private fun get(): Int {
+    val request = Request.Builder().url(server.url("/")).build()
+    return client.newCall(request).execute().use { it.code }
+  }
+
+  private fun post(): Int {
+    val request = Request.Builder().url(server.url("/")).post("{}".toRequestBody()).build()
+    return client.newCall(request).execute().use { it.code }
+  }
+}
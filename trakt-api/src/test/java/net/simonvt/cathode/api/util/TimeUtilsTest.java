@@ -16,6 +16,10 @@
 
 package net.simonvt.cathode.api.util;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
 import java.util.TimeZone;
 import org.junit.Before;
 import org.junit.Test;
@@ -26,6 +30,14 @@ public class TimeUtilsTest {
 
   static final long DATE_MILLIS = 1000000000000L;
 
+  static final long MIN_FUZZ_MILLIS = -8520336000000L; // 1700-01-01
+  static final long MAX_FUZZ_MILLIS = 253402300799999L; // 9999-12-31T23:59:59.999
+
+  static final DateTimeFormatter FORMAT_MILLIS =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+  static final DateTimeFormatter FORMAT_SECONDS =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'").withZone(ZoneOffset.UTC);
+
   @Before public void setup() {
     TimeZone.setDefault(TimeZone.getTimeZone("Europe/Copenhagen"));
   }
@@ -35,6 +47,36 @@ public class TimeUtilsTest {
     assertThat(TimeUtils.getMillis("2001-09-09T01:46:40Z")).isEqualTo(DATE_MILLIS);
   }
 
+  @Test public void testDateParsingEdgeCases() throws Exception {
+    assertThat(TimeUtils.getMillis("1970-01-01T00:00:00.000Z")).isEqualTo(0L);
+    assertThat(TimeUtils.getMillis("1969-12-31T23:59:59.999Z")).isEqualTo(-1L);
+    assertThat(TimeUtils.getMillis("2020-02-29T12:00:00Z")).isEqualTo(1582977600000L);
+    assertThat(TimeUtils.getMillis("2001-09-09T01:46:40.5Z")).isEqualTo(DATE_MILLIS + 500L);
+    assertThat(TimeUtils.getMillis("2001-09-09T01:46:40.123456Z")).isEqualTo(DATE_MILLIS + 123L);
+    assertThat(TimeUtils.getMillis(null)).isEqualTo(0L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidDate() throws Exception {
+    TimeUtils.getMillis("not a date");
+  }
+
+  @Test public void testFuzzAgainstJavaTime() throws Exception {
+    Random random = new Random(42);
+    for (int i = 0; i < 100000; i++) {
+      long millis = MIN_FUZZ_MILLIS
+          + (long) (random.nextDouble() * (MAX_FUZZ_MILLIS - MIN_FUZZ_MILLIS));
+      Instant instant = Instant.ofEpochMilli(millis);
+
+      String withMillis = FORMAT_MILLIS.format(instant);
+      assertThat(TimeUtils.getMillis(withMillis)).isEqualTo(millis);
+      assertThat(TimeUtils.getIsoTime(millis)).isEqualTo(withMillis);
+
+      String withSeconds = FORMAT_SECONDS.format(instant);
+      assertThat(TimeUtils.getMillis(withSeconds)).isEqualTo(millis - Math.floorMod(millis, 1000L));
+    }
+  }
+
   @Test public void testIsoTime() throws Exception {
     String isoTime = TimeUtils.getIsoTime(DATE_MILLIS);
     assertThat(isoTime).isEqualTo("2001-09-09T01:46:40.000Z");